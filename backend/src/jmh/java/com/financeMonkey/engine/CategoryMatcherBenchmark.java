@@ -0,0 +1,82 @@
+package com.financeMonkey.engine;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the compiled keyword automaton with the previous per-call regex categorization.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CategoryMatcherBenchmark {
+
+    private static final String[][] LEGACY_PATTERNS = {
+        {"electricity|power|utility|gas|water|sewage|garbage|waste|internet|phone|cable|mortgage|rent|insurance|bill",
+            "verizon|at&t|comcast|xfinity|sprint|t-mobile|spectrum"},
+        {"restaurant|food|grocery|meal|dinner|lunch|breakfast|cafe|coffee|doordash|grubhub|ubereats|instacart",
+            "starbucks|mcdonald|chipotle|subway|taco|burger|pizza|deli|bakery"},
+        {"amazon|walmart|target|bestbuy|costco|ikea|clothing|shoes|electronics|purchase|store|shop|mall",
+            "ebay|etsy|wayfair|home depot|lowes|macys|nordstrom|purchase"},
+        {"movie|theatre|theater|netflix|hulu|disney|spotify|pandora|apple music|concert|ticket|game",
+            "cinema|amc|regal|fandango|entertainment|hbo|showtime|playstation|xbox|steam"},
+        {"uber|lyft|taxi|cab|train|subway|metro|bus|transport|fare|ticket|gas|fuel|parking",
+            "amtrak|transit|airline|flight|travel|car service|toll"},
+        {"hotel|airbnb|vrbo|motel|resort|booking|expedia|kayak|airline|flight|cruise|vacation",
+            "travelocity|orbitz|priceline|tripadvisor|delta|united|american airlines|southwest"},
+        {"doctor|hospital|clinic|pharmacy|medicine|medical|dental|vision|healthcare|health|cvs|walgreens",
+            "therapy|prescription|rite aid|urgent care|laboratory|lab"},
+        {"subscription|membership|recurring|monthly|plan|service|netflix|hulu|disney|spotify",
+            "apple|google|microsoft|adobe|zoom|amazon prime|youtube|hbo|audible"}
+    };
+
+    private static final String[][] TRANSACTIONS = {
+        {"Blue Bottle Coffee", "Card purchase 4821"},
+        {"SQ *JOES BARBER", "Haircut"},
+        {"Audible", "Audible monthly credit"},
+        {"PAYPAL *STEAMGAMES", "Digital download"},
+        {"Shell Oil 5732", ""},
+        {"Marriott Downtown", "Room charge 2 nights"},
+        {"Unknown Vendor", "Transaction from email"},
+        {"Acme Hosting Ltd", "Invoice INV-2024-0331"}
+    };
+
+    private KeywordAutomaton automaton;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        automaton = DefaultCategoryRules.compile();
+    }
+
+    @Benchmark
+    public int automaton() {
+        String[] transaction = nextTransaction();
+        int ruleId = automaton.bestMatch(transaction[0]);
+        return automaton.bestMatch(transaction[1], ruleId, null);
+    }
+
+    @Benchmark
+    public int legacyRegex() {
+        String[] transaction = nextTransaction();
+        String vendor = transaction[0].toLowerCase();
+        String description = transaction[1].toLowerCase();
+        for (int i = 0; i < LEGACY_PATTERNS.length; i++) {
+            for (String regex : LEGACY_PATTERNS[i]) {
+                Pattern pattern = Pattern.compile(regex);
+                if (pattern.matcher(vendor).find() || pattern.matcher(description).find()) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private String[] nextTransaction() {
+        String[] transaction = TRANSACTIONS[next];
+        next = next + 1 == TRANSACTIONS.length ? 0 : next + 1;
+        return transaction;
+    }
+}
@@ -0,0 +1,80 @@
+package com.financeMonkey.engine;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies one bulk write to a user's columns: a copy per row, as the store did before, against
+ * one copy for the whole write.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ColumnarSpendingBenchmark {
+
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+    private static final String[] VENDORS = {"Starbucks", "Amazon", "Costco", "Shell", "Netflix", "Uber", "Target"};
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    @Param({"1", "100", "1000"})
+    private int items;
+
+    private ColumnarSpending columns;
+    private List<ColumnarSpending.Row> removed;
+    private List<ColumnarSpending.Row> added;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        UUID[] categories = new UUID[20];
+        for (int i = 0; i < categories.length; i++) {
+            categories[i] = UUID.randomUUID();
+        }
+
+        List<ColumnarSpending.Row> existing = new ArrayList<>();
+        ColumnarSpending.Builder builder = ColumnarSpending.builder();
+        for (int i = 0; i < rows; i++) {
+            ColumnarSpending.Row row = row(random, categories);
+            existing.add(row);
+            builder.add(row);
+        }
+        columns = builder.build();
+
+        // An update per item: its old values out, new values in
+        removed = new ArrayList<>();
+        added = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            removed.add(existing.get(random.nextInt(rows)));
+            added.add(row(random, categories));
+        }
+    }
+
+    @Benchmark
+    public ColumnarSpending perRow() {
+        ColumnarSpending updated = columns;
+        for (int i = 0; i < items; i++) {
+            updated = updated.withoutRow(removed.get(i)).withRow(added.get(i));
+        }
+        return updated;
+    }
+
+    @Benchmark
+    public ColumnarSpending batched() {
+        return columns.withChanges(removed, added);
+    }
+
+    private static ColumnarSpending.Row row(Random random, UUID[] categories) {
+        return new ColumnarSpending.Row(START.plusDays(random.nextInt(1500)),
+                BigDecimal.valueOf(100 + random.nextInt(20000), 2),
+                categories[random.nextInt(categories.length)], VENDORS[random.nextInt(VENDORS.length)], "USD", false);
+    }
+}
@@ -0,0 +1,46 @@
+package com.financeMonkey.engine;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures amount extraction throughput over a corpus of real-world receipt and notification emails.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MoneyTokenizerBenchmark {
+
+    private String[] corpus;
+    private MoneyTokenizer.Match match;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        corpus = loadCorpus("/corpus/receipts.txt");
+        match = new MoneyTokenizer.Match();
+    }
+
+    @Benchmark
+    public void findBest(Blackhole blackhole) {
+        String email = corpus[next];
+        next = next + 1 == corpus.length ? 0 : next + 1;
+        MoneyTokenizer.findBest(email, match);
+        blackhole.consume(match.getUnscaled());
+    }
+
+    static String[] loadCorpus(String resource) throws IOException {
+        try (InputStream in = MoneyTokenizerBenchmark.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Missing benchmark corpus: " + resource);
+            }
+            String content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            return content.split("\\n----\\n");
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.financeMonkey.engine;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures per-vendor canonicalization latency; ingestion calls it once per transaction.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class VendorCanonicalizerBenchmark {
+
+    private static final String[] VENDORS = {
+        "AMZN Mktp US*2K3AB4", "Amazon.com", "SQ *Blue Bottle Coffee", "TST* Joe's Pizza #12",
+        "PAYPAL *NETFLIX", "WALMART SUPERCENTER 1234", "Starbucks Store 00123", "Acme Widgets, Inc.",
+        "UBER *TRIP", "The Corner Bakery"
+    };
+
+    private VendorCanonicalizer canonicalizer;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        canonicalizer = DefaultMerchants.compile();
+    }
+
+    @Benchmark
+    public String canonicalize() {
+        String vendor = VENDORS[next];
+        next = next + 1 == VENDORS.length ? 0 : next + 1;
+        return canonicalizer.canonicalize(vendor);
+    }
+}
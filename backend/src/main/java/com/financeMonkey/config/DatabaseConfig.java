@@ -108,6 +108,8 @@ public class DatabaseConfig {
             props.setProperty("connectTimeout", "10");
             props.setProperty("socketTimeout", "20");
             props.setProperty("tcpKeepAlive", "true");
+            // Lets the driver send a JDBC insert batch as multi-row INSERTs
+            props.setProperty("reWriteBatchedInserts", "true");
             config.setDataSourceProperties(props);
             
             logger.info("Creating HikariCP data source with connection pooling and retry");
@@ -0,0 +1,32 @@
+package com.financeMonkey.controller;
+
+import com.financeMonkey.service.AdminAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/analytics")
+@RequiredArgsConstructor
+public class AdminAnalyticsController {
+
+    private final AdminAnalyticsService adminAnalyticsService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getLatestSnapshot() {
+        return ResponseEntity.ok(adminAnalyticsService.getLatestSnapshot());
+    }
+
+    /**
+     * Recomputes the statistics across all users and returns the new snapshot
+     */
+    @PostMapping("/snapshots")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> computeSnapshot() {
+        return ResponseEntity.ok(adminAnalyticsService.computeSnapshot());
+    }
+}
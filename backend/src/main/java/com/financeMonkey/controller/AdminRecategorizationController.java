@@ -0,0 +1,40 @@
+package com.financeMonkey.controller;
+
+import com.financeMonkey.dto.RecategorizationJobDto;
+import com.financeMonkey.service.RecategorizationJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/admin/recategorization-jobs")
+@RequiredArgsConstructor
+public class AdminRecategorizationController {
+
+    private final RecategorizationJobService recategorizationJobService;
+
+    /**
+     * Starts re-categorizing every user's transactions
+     */
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RecategorizationJobDto> startJobForAllUsers() {
+        return new ResponseEntity<>(recategorizationJobService.startJobForAllUsers(), HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RecategorizationJobDto> getJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(recategorizationJobService.getJob(jobId));
+    }
+
+    @DeleteMapping("/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RecategorizationJobDto> cancelJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(recategorizationJobService.cancelJob(jobId));
+    }
+}
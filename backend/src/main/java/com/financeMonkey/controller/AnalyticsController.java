@@ -34,6 +34,40 @@ public class AnalyticsController {
         return ResponseEntity.ok(analyticsService.getSpendingSummary(token, startDate, endDate));
     }
 
+    @GetMapping("/compare")
+    public ResponseEntity<Map<String, Object>> getPeriodComparison(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime compareStartDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime compareEndDate) {
+        
+        String token = authHeader.substring(7);
+        return ResponseEntity.ok(analyticsService.getPeriodComparison(token, startDate, endDate,
+                compareStartDate, compareEndDate));
+    }
+
+    @GetMapping("/categories/rollup")
+    public ResponseEntity<Map<String, Object>> getCategoryRollup(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        
+        String token = authHeader.substring(7);
+        return ResponseEntity.ok(analyticsService.getCategoryRollup(token, startDate, endDate));
+    }
+
+    @GetMapping("/vendors")
+    public ResponseEntity<Map<String, Object>> getTopVendors(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        String token = authHeader.substring(7);
+        return ResponseEntity.ok(analyticsService.getTopVendors(token, startDate, endDate, limit));
+    }
+
     @GetMapping("/monthly-trends")
     public ResponseEntity<Map<String, Object>> getMonthlyTrends(
             @RequestHeader("Authorization") String authHeader,
@@ -42,4 +76,30 @@ public class AnalyticsController {
         String token = authHeader.substring(7);
         return ResponseEntity.ok(analyticsService.getMonthlyTrends(token, months));
     }
+
+    @GetMapping("/forecast")
+    public ResponseEntity<Map<String, Object>> getForecast(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam(defaultValue = "3") int months) {
+        
+        String token = authHeader.substring(7);
+        return ResponseEntity.ok(analyticsService.getForecast(token, months));
+    }
+
+    @GetMapping("/reporting-currency")
+    public ResponseEntity<Map<String, Object>> getReportingCurrency(
+            @RequestHeader("Authorization") String authHeader) {
+        
+        String token = authHeader.substring(7);
+        return ResponseEntity.ok(analyticsService.getReportingCurrency(token));
+    }
+
+    @PutMapping("/reporting-currency")
+    public ResponseEntity<Map<String, Object>> setReportingCurrency(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam String currency) {
+        
+        String token = authHeader.substring(7);
+        return ResponseEntity.ok(analyticsService.setReportingCurrency(token, currency));
+    }
 }
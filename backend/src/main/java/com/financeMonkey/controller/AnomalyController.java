@@ -0,0 +1,37 @@
+package com.financeMonkey.controller;
+
+import com.financeMonkey.service.AnomalyService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/transactions/anomalies")
+@RequiredArgsConstructor
+public class AnomalyController {
+
+    private final AnomalyService anomalyService;
+
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> getAnomalies(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam(defaultValue = "50") int limit) {
+        
+        String token = authHeader.substring(7);
+        return ResponseEntity.ok(anomalyService.getAnomalies(token, limit));
+    }
+
+    @PostMapping("/{id}/dismiss")
+    public ResponseEntity<Void> dismissAnomaly(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable UUID id) {
+        
+        String token = authHeader.substring(7);
+        anomalyService.dismissAnomaly(token, id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.financeMonkey.controller;
+
+import com.financeMonkey.dto.BudgetDto;
+import com.financeMonkey.service.BudgetService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/transactions/budgets")
+@RequiredArgsConstructor
+public class BudgetController {
+
+    private final BudgetService budgetService;
+
+    @GetMapping
+    public ResponseEntity<List<BudgetDto>> getUserBudgets(
+            @RequestHeader("Authorization") String authHeader) {
+        
+        String token = authHeader.substring(7);
+        return ResponseEntity.ok(budgetService.getUserBudgets(token));
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<List<Map<String, Object>>> getBudgetStatus(
+            @RequestHeader("Authorization") String authHeader) {
+        
+        String token = authHeader.substring(7);
+        return ResponseEntity.ok(budgetService.getBudgetStatus(token));
+    }
+
+    @GetMapping("/alerts")
+    public ResponseEntity<List<Map<String, Object>>> getAlerts(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam(defaultValue = "50") int limit) {
+        
+        String token = authHeader.substring(7);
+        return ResponseEntity.ok(budgetService.getAlerts(token, limit));
+    }
+
+    @PostMapping("/alerts/{alertId}/dismiss")
+    public ResponseEntity<Void> dismissAlert(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable UUID alertId) {
+        
+        String token = authHeader.substring(7);
+        budgetService.dismissAlert(token, alertId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping
+    public ResponseEntity<BudgetDto> createBudget(
+            @RequestHeader("Authorization") String authHeader,
+            @Valid @RequestBody BudgetDto budgetDto) {
+        
+        String token = authHeader.substring(7);
+        return new ResponseEntity<>(budgetService.createBudget(token, budgetDto), HttpStatus.CREATED);
+    }
+
+    @PutMapping("/{budgetId}")
+    public ResponseEntity<BudgetDto> updateBudget(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable UUID budgetId,
+            @Valid @RequestBody BudgetDto budgetDto) {
+        
+        String token = authHeader.substring(7);
+        return ResponseEntity.ok(budgetService.updateBudget(token, budgetId, budgetDto));
+    }
+
+    @DeleteMapping("/{budgetId}")
+    public ResponseEntity<Void> deleteBudget(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable UUID budgetId) {
+        
+        String token = authHeader.substring(7);
+        budgetService.deleteBudget(token, budgetId);
+        return ResponseEntity.noContent().build();
+    }
+}
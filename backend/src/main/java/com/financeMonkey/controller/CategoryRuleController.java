@@ -0,0 +1,57 @@
+package com.financeMonkey.controller;
+
+import com.financeMonkey.dto.CategoryRuleDto;
+import com.financeMonkey.service.CategoryRuleService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/transactions/categories/rules")
+@RequiredArgsConstructor
+public class CategoryRuleController {
+
+    private final CategoryRuleService categoryRuleService;
+
+    @GetMapping
+    public ResponseEntity<List<CategoryRuleDto>> getUserRules(
+            @RequestHeader("Authorization") String authHeader) {
+        
+        String token = authHeader.substring(7);
+        return ResponseEntity.ok(categoryRuleService.getUserRules(token));
+    }
+
+    @PostMapping
+    public ResponseEntity<CategoryRuleDto> createRule(
+            @RequestHeader("Authorization") String authHeader,
+            @Valid @RequestBody CategoryRuleDto ruleDto) {
+        
+        String token = authHeader.substring(7);
+        return new ResponseEntity<>(categoryRuleService.createRule(token, ruleDto), HttpStatus.CREATED);
+    }
+
+    @PutMapping("/{ruleId}")
+    public ResponseEntity<CategoryRuleDto> updateRule(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable UUID ruleId,
+            @Valid @RequestBody CategoryRuleDto ruleDto) {
+        
+        String token = authHeader.substring(7);
+        return ResponseEntity.ok(categoryRuleService.updateRule(token, ruleId, ruleDto));
+    }
+
+    @DeleteMapping("/{ruleId}")
+    public ResponseEntity<Void> deleteRule(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable UUID ruleId) {
+        
+        String token = authHeader.substring(7);
+        categoryRuleService.deleteRule(token, ruleId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,44 @@
+package com.financeMonkey.controller;
+
+import com.financeMonkey.dto.RecategorizationJobDto;
+import com.financeMonkey.service.RecategorizationJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/transactions/categories/recategorization-jobs")
+@RequiredArgsConstructor
+public class RecategorizationController {
+
+    private final RecategorizationJobService recategorizationJobService;
+
+    @PostMapping
+    public ResponseEntity<RecategorizationJobDto> startJob(
+            @RequestHeader("Authorization") String authHeader) {
+        
+        String token = authHeader.substring(7);
+        return new ResponseEntity<>(recategorizationJobService.startJob(token), HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<RecategorizationJobDto> getJob(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable UUID jobId) {
+        
+        String token = authHeader.substring(7);
+        return ResponseEntity.ok(recategorizationJobService.getJob(token, jobId));
+    }
+
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<RecategorizationJobDto> cancelJob(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable UUID jobId) {
+        
+        String token = authHeader.substring(7);
+        return ResponseEntity.ok(recategorizationJobService.cancelJob(token, jobId));
+    }
+}
@@ -0,0 +1,33 @@
+package com.financeMonkey.controller;
+
+import com.financeMonkey.service.RecurrenceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/transactions/recurring")
+@RequiredArgsConstructor
+public class RecurrenceController {
+
+    private final RecurrenceService recurrenceService;
+
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> getRecurringSeries(
+            @RequestHeader("Authorization") String authHeader) {
+        
+        String token = authHeader.substring(7);
+        return ResponseEntity.ok(recurrenceService.getRecurringSeries(token));
+    }
+
+    @PostMapping("/detect")
+    public ResponseEntity<Map<String, Object>> detectRecurring(
+            @RequestHeader("Authorization") String authHeader) {
+        
+        String token = authHeader.substring(7);
+        return ResponseEntity.ok(recurrenceService.detectForUser(token));
+    }
+}
@@ -1,15 +1,23 @@
 package com.financeMonkey.controller;
 
+import com.financeMonkey.dto.BulkWriteResultDto;
+import com.financeMonkey.dto.TransactionCursorPageDto;
 import com.financeMonkey.dto.TransactionDto;
+import com.financeMonkey.service.BulkTransactionService;
+import com.financeMonkey.service.TransactionExportService;
 import com.financeMonkey.service.TransactionService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -18,6 +26,8 @@ import java.util.UUID;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final BulkTransactionService bulkTransactionService;
+    private final TransactionExportService transactionExportService;
 
     @GetMapping
     public ResponseEntity<Page<TransactionDto>> getUserTransactions(
@@ -35,6 +45,45 @@ public class TransactionController {
         }
     }
 
+    /**
+     * Newest-first listing paged by cursor: pass the returned nextCursor to get the next page.
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<TransactionCursorPageDto> getUserTransactionsPage(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        
+        String token = authHeader.substring(7);
+        return ResponseEntity.ok(transactionService.getUserTransactionsPage(token, startDate, endDate, cursor, limit));
+    }
+
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportTransactions(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletResponse response) {
+        
+        String token = authHeader.substring(7);
+        TransactionExportService.Format exportFormat = TransactionExportService.Format.parse(format);
+        TransactionExportService.Export export = transactionExportService.startExport(token, exportFormat);
+        response.setHeader(HttpHeaders.CONTENT_TYPE, exportFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"transactions." + exportFormat.getExtension() + "\"");
+
+        // The export's own timeout, rather than raising the default for every async request
+        WebAsyncTask<Void> task = new WebAsyncTask<>(transactionExportService.getTimeoutMillis(), () -> {
+            try (export) {
+                export.writeTo(response.getOutputStream());
+            }
+            return null;
+        });
+        task.onCompletion(export::close);
+        return task;
+    }
+
     @GetMapping("/{transactionId}")
     public ResponseEntity<TransactionDto> getTransactionById(
             @RequestHeader("Authorization") String authHeader,
@@ -72,4 +121,31 @@ public class TransactionController {
         String token = authHeader.substring(7);
         return ResponseEntity.ok(transactionService.createTransaction(token, transactionDto));
     }
+
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkWriteResultDto> createTransactions(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestBody List<TransactionDto> transactionDtos) {
+
+        String token = authHeader.substring(7);
+        return ResponseEntity.ok(bulkTransactionService.createTransactions(token, transactionDtos));
+    }
+
+    @PutMapping("/bulk")
+    public ResponseEntity<BulkWriteResultDto> updateTransactions(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestBody List<TransactionDto> transactionDtos) {
+
+        String token = authHeader.substring(7);
+        return ResponseEntity.ok(bulkTransactionService.updateTransactions(token, transactionDtos));
+    }
+
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<BulkWriteResultDto> deleteTransactions(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestBody List<UUID> transactionIds) {
+
+        String token = authHeader.substring(7);
+        return ResponseEntity.ok(bulkTransactionService.deleteTransactions(token, transactionIds));
+    }
 }
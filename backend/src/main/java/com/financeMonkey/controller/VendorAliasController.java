@@ -0,0 +1,46 @@
+package com.financeMonkey.controller;
+
+import com.financeMonkey.dto.VendorAliasDto;
+import com.financeMonkey.service.VendorCanonicalizationService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/transactions/vendors/aliases")
+@RequiredArgsConstructor
+public class VendorAliasController {
+
+    private final VendorCanonicalizationService vendorCanonicalizationService;
+
+    @GetMapping
+    public ResponseEntity<List<VendorAliasDto>> getUserAliases(
+            @RequestHeader("Authorization") String authHeader) {
+        
+        String token = authHeader.substring(7);
+        return ResponseEntity.ok(vendorCanonicalizationService.getUserAliases(token));
+    }
+
+    @PutMapping
+    public ResponseEntity<VendorAliasDto> saveAlias(
+            @RequestHeader("Authorization") String authHeader,
+            @Valid @RequestBody VendorAliasDto aliasDto) {
+        
+        String token = authHeader.substring(7);
+        return ResponseEntity.ok(vendorCanonicalizationService.saveAlias(token, aliasDto));
+    }
+
+    @DeleteMapping("/{aliasId}")
+    public ResponseEntity<Void> deleteAlias(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable UUID aliasId) {
+        
+        String token = authHeader.substring(7);
+        vendorCanonicalizationService.deleteAlias(token, aliasId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.financeMonkey.dto;
+
+import com.financeMonkey.model.Budget;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BudgetDto {
+    private UUID id;
+    
+    // Null for a budget on all spending
+    private UUID categoryId;
+    private String categoryName;
+    
+    @NotNull(message = "Period is required")
+    private Budget.Period period;
+    
+    @NotNull(message = "Limit is required")
+    @DecimalMin(value = "0.01", message = "Limit must be positive")
+    private BigDecimal limitAmount;
+    
+    // Defaults to the user's reporting currency
+    private String currency;
+    
+    public static BudgetDto fromEntity(Budget budget) {
+        return BudgetDto.builder()
+                .id(budget.getId())
+                .categoryId(budget.getCategory() != null ? budget.getCategory().getId() : null)
+                .categoryName(budget.getCategory() != null ? budget.getCategory().getName() : null)
+                .period(budget.getPeriod())
+                .limitAmount(budget.getLimitAmount())
+                .currency(budget.getCurrency())
+                .build();
+    }
+}
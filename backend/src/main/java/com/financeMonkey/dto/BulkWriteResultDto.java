@@ -0,0 +1,41 @@
+package com.financeMonkey.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outcome of a bulk write: one item per request item, in request order.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkWriteResultDto {
+    private int succeeded;
+    private int failed;
+    private List<Item> results;
+
+    public enum Status {
+        CREATED, UPDATED, DELETED, INVALID, NOT_FOUND, FORBIDDEN
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private int index;
+        private UUID id;
+        private Status status;
+        private String error;
+
+        public boolean isSuccess() {
+            return status == Status.CREATED || status == Status.UPDATED || status == Status.DELETED;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.financeMonkey.dto;
+
+import com.financeMonkey.model.CategoryRule;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryRuleDto {
+    private UUID id;
+    
+    @NotNull(message = "Category is required")
+    private UUID categoryId;
+    
+    @NotNull(message = "Match type is required")
+    private CategoryRule.MatchType matchType;
+    
+    private String pattern;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private Integer priority;
+    private Boolean enabled;
+    
+    public static CategoryRuleDto fromEntity(CategoryRule rule) {
+        return CategoryRuleDto.builder()
+                .id(rule.getId())
+                .categoryId(rule.getCategory().getId())
+                .matchType(rule.getMatchType())
+                .pattern(rule.getPattern())
+                .minAmount(rule.getMinAmount())
+                .maxAmount(rule.getMaxAmount())
+                .priority(rule.getPriority())
+                .enabled(rule.isEnabled())
+                .build();
+    }
+}
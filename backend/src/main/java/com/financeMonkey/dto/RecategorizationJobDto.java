@@ -0,0 +1,44 @@
+package com.financeMonkey.dto;
+
+import com.financeMonkey.model.RecategorizationJob;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecategorizationJobDto {
+    private UUID id;
+    private String status;
+    private long totalCount;
+    private long scannedCount;
+    private long updatedCount;
+    private int progressPercent;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    
+    public static RecategorizationJobDto fromEntity(RecategorizationJob job) {
+        int progress = job.getTotalCount() > 0
+                ? (int) Math.min(100, job.getScannedCount() * 100 / job.getTotalCount())
+                : (job.isActive() ? 0 : 100);
+        
+        return RecategorizationJobDto.builder()
+                .id(job.getId())
+                .status(job.getStatus().name())
+                .totalCount(job.getTotalCount())
+                .scannedCount(job.getScannedCount())
+                .updatedCount(job.getUpdatedCount())
+                .progressPercent(progress)
+                .errorMessage(job.getErrorMessage())
+                .createdAt(job.getCreatedAt())
+                .completedAt(job.getCompletedAt())
+                .build();
+    }
+}
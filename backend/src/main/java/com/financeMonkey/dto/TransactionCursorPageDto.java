@@ -0,0 +1,21 @@
+package com.financeMonkey.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a cursor-paginated listing; pass {@code nextCursor} back to get the next page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionCursorPageDto {
+    private List<TransactionDto> content;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -1,6 +1,7 @@
 package com.financeMonkey.dto;
 
 import com.financeMonkey.model.Transaction;
+import com.financeMonkey.repository.projection.TransactionListItem;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,6 +21,7 @@ public class TransactionDto {
     private BigDecimal amount;
     private String currency;
     private String vendor;
+    private String canonicalVendor;
     private UUID categoryId;
     private String categoryName;
     private String description;
@@ -34,6 +36,7 @@ public class TransactionDto {
                 .amount(transaction.getAmount())
                 .currency(transaction.getCurrency())
                 .vendor(transaction.getVendor())
+                .canonicalVendor(transaction.getCanonicalVendor())
                 .description(transaction.getDescription())
                 .recurring(transaction.isRecurring())
                 .recurrencePattern(transaction.getRecurrencePattern())
@@ -47,4 +50,21 @@ public class TransactionDto {
         
         return dto;
     }
+    
+    public static TransactionDto fromListItem(TransactionListItem item) {
+        return TransactionDto.builder()
+                .id(item.getId())
+                .transactionDate(item.getTransactionDate())
+                .amount(item.getAmount())
+                .currency(item.getCurrency())
+                .vendor(item.getVendor())
+                .canonicalVendor(item.getCanonicalVendor())
+                .categoryId(item.getCategoryId())
+                .categoryName(item.getCategoryName())
+                .description(item.getDescription())
+                .recurring(item.isRecurring())
+                .recurrencePattern(item.getRecurrencePattern())
+                .status(item.getStatus().name())
+                .build();
+    }
 }
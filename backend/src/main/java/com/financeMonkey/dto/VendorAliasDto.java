@@ -0,0 +1,35 @@
+package com.financeMonkey.dto;
+
+import com.financeMonkey.model.VendorAlias;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VendorAliasDto {
+    private UUID id;
+    
+    @NotBlank(message = "Alias is required")
+    @Size(max = 255, message = "Alias must be at most 255 characters")
+    private String alias;
+    
+    @NotBlank(message = "Canonical vendor is required")
+    @Size(max = 255, message = "Canonical vendor must be at most 255 characters")
+    private String canonicalVendor;
+    
+    public static VendorAliasDto fromEntity(VendorAlias vendorAlias) {
+        return VendorAliasDto.builder()
+                .id(vendorAlias.getId())
+                .alias(vendorAlias.getAliasKey())
+                .canonicalVendor(vendorAlias.getCanonicalVendor())
+                .build();
+    }
+}
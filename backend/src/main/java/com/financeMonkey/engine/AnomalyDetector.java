@@ -0,0 +1,93 @@
+package com.financeMonkey.engine;
+
+/**
+ * Scores one new transaction against the running statistics of its vendor and category.
+ *
+ * A transaction is a {@link Type#DUPLICATE} when its vendor charged the same amount within
+ * {@link #DUPLICATE_WINDOW_DAYS} days. Otherwise it is a {@link Type#VENDOR_SPIKE} when it lies
+ * {@link #MIN_SCORE} or more standard deviations above its vendor's mean, and, for a vendor with
+ * too little history of its own, a {@link Type#CATEGORY_SPIKE} when it does so against its
+ * category. The standard deviation is taken as at least {@link #MIN_SPREAD} of the mean, so a
+ * fixed-price subscription is flagged for a price jump but not for a rounding difference.
+ */
+public final class AnomalyDetector {
+
+    public static final int MIN_OBSERVATIONS = 5;
+    public static final int DUPLICATE_WINDOW_DAYS = 2;
+    public static final double MIN_SCORE = 4;
+    public static final double MIN_SPREAD = 0.1;
+
+    private static final double SAME_AMOUNT = 0.005;
+
+    public enum Type {
+        DUPLICATE, VENDOR_SPIKE, CATEGORY_SPIKE
+    }
+
+    private AnomalyDetector() {
+    }
+
+    /**
+     * Returns what is unusual about a positive amount seen on the given epoch day, or null if
+     * nothing is. Either statistics may be null or empty when there is no history yet.
+     */
+    public static Finding detect(RunningStats vendor, RunningStats category, double amount, int epochDay) {
+        if (vendor != null && vendor.getCount() > 0
+                && Math.abs(vendor.getLastAmount() - amount) < SAME_AMOUNT
+                && Math.abs(epochDay - vendor.getLastDay()) <= DUPLICATE_WINDOW_DAYS) {
+            return new Finding(Type.DUPLICATE, vendor.getLastAmount(), null);
+        }
+
+        if (vendor != null && vendor.getCount() >= MIN_OBSERVATIONS) {
+            double score = score(vendor, amount);
+            return score >= MIN_SCORE ? new Finding(Type.VENDOR_SPIKE, vendor.getMean(), score) : null;
+        }
+
+        if (category != null && category.getCount() >= MIN_OBSERVATIONS) {
+            double score = score(category, amount);
+            return score >= MIN_SCORE ? new Finding(Type.CATEGORY_SPIKE, category.getMean(), score) : null;
+        }
+        return null;
+    }
+
+    /**
+     * Standard deviations above the mean, with the deviation floored at {@link #MIN_SPREAD} of the mean.
+     */
+    static double score(RunningStats stats, double amount) {
+        double spread = Math.max(stats.getStandardDeviation(), Math.abs(stats.getMean()) * MIN_SPREAD);
+        if (spread == 0) {
+            return 0;
+        }
+        return (amount - stats.getMean()) / spread;
+    }
+
+    /**
+     * What was found: the kind of anomaly, the amount that was expected instead, and for spikes
+     * how many standard deviations above it the amount lies.
+     */
+    public static final class Finding {
+        private final Type type;
+        private final double expectedAmount;
+        private final Double score;
+
+        private Finding(Type type, double expectedAmount, Double score) {
+            this.type = type;
+            this.expectedAmount = expectedAmount;
+            this.score = score;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public double getExpectedAmount() {
+            return expectedAmount;
+        }
+
+        /**
+         * Null for duplicates.
+         */
+        public Double getScore() {
+            return score;
+        }
+    }
+}
@@ -0,0 +1,522 @@
+package com.financeMonkey.engine;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * One user's transactions as parallel primitive columns sorted by day: epoch day, amount as a
+ * fixed-point long at {@link #AMOUNT_SCALE}, and dictionary indexes for category, vendor and
+ * currency. Range queries binary-search the day column and aggregate in a single loop over
+ * the slice, with no boxing and no per-row objects.
+ *
+ * Instances are immutable and safe to share; {@link #withRow}, {@link #withoutRow} and
+ * {@link #withChanges} return updated copies. Rows have no identity: removing a row removes any row with the same values,
+ * which leaves every aggregate exactly as removing the original would.
+ */
+public final class ColumnarSpending {
+
+    /**
+     * Amounts are stored in units of 10^-4, matching the precision of the amount column.
+     */
+    public static final int AMOUNT_SCALE = 4;
+
+    private static final short UNCATEGORIZED = 0;
+    private static final int NO_VENDOR = -1;
+
+    private final int size;
+    private final int[] days;
+    private final long[] amounts;
+    private final short[] categories;
+    private final int[] vendors;
+    private final short[] currencies;
+    private final boolean[] recurring;
+    private final int recurringCount;
+
+    private final UUID[] categoryIds;
+    private final String[] vendorNames;
+    private final String[] currencyCodes;
+
+    private ColumnarSpending(int size, int[] days, long[] amounts, short[] categories, int[] vendors,
+                             short[] currencies, boolean[] recurring, UUID[] categoryIds,
+                             String[] vendorNames, String[] currencyCodes) {
+        this.size = size;
+        this.days = days;
+        this.amounts = amounts;
+        this.categories = categories;
+        this.vendors = vendors;
+        this.currencies = currencies;
+        this.recurring = recurring;
+        this.categoryIds = categoryIds;
+        this.vendorNames = vendorNames;
+        this.currencyCodes = currencyCodes;
+
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (recurring[i]) {
+                count++;
+            }
+        }
+        this.recurringCount = count;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static long toUnscaled(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(AMOUNT_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toAmount(long unscaled) {
+        return BigDecimal.valueOf(unscaled, AMOUNT_SCALE);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getRecurringCount() {
+        return recurringCount;
+    }
+
+    /**
+     * Sum of amounts on days {@code [startDay, endDay)}, as a fixed-point long.
+     */
+    public long sum(LocalDate startDay, LocalDate endDay) {
+        int end = lowerBound((int) endDay.toEpochDay());
+        long total = 0;
+        for (int i = lowerBound((int) startDay.toEpochDay()); i < end; i++) {
+            total += amounts[i];
+        }
+        return total;
+    }
+
+    /**
+     * Calls the consumer once per (day, category, currency) with spending on days
+     * {@code [startDay, endDay)}, and the part of it from recurring transactions, in day order.
+     */
+    public void forEachDayAndCategory(LocalDate startDay, LocalDate endDay, DayCategoryConsumer consumer) {
+        int end = lowerBound((int) endDay.toEpochDay());
+        int currencyCount = currencyCodes.length;
+        int groupCount = categoryIds.length * currencyCount;
+        long[] dayAmounts = new long[groupCount];
+        long[] dayCounts = new long[groupCount];
+        long[] dayRecurring = new long[groupCount];
+        int[] touched = new int[groupCount];
+
+        int i = lowerBound((int) startDay.toEpochDay());
+        while (i < end) {
+            int day = days[i];
+            int touchedCount = 0;
+            for (; i < end && days[i] == day; i++) {
+                int group = categories[i] * currencyCount + currencies[i];
+                if (dayCounts[group]++ == 0) {
+                    touched[touchedCount++] = group;
+                }
+                dayAmounts[group] += amounts[i];
+                if (recurring[i]) {
+                    dayRecurring[group] += amounts[i];
+                }
+            }
+            for (int t = 0; t < touchedCount; t++) {
+                int group = touched[t];
+                consumer.accept(day, categoryIds[group / currencyCount], currencyCodes[group % currencyCount],
+                        dayAmounts[group], dayCounts[group], dayRecurring[group]);
+                dayAmounts[group] = 0;
+                dayCounts[group] = 0;
+                dayRecurring[group] = 0;
+            }
+        }
+    }
+
+    /**
+     * Sum and count per vendor on days {@code [startDay, endDay)}; transactions without a vendor
+     * are left out.
+     */
+    public void forEachVendor(LocalDate startDay, LocalDate endDay, VendorConsumer consumer) {
+        int end = lowerBound((int) endDay.toEpochDay());
+        long[] vendorAmounts = new long[vendorNames.length];
+        long[] vendorCounts = new long[vendorNames.length];
+        for (int i = lowerBound((int) startDay.toEpochDay()); i < end; i++) {
+            int vendor = vendors[i];
+            if (vendor != NO_VENDOR) {
+                vendorAmounts[vendor] += amounts[i];
+                vendorCounts[vendor]++;
+            }
+        }
+        for (int v = 0; v < vendorNames.length; v++) {
+            if (vendorCounts[v] > 0) {
+                consumer.accept(vendorNames[v], vendorAmounts[v], vendorCounts[v]);
+            }
+        }
+    }
+
+    /**
+     * Returns a copy with the row added.
+     */
+    public ColumnarSpending withRow(Row row) {
+        UUID[] newCategoryIds = categoryIds;
+        int category = indexOf(categoryIds, row.categoryId);
+        if (category < 0) {
+            category = categoryIds.length;
+            if (category > Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many categories for one user");
+            }
+            newCategoryIds = Arrays.copyOf(categoryIds, category + 1);
+            newCategoryIds[category] = row.categoryId;
+        }
+        String[] newVendorNames = vendorNames;
+        int vendor = NO_VENDOR;
+        if (row.vendor != null) {
+            vendor = indexOf(vendorNames, row.vendor);
+            if (vendor < 0) {
+                vendor = vendorNames.length;
+                newVendorNames = Arrays.copyOf(vendorNames, vendor + 1);
+                newVendorNames[vendor] = row.vendor;
+            }
+        }
+        String[] newCurrencyCodes = currencyCodes;
+        int currency = indexOf(currencyCodes, row.currency);
+        if (currency < 0) {
+            currency = currencyCodes.length;
+            newCurrencyCodes = Arrays.copyOf(currencyCodes, currency + 1);
+            newCurrencyCodes[currency] = row.currency;
+        }
+
+        // After any rows on the same day, so insertion order is kept within a day
+        int at = lowerBound(row.day + 1);
+        int newSize = size + 1;
+        int[] newDays = insert(days, at, row.day);
+        long[] newAmounts = new long[newSize];
+        System.arraycopy(amounts, 0, newAmounts, 0, at);
+        System.arraycopy(amounts, at, newAmounts, at + 1, size - at);
+        newAmounts[at] = row.amount;
+        short[] newCategories = insert(categories, at, (short) category);
+        int[] newVendors = insert(vendors, at, vendor);
+        short[] newCurrencies = insert(currencies, at, (short) currency);
+        boolean[] newRecurring = new boolean[newSize];
+        System.arraycopy(recurring, 0, newRecurring, 0, at);
+        System.arraycopy(recurring, at, newRecurring, at + 1, size - at);
+        newRecurring[at] = row.recurring;
+
+        return new ColumnarSpending(newSize, newDays, newAmounts, newCategories, newVendors, newCurrencies,
+                newRecurring, newCategoryIds, newVendorNames, newCurrencyCodes);
+    }
+
+    /**
+     * Returns a copy without one row equal to the given one, or this instance if there is none.
+     */
+    public ColumnarSpending withoutRow(Row row) {
+        int index = find(row, null);
+        return index >= 0 ? remove(index) : this;
+    }
+
+    /**
+     * Returns a copy without the removed rows and with the added ones, the same as calling
+     * {@link #withoutRow} for each removed row and then {@link #withRow} for each added one,
+     * but copying the columns once instead of once per row.
+     */
+    public ColumnarSpending withChanges(List<Row> removed, List<Row> added) {
+        boolean[] dropped = new boolean[size];
+        int[] droppedIndexes = new int[removed.size()];
+        int droppedCount = 0;
+        for (Row row : removed) {
+            int index = find(row, dropped);
+            if (index >= 0) {
+                dropped[index] = true;
+                droppedIndexes[droppedCount++] = index;
+            }
+        }
+        if (droppedCount == 0 && added.isEmpty()) {
+            return this;
+        }
+        Arrays.sort(droppedIndexes, 0, droppedCount);
+
+        // Stable, so added rows on one day keep their order, after the rows already there
+        List<Row> sorted = new ArrayList<>(added);
+        sorted.sort(Comparator.comparingInt(row -> row.day));
+
+        UUID[] newCategoryIds = categoryIds;
+        String[] newVendorNames = vendorNames;
+        String[] newCurrencyCodes = currencyCodes;
+        int newSize = size - droppedCount + sorted.size();
+        int[] newDays = new int[newSize];
+        long[] newAmounts = new long[newSize];
+        short[] newCategories = new short[newSize];
+        int[] newVendors = new int[newSize];
+        short[] newCurrencies = new short[newSize];
+        boolean[] newRecurring = new boolean[newSize];
+
+        // Copy the runs of kept rows between drops and insertion points whole
+        int from = 0;
+        int to = 0;
+        int nextDropped = 0;
+        int nextAdded = 0;
+        while (from < size || nextAdded < sorted.size()) {
+            int insertAt = nextAdded < sorted.size() ? lowerBound(sorted.get(nextAdded).day + 1) : size;
+            int dropAt = nextDropped < droppedCount ? droppedIndexes[nextDropped] : size;
+            int runEnd = Math.min(insertAt, dropAt);
+            int run = runEnd - from;
+            System.arraycopy(days, from, newDays, to, run);
+            System.arraycopy(amounts, from, newAmounts, to, run);
+            System.arraycopy(categories, from, newCategories, to, run);
+            System.arraycopy(vendors, from, newVendors, to, run);
+            System.arraycopy(currencies, from, newCurrencies, to, run);
+            System.arraycopy(recurring, from, newRecurring, to, run);
+            from = runEnd;
+            to += run;
+
+            if (nextAdded < sorted.size() && insertAt == from) {
+                Row row = sorted.get(nextAdded++);
+                int category = indexOf(newCategoryIds, row.categoryId);
+                if (category < 0) {
+                    category = newCategoryIds.length;
+                    if (category > Short.MAX_VALUE) {
+                        throw new IllegalStateException("Too many categories for one user");
+                    }
+                    newCategoryIds = Arrays.copyOf(newCategoryIds, category + 1);
+                    newCategoryIds[category] = row.categoryId;
+                }
+                int vendor = NO_VENDOR;
+                if (row.vendor != null) {
+                    vendor = indexOf(newVendorNames, row.vendor);
+                    if (vendor < 0) {
+                        vendor = newVendorNames.length;
+                        newVendorNames = Arrays.copyOf(newVendorNames, vendor + 1);
+                        newVendorNames[vendor] = row.vendor;
+                    }
+                }
+                int currency = indexOf(newCurrencyCodes, row.currency);
+                if (currency < 0) {
+                    currency = newCurrencyCodes.length;
+                    newCurrencyCodes = Arrays.copyOf(newCurrencyCodes, currency + 1);
+                    newCurrencyCodes[currency] = row.currency;
+                }
+                newDays[to] = row.day;
+                newAmounts[to] = row.amount;
+                newCategories[to] = (short) category;
+                newVendors[to] = vendor;
+                newCurrencies[to] = (short) currency;
+                newRecurring[to] = row.recurring;
+                to++;
+            } else if (dropAt == from && from < size) {
+                from++;
+                nextDropped++;
+            }
+        }
+
+        return new ColumnarSpending(newSize, newDays, newAmounts, newCategories, newVendors, newCurrencies,
+                newRecurring, newCategoryIds, newVendorNames, newCurrencyCodes);
+    }
+
+    /**
+     * Approximate heap footprint, for memory budgets.
+     */
+    public long estimatedBytes() {
+        long columns = (long) days.length * (4 + 8 + 2 + 4 + 2 + 1);
+        long dictionaries = categoryIds.length * 32L + currencyCodes.length * 48L;
+        for (String vendorName : vendorNames) {
+            dictionaries += 48 + 2L * vendorName.length();
+        }
+        return 128 + columns + dictionaries;
+    }
+
+    private ColumnarSpending remove(int index) {
+        int newSize = size - 1;
+        return new ColumnarSpending(newSize, remove(days, index), remove(amounts, index),
+                remove(categories, index), remove(vendors, index), remove(currencies, index),
+                remove(recurring, index), categoryIds, vendorNames, currencyCodes);
+    }
+
+    /**
+     * Index of a row equal to the given one that is not marked in {@code skip}, or -1.
+     */
+    private int find(Row row, boolean[] skip) {
+        int category = indexOf(categoryIds, row.categoryId);
+        int vendor = row.vendor != null ? indexOf(vendorNames, row.vendor) : NO_VENDOR;
+        int currency = indexOf(currencyCodes, row.currency);
+        if (category < 0 || (row.vendor != null && vendor < 0) || currency < 0) {
+            return -1;
+        }
+
+        int end = lowerBound(row.day + 1);
+        for (int i = lowerBound(row.day); i < end; i++) {
+            if ((skip == null || !skip[i]) && amounts[i] == row.amount && categories[i] == category
+                    && vendors[i] == vendor && currencies[i] == currency && recurring[i] == row.recurring) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * First index whose day is at or after {@code day}.
+     */
+    private int lowerBound(int day) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (days[mid] < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int indexOf(Object[] dictionary, Object value) {
+        for (int i = 0; i < dictionary.length; i++) {
+            if (Objects.equals(dictionary[i], value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int[] insert(int[] column, int at, int value) {
+        int[] copy = new int[column.length + 1];
+        System.arraycopy(column, 0, copy, 0, at);
+        System.arraycopy(column, at, copy, at + 1, column.length - at);
+        copy[at] = value;
+        return copy;
+    }
+
+    private static short[] insert(short[] column, int at, short value) {
+        short[] copy = new short[column.length + 1];
+        System.arraycopy(column, 0, copy, 0, at);
+        System.arraycopy(column, at, copy, at + 1, column.length - at);
+        copy[at] = value;
+        return copy;
+    }
+
+    private static int[] remove(int[] column, int index) {
+        int[] copy = new int[column.length - 1];
+        System.arraycopy(column, 0, copy, 0, index);
+        System.arraycopy(column, index + 1, copy, index, column.length - index - 1);
+        return copy;
+    }
+
+    private static long[] remove(long[] column, int index) {
+        long[] copy = new long[column.length - 1];
+        System.arraycopy(column, 0, copy, 0, index);
+        System.arraycopy(column, index + 1, copy, index, column.length - index - 1);
+        return copy;
+    }
+
+    private static short[] remove(short[] column, int index) {
+        short[] copy = new short[column.length - 1];
+        System.arraycopy(column, 0, copy, 0, index);
+        System.arraycopy(column, index + 1, copy, index, column.length - index - 1);
+        return copy;
+    }
+
+    private static boolean[] remove(boolean[] column, int index) {
+        boolean[] copy = new boolean[column.length - 1];
+        System.arraycopy(column, 0, copy, 0, index);
+        System.arraycopy(column, index + 1, copy, index, column.length - index - 1);
+        return copy;
+    }
+
+    @FunctionalInterface
+    public interface DayCategoryConsumer {
+        void accept(int epochDay, UUID categoryId, String currency, long amount, long count, long recurringAmount);
+    }
+
+    @FunctionalInterface
+    public interface VendorConsumer {
+        void accept(String vendor, long amount, long count);
+    }
+
+    /**
+     * One transaction's values as stored in the columns.
+     */
+    public static final class Row {
+        private final int day;
+        private final long amount;
+        private final UUID categoryId;
+        private final String vendor;
+        private final String currency;
+        private final boolean recurring;
+
+        public Row(LocalDate day, BigDecimal amount, UUID categoryId, String vendor, String currency, boolean recurring) {
+            this.day = (int) day.toEpochDay();
+            this.amount = toUnscaled(amount);
+            this.categoryId = categoryId;
+            this.vendor = vendor;
+            this.currency = currency;
+            this.recurring = recurring;
+        }
+    }
+
+    public static final class Builder {
+        private final List<Row> rows = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder add(Row row) {
+            rows.add(row);
+            return this;
+        }
+
+        public ColumnarSpending build() {
+            // Stable, so rows loaded in date order keep their order within a day
+            rows.sort(Comparator.comparingInt(row -> row.day));
+
+            int size = rows.size();
+            int[] days = new int[size];
+            long[] amounts = new long[size];
+            short[] categories = new short[size];
+            int[] vendors = new int[size];
+            short[] currencies = new short[size];
+            boolean[] recurring = new boolean[size];
+
+            Map<UUID, Integer> categoryIndex = new HashMap<>();
+            List<UUID> categoryIds = new ArrayList<>();
+            categoryIds.add(null);
+            categoryIndex.put(null, (int) UNCATEGORIZED);
+            Map<String, Integer> vendorIndex = new HashMap<>();
+            List<String> vendorNames = new ArrayList<>();
+            Map<String, Integer> currencyIndex = new HashMap<>();
+            List<String> currencyCodes = new ArrayList<>();
+
+            for (int i = 0; i < size; i++) {
+                Row row = rows.get(i);
+                days[i] = row.day;
+                amounts[i] = row.amount;
+                int category = categoryIndex.computeIfAbsent(row.categoryId, id -> {
+                    categoryIds.add(id);
+                    return categoryIds.size() - 1;
+                });
+                if (category > Short.MAX_VALUE) {
+                    throw new IllegalStateException("Too many categories for one user");
+                }
+                categories[i] = (short) category;
+                vendors[i] = row.vendor == null ? NO_VENDOR : vendorIndex.computeIfAbsent(row.vendor, name -> {
+                    vendorNames.add(name);
+                    return vendorNames.size() - 1;
+                });
+                currencies[i] = (short) (int) currencyIndex.computeIfAbsent(row.currency, code -> {
+                    currencyCodes.add(code);
+                    return currencyCodes.size() - 1;
+                });
+                recurring[i] = row.recurring;
+            }
+
+            return new ColumnarSpending(size, days, amounts, categories, vendors, currencies, recurring,
+                    categoryIds.toArray(new UUID[0]), vendorNames.toArray(new String[0]),
+                    currencyCodes.toArray(new String[0]));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.financeMonkey.engine;
+
+import java.util.UUID;
+
+/**
+ * Built-in keyword rules for the predefined root categories (see V2__insert_default_categories.sql).
+ *
+ * Rules are listed in priority order: when keywords of several categories occur in the same
+ * transaction, the category listed first wins.
+ */
+public final class DefaultCategoryRules {
+
+    private static final String[][] RULES = {
+        // Bills
+        {"a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a11",
+            "electricity|power|utility|gas|water|sewage|garbage|waste|internet|phone|cable|mortgage|rent|insurance|bill",
+            "verizon|at&t|comcast|xfinity|sprint|t-mobile|spectrum"},
+        // Food & Dining
+        {"a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a12",
+            "restaurant|food|grocery|meal|dinner|lunch|breakfast|cafe|coffee|doordash|grubhub|ubereats|instacart",
+            "starbucks|mcdonald|chipotle|subway|taco|burger|pizza|deli|bakery"},
+        // Shopping
+        {"a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a13",
+            "amazon|walmart|target|bestbuy|costco|ikea|clothing|shoes|electronics|purchase|store|shop|mall",
+            "ebay|etsy|wayfair|home depot|lowes|macys|nordstrom|purchase"},
+        // Entertainment
+        {"a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a14",
+            "movie|theatre|theater|netflix|hulu|disney|spotify|pandora|apple music|concert|ticket|game",
+            "cinema|amc|regal|fandango|entertainment|hbo|showtime|playstation|xbox|steam"},
+        // Transportation
+        {"a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a15",
+            "uber|lyft|taxi|cab|train|subway|metro|bus|transport|fare|ticket|gas|fuel|parking",
+            "amtrak|transit|airline|flight|travel|car service|toll"},
+        // Travel
+        {"a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a16",
+            "hotel|airbnb|vrbo|motel|resort|booking|expedia|kayak|airline|flight|cruise|vacation",
+            "travelocity|orbitz|priceline|tripadvisor|delta|united|american airlines|southwest"},
+        // Health
+        {"a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a17",
+            "doctor|hospital|clinic|pharmacy|medicine|medical|dental|vision|healthcare|health|cvs|walgreens",
+            "therapy|prescription|rite aid|urgent care|laboratory|lab"},
+        // Subscriptions
+        {"a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a18",
+            "subscription|membership|recurring|monthly|plan|service|netflix|hulu|disney|spotify",
+            "apple|google|microsoft|adobe|zoom|amazon prime|youtube|hbo|audible"}
+    };
+
+    private static final UUID[] CATEGORY_IDS = new UUID[RULES.length];
+
+    static {
+        for (int i = 0; i < RULES.length; i++) {
+            CATEGORY_IDS[i] = UUID.fromString(RULES[i][0]);
+        }
+    }
+
+    private DefaultCategoryRules() {
+    }
+
+    /**
+     * Compiles every keyword into one automaton; the rule id is the category's priority index.
+     */
+    public static KeywordAutomaton compile() {
+        KeywordAutomaton.Builder builder = KeywordAutomaton.builder();
+        for (int i = 0; i < RULES.length; i++) {
+            for (int p = 1; p < RULES[i].length; p++) {
+                for (String keyword : RULES[i][p].split("\\|")) {
+                    builder.add(keyword, i);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the category for a rule id produced by {@link #compile()}, or null for {@link KeywordAutomaton#NO_MATCH}.
+     */
+    public static UUID categoryId(int ruleId) {
+        return ruleId >= 0 && ruleId < CATEGORY_IDS.length ? CATEGORY_IDS[ruleId] : null;
+    }
+}
@@ -0,0 +1,87 @@
+package com.financeMonkey.engine;
+
+/**
+ * Built-in merchant aliases. Each entry is the canonical name followed by the aliases that
+ * resolve to it; the canonical name itself is always an alias. Aliases also match as word
+ * prefixes, so "walmart" covers "WALMART SUPERCENTER 1234".
+ */
+public final class DefaultMerchants {
+
+    private static final String[][] MERCHANTS = {
+        {"Amazon", "amzn", "amzn mktp", "amzn digital", "amazon mktplace", "amazon marketplace", "amazon retail"},
+        {"Amazon Prime", "amazon prime", "prime video", "amzn prime"},
+        {"Apple", "apple com bill", "apple store", "itunes"},
+        {"Google", "google play", "google storage", "google one"},
+        {"YouTube", "youtube premium", "google youtube"},
+        {"Microsoft", "msft", "microsoft store", "xbox"},
+        {"Netflix", "netflix com"},
+        {"Spotify", "spotify usa", "spotify ab"},
+        {"Hulu"},
+        {"Disney+", "disney plus", "disneyplus"},
+        {"Uber", "uber trip", "uber bv"},
+        {"Uber Eats", "ubereats", "uber eats"},
+        {"Lyft", "lyft ride"},
+        {"DoorDash", "doordash", "dd doordash"},
+        {"Grubhub"},
+        {"Instacart"},
+        {"Starbucks", "starbucks store", "sbux"},
+        {"McDonald's", "mcdonalds"},
+        {"Chipotle", "chipotle mexican grill", "chipotle online"},
+        {"Walmart", "wal mart", "wm supercenter", "walmart com"},
+        {"Target", "target com"},
+        {"Costco", "costco whse", "costco wholesale"},
+        {"Best Buy", "bestbuy", "best buy com"},
+        {"Home Depot", "the home depot"},
+        {"Lowe's", "lowes"},
+        {"IKEA"},
+        {"eBay", "ebay com"},
+        {"Etsy", "etsy com"},
+        {"Wayfair"},
+        {"CVS", "cvs pharmacy", "cvs"},
+        {"Walgreens"},
+        {"Shell", "shell oil", "shell service station"},
+        {"Chevron"},
+        {"Exxon", "exxonmobil", "exxon mobil"},
+        {"Comcast", "xfinity", "comcast cable"},
+        {"Verizon", "verizon wireless", "vzwrlss"},
+        {"AT&T", "att", "at and t"},
+        {"T-Mobile", "t mobile", "tmobile"},
+        {"Airbnb", "air bnb"},
+        {"Booking.com", "booking com", "booking"},
+        {"Expedia"},
+        {"Delta Air Lines", "delta air", "delta airlines"},
+        {"United Airlines", "united air", "united airlines"},
+        {"Southwest Airlines", "southwest air", "southwest airlines"},
+        {"Adobe", "adobe systems"},
+        {"Zoom", "zoom us", "zoom video"},
+        {"Audible"},
+        {"PlayStation", "playstation network", "sony playstation"},
+        {"Steam", "steam games", "valve steam", "steampowered"},
+        {"Flipkart"},
+        {"Swiggy"},
+        {"Zomato"}
+    };
+
+    private DefaultMerchants() {
+    }
+
+    /**
+     * Returns a canonicalizer that knows the built-in merchants.
+     */
+    public static VendorCanonicalizer compile() {
+        return builder().build();
+    }
+
+    /**
+     * Returns a builder preloaded with the built-in merchants, for adding further aliases.
+     */
+    public static VendorCanonicalizer.Builder builder() {
+        VendorCanonicalizer.Builder builder = VendorCanonicalizer.builder();
+        for (String[] merchant : MERCHANTS) {
+            for (String alias : merchant) {
+                builder.add(alias, merchant[0]);
+            }
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,144 @@
+package com.financeMonkey.engine;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Dated exchange rates held as one array per currency indexed by epoch day, so a conversion is
+ * an array lookup and a multiply. Rates are units of {@link #BASE_CURRENCY} per unit of the
+ * currency. Days without a published rate (weekends, holidays) use the latest earlier rate;
+ * days before the first rate use the first and days after the last use the last.
+ *
+ * Instances are immutable and safe to share between threads.
+ */
+public final class FxRateTable {
+
+    public static final String BASE_CURRENCY = "USD";
+
+    private static final FxRateTable EMPTY = new FxRateTable(Map.of());
+
+    private final Map<String, Series> series;
+
+    private FxRateTable(Map<String, Series> series) {
+        this.series = series;
+    }
+
+    public static FxRateTable empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Whether amounts in {@code from} can be converted to {@code to}.
+     */
+    public boolean canConvert(String from, String to) {
+        return !Double.isNaN(factor(from, to, 0));
+    }
+
+    /**
+     * Multiplier from {@code from} to {@code to} on the day, or NaN if either currency has no rates.
+     */
+    public double factor(String from, String to, int epochDay) {
+        String fromCode = normalize(from);
+        String toCode = normalize(to);
+        if (fromCode.equals(toCode)) {
+            return 1.0;
+        }
+        return rate(fromCode, epochDay) / rate(toCode, epochDay);
+    }
+
+    /**
+     * Converts the amount at the day's rate, rounded to the amount's scale (at least 2 places).
+     * Returns the amount unchanged for equal currencies and null when either has no rates.
+     */
+    public BigDecimal convert(BigDecimal amount, String from, String to, LocalDate day) {
+        if (amount == null || normalize(from).equals(normalize(to))) {
+            return amount;
+        }
+        double factor = factor(from, to, (int) day.toEpochDay());
+        if (Double.isNaN(factor)) {
+            return null;
+        }
+        return amount.multiply(BigDecimal.valueOf(factor)).setScale(Math.max(amount.scale(), 2), RoundingMode.HALF_UP);
+    }
+
+    public int getCurrencyCount() {
+        return series.size();
+    }
+
+    private double rate(String currency, int epochDay) {
+        if (BASE_CURRENCY.equals(currency)) {
+            return 1.0;
+        }
+        Series rates = series.get(currency);
+        return rates != null ? rates.get(epochDay) : Double.NaN;
+    }
+
+    private static String normalize(String currency) {
+        return currency == null ? BASE_CURRENCY : currency.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static final class Series {
+        private final int firstDay;
+        private final double[] rates;
+
+        private Series(int firstDay, double[] rates) {
+            this.firstDay = firstDay;
+            this.rates = rates;
+        }
+
+        private double get(int epochDay) {
+            int index = epochDay - firstDay;
+            if (index < 0) {
+                return rates[0];
+            }
+            return rates[Math.min(index, rates.length - 1)];
+        }
+    }
+
+    public static final class Builder {
+        private final Map<String, TreeMap<Integer, Double>> rates = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder add(String currency, LocalDate day, BigDecimal rate) {
+            if (rate == null || rate.signum() <= 0) {
+                throw new IllegalArgumentException("Exchange rate for " + currency + " on " + day + " must be positive");
+            }
+            rates.computeIfAbsent(normalize(currency), k -> new TreeMap<>())
+                    .put((int) day.toEpochDay(), rate.doubleValue());
+            return this;
+        }
+
+        public FxRateTable build() {
+            Map<String, Series> series = new HashMap<>(rates.size() * 2);
+            for (Map.Entry<String, TreeMap<Integer, Double>> entry : rates.entrySet()) {
+                TreeMap<Integer, Double> dated = entry.getValue();
+                int firstDay = dated.firstKey();
+                double[] daily = new double[dated.lastKey() - firstDay + 1];
+                int filled = 0;
+                double last = dated.firstEntry().getValue();
+                for (Map.Entry<Integer, Double> rate : dated.entrySet()) {
+                    int index = rate.getKey() - firstDay;
+                    // Carry the previous rate over days without one
+                    Arrays.fill(daily, filled, index, last);
+                    last = rate.getValue();
+                    daily[index] = last;
+                    filled = index + 1;
+                }
+                series.put(entry.getKey(), new Series(firstDay, daily));
+            }
+            return new FxRateTable(series);
+        }
+    }
+}
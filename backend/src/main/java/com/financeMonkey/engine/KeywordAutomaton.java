@@ -0,0 +1,230 @@
+package com.financeMonkey.engine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.IntPredicate;
+
+/**
+ * Aho-Corasick automaton compiled into a dense transition table.
+ *
+ * Each keyword carries a rule id; lower ids win. Matching is case-insensitive, runs in a
+ * single pass over the input and costs O(text length) regardless of how many keywords
+ * were compiled in. Instances are immutable and safe to share between threads.
+ */
+public final class KeywordAutomaton {
+
+    public static final int NO_MATCH = -1;
+
+    private static final int[] NO_OUTPUT = new int[0];
+
+    private final int[] asciiClasses;
+    private final char[] extraChars;
+    private final int[] extraClasses;
+    private final int alphabetSize;
+    private final int[] transitions;
+    private final int[][] outputs;
+
+    private KeywordAutomaton(int[] asciiClasses, char[] extraChars, int[] extraClasses,
+                             int alphabetSize, int[] transitions, int[][] outputs) {
+        this.asciiClasses = asciiClasses;
+        this.extraChars = extraChars;
+        this.extraClasses = extraClasses;
+        this.alphabetSize = alphabetSize;
+        this.transitions = transitions;
+        this.outputs = outputs;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getStateCount() {
+        return outputs.length;
+    }
+
+    /**
+     * Returns the lowest rule id whose keyword occurs in {@code text}, or {@link #NO_MATCH}.
+     */
+    public int bestMatch(CharSequence text) {
+        return bestMatch(text, NO_MATCH, null);
+    }
+
+    /**
+     * Returns the lowest rule id that occurs in {@code text}, is lower than {@code bestSoFar}
+     * and passes {@code accept}; returns {@code bestSoFar} if nothing better is found.
+     * Passing the previous result lets callers chain several fields through one automaton.
+     */
+    public int bestMatch(CharSequence text, int bestSoFar, IntPredicate accept) {
+        if (text == null) {
+            return bestSoFar;
+        }
+        int best = bestSoFar;
+        int state = 0;
+        int n = text.length();
+        for (int i = 0; i < n && best != 0; i++) {
+            state = transitions[state * alphabetSize + classOf(Character.toLowerCase(text.charAt(i)))];
+            int[] matched = outputs[state];
+            for (int ruleId : matched) {
+                if (best != NO_MATCH && ruleId >= best) {
+                    break;
+                }
+                if (accept == null || accept.test(ruleId)) {
+                    best = ruleId;
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    private int classOf(char c) {
+        if (c < 128) {
+            return asciiClasses[c];
+        }
+        int idx = Arrays.binarySearch(extraChars, c);
+        return idx >= 0 ? extraClasses[idx] : 0;
+    }
+
+    public static final class Builder {
+        private final List<String> keywords = new ArrayList<>();
+        private final List<Integer> ruleIds = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder add(String keyword, int ruleId) {
+            if (ruleId < 0) {
+                throw new IllegalArgumentException("Rule id must not be negative: " + ruleId);
+            }
+            if (keyword != null && !keyword.isEmpty()) {
+                keywords.add(keyword.toLowerCase(Locale.ROOT));
+                ruleIds.add(ruleId);
+            }
+            return this;
+        }
+
+        public KeywordAutomaton build() {
+            // Alphabet: every distinct keyword character gets a class; class 0 is "anything else"
+            TreeSet<Character> alphabet = new TreeSet<>();
+            for (String keyword : keywords) {
+                for (int i = 0; i < keyword.length(); i++) {
+                    alphabet.add(keyword.charAt(i));
+                }
+            }
+            int alphabetSize = alphabet.size() + 1;
+            int[] asciiClasses = new int[128];
+            int extraCount = 0;
+            for (char c : alphabet) {
+                if (c >= 128) {
+                    extraCount++;
+                }
+            }
+            char[] extraChars = new char[extraCount];
+            int[] extraClasses = new int[extraCount];
+            int cls = 1;
+            int extra = 0;
+            for (char c : alphabet) {
+                if (c < 128) {
+                    asciiClasses[c] = cls;
+                } else {
+                    extraChars[extra] = c;
+                    extraClasses[extra] = cls;
+                    extra++;
+                }
+                cls++;
+            }
+            Map<Character, Integer> classes = new HashMap<>();
+            cls = 1;
+            for (char c : alphabet) {
+                classes.put(c, cls++);
+            }
+
+            // Trie
+            List<int[]> children = new ArrayList<>();
+            List<TreeSet<Integer>> own = new ArrayList<>();
+            children.add(newRow(alphabetSize));
+            own.add(new TreeSet<>());
+            for (int k = 0; k < keywords.size(); k++) {
+                String keyword = keywords.get(k);
+                int state = 0;
+                for (int i = 0; i < keyword.length(); i++) {
+                    int c = classes.get(keyword.charAt(i));
+                    int next = children.get(state)[c];
+                    if (next < 0) {
+                        next = children.size();
+                        children.add(newRow(alphabetSize));
+                        own.add(new TreeSet<>());
+                        children.get(state)[c] = next;
+                    }
+                    state = next;
+                }
+                own.get(state).add(ruleIds.get(k));
+            }
+
+            // Breadth-first failure links, folding them into a complete DFA
+            int stateCount = children.size();
+            int[] transitions = new int[stateCount * alphabetSize];
+            int[] fail = new int[stateCount];
+            int[][] outputs = new int[stateCount][];
+            outputs[0] = toArray(own.get(0));
+
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int c = 0; c < alphabetSize; c++) {
+                int next = children.get(0)[c];
+                if (next < 0) {
+                    transitions[c] = 0;
+                } else {
+                    transitions[c] = next;
+                    fail[next] = 0;
+                    queue.add(next);
+                }
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                TreeSet<Integer> merged = new TreeSet<>(own.get(state));
+                for (int id : outputs[fail[state]]) {
+                    merged.add(id);
+                }
+                outputs[state] = toArray(merged);
+
+                for (int c = 0; c < alphabetSize; c++) {
+                    int next = children.get(state)[c];
+                    int viaFail = transitions[fail[state] * alphabetSize + c];
+                    if (next < 0) {
+                        transitions[state * alphabetSize + c] = viaFail;
+                    } else {
+                        transitions[state * alphabetSize + c] = next;
+                        fail[next] = viaFail;
+                        queue.add(next);
+                    }
+                }
+            }
+
+            return new KeywordAutomaton(asciiClasses, extraChars, extraClasses, alphabetSize, transitions, outputs);
+        }
+
+        private static int[] newRow(int size) {
+            int[] row = new int[size];
+            Arrays.fill(row, -1);
+            return row;
+        }
+
+        private static int[] toArray(TreeSet<Integer> ids) {
+            if (ids.isEmpty()) {
+                return NO_OUTPUT;
+            }
+            int[] result = new int[ids.size()];
+            int i = 0;
+            for (int id : ids) {
+                result[i++] = id;
+            }
+            return result;
+        }
+    }
+}
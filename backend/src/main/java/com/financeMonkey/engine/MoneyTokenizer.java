@@ -0,0 +1,558 @@
+package com.financeMonkey.engine;
+
+import java.math.BigDecimal;
+
+/**
+ * Hand-written scanner that finds money amounts in free text (email bodies, receipts).
+ *
+ * Recognizes currency symbols ($, €, £, ¥, ₹, ...), symbol prefixes such as US$ or Rs.,
+ * ISO 4217 codes, and the common grouping conventions (1,234.56 / 1.234,56 / 1 234,56 /
+ * 1,23,456.00). Every candidate is ranked by whether it carries a currency and by the
+ * label that precedes it (total, amount due, subtotal, tax, ...); the best one wins.
+ *
+ * The scan works directly on the CharSequence and writes into a caller-supplied
+ * {@link Match}, so a parse does not allocate.
+ */
+public final class MoneyTokenizer {
+
+    /** ISO 4217 code for "no currency involved", used when an amount has no currency marker. */
+    public static final String UNKNOWN_CURRENCY = "XXX";
+
+    private static final String[] ISO_CODES = {
+        "AED", "AUD", "BRL", "CAD", "CHF", "CNY", "CZK", "DKK", "EUR", "GBP", "HKD",
+        "HUF", "IDR", "ILS", "INR", "JPY", "KRW", "MXN", "MYR", "NOK", "NZD", "PHP",
+        "PLN", "RUB", "SAR", "SEK", "SGD", "THB", "TRY", "USD", "VND", "ZAR"
+    };
+
+    // Letter prefixes that qualify a dollar sign, e.g. US$, C$, HK$
+    private static final String[] DOLLAR_PREFIXES = {"US", "CA", "C", "AU", "A", "NZ", "HK", "S", "R"};
+    private static final String[] DOLLAR_PREFIX_CODES = {"USD", "CAD", "CAD", "AUD", "AUD", "NZD", "HKD", "SGD", "BRL"};
+
+    private static final int LABEL_NONE = 0;
+    private static final int RANK_CURRENCY = 3;
+    private static final int RANK_ZERO_AMOUNT = -2;
+    private static final int LABEL_WINDOW = 40;
+    private static final int MAX_DIGITS = 17;
+
+    // Labels are matched case-insensitively at word starts, longest first
+    private static final char[][] LABELS = {
+        "grand total".toCharArray(), "order total".toCharArray(), "total charged".toCharArray(),
+        "amount due".toCharArray(), "balance due".toCharArray(), "amount paid".toCharArray(),
+        "total due".toCharArray(), "you paid".toCharArray(), "sub-total".toCharArray(),
+        "sub total".toCharArray(), "subtotal".toCharArray(), "payment of".toCharArray(),
+        "shipping".toCharArray(), "discount".toCharArray(), "savings".toCharArray(),
+        "charged".toCharArray(), "amount".toCharArray(), "total".toCharArray(),
+        "price".toCharArray(), "paid".toCharArray(), "tax".toCharArray(), "vat".toCharArray(),
+        "gst".toCharArray(), "tip".toCharArray(), "balance".toCharArray(), "bal".toCharArray()
+    };
+    private static final int[] LABEL_RANKS = {
+        8, 8, 8,
+        8, 8, 8,
+        8, 8, 2,
+        2, 2, 5,
+        -4, -4, -4,
+        5, 5, 8,
+        4, 5, -4, -4,
+        -4, -4, -4, -4
+    };
+
+    private MoneyTokenizer() {
+    }
+
+    /**
+     * Scans {@code text} and stores the best-ranked amount in {@code out}.
+     *
+     * @return true if an amount was found; otherwise {@code out.isFound()} is false
+     */
+    public static boolean findBest(CharSequence text, Match out) {
+        out.reset();
+        if (text == null) {
+            return false;
+        }
+
+        int n = text.length();
+        String currency = null;
+        int currencyEnd = -1;
+        int labelRank = LABEL_NONE;
+        int labelEnd = -1;
+
+        int i = 0;
+        while (i < n) {
+            char c = text.charAt(i);
+
+            if (isLetter(c)) {
+                boolean wordStart = i == 0 || !isLetterOrDigit(text.charAt(i - 1));
+                if (wordStart) {
+                    int code = matchIsoCode(text, i);
+                    if (code >= 0) {
+                        currency = ISO_CODES[code];
+                        currencyEnd = i + 3;
+                        i = currencyEnd;
+                        continue;
+                    }
+                    int prefix = matchDollarPrefix(text, i);
+                    if (prefix >= 0) {
+                        currency = DOLLAR_PREFIX_CODES[prefix];
+                        currencyEnd = i + DOLLAR_PREFIXES[prefix].length() + 1;
+                        i = currencyEnd;
+                        continue;
+                    }
+                    int rupeeEnd = matchRupees(text, i);
+                    if (rupeeEnd > 0) {
+                        currency = "INR";
+                        currencyEnd = rupeeEnd;
+                        i = currencyEnd;
+                        continue;
+                    }
+                    int label = matchLabel(text, i);
+                    if (label >= 0) {
+                        labelRank = LABEL_RANKS[label];
+                        labelEnd = i + LABELS[label].length;
+                        i = labelEnd;
+                        continue;
+                    }
+                }
+                i++;
+                continue;
+            }
+
+            String symbol = symbolCurrency(c);
+            if (symbol != null) {
+                currency = symbol;
+                currencyEnd = i + 1;
+                i++;
+                continue;
+            }
+
+            if (c >= '0' && c <= '9' && startsNumber(text, i)) {
+                int end = out.scanNumber(text, i);
+                if (end < 0) {
+                    // Not an amount (date, time, identifier); skip the whole digit run
+                    i = skipToken(text, i);
+                    continue;
+                }
+
+                String amountCurrency = null;
+                if (currency != null && onlySpaces(text, currencyEnd, i)) {
+                    amountCurrency = currency;
+                } else {
+                    amountCurrency = suffixCurrency(text, end);
+                }
+
+                int rank = 0;
+                if (amountCurrency != null) {
+                    rank += RANK_CURRENCY;
+                }
+                boolean labelled = labelEnd >= 0 && i - labelEnd <= LABEL_WINDOW;
+                if (labelled) {
+                    rank += labelRank;
+                }
+                if (out.candidateUnscaled == 0) {
+                    rank += RANK_ZERO_AMOUNT;
+                }
+
+                // Bare numbers without a currency or a label are quantities, ids, and so on
+                if (amountCurrency != null || labelled) {
+                    out.offer(rank, amountCurrency, i, end);
+                }
+
+                // A label annotates only the first amount that follows it
+                labelEnd = -1;
+                labelRank = LABEL_NONE;
+                currency = null;
+                currencyEnd = -1;
+                i = end;
+                continue;
+            }
+
+            i++;
+        }
+
+        return out.found;
+    }
+
+    /**
+     * Maps single-character currency symbols to ISO codes.
+     */
+    private static String symbolCurrency(char c) {
+        switch (c) {
+            case '$': return "USD";
+            case '\u20AC': return "EUR";
+            case '\u00A3': return "GBP";
+            case '\u00A5': return "JPY";
+            case '\u20B9': return "INR";
+            case '\u20A9': return "KRW";
+            case '\u20BD': return "RUB";
+            case '\u20BA': return "TRY";
+            case '\u20AA': return "ILS";
+            case '\u0E3F': return "THB";
+            case '\u20B1': return "PHP";
+            case '\u20AB': return "VND";
+            default: return null;
+        }
+    }
+
+    private static boolean startsNumber(CharSequence text, int i) {
+        if (i == 0) {
+            return true;
+        }
+        char prev = text.charAt(i - 1);
+        // Digits glued to letters or to date/time punctuation are not amounts
+        return !isLetterOrDigit(prev) && prev != '/' && prev != ':' && prev != '#';
+    }
+
+    private static int skipToken(CharSequence text, int i) {
+        int n = text.length();
+        while (i < n) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean onlySpaces(CharSequence text, int from, int to) {
+        if (from < 0 || to - from > 2) {
+            return false;
+        }
+        for (int k = from; k < to; k++) {
+            if (!isSpace(text.charAt(k))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String suffixCurrency(CharSequence text, int end) {
+        int n = text.length();
+        int k = end;
+        if (k < n && isSpace(text.charAt(k))) {
+            k++;
+        }
+        if (k >= n) {
+            return null;
+        }
+        String symbol = symbolCurrency(text.charAt(k));
+        if (symbol != null) {
+            return symbol;
+        }
+        int code = matchIsoCode(text, k);
+        return code >= 0 ? ISO_CODES[code] : null;
+    }
+
+    private static int matchIsoCode(CharSequence text, int i) {
+        int n = text.length();
+        if (i + 3 > n) {
+            return -1;
+        }
+        char a = text.charAt(i);
+        char b = text.charAt(i + 1);
+        char c = text.charAt(i + 2);
+        if (!isUpper(a) || !isUpper(b) || !isUpper(c)) {
+            return -1;
+        }
+        if (i + 3 < n && isLetter(text.charAt(i + 3))) {
+            return -1;
+        }
+        int lo = 0;
+        int hi = ISO_CODES.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            String code = ISO_CODES[mid];
+            int cmp = a - code.charAt(0);
+            if (cmp == 0) {
+                cmp = b - code.charAt(1);
+            }
+            if (cmp == 0) {
+                cmp = c - code.charAt(2);
+            }
+            if (cmp == 0) {
+                return mid;
+            }
+            if (cmp < 0) {
+                hi = mid - 1;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static int matchDollarPrefix(CharSequence text, int i) {
+        int n = text.length();
+        for (int p = 0; p < DOLLAR_PREFIXES.length; p++) {
+            String prefix = DOLLAR_PREFIXES[p];
+            int len = prefix.length();
+            if (i + len < n && text.charAt(i + len) == '$') {
+                boolean match = true;
+                for (int k = 0; k < len; k++) {
+                    if (text.charAt(i + k) != prefix.charAt(k)) {
+                        match = false;
+                        break;
+                    }
+                }
+                if (match) {
+                    return p;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Matches "Rs" or "Rs." used as a rupee marker; returns the end index or -1.
+     */
+    private static int matchRupees(CharSequence text, int i) {
+        int n = text.length();
+        if (i + 2 > n || text.charAt(i) != 'R' || (text.charAt(i + 1) != 's' && text.charAt(i + 1) != 'S')) {
+            return -1;
+        }
+        int end = i + 2;
+        if (end < n && text.charAt(end) == '.') {
+            end++;
+        }
+        if (end < n && isLetter(text.charAt(end))) {
+            return -1;
+        }
+        return end;
+    }
+
+    private static int matchLabel(CharSequence text, int i) {
+        int n = text.length();
+        char first = Character.toLowerCase(text.charAt(i));
+        for (int l = 0; l < LABELS.length; l++) {
+            char[] label = LABELS[l];
+            int len = label.length;
+            if (label[0] != first || i + len > n) {
+                continue;
+            }
+            boolean match = true;
+            for (int k = 0; k < len; k++) {
+                if (Character.toLowerCase(text.charAt(i + k)) != label[k]) {
+                    match = false;
+                    break;
+                }
+            }
+            if (match && (i + len == n || !isLetter(text.charAt(i + len)))) {
+                return l;
+            }
+        }
+        return -1;
+    }
+
+    // ASCII fast paths; everything else defers to Character
+    private static boolean isLetter(char c) {
+        if (c < 128) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+        }
+        return Character.isLetter(c);
+    }
+
+    private static boolean isLetterOrDigit(char c) {
+        if (c < 128) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+        }
+        return Character.isLetterOrDigit(c);
+    }
+
+    private static boolean isUpper(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\u00A0' || c == '\u202F' || c == '\t';
+    }
+
+    private static boolean isGroupSeparator(char c) {
+        return c == ',' || c == '.' || c == '\'' || c == ' ' || c == '\u00A0' || c == '\u202F';
+    }
+
+    /**
+     * Mutable result holder; reuse one instance per thread to keep parsing allocation-free.
+     */
+    public static final class Match {
+        private boolean found;
+        private long unscaled;
+        private int scale;
+        private String currency;
+        private int rank;
+        private int start;
+        private int end;
+
+        // Scratch state for the number currently being scanned
+        private long candidateUnscaled;
+        private int candidateScale;
+
+        public boolean isFound() {
+            return found;
+        }
+
+        public long getUnscaled() {
+            return unscaled;
+        }
+
+        public int getScale() {
+            return scale;
+        }
+
+        /**
+         * Returns the ISO code of the amount, or {@link #UNKNOWN_CURRENCY} when the text gave no marker.
+         */
+        public String getCurrency() {
+            return currency != null ? currency : UNKNOWN_CURRENCY;
+        }
+
+        public boolean hasCurrency() {
+            return currency != null;
+        }
+
+        public int getRank() {
+            return rank;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        public BigDecimal toBigDecimal() {
+            return found ? BigDecimal.valueOf(unscaled, scale) : null;
+        }
+
+        void reset() {
+            found = false;
+            unscaled = 0;
+            scale = 0;
+            currency = null;
+            rank = Integer.MIN_VALUE;
+            start = -1;
+            end = -1;
+        }
+
+        void offer(int candidateRank, String candidateCurrency, int candidateStart, int candidateEnd) {
+            boolean better = !found
+                    || candidateRank > rank
+                    || (candidateRank == rank && compareToBest() > 0);
+            if (better) {
+                found = true;
+                rank = candidateRank;
+                unscaled = candidateUnscaled;
+                scale = candidateScale;
+                currency = candidateCurrency;
+                start = candidateStart;
+                end = candidateEnd;
+            }
+        }
+
+        // On equal rank prefer the larger amount: totals are never smaller than their line items
+        private int compareToBest() {
+            long a = candidateUnscaled;
+            long b = unscaled;
+            int diff = candidateScale - scale;
+            if (diff > 0) {
+                b *= pow10(diff);
+            } else if (diff < 0) {
+                a *= pow10(-diff);
+            }
+            return Long.compare(a, b);
+        }
+
+        private static long pow10(int exp) {
+            long result = 1;
+            for (int k = 0; k < exp; k++) {
+                result *= 10;
+            }
+            return result;
+        }
+
+        /**
+         * Parses the digit run starting at {@code from} into the candidate fields.
+         *
+         * @return the index just past the number, or -1 if the run is not an amount
+         */
+        int scanNumber(CharSequence text, int from) {
+            int n = text.length();
+            long value = 0;
+            int digits = 0;
+            int separators = 0;
+            char lastSeparator = 0;
+            boolean mixed = false;
+            int digitsSinceSeparator = 0;
+            int i = from;
+
+            while (i < n) {
+                char c = text.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    if (++digits > MAX_DIGITS) {
+                        return -1;
+                    }
+                    value = value * 10 + (c - '0');
+                    digitsSinceSeparator++;
+                    i++;
+                    continue;
+                }
+                if (isGroupSeparator(c) && i + 1 < n && isDigit(text.charAt(i + 1))) {
+                    // Spaces only group thousands, so they must be followed by exactly three digits
+                    if (isSpace(c) && !isGroupOfThree(text, i + 1)) {
+                        break;
+                    }
+                    if (separators > 0 && c != lastSeparator) {
+                        mixed = true;
+                    }
+                    lastSeparator = c;
+                    separators++;
+                    digitsSinceSeparator = 0;
+                    i++;
+                    continue;
+                }
+                break;
+            }
+
+            // Dates, times and ranges such as 12/05, 10:30 or 2024-01-05
+            if (i < n) {
+                char next = text.charAt(i);
+                if ((next == '/' || next == ':' || next == '-') && i + 1 < n && isDigit(text.charAt(i + 1))) {
+                    return -1;
+                }
+                if (isLetter(next) && !isUpper(next)) {
+                    return -1;
+                }
+            }
+
+            boolean decimal = false;
+            if (separators > 0 && (lastSeparator == '.' || lastSeparator == ',')) {
+                if (mixed) {
+                    decimal = true;
+                } else if (separators == 1) {
+                    decimal = digitsSinceSeparator != 3 && digitsSinceSeparator <= 4;
+                }
+            }
+
+            candidateUnscaled = value;
+            candidateScale = decimal ? digitsSinceSeparator : 0;
+            return i;
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private static boolean isGroupOfThree(CharSequence text, int i) {
+            int n = text.length();
+            if (i + 3 > n) {
+                return false;
+            }
+            for (int k = i; k < i + 3; k++) {
+                if (!isDigit(text.charAt(k))) {
+                    return false;
+                }
+            }
+            return i + 3 == n || !isDigit(text.charAt(i + 3));
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.financeMonkey.engine;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Finds a recurring payment in one vendor's transactions from the gaps between them and the
+ * stability of their amounts.
+ *
+ * Positive amounts are grouped into bands of similar size, so a subscription is still found
+ * among a vendor's one-off purchases; the series of all positive amounts is tried as well, for
+ * bills that vary from period to period. A candidate is recurring when it has at least
+ * {@link #MIN_OCCURRENCES} payments, the median gap matches a {@link Pattern}, most gaps are
+ * within that pattern's tolerance and the amounts stay close to their median. The candidate
+ * with the most regular payments wins.
+ *
+ * Detection is O(n log n) in the number of transactions, so a vendor's series can be
+ * re-evaluated on every write.
+ */
+public final class RecurrenceDetector {
+
+    public static final int MIN_OCCURRENCES = 3;
+
+    private static final double MIN_REGULAR_FRACTION = 0.7;
+    private static final double MAX_AMOUNT_BAND = 0.2;
+    private static final double MAX_AMOUNT_DEVIATION = 0.25;
+    private static final int RECENT_AMOUNTS = 6;
+
+    public enum Pattern {
+        WEEKLY(7, 1), BIWEEKLY(14, 2), MONTHLY(30.44, 4), QUARTERLY(91.31, 10), YEARLY(365.25, 20);
+
+        private final double days;
+        private final double tolerance;
+
+        Pattern(double days, double tolerance) {
+            this.days = days;
+            this.tolerance = tolerance;
+        }
+
+        public double getDays() {
+            return days;
+        }
+
+        /**
+         * The day one period after the given one, following the calendar for monthly and longer periods.
+         */
+        public LocalDate next(LocalDate day) {
+            switch (this) {
+                case WEEKLY:
+                    return day.plusWeeks(1);
+                case BIWEEKLY:
+                    return day.plusWeeks(2);
+                case MONTHLY:
+                    return day.plusMonths(1);
+                case QUARTERLY:
+                    return day.plusMonths(3);
+                default:
+                    return day.plusYears(1);
+            }
+        }
+
+        private boolean matches(double gap) {
+            return Math.abs(gap - days) <= tolerance;
+        }
+    }
+
+    private RecurrenceDetector() {
+    }
+
+    /**
+     * Looks for a recurring series among transactions given as parallel arrays sorted by day:
+     * epoch days and amounts in minor units. Returns null if there is none. A series whose next
+     * payment is overdue by more than one period at {@code asOf} is reported as inactive.
+     */
+    public static Result detect(int[] epochDays, long[] amounts, LocalDate asOf) {
+        int size = epochDays.length;
+        if (size < MIN_OCCURRENCES) {
+            return null;
+        }
+
+        Integer[] byAmount = new Integer[size];
+        int positive = 0;
+        for (int i = 0; i < size; i++) {
+            if (amounts[i] > 0) {
+                byAmount[positive++] = i;
+            }
+        }
+        if (positive < MIN_OCCURRENCES) {
+            return null;
+        }
+        Integer[] candidates = Arrays.copyOf(byAmount, positive);
+        Arrays.sort(candidates, (a, b) -> Long.compare(amounts[a], amounts[b]));
+
+        Result best = evaluate(epochDays, amounts, sortedByDay(candidates, 0, positive), asOf);
+        int bandStart = 0;
+        for (int i = 1; i <= positive; i++) {
+            if (i == positive || amounts[candidates[i]] > amounts[candidates[bandStart]] * (1 + MAX_AMOUNT_BAND)) {
+                if (i - bandStart >= MIN_OCCURRENCES && i - bandStart < positive) {
+                    Result band = evaluate(epochDays, amounts, sortedByDay(candidates, bandStart, i), asOf);
+                    if (band != null && (best == null || band.regularCount > best.regularCount)) {
+                        best = band;
+                    }
+                }
+                bandStart = i;
+            }
+        }
+        return best;
+    }
+
+    private static int[] sortedByDay(Integer[] candidates, int from, int to) {
+        int[] members = new int[to - from];
+        for (int i = from; i < to; i++) {
+            members[i - from] = candidates[i];
+        }
+        // Indexes follow the input, which is sorted by day
+        Arrays.sort(members);
+        return members;
+    }
+
+    private static Result evaluate(int[] epochDays, long[] amounts, int[] members, LocalDate asOf) {
+        // Gaps between distinct days; same-day duplicates belong to the same period
+        double[] gaps = new double[members.length - 1];
+        int gapCount = 0;
+        for (int i = 1; i < members.length; i++) {
+            int gap = epochDays[members[i]] - epochDays[members[i - 1]];
+            if (gap > 0) {
+                gaps[gapCount++] = gap;
+            }
+        }
+        if (gapCount < MIN_OCCURRENCES - 1) {
+            return null;
+        }
+
+        double medianGap = median(Arrays.copyOf(gaps, gapCount));
+        Pattern pattern = null;
+        for (Pattern candidate : Pattern.values()) {
+            if (candidate.matches(medianGap)) {
+                pattern = candidate;
+                break;
+            }
+        }
+        if (pattern == null) {
+            return null;
+        }
+
+        int regular = 0;
+        for (int i = 0; i < gapCount; i++) {
+            if (pattern.matches(gaps[i])) {
+                regular++;
+            }
+        }
+        if (regular < gapCount * MIN_REGULAR_FRACTION) {
+            return null;
+        }
+
+        double[] values = new double[members.length];
+        for (int i = 0; i < members.length; i++) {
+            values[i] = amounts[members[i]];
+        }
+        double medianAmount = median(values.clone());
+        double[] deviations = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            deviations[i] = Math.abs(values[i] - medianAmount);
+        }
+        if (median(deviations) > medianAmount * MAX_AMOUNT_DEVIATION) {
+            return null;
+        }
+
+        int recent = Math.min(RECENT_AMOUNTS, values.length);
+        long expectedAmount = Math.round(median(Arrays.copyOfRange(values, values.length - recent, values.length)));
+        LocalDate lastDay = LocalDate.ofEpochDay(epochDays[members[members.length - 1]]);
+        LocalDate nextDay = pattern.next(lastDay);
+        boolean active = asOf == null || !asOf.isAfter(pattern.next(nextDay));
+
+        return new Result(pattern, members, regular + 1, expectedAmount, lastDay, nextDay, active);
+    }
+
+    private static double median(double[] values) {
+        Arrays.sort(values);
+        int middle = values.length / 2;
+        return values.length % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2;
+    }
+
+    /**
+     * A detected series: its pattern, which of the input transactions belong to it, and when
+     * and how much the next payment is expected.
+     */
+    public static final class Result {
+        private final Pattern pattern;
+        private final int[] members;
+        private final int regularCount;
+        private final long expectedAmount;
+        private final LocalDate lastDay;
+        private final LocalDate nextExpectedDay;
+        private final boolean active;
+
+        private Result(Pattern pattern, int[] members, int regularCount, long expectedAmount,
+                       LocalDate lastDay, LocalDate nextExpectedDay, boolean active) {
+            this.pattern = pattern;
+            this.members = members;
+            this.regularCount = regularCount;
+            this.expectedAmount = expectedAmount;
+            this.lastDay = lastDay;
+            this.nextExpectedDay = nextExpectedDay;
+            this.active = active;
+        }
+
+        public Pattern getPattern() {
+            return pattern;
+        }
+
+        /**
+         * Whether the transaction at this index of the input belongs to the series.
+         */
+        public boolean isMember(int index) {
+            return Arrays.binarySearch(members, index) >= 0;
+        }
+
+        public int getOccurrences() {
+            return members.length;
+        }
+
+        public long getExpectedAmount() {
+            return expectedAmount;
+        }
+
+        public LocalDate getLastDay() {
+            return lastDay;
+        }
+
+        public LocalDate getNextExpectedDay() {
+            return nextExpectedDay;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.financeMonkey.engine;
+
+/**
+ * Count, mean and variance of a stream of amounts, updated one amount at a time with Welford's
+ * method, together with the most recent amount and the day it was seen. Constant size and
+ * O(1) per update, so the statistics of every vendor and category a user has can be kept
+ * current on each write without looking at past transactions again.
+ */
+public final class RunningStats {
+
+    private long count;
+    private double mean;
+    private double m2;
+    private double lastAmount;
+    private int lastDay;
+
+    public RunningStats() {
+    }
+
+    /**
+     * Restores statistics saved earlier; {@code m2} is the sum of squared differences from the mean.
+     */
+    public RunningStats(long count, double mean, double m2, double lastAmount, int lastDay) {
+        this.count = count;
+        this.mean = mean;
+        this.m2 = m2;
+        this.lastAmount = lastAmount;
+        this.lastDay = lastDay;
+    }
+
+    /**
+     * Adds an amount seen on the given epoch day. An amount dated before the latest one counts
+     * towards the mean and variance but does not replace the latest amount.
+     */
+    public void add(double amount, int epochDay) {
+        double delta = amount - mean;
+        count++;
+        mean += delta / count;
+        m2 += delta * (amount - mean);
+        if (count == 1 || epochDay >= lastDay) {
+            lastAmount = amount;
+            lastDay = epochDay;
+        }
+    }
+
+    public RunningStats copy() {
+        return new RunningStats(count, mean, m2, lastAmount, lastDay);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getM2() {
+        return m2;
+    }
+
+    /**
+     * Sample variance, or 0 with fewer than two amounts.
+     */
+    public double getVariance() {
+        return count > 1 ? m2 / (count - 1) : 0;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    public double getLastAmount() {
+        return lastAmount;
+    }
+
+    public int getLastDay() {
+        return lastDay;
+    }
+}
@@ -0,0 +1,167 @@
+package com.financeMonkey.engine;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Weighted Space-Saving summary of the heaviest keys in a stream, using at most
+ * {@code capacity} counters. Every key whose true weight exceeds total / capacity is
+ * guaranteed to be monitored, and each monitored key's true weight lies in
+ * {@code [weight - error, weight]}. Weights must be positive; the summary cannot forget.
+ *
+ * Sketches of disjoint streams can be combined with {@link #merge}, which keeps the same
+ * guarantees over the combined stream. Instances are not thread-safe.
+ */
+public final class SpaceSavingSketch {
+
+    private final int capacity;
+    private final Map<String, long[]> counters;
+    private long total;
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(Math.min(capacity, 1024) * 2);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Total weight added, including weight counted against evicted keys.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    public void add(String key, long weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Weight must be positive: " + weight);
+        }
+        total += weight;
+
+        long[] counter = counters.get(key);
+        if (counter != null) {
+            counter[0] += weight;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new long[] {weight, 0});
+            return;
+        }
+
+        // Replace the lightest key; the newcomer inherits its weight as error
+        String minKey = null;
+        long[] minCounter = null;
+        for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+            if (minCounter == null || entry.getValue()[0] < minCounter[0]) {
+                minKey = entry.getKey();
+                minCounter = entry.getValue();
+            }
+        }
+        counters.remove(minKey);
+        counters.put(key, new long[] {minCounter[0] + weight, minCounter[0]});
+    }
+
+    /**
+     * Returns a sketch of both streams combined, with this sketch's capacity. A key missing
+     * from a full sketch may still carry up to that sketch's smallest weight, so it is charged
+     * that much as both weight and error.
+     */
+    public SpaceSavingSketch merge(SpaceSavingSketch other) {
+        long thisFloor = floor();
+        long otherFloor = other.floor();
+
+        Map<String, long[]> combined = new HashMap<>();
+        for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+            long[] theirs = other.counters.get(entry.getKey());
+            long[] mine = entry.getValue();
+            combined.put(entry.getKey(), theirs != null
+                    ? new long[] {mine[0] + theirs[0], mine[1] + theirs[1]}
+                    : new long[] {mine[0] + otherFloor, mine[1] + otherFloor});
+        }
+        for (Map.Entry<String, long[]> entry : other.counters.entrySet()) {
+            if (!counters.containsKey(entry.getKey())) {
+                long[] theirs = entry.getValue();
+                combined.put(entry.getKey(), new long[] {theirs[0] + thisFloor, theirs[1] + thisFloor});
+            }
+        }
+
+        List<Map.Entry<String, long[]>> entries = new ArrayList<>(combined.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[0]).reversed());
+
+        SpaceSavingSketch merged = new SpaceSavingSketch(capacity);
+        merged.total = total + other.total;
+        for (int i = 0; i < Math.min(capacity, entries.size()); i++) {
+            merged.counters.put(entries.get(i).getKey(), entries.get(i).getValue());
+        }
+        return merged;
+    }
+
+    /**
+     * The heaviest monitored keys, heaviest first.
+     */
+    public List<Counter> top(int n) {
+        List<Counter> result = new ArrayList<>(counters.size());
+        for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+            result.add(new Counter(entry.getKey(), entry.getValue()[0], entry.getValue()[1]));
+        }
+        result.sort(Comparator.comparingLong(Counter::getWeight).reversed().thenComparing(Counter::getKey));
+        return result.size() > n ? new ArrayList<>(result.subList(0, n)) : result;
+    }
+
+    /**
+     * Approximate bytes held, for memory budgets.
+     */
+    public long estimatedBytes() {
+        return 64 + counters.size() * 120L;
+    }
+
+    private long floor() {
+        if (counters.size() < capacity) {
+            return 0;
+        }
+        long min = Long.MAX_VALUE;
+        for (long[] counter : counters.values()) {
+            min = Math.min(min, counter[0]);
+        }
+        return min;
+    }
+
+    /**
+     * A monitored key with its estimated weight and the most that estimate can overstate it by.
+     */
+    public static final class Counter {
+        private final String key;
+        private final long weight;
+        private final long error;
+
+        private Counter(String key, long weight, long error) {
+            this.key = key;
+            this.weight = weight;
+            this.error = error;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getWeight() {
+            return weight;
+        }
+
+        public long getError() {
+            return error;
+        }
+    }
+}
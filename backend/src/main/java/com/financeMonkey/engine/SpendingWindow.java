@@ -0,0 +1,119 @@
+package com.financeMonkey.engine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Running spending totals for the days {@code [start, end)}, overall, per category (a null
+ * category ID collects uncategorized spending) and per original currency. Amounts are added
+ * already converted to the reporting currency, alongside the original amount for the currency
+ * breakdown. Amounts that could not be converted are left out of the totals and only show up
+ * per currency, as unconverted. Several windows can be fed from one pass over pre-aggregated
+ * rows. Not thread-safe; build one per computation.
+ */
+public final class SpendingWindow {
+
+    private final LocalDate start;
+    private final LocalDate end;
+    private final Map<UUID, BigDecimal> categoryAmounts = new HashMap<>();
+    private final Map<UUID, Long> categoryCounts = new HashMap<>();
+    private final Map<String, BigDecimal> currencyAmounts = new HashMap<>();
+    private final Map<String, BigDecimal> currencyConvertedAmounts = new HashMap<>();
+    private final Map<String, BigDecimal> currencyUnconvertedAmounts = new HashMap<>();
+    private final Map<String, Long> currencyCounts = new HashMap<>();
+    private BigDecimal total = BigDecimal.ZERO;
+    private long transactionCount;
+
+    public SpendingWindow(LocalDate start, LocalDate end) {
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("Window start " + start + " must be before end " + end);
+        }
+        this.start = start;
+        this.end = end;
+    }
+
+    public boolean contains(LocalDate day) {
+        return !day.isBefore(start) && day.isBefore(end);
+    }
+
+    /**
+     * Adds spending of {@code originalAmount} in {@code currency}, worth {@code amount} in the
+     * reporting currency, or null if it could not be converted.
+     */
+    public void add(UUID categoryId, String currency, BigDecimal originalAmount, BigDecimal amount, long count) {
+        currencyAmounts.merge(currency, originalAmount, BigDecimal::add);
+        currencyCounts.merge(currency, count, Long::sum);
+        if (amount == null) {
+            currencyUnconvertedAmounts.merge(currency, originalAmount, BigDecimal::add);
+            return;
+        }
+        total = total.add(amount);
+        transactionCount += count;
+        categoryAmounts.merge(categoryId, amount, BigDecimal::add);
+        categoryCounts.merge(categoryId, count, Long::sum);
+        currencyConvertedAmounts.merge(currency, amount, BigDecimal::add);
+    }
+
+    /**
+     * Adds the row if its day falls inside the window; returns whether it did.
+     */
+    public boolean addIfContains(LocalDate day, UUID categoryId, String currency, BigDecimal originalAmount,
+                                 BigDecimal amount, long count) {
+        if (!contains(day)) {
+            return false;
+        }
+        add(categoryId, currency, originalAmount, amount, count);
+        return true;
+    }
+
+    public LocalDate getStart() {
+        return start;
+    }
+
+    public LocalDate getEnd() {
+        return end;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public Map<UUID, BigDecimal> getCategoryAmounts() {
+        return Collections.unmodifiableMap(categoryAmounts);
+    }
+
+    public long getCategoryCount(UUID categoryId) {
+        return categoryCounts.getOrDefault(categoryId, 0L);
+    }
+
+    /**
+     * Spending per original currency, in that currency.
+     */
+    public Map<String, BigDecimal> getCurrencyAmounts() {
+        return Collections.unmodifiableMap(currencyAmounts);
+    }
+
+    public BigDecimal getCurrencyConvertedAmount(String currency) {
+        return currencyConvertedAmounts.getOrDefault(currency, BigDecimal.ZERO);
+    }
+
+    /**
+     * Spending in the currency that could not be converted and is missing from the totals, in
+     * that currency.
+     */
+    public BigDecimal getCurrencyUnconvertedAmount(String currency) {
+        return currencyUnconvertedAmounts.getOrDefault(currency, BigDecimal.ZERO);
+    }
+
+    public long getCurrencyCount(String currency) {
+        return currencyCounts.getOrDefault(currency, 0L);
+    }
+}
@@ -0,0 +1,298 @@
+package com.financeMonkey.engine;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * One user's categorization rules compiled for matching.
+ *
+ * Rules are indexed in priority order and the lowest matching index wins. Vendor-contains
+ * rules share one {@link KeywordAutomaton}, vendor-equals and sender rules are hash lookups,
+ * so their cost depends on the length of the text, not on how many rules exist. Regex rules
+ * and amount-only rules are checked one by one and are capped per user for that reason.
+ * Optional amount bounds are applied to whichever rule matched. A regex that reads the vendor
+ * more than {@link #MAX_REGEX_STEPS} times, as a catastrophically backtracking one does, is
+ * stopped and treated as not matching.
+ */
+public final class UserRuleMatcher {
+
+    public static final int MAX_SEQUENTIAL_RULES = 25;
+    // Character reads one regex may make on one vendor; plain patterns need a few per character
+    static final int MAX_REGEX_STEPS = 100_000;
+
+    public enum Kind {
+        VENDOR_CONTAINS, VENDOR_EQUALS, VENDOR_REGEX, SENDER, AMOUNT_RANGE
+    }
+
+    private static final UserRuleMatcher EMPTY = new Builder().build();
+
+    private final UUID[] categoryIds;
+    private final BigDecimal[] minAmounts;
+    private final BigDecimal[] maxAmounts;
+    private final KeywordAutomaton vendorContains;
+    private final Map<String, int[]> vendorEquals;
+    private final Map<String, int[]> senders;
+    private final Pattern[] regexes;
+    private final int[] regexRuleIds;
+    private final int[] amountRuleIds;
+
+    private UserRuleMatcher(Builder builder) {
+        this.categoryIds = builder.categoryIds.toArray(new UUID[0]);
+        this.minAmounts = builder.minAmounts.toArray(new BigDecimal[0]);
+        this.maxAmounts = builder.maxAmounts.toArray(new BigDecimal[0]);
+        this.vendorContains = builder.containsCount > 0 ? builder.automaton.build() : null;
+        this.vendorEquals = freeze(builder.vendorEquals);
+        this.senders = freeze(builder.senders);
+        this.regexes = builder.regexes.toArray(new Pattern[0]);
+        this.regexRuleIds = toIntArray(builder.regexRuleIds);
+        this.amountRuleIds = toIntArray(builder.amountRuleIds);
+    }
+
+    public static UserRuleMatcher empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean isEmpty() {
+        return categoryIds.length == 0;
+    }
+
+    public int getRuleCount() {
+        return categoryIds.length;
+    }
+
+    /**
+     * Returns the category of the highest-priority rule that matches, or null.
+     */
+    public UUID match(String vendor, BigDecimal amount, String sender) {
+        if (isEmpty()) {
+            return null;
+        }
+        IntPredicate inRange = ruleId -> amountInRange(ruleId, amount);
+        int best = KeywordAutomaton.NO_MATCH;
+
+        if (vendor != null) {
+            if (vendorContains != null) {
+                best = vendorContains.bestMatch(vendor, best, inRange);
+            }
+            if (!vendorEquals.isEmpty()) {
+                best = bestOf(vendorEquals.get(normalize(vendor)), best, inRange);
+            }
+            for (int i = 0; i < regexes.length; i++) {
+                int ruleId = regexRuleIds[i];
+                if (best != KeywordAutomaton.NO_MATCH && ruleId >= best) {
+                    break;
+                }
+                if (inRange.test(ruleId) && find(regexes[i], vendor)) {
+                    best = ruleId;
+                    break;
+                }
+            }
+        }
+
+        if (sender != null && !senders.isEmpty()) {
+            // Try the full address, then the domain and each parent domain
+            String key = normalize(sender);
+            int at = key.lastIndexOf('@');
+            best = bestOf(senders.get(key), best, inRange);
+            for (int dot = at; dot >= 0 && dot < key.length(); dot = key.indexOf('.', dot + 1)) {
+                best = bestOf(senders.get(key.substring(dot + 1)), best, inRange);
+            }
+        }
+
+        if (amount != null) {
+            best = bestOf(amountRuleIds, best, inRange);
+        }
+
+        return best == KeywordAutomaton.NO_MATCH ? null : categoryIds[best];
+    }
+
+    private static boolean find(Pattern regex, String vendor) {
+        try {
+            return regex.matcher(new BudgetedText(vendor, new int[]{MAX_REGEX_STEPS})).find();
+        } catch (BudgetExceededException e) {
+            return false;
+        }
+    }
+
+    private boolean amountInRange(int ruleId, BigDecimal amount) {
+        BigDecimal min = minAmounts[ruleId];
+        BigDecimal max = maxAmounts[ruleId];
+        if (min == null && max == null) {
+            return true;
+        }
+        if (amount == null) {
+            return false;
+        }
+        return (min == null || amount.compareTo(min) >= 0) && (max == null || amount.compareTo(max) <= 0);
+    }
+
+    private static int bestOf(int[] ruleIds, int best, IntPredicate accept) {
+        if (ruleIds == null) {
+            return best;
+        }
+        for (int ruleId : ruleIds) {
+            if (best != KeywordAutomaton.NO_MATCH && ruleId >= best) {
+                break;
+            }
+            if (accept.test(ruleId)) {
+                return ruleId;
+            }
+        }
+        return best;
+    }
+
+    static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Map<String, int[]> freeze(Map<String, List<Integer>> source) {
+        Map<String, int[]> result = new HashMap<>(source.size() * 2);
+        source.forEach((key, ids) -> result.put(key, toIntArray(ids)));
+        return result;
+    }
+
+    private static int[] toIntArray(List<Integer> values) {
+        int[] result = new int[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Text that lets a regex read it a limited number of times. Subsequences share the budget.
+     */
+    private static final class BudgetedText implements CharSequence {
+        private final String text;
+        private final int offset;
+        private final int length;
+        private final int[] remaining;
+
+        BudgetedText(String text, int[] remaining) {
+            this(text, 0, text.length(), remaining);
+        }
+
+        private BudgetedText(String text, int offset, int length, int[] remaining) {
+            this.text = text;
+            this.offset = offset;
+            this.length = length;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (--remaining[0] < 0) {
+                throw BudgetExceededException.INSTANCE;
+            }
+            return text.charAt(offset + index);
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new BudgetedText(text, offset + start, end - start, remaining);
+        }
+
+        @Override
+        public String toString() {
+            return text.substring(offset, offset + length);
+        }
+    }
+
+    private static final class BudgetExceededException extends RuntimeException {
+        static final BudgetExceededException INSTANCE = new BudgetExceededException();
+
+        private BudgetExceededException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Rules must be added in priority order, highest priority first.
+     */
+    public static final class Builder {
+        private final List<UUID> categoryIds = new ArrayList<>();
+        private final List<BigDecimal> minAmounts = new ArrayList<>();
+        private final List<BigDecimal> maxAmounts = new ArrayList<>();
+        private final KeywordAutomaton.Builder automaton = KeywordAutomaton.builder();
+        private final Map<String, List<Integer>> vendorEquals = new HashMap<>();
+        private final Map<String, List<Integer>> senders = new HashMap<>();
+        private final List<Pattern> regexes = new ArrayList<>();
+        private final List<Integer> regexRuleIds = new ArrayList<>();
+        private final List<Integer> amountRuleIds = new ArrayList<>();
+        private int containsCount;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a rule.
+         *
+         * @throws IllegalArgumentException if the pattern is missing or invalid, or too many
+         *                                  regex or amount-only rules are defined
+         */
+        public Builder add(Kind kind, String pattern, BigDecimal minAmount, BigDecimal maxAmount, UUID categoryId) {
+            if (kind != Kind.AMOUNT_RANGE && (pattern == null || pattern.isBlank())) {
+                throw new IllegalArgumentException("A " + kind + " rule needs a pattern");
+            }
+            if (kind == Kind.AMOUNT_RANGE && minAmount == null && maxAmount == null) {
+                throw new IllegalArgumentException("An AMOUNT_RANGE rule needs a minimum or maximum amount");
+            }
+            int ruleId = categoryIds.size();
+
+            switch (kind) {
+                case VENDOR_CONTAINS:
+                    automaton.add(normalize(pattern), ruleId);
+                    containsCount++;
+                    break;
+                case VENDOR_EQUALS:
+                    vendorEquals.computeIfAbsent(normalize(pattern), k -> new ArrayList<>()).add(ruleId);
+                    break;
+                case SENDER:
+                    String sender = normalize(pattern);
+                    senders.computeIfAbsent(sender.startsWith("@") ? sender.substring(1) : sender,
+                            k -> new ArrayList<>()).add(ruleId);
+                    break;
+                case VENDOR_REGEX:
+                    if (regexes.size() + amountRuleIds.size() >= MAX_SEQUENTIAL_RULES) {
+                        throw new IllegalArgumentException("At most " + MAX_SEQUENTIAL_RULES + " regex and amount-only rules are allowed");
+                    }
+                    regexes.add(Pattern.compile(pattern, Pattern.CASE_INSENSITIVE));
+                    regexRuleIds.add(ruleId);
+                    break;
+                case AMOUNT_RANGE:
+                    if (regexes.size() + amountRuleIds.size() >= MAX_SEQUENTIAL_RULES) {
+                        throw new IllegalArgumentException("At most " + MAX_SEQUENTIAL_RULES + " regex and amount-only rules are allowed");
+                    }
+                    amountRuleIds.add(ruleId);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported rule kind: " + kind);
+            }
+
+            categoryIds.add(categoryId);
+            minAmounts.add(minAmount);
+            maxAmounts.add(maxAmount);
+            return this;
+        }
+
+        public UserRuleMatcher build() {
+            return new UserRuleMatcher(this);
+        }
+    }
+}
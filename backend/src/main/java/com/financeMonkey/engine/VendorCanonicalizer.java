@@ -0,0 +1,283 @@
+package com.financeMonkey.engine;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Turns raw vendor strings from receipts and bank notifications into canonical merchant names.
+ *
+ * {@link #clean(String)} strips payment-processor prefixes ({@code SQ *}, {@code TST*},
+ * {@code PAYPAL *}), reference codes after a {@code *}, store numbers, domain suffixes and
+ * legal suffixes. {@link #key(String)} reduces a cleaned name to lower-case letters and digits
+ * separated by single spaces. Keys are resolved against a hash index of known aliases: first
+ * the whole key, then each shorter prefix that ends on a word boundary, so "AMZN Mktp US*2K3"
+ * and "Amazon.com" both resolve to "Amazon". Everything runs in a few passes over the input
+ * without regular expressions. Instances are immutable and safe to share between threads.
+ */
+public final class VendorCanonicalizer {
+
+    private static final String[] PROCESSOR_PREFIXES = {
+        "sq", "tst", "paypal", "pp", "sp", "py", "in", "bt", "pos", "sumup", "zettle", "izettle"
+    };
+
+    private static final String[] LEGAL_SUFFIXES = {
+        "inc", "llc", "ltd", "corp", "co", "gmbh", "plc", "pvt"
+    };
+
+    private static final String[] DOMAIN_SUFFIXES = {
+        ".com", ".net", ".org", ".co", ".io", ".in", ".co.uk", ".de"
+    };
+
+    private final Map<String, String> aliases;
+
+    private VendorCanonicalizer(Map<String, String> aliases) {
+        this.aliases = aliases;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the canonical name for a raw vendor: the known merchant it resolves to, or the
+     * cleaned vendor if it is not a known merchant. Returns null for a blank vendor.
+     */
+    public String canonicalize(String vendor) {
+        String cleaned = clean(vendor);
+        if (cleaned == null) {
+            return null;
+        }
+        String canonical = resolve(key(cleaned));
+        return canonical != null ? canonical : cleaned;
+    }
+
+    /**
+     * Returns the known merchant for a key produced by {@link #key(String)}, or null.
+     */
+    public String resolve(String key) {
+        return resolve(aliases, key);
+    }
+
+    /**
+     * Looks a key up in an alias map keyed by {@link #key(String)}: the whole key first, then
+     * each shorter prefix that ends on a word boundary. Returns null if nothing matches.
+     */
+    public static String resolve(Map<String, String> aliases, String key) {
+        if (key == null || key.isEmpty()) {
+            return null;
+        }
+        String canonical = aliases.get(key);
+        // Fall back to the longest known prefix that ends on a word boundary
+        for (int end = key.lastIndexOf(' '); canonical == null && end > 0; end = key.lastIndexOf(' ', end - 1)) {
+            canonical = aliases.get(key.substring(0, end));
+        }
+        return canonical;
+    }
+
+    public int getAliasCount() {
+        return aliases.size();
+    }
+
+    /**
+     * Strips processor prefixes, reference codes, store numbers and legal or domain suffixes,
+     * keeping the remaining words in their original case. Returns null for a blank vendor.
+     */
+    public static String clean(String vendor) {
+        if (vendor == null) {
+            return null;
+        }
+        int start = 0;
+        int end = vendor.length();
+        while (start < end && isSpace(vendor.charAt(start))) {
+            start++;
+        }
+
+        // "SQ *Blue Bottle", "TST* Joe's", "PAYPAL *NETFLIX"
+        int star = indexOf(vendor, '*', start, end);
+        if (star > start && isProcessorPrefix(vendor, start, star)) {
+            start = star + 1;
+            star = indexOf(vendor, '*', start, end);
+        }
+        // "AMZN Mktp US*2K3AB4" - the part after the star is a reference, not part of the name
+        if (star > start) {
+            end = star;
+        }
+
+        if (regionStartsWith(vendor, start, end, "www.")) {
+            start += 4;
+        }
+
+        StringBuilder out = new StringBuilder(end - start);
+        int i = start;
+        while (i < end) {
+            while (i < end && isSeparator(vendor.charAt(i))) {
+                i++;
+            }
+            int wordStart = i;
+            while (i < end && !isSeparator(vendor.charAt(i))) {
+                i++;
+            }
+            if (i > wordStart) {
+                int wordEnd = stripDomainSuffix(vendor, wordStart, i);
+                if (!isReference(vendor, wordStart, wordEnd)) {
+                    if (out.length() > 0) {
+                        out.append(' ');
+                    }
+                    out.append(vendor, wordStart, wordEnd);
+                }
+            }
+        }
+
+        // Drop trailing legal suffixes unless nothing else is left
+        int length = out.length();
+        while (true) {
+            int lastSpace = out.lastIndexOf(" ", length - 1);
+            if (lastSpace < 0 || !isLegalSuffix(out, lastSpace + 1, length)) {
+                break;
+            }
+            length = lastSpace;
+        }
+        out.setLength(length);
+
+        return out.length() > 0 ? out.toString() : null;
+    }
+
+    /**
+     * Reduces a cleaned name to a lookup key: lower-case letters and digits, words separated by
+     * one space, with apostrophes and other punctuation dropped ("McDonald's" becomes "mcdonalds").
+     */
+    public static String key(String cleaned) {
+        if (cleaned == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(cleaned.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < cleaned.length(); i++) {
+            char c = cleaned.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && key.length() > 0) {
+                    key.append(' ');
+                }
+                pendingSpace = false;
+                key.append(Character.toLowerCase(c));
+            } else if (c == '&') {
+                if (key.length() > 0) {
+                    key.append(" and");
+                }
+                pendingSpace = true;
+            } else if (c != '\'' && c != '\u2019') {
+                pendingSpace = true;
+            }
+        }
+        return key.toString();
+    }
+
+    private static boolean isProcessorPrefix(String text, int start, int end) {
+        while (end > start && isSpace(text.charAt(end - 1))) {
+            end--;
+        }
+        for (String prefix : PROCESSOR_PREFIXES) {
+            if (prefix.length() == end - start && text.regionMatches(true, start, prefix, 0, prefix.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int stripDomainSuffix(String text, int start, int end) {
+        for (String suffix : DOMAIN_SUFFIXES) {
+            int suffixStart = end - suffix.length();
+            if (suffixStart > start && text.regionMatches(true, suffixStart, suffix, 0, suffix.length())) {
+                return suffixStart;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Store numbers and reference codes: "#1234", "0042", "2K3AB4". A word that is mostly
+     * letters ("Forever21", "7Eleven") is part of the name.
+     */
+    private static boolean isReference(String text, int start, int end) {
+        if (end <= start) {
+            return true;
+        }
+        if (text.charAt(start) == '#') {
+            return true;
+        }
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            if (Character.isDigit(text.charAt(i))) {
+                digits++;
+            }
+        }
+        int length = end - start;
+        return digits == length ? length >= 3 : length >= 4 && digits * 2 >= length;
+    }
+
+    private static boolean isLegalSuffix(CharSequence text, int start, int end) {
+        // Allow a trailing period, as in "Inc."
+        if (end > start && text.charAt(end - 1) == '.') {
+            end--;
+        }
+        for (String suffix : LEGAL_SUFFIXES) {
+            if (suffix.length() == end - start && regionEqualsIgnoreCase(text, start, suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean regionEqualsIgnoreCase(CharSequence text, int start, String lower) {
+        for (int i = 0; i < lower.length(); i++) {
+            if (Character.toLowerCase(text.charAt(start + i)) != lower.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean regionStartsWith(String text, int start, int end, String prefix) {
+        return end - start > prefix.length() && text.regionMatches(true, start, prefix, 0, prefix.length());
+    }
+
+    private static int indexOf(String text, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isSeparator(char c) {
+        return isSpace(c) || c == ',' || c == '*' || c == '/' || c == '|' || c == '_' || c == ';' || c == ':';
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\u00A0';
+    }
+
+    public static final class Builder {
+        private final Map<String, String> aliases = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Maps an alias to a canonical merchant name. The alias is cleaned and keyed the same
+         * way as vendors are, so "Amazon.com" and "amazon" are the same alias.
+         */
+        public Builder add(String alias, String canonical) {
+            String key = key(clean(alias));
+            if (key != null && !key.isEmpty() && canonical != null && !canonical.isBlank()) {
+                aliases.put(key, canonical.trim());
+            }
+            return this;
+        }
+
+        public VendorCanonicalizer build() {
+            return new VendorCanonicalizer(new HashMap<>(aliases));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.financeMonkey.event;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Published after the writing transaction commits when the write took a budget's spending for
+ * a period to or past one of its alert thresholds for the first time. The alert itself is
+ * stored with the write and listed by {@code BudgetService.getAlerts}.
+ */
+@Value
+public class BudgetThresholdCrossedEvent {
+    UUID budgetId;
+    UUID userId;
+    UUID categoryId;
+    LocalDate periodStart;
+    int thresholdPercent;
+    BigDecimal spent;
+    BigDecimal limitAmount;
+    String currency;
+}
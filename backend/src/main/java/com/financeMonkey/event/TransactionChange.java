@@ -0,0 +1,32 @@
+package com.financeMonkey.event;
+
+import com.financeMonkey.model.Transaction;
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * One transaction write: {@code before} is null for an insert, {@code after} is null for a delete.
+ */
+@Value
+public class TransactionChange {
+    UUID transactionId;
+    TransactionSnapshot before;
+    TransactionSnapshot after;
+
+    public static TransactionChange created(Transaction transaction) {
+        return new TransactionChange(transaction.getId(), null, TransactionSnapshot.of(transaction));
+    }
+
+    public static TransactionChange updated(TransactionSnapshot before, Transaction transaction) {
+        return new TransactionChange(transaction.getId(), before, TransactionSnapshot.of(transaction));
+    }
+
+    public static TransactionChange deleted(Transaction transaction) {
+        return new TransactionChange(transaction.getId(), TransactionSnapshot.of(transaction), null);
+    }
+
+    public UUID getUserId() {
+        return after != null ? after.getUserId() : before.getUserId();
+    }
+}
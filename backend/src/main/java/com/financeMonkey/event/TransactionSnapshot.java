@@ -0,0 +1,44 @@
+package com.financeMonkey.event;
+
+import com.financeMonkey.model.Transaction;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The fields of a transaction that derived data (rollups, caches, detectors) depend on,
+ * captured at one point in time.
+ */
+@Value
+@Builder
+public class TransactionSnapshot {
+    UUID userId;
+    LocalDateTime transactionDate;
+    BigDecimal amount;
+    String currency;
+    UUID categoryId;
+    String vendor;
+    String canonicalVendor;
+    boolean recurring;
+
+    public static TransactionSnapshot of(Transaction transaction) {
+        return TransactionSnapshot.builder()
+                .userId(transaction.getUser().getId())
+                .transactionDate(transaction.getTransactionDate())
+                .amount(transaction.getAmount())
+                .currency(transaction.getCurrency())
+                .categoryId(transaction.getCategory() != null ? transaction.getCategory().getId() : null)
+                .vendor(transaction.getVendor())
+                .canonicalVendor(transaction.getCanonicalVendor())
+                .recurring(transaction.isRecurring())
+                .build();
+    }
+
+    public LocalDate getDay() {
+        return transactionDate.toLocalDate();
+    }
+}
@@ -0,0 +1,36 @@
+package com.financeMonkey.event;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Published inside the writing transaction whenever transactions are created, updated or
+ * deleted. Synchronous listeners run in that same transaction, so derived data commits or
+ * rolls back together with the write. Bulk writers publish one event per batch.
+ */
+@Getter
+public class TransactionsChangedEvent {
+
+    private final List<TransactionChange> changes;
+
+    public TransactionsChangedEvent(List<TransactionChange> changes) {
+        this.changes = Collections.unmodifiableList(changes);
+    }
+
+    public static TransactionsChangedEvent of(TransactionChange change) {
+        return new TransactionsChangedEvent(List.of(change));
+    }
+
+    public Set<UUID> getUserIds() {
+        Set<UUID> userIds = new LinkedHashSet<>();
+        for (TransactionChange change : changes) {
+            userIds.add(change.getUserId());
+        }
+        return userIds;
+    }
+}
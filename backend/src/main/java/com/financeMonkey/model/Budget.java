@@ -0,0 +1,94 @@
+package com.financeMonkey.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.UUID;
+
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "budgets")
+public class Budget {
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    // Null for a budget on all spending
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id")
+    private Category category;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Period period;
+    
+    @Column(name = "limit_amount", nullable = false, precision = 19, scale = 4)
+    private BigDecimal limitAmount;
+    
+    @Column(nullable = false)
+    private String currency;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    public enum Period {
+        WEEKLY, MONTHLY, YEARLY;
+        
+        /**
+         * First day of the period containing the day; weeks start on Monday.
+         */
+        public LocalDate startOf(LocalDate day) {
+            switch (this) {
+                case WEEKLY:
+                    return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTHLY:
+                    return day.withDayOfMonth(1);
+                default:
+                    return day.withDayOfYear(1);
+            }
+        }
+        
+        /**
+         * First day of the next period, given the first day of this one.
+         */
+        public LocalDate next(LocalDate periodStart) {
+            switch (this) {
+                case WEEKLY:
+                    return periodStart.plusWeeks(1);
+                case MONTHLY:
+                    return periodStart.plusMonths(1);
+                default:
+                    return periodStart.plusYears(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.financeMonkey.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "category_rules")
+public class CategoryRule {
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id", nullable = false)
+    private Category category;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private MatchType matchType;
+    
+    private String pattern;
+    
+    @Column(precision = 19, scale = 4)
+    private BigDecimal minAmount;
+    
+    @Column(precision = 19, scale = 4)
+    private BigDecimal maxAmount;
+    
+    @Column(nullable = false)
+    private int priority;
+    
+    @Column(nullable = false)
+    private boolean enabled;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    public enum MatchType {
+        VENDOR_CONTAINS, VENDOR_EQUALS, VENDOR_REGEX, SENDER, AMOUNT_RANGE
+    }
+}
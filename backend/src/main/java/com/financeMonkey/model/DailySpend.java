@@ -0,0 +1,52 @@
+package com.financeMonkey.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Spending of one user in one category and currency on one day. Maintained by
+ * {@link com.financeMonkey.service.DailySpendService}; never written through JPA.
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "daily_spend")
+public class DailySpend {
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+    
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+    
+    @Column(nullable = false)
+    private LocalDate day;
+    
+    @Column(name = "category_id")
+    private UUID categoryId;
+    
+    @Column(nullable = false)
+    private String currency;
+    
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal amount;
+    
+    @Column(nullable = false)
+    private long transactionCount;
+    
+    // The part of the above from recurring transactions
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal recurringAmount;
+    
+    @Column(nullable = false)
+    private long recurringCount;
+}
@@ -0,0 +1,74 @@
+package com.financeMonkey.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "recategorization_jobs")
+public class RecategorizationJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+    
+    // Null when the job covers every user's transactions
+    @Column(name = "user_id")
+    private UUID userId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private JobStatus status;
+    
+    private UUID lastTransactionId;
+    
+    @Column(nullable = false)
+    private long totalCount;
+    
+    @Column(nullable = false)
+    private long scannedCount;
+    
+    @Column(nullable = false)
+    private long updatedCount;
+    
+    @Column(columnDefinition = "TEXT")
+    private String errorMessage;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    private LocalDateTime completedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+        if (status == null) {
+            status = JobStatus.PENDING;
+        }
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    public boolean isActive() {
+        return status == JobStatus.PENDING || status == JobStatus.RUNNING;
+    }
+    
+    public enum JobStatus {
+        PENDING, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+}
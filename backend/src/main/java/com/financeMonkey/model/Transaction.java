@@ -41,6 +41,8 @@ public class Transaction {
     @Column(nullable = false)
     private String vendor;
     
+    private String canonicalVendor;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
@@ -53,6 +55,8 @@ public class Transaction {
     
     private String recurrencePattern;
     
+    private String sender;
+    
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private TransactionStatus status;
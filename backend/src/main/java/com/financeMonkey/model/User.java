@@ -35,6 +35,9 @@ public class User {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
     
+    @Column(nullable = false, length = 3)
+    private String reportingCurrency;
+    
     @Column(columnDefinition = "jsonb")
     @JdbcTypeCode(SqlTypes.JSON)
     private Map<String, Object> settings;
@@ -43,6 +46,9 @@ public class User {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        if (reportingCurrency == null) {
+            reportingCurrency = "USD";
+        }
     }
     
     @PreUpdate
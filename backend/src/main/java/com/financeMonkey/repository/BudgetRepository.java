@@ -0,0 +1,16 @@
+package com.financeMonkey.repository;
+
+import com.financeMonkey.model.Budget;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface BudgetRepository extends JpaRepository<Budget, UUID> {
+    @Query("SELECT b FROM Budget b LEFT JOIN FETCH b.category WHERE b.user.id = :userId ORDER BY b.createdAt ASC")
+    List<Budget> findByUserId(@Param("userId") UUID userId);
+}
@@ -2,6 +2,7 @@ package com.financeMonkey.repository;
 
 import com.financeMonkey.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,4 +13,10 @@ public interface CategoryRepository extends JpaRepository<Category, UUID> {
     List<Category> findByParentCategoryIsNull();
     List<Category> findByParentCategory(Category parentCategory);
     boolean existsByName(String name);
+    
+    /**
+     * Returns (category ID, parent category ID) pairs for the whole tree
+     */
+    @Query("SELECT c.id, p.id FROM Category c LEFT JOIN c.parentCategory p")
+    List<Object[]> findAllParentLinks();
 }
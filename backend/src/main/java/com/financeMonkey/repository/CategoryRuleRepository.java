@@ -0,0 +1,24 @@
+package com.financeMonkey.repository;
+
+import com.financeMonkey.model.CategoryRule;
+import com.financeMonkey.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface CategoryRuleRepository extends JpaRepository<CategoryRule, UUID> {
+    List<CategoryRule> findByUserOrderByPriorityAscCreatedAtAsc(User user);
+    
+    @Query("SELECT r FROM CategoryRule r JOIN FETCH r.category WHERE r.user.id = :userId AND r.enabled = true ORDER BY r.priority ASC, r.createdAt ASC")
+    List<CategoryRule> findEnabledByUserId(@Param("userId") UUID userId);
+    
+    @Query("SELECT COUNT(r) FROM CategoryRule r WHERE r.user.id = :userId AND r.enabled = true AND r.matchType IN :matchTypes")
+    long countEnabledByUserIdAndMatchTypeIn(@Param("userId") UUID userId,
+                                            @Param("matchTypes") Collection<CategoryRule.MatchType> matchTypes);
+}
@@ -0,0 +1,35 @@
+package com.financeMonkey.repository;
+
+import com.financeMonkey.model.DailySpend;
+import com.financeMonkey.repository.projection.DailyCategorySpendingRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Spending queries over the daily_spend rollup. Ranges are whole days, start inclusive and end
+ * exclusive. Categories are joined so spending in a deleted category reads as uncategorized.
+ */
+@Repository
+public interface DailySpendRepository extends JpaRepository<DailySpend, UUID> {
+    
+    /**
+     * Spending per day, category and currency over the range plus a grand-total row, which is
+     * always present and carries the user's recurring transaction count even when the range is
+     * empty. Rows keep their original currency so each day can be converted at its own rate.
+     */
+    @Query(value = "SELECT d.day - DATE '1970-01-01' AS epochDay, c.id AS categoryId, d.currency AS currency, " +
+            "SUM(d.amount) AS amount, CAST(SUM(d.transaction_count) AS BIGINT) AS transactionCount, " +
+            "SUM(d.recurring_amount) AS recurringAmount, " +
+            "(SELECT COUNT(*) FROM transactions r WHERE r.user_id = :userId AND r.recurring = TRUE) AS recurringCount " +
+            "FROM daily_spend d LEFT JOIN categories c ON c.id = d.category_id " +
+            "WHERE d.user_id = :userId AND d.day >= :startDay AND d.day < :endDay " +
+            "GROUP BY GROUPING SETS ((d.day, c.id, d.currency), ())",
+            nativeQuery = true)
+    List<DailyCategorySpendingRow> sumAmountByDayAndCategory(@Param("userId") UUID userId, @Param("startDay") LocalDate startDay, @Param("endDay") LocalDate endDay);
+}
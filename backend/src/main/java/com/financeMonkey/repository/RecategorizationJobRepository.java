@@ -0,0 +1,16 @@
+package com.financeMonkey.repository;
+
+import com.financeMonkey.model.RecategorizationJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RecategorizationJobRepository extends JpaRepository<RecategorizationJob, UUID> {
+    List<RecategorizationJob> findByStatusIn(Collection<RecategorizationJob.JobStatus> statuses);
+    List<RecategorizationJob> findByUserIdAndStatusIn(UUID userId, Collection<RecategorizationJob.JobStatus> statuses);
+    List<RecategorizationJob> findByUserIdIsNullAndStatusIn(Collection<RecategorizationJob.JobStatus> statuses);
+}
@@ -3,6 +3,7 @@ package com.financeMonkey.repository;
 import com.financeMonkey.model.Category;
 import com.financeMonkey.model.Transaction;
 import com.financeMonkey.model.User;
+import com.financeMonkey.repository.projection.TransactionListItem;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -10,25 +11,55 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
-    Page<Transaction> findByUser(User user, Pageable pageable);
-    Page<Transaction> findByUserAndTransactionDateBetween(User user, LocalDateTime start, LocalDateTime end, Pageable pageable);
-    List<Transaction> findByUserAndCategory(User user, Category category);
+    String LIST_ITEM_COLUMNS = "SELECT t.id AS id, t.transactionDate AS transactionDate, t.amount AS amount, " +
+            "t.currency AS currency, t.vendor AS vendor, t.canonicalVendor AS canonicalVendor, c.id AS categoryId, " +
+            "c.name AS categoryName, t.description AS description, t.recurring AS recurring, " +
+            "t.recurrencePattern AS recurrencePattern, t.status AS status " +
+            "FROM Transaction t LEFT JOIN t.category c ";
+    
+    @Query(value = LIST_ITEM_COLUMNS + "WHERE t.user.id = :userId",
+            countQuery = "SELECT COUNT(t) FROM Transaction t WHERE t.user.id = :userId")
+    Page<TransactionListItem> findListItemsByUserId(@Param("userId") UUID userId, Pageable pageable);
     
-    @Query("SELECT SUM(t.amount) FROM Transaction t WHERE t.user = :user AND t.transactionDate BETWEEN :startDate AND :endDate")
-    BigDecimal sumAmountByUserAndDateRange(@Param("user") User user, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    @Query(value = LIST_ITEM_COLUMNS + "WHERE t.user.id = :userId AND t.transactionDate BETWEEN :start AND :end",
+            countQuery = "SELECT COUNT(t) FROM Transaction t WHERE t.user.id = :userId " +
+                    "AND t.transactionDate BETWEEN :start AND :end")
+    Page<TransactionListItem> findListItemsByUserIdAndTransactionDateBetween(@Param("userId") UUID userId,
+                                                                             @Param("start") LocalDateTime start,
+                                                                             @Param("end") LocalDateTime end,
+                                                                             Pageable pageable);
+    
+    List<Transaction> findByUserAndCategory(User user, Category category);
     
-    @Query("SELECT t.category, SUM(t.amount) FROM Transaction t WHERE t.user = :user AND t.transactionDate BETWEEN :startDate AND :endDate GROUP BY t.category")
-    List<Object[]> sumAmountByUserAndCategoryAndDateRange(@Param("user") User user, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    /**
+     * First page of a user's transactions, newest first, optionally within {@code [start, end]}.
+     * Returns a list so no count query is run.
+     */
+    @Query(LIST_ITEM_COLUMNS + "WHERE t.user.id = :userId " +
+            "AND (CAST(:start AS LocalDateTime) IS NULL OR t.transactionDate >= :start) " +
+            "AND (CAST(:end AS LocalDateTime) IS NULL OR t.transactionDate <= :end) " +
+            "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<TransactionListItem> findFirstPage(@Param("userId") UUID userId, @Param("start") LocalDateTime start,
+                                            @Param("end") LocalDateTime end, Pageable pageable);
     
-    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.user = :user AND t.recurring = true")
-    Long countRecurringTransactionsByUser(@Param("user") User user);
+    /**
+     * The page after the transaction at {@code (afterDate, afterId)}, continuing the order of
+     * {@link #findFirstPage}. The row comparison seeks straight to the cursor in the
+     * (user_id, transaction_date DESC, id DESC) index, so every page costs the same.
+     */
+    @Query(LIST_ITEM_COLUMNS + "WHERE t.user.id = :userId " +
+            "AND (t.transactionDate, t.id) < (:afterDate, :afterId) " +
+            "AND (CAST(:start AS LocalDateTime) IS NULL OR t.transactionDate >= :start) " +
+            "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<TransactionListItem> findPageAfter(@Param("userId") UUID userId, @Param("afterDate") LocalDateTime afterDate,
+                                            @Param("afterId") UUID afterId, @Param("start") LocalDateTime start,
+                                            Pageable pageable);
     
     /**
      * Find all transactions by user ID
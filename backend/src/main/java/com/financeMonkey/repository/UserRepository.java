@@ -2,6 +2,8 @@ package com.financeMonkey.repository;
 
 import com.financeMonkey.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -11,4 +13,7 @@ import java.util.UUID;
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+    
+    @Query("SELECT u.reportingCurrency FROM User u WHERE u.id = :userId")
+    Optional<String> findReportingCurrencyById(@Param("userId") UUID userId);
 }
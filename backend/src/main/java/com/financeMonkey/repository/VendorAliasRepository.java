@@ -0,0 +1,15 @@
+package com.financeMonkey.repository;
+
+import com.financeMonkey.model.VendorAlias;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface VendorAliasRepository extends JpaRepository<VendorAlias, UUID> {
+    List<VendorAlias> findByUserIdOrderByAliasKeyAsc(UUID userId);
+    Optional<VendorAlias> findByUserIdAndAliasKey(UUID userId, String aliasKey);
+}
@@ -0,0 +1,26 @@
+package com.financeMonkey.repository;
+
+import com.financeMonkey.model.VendorCategory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface VendorCategoryRepository extends JpaRepository<VendorCategory, UUID> {
+    List<VendorCategory> findByUserId(UUID userId);
+    
+    @Modifying
+    @Query(value = "INSERT INTO vendor_categories (user_id, vendor_key, category_id) VALUES (:userId, :vendorKey, :categoryId) " +
+            "ON CONFLICT (user_id, vendor_key) DO UPDATE SET category_id = EXCLUDED.category_id, updated_at = NOW()",
+            nativeQuery = true)
+    void upsert(@Param("userId") UUID userId, @Param("vendorKey") String vendorKey, @Param("categoryId") UUID categoryId);
+    
+    @Modifying
+    @Query("DELETE FROM VendorCategory v WHERE v.userId = :userId AND v.vendorKey = :vendorKey")
+    void deleteByUserIdAndVendorKey(@Param("userId") UUID userId, @Param("vendorKey") String vendorKey);
+}
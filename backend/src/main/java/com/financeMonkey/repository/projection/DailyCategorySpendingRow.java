@@ -0,0 +1,19 @@
+package com.financeMonkey.repository.projection;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Spending of one category (null for uncategorized) in one currency on one day, with the part
+ * of it from recurring transactions. The day is given as days since 1970-01-01; a null day
+ * marks the grand-total row.
+ */
+public interface DailyCategorySpendingRow {
+    Integer getEpochDay();
+    UUID getCategoryId();
+    String getCurrency();
+    BigDecimal getAmount();
+    Long getTransactionCount();
+    BigDecimal getRecurringAmount();
+    Long getRecurringCount();
+}
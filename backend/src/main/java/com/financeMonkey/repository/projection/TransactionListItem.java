@@ -0,0 +1,26 @@
+package com.financeMonkey.repository.projection;
+
+import com.financeMonkey.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The columns a transaction listing shows, with the category's name joined in by the same
+ * query, so listing a page never loads entities or their associations.
+ */
+public interface TransactionListItem {
+    UUID getId();
+    LocalDateTime getTransactionDate();
+    BigDecimal getAmount();
+    String getCurrency();
+    String getVendor();
+    String getCanonicalVendor();
+    UUID getCategoryId();
+    String getCategoryName();
+    String getDescription();
+    boolean isRecurring();
+    String getRecurrencePattern();
+    Transaction.TransactionStatus getStatus();
+}
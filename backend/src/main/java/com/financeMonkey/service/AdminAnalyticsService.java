@@ -0,0 +1,344 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.engine.FxRateTable;
+import com.financeMonkey.model.Category;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Cross-user statistics for administrators: total volume, each category's share of it, and
+ * how many users there are and how many were active recently.
+ *
+ * The user ID space is cut into slices, several per worker, which a fork/join pool aggregates
+ * in parallel, each slice with one grouped query on its own pooled connection. Because the
+ * slices hold disjoint sets of users, their partial results, distinct user counts included,
+ * merge by addition. Work stealing evens out slices that happen to hold more transactions.
+ * The merged result is stored as a snapshot; reads serve the latest one.
+ *
+ * The slices see one point in time: a coordinating REPEATABLE READ transaction exports its
+ * snapshot ({@code pg_export_snapshot()}) and stays open while every slice imports it with
+ * {@code SET TRANSACTION SNAPSHOT}, so writes committed during the run are in no slice. The
+ * pool is sized to the available cores but leaves {@code reserved-connections} of the
+ * connection pool to requests, plus the one the coordinating transaction holds.
+ *
+ * Totals are converted to {@link FxRateTable#BASE_CURRENCY} at the current rate. Spending in a
+ * currency without exchange rates is left out of them and only reported per currency, as
+ * unconverted.
+ */
+@Slf4j
+@Service
+public class AdminAnalyticsService {
+
+    private static final int SLICES_PER_WORKER = 4;
+    private static final Pattern SNAPSHOT_ID = Pattern.compile("[0-9A-Fa-f-]+");
+
+    private static final String SELECT_SLICE_COLUMNS =
+            "SELECT GROUPING(category_id, currency) AS grouping_level, category_id, currency, " +
+            "COUNT(*) AS transaction_count, SUM(amount) AS amount, COUNT(DISTINCT user_id) AS user_count, " +
+            "COUNT(DISTINCT user_id) FILTER (WHERE transaction_date >= ?) AS active_user_count FROM transactions ";
+    private static final String GROUP_SLICE =
+            "GROUP BY GROUPING SETS ((category_id, currency), (category_id), ())";
+    private static final String SELECT_SLICE = SELECT_SLICE_COLUMNS +
+            "WHERE user_id >= ? AND user_id < ? " + GROUP_SLICE;
+    private static final String SELECT_LAST_SLICE = SELECT_SLICE_COLUMNS +
+            "WHERE user_id >= ? " + GROUP_SLICE;
+    private static final String INSERT_SNAPSHOT =
+            "INSERT INTO admin_analytics_snapshots (id, currency, total_amount, transaction_count, user_count, " +
+            "active_user_count, active_since, slice_count, parallelism, duration_ms) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_CATEGORY =
+            "INSERT INTO admin_analytics_snapshot_categories (snapshot_id, category_id, amount, transaction_count, " +
+            "user_count) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_CURRENCY =
+            "INSERT INTO admin_analytics_snapshot_currencies (snapshot_id, currency, amount, converted_amount) " +
+            "VALUES (?, ?, ?, ?)";
+    private static final String SELECT_LATEST_SNAPSHOT =
+            "SELECT id, currency, total_amount, transaction_count, user_count, active_user_count, active_since, " +
+            "slice_count, parallelism, duration_ms, created_at FROM admin_analytics_snapshots " +
+            "ORDER BY created_at DESC LIMIT 1";
+    private static final String SELECT_SNAPSHOT_CATEGORIES =
+            "SELECT category_id, amount, transaction_count, user_count FROM admin_analytics_snapshot_categories " +
+            "WHERE snapshot_id = ? ORDER BY amount DESC";
+    private static final String SELECT_SNAPSHOT_CURRENCIES =
+            "SELECT currency, amount, converted_amount FROM admin_analytics_snapshot_currencies " +
+            "WHERE snapshot_id = ? ORDER BY converted_amount DESC NULLS LAST, currency";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate snapshotTransaction;
+    private final FxRateService fxRateService;
+    private final CategoryCacheService categoryCacheService;
+    private final int activeDays;
+    private final ForkJoinPool pool;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public AdminAnalyticsService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                 FxRateService fxRateService, CategoryCacheService categoryCacheService,
+                                 @Value("${spring.datasource.hikari.maximum-pool-size:5}") int maxPoolSize,
+                                 @Value("${analytics.admin.reserved-connections:2}") int reservedConnections,
+                                 @Value("${analytics.admin.active-days:30}") int activeDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.snapshotTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+        this.fxRateService = fxRateService;
+        this.categoryCacheService = categoryCacheService;
+        this.activeDays = activeDays;
+
+        int parallelism = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+                maxPoolSize - reservedConnections - 1));
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Returns the most recent snapshot.
+     */
+    public Map<String, Object> getLatestSnapshot() {
+        List<Map<String, Object>> snapshots = jdbcTemplate.query(SELECT_LATEST_SNAPSHOT, (rs, rowNum) -> {
+            Map<String, Object> snapshot = new HashMap<>();
+            snapshot.put("id", rs.getObject("id", UUID.class));
+            snapshot.put("currency", rs.getString("currency"));
+            snapshot.put("totalAmount", rs.getBigDecimal("total_amount"));
+            snapshot.put("transactionCount", rs.getLong("transaction_count"));
+            snapshot.put("userCount", rs.getLong("user_count"));
+            snapshot.put("activeUserCount", rs.getLong("active_user_count"));
+            snapshot.put("activeSince", rs.getDate("active_since").toLocalDate());
+            snapshot.put("sliceCount", rs.getInt("slice_count"));
+            snapshot.put("parallelism", rs.getInt("parallelism"));
+            snapshot.put("durationMs", rs.getLong("duration_ms"));
+            snapshot.put("createdAt", rs.getTimestamp("created_at").toLocalDateTime());
+            return snapshot;
+        });
+        if (snapshots.isEmpty()) {
+            throw new EntityNotFoundException("No admin analytics snapshot has been computed yet");
+        }
+
+        Map<String, Object> snapshot = snapshots.get(0);
+        BigDecimal total = (BigDecimal) snapshot.get("totalAmount");
+        snapshot.put("categories", jdbcTemplate.query(SELECT_SNAPSHOT_CATEGORIES, (rs, rowNum) -> {
+            UUID categoryId = rs.getObject("category_id", UUID.class);
+            Category category = categoryCacheService.getCategory(categoryId);
+            BigDecimal amount = rs.getBigDecimal("amount");
+
+            Map<String, Object> categoryData = new HashMap<>();
+            categoryData.put("categoryId", categoryId);
+            categoryData.put("categoryName", category != null ? category.getName() : "Uncategorized");
+            categoryData.put("amount", amount);
+            categoryData.put("share", total.signum() != 0
+                    ? amount.divide(total, 4, RoundingMode.HALF_UP) : BigDecimal.ZERO);
+            categoryData.put("transactionCount", rs.getLong("transaction_count"));
+            categoryData.put("userCount", rs.getLong("user_count"));
+            return categoryData;
+        }, snapshot.get("id")));
+        snapshot.put("currencies", jdbcTemplate.query(SELECT_SNAPSHOT_CURRENCIES, (rs, rowNum) -> {
+            BigDecimal convertedAmount = rs.getBigDecimal("converted_amount");
+
+            Map<String, Object> currencyData = new HashMap<>();
+            currencyData.put("currency", rs.getString("currency"));
+            currencyData.put("amount", rs.getBigDecimal("amount"));
+            currencyData.put("convertedAmount", convertedAmount);
+            currencyData.put("converted", convertedAmount != null);
+            return currencyData;
+        }, snapshot.get("id")));
+        return snapshot;
+    }
+
+    /**
+     * Aggregates every user's transactions in parallel, stores the result as a new snapshot and
+     * returns it. Only one snapshot is computed at a time.
+     */
+    public Map<String, Object> computeSnapshot() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("An admin analytics snapshot is already being computed");
+        }
+        try {
+            long started = System.nanoTime();
+            LocalDate activeSince = LocalDate.now().minusDays(activeDays);
+            int slices = pool.getParallelism() * SLICES_PER_WORKER;
+
+            Timestamp activeSinceTime = Timestamp.valueOf(activeSince.atStartOfDay());
+            Partial result = snapshotTransaction.execute(status -> {
+                String snapshotId = jdbcTemplate.queryForObject("SELECT pg_export_snapshot()", String.class);
+                return pool.invoke(new SliceTask(0, slices, slices, activeSinceTime, snapshotId));
+            });
+            long durationMillis = (System.nanoTime() - started) / 1_000_000;
+            log.info("Aggregated {} transactions of {} users in {} slices on {} workers in {} ms",
+                    result.transactionCount, result.userCount, slices, pool.getParallelism(), durationMillis);
+
+            save(result, activeSince, slices, durationMillis);
+            return getLatestSnapshot();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void save(Partial result, LocalDate activeSince, int slices, long durationMillis) {
+        FxRateTable rates = fxRateService.getTable();
+        LocalDate today = LocalDate.now();
+        Map<UUID, BigDecimal> categoryAmounts = new HashMap<>();
+        Map<String, BigDecimal> currencyAmounts = new HashMap<>();
+        Map<String, BigDecimal> currencyConvertedAmounts = new HashMap<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<UUID, Map<String, BigDecimal>> category : result.amounts.entrySet()) {
+            BigDecimal amount = BigDecimal.ZERO;
+            for (Map.Entry<String, BigDecimal> currency : category.getValue().entrySet()) {
+                currencyAmounts.merge(currency.getKey(), currency.getValue(), BigDecimal::add);
+                BigDecimal converted = rates.convert(currency.getValue(), currency.getKey(), FxRateTable.BASE_CURRENCY, today);
+                if (converted != null) {
+                    amount = amount.add(converted);
+                    currencyConvertedAmounts.merge(currency.getKey(), converted, BigDecimal::add);
+                }
+            }
+            categoryAmounts.put(category.getKey(), amount);
+            total = total.add(amount);
+        }
+
+        UUID snapshotId = UUID.randomUUID();
+        List<Object[]> categoryRows = new ArrayList<>();
+        for (Map.Entry<UUID, BigDecimal> category : categoryAmounts.entrySet()) {
+            categoryRows.add(new Object[] {snapshotId, category.getKey(), category.getValue(),
+                    result.categoryTransactions.getOrDefault(category.getKey(), 0L),
+                    result.categoryUsers.getOrDefault(category.getKey(), 0L)});
+        }
+        List<Object[]> currencyRows = new ArrayList<>();
+        for (Map.Entry<String, BigDecimal> currency : currencyAmounts.entrySet()) {
+            currencyRows.add(new Object[] {snapshotId, currency.getKey(), currency.getValue(),
+                    currencyConvertedAmounts.get(currency.getKey())});
+        }
+        BigDecimal totalAmount = total;
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(INSERT_SNAPSHOT, snapshotId, FxRateTable.BASE_CURRENCY, totalAmount,
+                    result.transactionCount, result.userCount, result.activeUserCount, Date.valueOf(activeSince),
+                    slices, pool.getParallelism(), durationMillis);
+            jdbcTemplate.batchUpdate(INSERT_CATEGORY, categoryRows);
+            jdbcTemplate.batchUpdate(INSERT_CURRENCY, currencyRows);
+        });
+    }
+
+    /**
+     * Start of slice {@code index} of {@code slices} equal ranges of the user ID space, which
+     * PostgreSQL orders as unsigned bytes.
+     */
+    private static UUID sliceStart(int index, int slices) {
+        return new UUID(Long.divideUnsigned(-1L, slices) * index, 0L);
+    }
+
+    /**
+     * Aggregates slices {@code [from, to)}, splitting in half until one slice is left.
+     */
+    private final class SliceTask extends RecursiveTask<Partial> {
+        private final int from;
+        private final int to;
+        private final int slices;
+        private final Timestamp activeSince;
+        private final String snapshotId;
+
+        private SliceTask(int from, int to, int slices, Timestamp activeSince, String snapshotId) {
+            this.from = from;
+            this.to = to;
+            this.slices = slices;
+            this.activeSince = activeSince;
+            this.snapshotId = snapshotId;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                SliceTask left = new SliceTask(from, middle, slices, activeSince, snapshotId);
+                left.fork();
+                Partial right = new SliceTask(middle, to, slices, activeSince, snapshotId).compute();
+                return left.join().merge(right);
+            }
+
+            return snapshotTransaction.execute(status -> {
+                // Not a bind parameter: SET TRANSACTION takes a literal
+                if (!SNAPSHOT_ID.matcher(snapshotId).matches()) {
+                    throw new IllegalStateException("Unexpected snapshot ID: " + snapshotId);
+                }
+                jdbcTemplate.execute("SET TRANSACTION SNAPSHOT '" + snapshotId + "'");
+                return aggregate();
+            });
+        }
+
+        private Partial aggregate() {
+            Partial partial = new Partial();
+            UUID start = sliceStart(from, slices);
+            String sql = from == slices - 1 ? SELECT_LAST_SLICE : SELECT_SLICE;
+            Object[] args = from == slices - 1
+                    ? new Object[] {activeSince, start}
+                    : new Object[] {activeSince, start, sliceStart(from + 1, slices)};
+            jdbcTemplate.query(sql, rs -> {
+                UUID categoryId = rs.getObject("category_id", UUID.class);
+                long transactionCount = rs.getLong("transaction_count");
+                switch (rs.getInt("grouping_level")) {
+                    case 0:
+                        BigDecimal amount = rs.getBigDecimal("amount");
+                        partial.amounts.computeIfAbsent(categoryId, k -> new HashMap<>())
+                                .merge(rs.getString("currency"), amount != null ? amount : BigDecimal.ZERO, BigDecimal::add);
+                        break;
+                    case 1:
+                        partial.categoryTransactions.merge(categoryId, transactionCount, Long::sum);
+                        partial.categoryUsers.merge(categoryId, rs.getLong("user_count"), Long::sum);
+                        break;
+                    default:
+                        partial.transactionCount += transactionCount;
+                        partial.userCount += rs.getLong("user_count");
+                        partial.activeUserCount += rs.getLong("active_user_count");
+                }
+            }, args);
+            return partial;
+        }
+    }
+
+    /**
+     * Totals over a set of users. Category keys may be null for uncategorized transactions.
+     */
+    private static final class Partial {
+        private final Map<UUID, Map<String, BigDecimal>> amounts = new HashMap<>();
+        private final Map<UUID, Long> categoryTransactions = new HashMap<>();
+        private final Map<UUID, Long> categoryUsers = new HashMap<>();
+        private long transactionCount;
+        private long userCount;
+        private long activeUserCount;
+
+        /**
+         * Adds another partial over a disjoint set of users into this one.
+         */
+        private Partial merge(Partial other) {
+            for (Map.Entry<UUID, Map<String, BigDecimal>> category : other.amounts.entrySet()) {
+                Map<String, BigDecimal> currencies = amounts.computeIfAbsent(category.getKey(), k -> new HashMap<>());
+                category.getValue().forEach((currency, amount) -> currencies.merge(currency, amount, BigDecimal::add));
+            }
+            other.categoryTransactions.forEach((category, count) -> categoryTransactions.merge(category, count, Long::sum));
+            other.categoryUsers.forEach((category, count) -> categoryUsers.merge(category, count, Long::sum));
+            transactionCount += other.transactionCount;
+            userCount += other.userCount;
+            activeUserCount += other.activeUserCount;
+            return this;
+        }
+    }
+}
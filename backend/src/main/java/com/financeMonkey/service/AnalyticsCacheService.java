@@ -0,0 +1,208 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.event.TransactionsChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of analytics results keyed by user, endpoint and parameters.
+ *
+ * Every user has a data version that is bumped once a transaction write commits; an entry is
+ * served only while both the user's version and the category cache's version match the ones
+ * it was computed at, so a write invalidates exactly that user's results and nothing else.
+ * Hits, misses, evictions, the entry count and an estimate of retained memory are published
+ * as {@code analytics.cache.*} metrics.
+ */
+@Service
+public class AnalyticsCacheService {
+
+    // Rough retained size of one map entry, list element or scalar in a cached result
+    private static final long BYTES_PER_NODE = 96;
+
+    private final CategoryCacheService categoryCacheService;
+    private final int maxEntries;
+
+    private final Map<UUID, AtomicLong> dataVersions = new ConcurrentHashMap<>();
+    private final LinkedHashMap<Key, Entry> entries;
+    private long estimatedBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public AnalyticsCacheService(CategoryCacheService categoryCacheService, MeterRegistry meterRegistry,
+                                 @Value("${analytics.cache.max-entries:10000}") int maxEntries) {
+        this.categoryCacheService = categoryCacheService;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        this.hits = Counter.builder("analytics.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("analytics.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("analytics.cache.evictions").register(meterRegistry);
+        Gauge.builder("analytics.cache.entries", this, AnalyticsCacheService::size).register(meterRegistry);
+        Gauge.builder("analytics.cache.estimated.bytes", this, AnalyticsCacheService::getEstimatedBytes)
+                .baseUnit("bytes").register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached result for the user, endpoint and parameters, computing and caching
+     * it if there is none or the user's data has changed since it was computed.
+     */
+    public Map<String, Object> get(UUID userId, String endpoint, List<?> parameters, Supplier<Map<String, Object>> loader) {
+        Key key = new Key(userId, endpoint, parameters);
+        long userVersion = getDataVersion(userId);
+        long categoryVersion = categoryCacheService.getVersion();
+
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.userVersion == userVersion && entry.categoryVersion == categoryVersion) {
+                hits.increment();
+                return entry.value;
+            }
+        }
+
+        misses.increment();
+        // Computed outside the lock; concurrent misses for the same key both load, last one wins
+        Map<String, Object> value = loader.get();
+        long bytes = estimateBytes(value);
+
+        synchronized (this) {
+            Entry previous = entries.put(key, new Entry(value, userVersion, categoryVersion, bytes));
+            if (previous != null) {
+                estimatedBytes -= previous.bytes;
+            }
+            estimatedBytes += bytes;
+            while (entries.size() > maxEntries) {
+                Map.Entry<Key, Entry> eldest = entries.entrySet().iterator().next();
+                estimatedBytes -= eldest.getValue().bytes;
+                entries.remove(eldest.getKey());
+                evictions.increment();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Bumps the data version of every user whose transactions changed, once the writing
+     * transaction commits.
+     */
+    @EventListener
+    public void onTransactionsChanged(TransactionsChangedEvent event) {
+        invalidate(event.getUserIds());
+    }
+
+    /**
+     * Drops the user's cached results once the current transaction commits (or immediately
+     * when called outside a transaction).
+     */
+    public void invalidate(UUID userId) {
+        invalidate(List.of(userId));
+    }
+
+    private void invalidate(Collection<UUID> userIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userIds.forEach(AnalyticsCacheService.this::bumpDataVersion);
+                }
+            });
+        } else {
+            userIds.forEach(this::bumpDataVersion);
+        }
+    }
+
+    public long getDataVersion(UUID userId) {
+        AtomicLong version = dataVersions.get(userId);
+        return version != null ? version.get() : 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    private void bumpDataVersion(UUID userId) {
+        dataVersions.computeIfAbsent(userId, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static long estimateBytes(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            long bytes = BYTES_PER_NODE;
+            for (Object child : map.values()) {
+                bytes += BYTES_PER_NODE + estimateBytes(child);
+            }
+            return bytes;
+        }
+        if (value instanceof Collection<?> collection) {
+            long bytes = BYTES_PER_NODE;
+            for (Object child : collection) {
+                bytes += estimateBytes(child);
+            }
+            return bytes;
+        }
+        return BYTES_PER_NODE;
+    }
+
+    private static final class Key {
+        private final UUID userId;
+        private final String endpoint;
+        private final List<?> parameters;
+
+        private Key(UUID userId, String endpoint, List<?> parameters) {
+            this.userId = userId;
+            this.endpoint = endpoint;
+            this.parameters = parameters;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return userId.equals(other.userId) && endpoint.equals(other.endpoint) && parameters.equals(other.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, endpoint, parameters);
+        }
+    }
+
+    private static final class Entry {
+        private final Map<String, Object> value;
+        private final long userVersion;
+        private final long categoryVersion;
+        private final long bytes;
+
+        private Entry(Map<String, Object> value, long userVersion, long categoryVersion, long bytes) {
+            this.value = value;
+            this.userVersion = userVersion;
+            this.categoryVersion = categoryVersion;
+            this.bytes = bytes;
+        }
+    }
+}
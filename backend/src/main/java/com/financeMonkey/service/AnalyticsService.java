@@ -1,10 +1,15 @@
 package com.financeMonkey.service;
 
-import com.financeMonkey.dto.CategoryDto;
 import com.financeMonkey.dto.TransactionDto;
+import com.financeMonkey.engine.ColumnarSpending;
+import com.financeMonkey.engine.FxRateTable;
+import com.financeMonkey.engine.SpaceSavingSketch;
+import com.financeMonkey.engine.SpendingWindow;
+import com.financeMonkey.model.Category;
 import com.financeMonkey.model.User;
-import com.financeMonkey.repository.TransactionRepository;
+import com.financeMonkey.repository.DailySpendRepository;
 import com.financeMonkey.repository.UserRepository;
+import com.financeMonkey.repository.projection.DailyCategorySpendingRow;
 import com.financeMonkey.security.JwtTokenProvider;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
@@ -12,128 +17,750 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 
+/**
+ * Spending analytics in the user's reporting currency. Every endpoint is computed from one
+ * stream of (day, category, currency) totals, read from the columnar store when it is enabled
+ * and from the daily_spend rollup otherwise. Each total is converted at its own day's rate as
+ * it is added, and the per-currency breakdown is collected in the same pass. Amounts in a
+ * currency without exchange rates are left out of the totals and reported in the per-currency
+ * breakdown as unconverted.
+ */
 @Service
 @RequiredArgsConstructor
 public class AnalyticsService {
 
-    private final TransactionRepository transactionRepository;
+    private static final int MAX_TREND_MONTHS = 120;
+    private static final int DASHBOARD_TREND_MONTHS = 12;
+    private static final int MAX_FORECAST_MONTHS = 12;
+    private static final int FORECAST_HISTORY_MONTHS = 24;
+
+    private final DailySpendRepository dailySpendRepository;
     private final UserRepository userRepository;
-    private final CategoryService categoryService;
+    private final CategoryCacheService categoryCacheService;
+    private final FxRateService fxRateService;
     private final JwtTokenProvider jwtTokenProvider;
+    private final AnalyticsCacheService analyticsCacheService;
+    private final ColumnarStoreService columnarStoreService;
+    private final VendorSketchService vendorSketchService;
+    private final RecurrenceService recurrenceService;
 
+    /**
+     * Returns total, per-category and per-currency spending for the days the period covers.
+     */
     @Transactional(readOnly = true)
     public Map<String, Object> getSpendingSummary(String token, LocalDateTime startDate, LocalDateTime endDate) {
         UUID userId = jwtTokenProvider.getUserId(token);
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + userId));
+        return analyticsCacheService.get(userId, "summary", Arrays.asList(startDate, endDate, fxRateService.getVersion()),
+                () -> computeSpendingSummary(userId, startDate, endDate));
+    }
+
+    private Map<String, Object> computeSpendingSummary(UUID userId, LocalDateTime startDate, LocalDateTime endDate) {
+        SpendingWindow window = createPeriodWindow(startDate, endDate);
+        String currency = getReportingCurrency(userId);
         
-        BigDecimal totalSpending = transactionRepository.sumAmountByUserAndDateRange(user, startDate, endDate);
+        long recurringCount = forEachDailySpend(userId, window.getStart(), window.getEnd(), currency,
+                (day, categoryId, originalCurrency, originalAmount, amount, count, recurringAmount) ->
+                        window.add(categoryId, originalCurrency, originalAmount, amount, count));
         
-        if (totalSpending == null) {
-            totalSpending = BigDecimal.ZERO;
+        return toSpendingSummary(window, recurringCount, currency, startDate, endDate);
+    }
+
+    /**
+     * Compares spending in a period with an earlier one, in total and per category. Without an
+     * explicit comparison period the one just before is used: the same number of calendar
+     * months for a period of whole months, otherwise the same number of days. Periods that touch
+     * or overlap are summed from one scan over both; periods apart, such as a year-over-year
+     * comparison, are scanned separately so the days between them are never read.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getPeriodComparison(String token, LocalDateTime startDate, LocalDateTime endDate,
+                                                   LocalDateTime compareStartDate, LocalDateTime compareEndDate) {
+        if ((compareStartDate == null) != (compareEndDate == null)) {
+            throw new IllegalArgumentException("compareStartDate and compareEndDate must be given together");
         }
         
-        // Get spending by category
-        List<Object[]> categorySpending = transactionRepository.sumAmountByUserAndCategoryAndDateRange(
-                user, startDate, endDate);
+        UUID userId = jwtTokenProvider.getUserId(token);
+        return analyticsCacheService.get(userId, "comparison",
+                Arrays.asList(startDate, endDate, compareStartDate, compareEndDate, fxRateService.getVersion()),
+                () -> computePeriodComparison(userId, startDate, endDate, compareStartDate, compareEndDate));
+    }
+
+    private Map<String, Object> computePeriodComparison(UUID userId, LocalDateTime startDate, LocalDateTime endDate,
+                                                        LocalDateTime compareStartDate, LocalDateTime compareEndDate) {
+        SpendingWindow current = createPeriodWindow(startDate, endDate);
+        SpendingWindow previous = compareStartDate != null
+                ? createPeriodWindow(compareStartDate, compareEndDate) : previousWindow(current);
+        String currency = getReportingCurrency(userId);
         
-        List<Map<String, Object>> spendingByCategory = new ArrayList<>();
+        if (previous.getEnd().isBefore(current.getStart()) || current.getEnd().isBefore(previous.getStart())) {
+            for (SpendingWindow window : new SpendingWindow[] {previous, current}) {
+                forEachDailySpend(userId, window.getStart(), window.getEnd(), currency,
+                        (day, categoryId, originalCurrency, originalAmount, amount, count, recurringAmount) ->
+                                window.add(categoryId, originalCurrency, originalAmount, amount, count));
+            }
+        } else {
+            LocalDate scanStart = current.getStart().isBefore(previous.getStart()) ? current.getStart() : previous.getStart();
+            LocalDate scanEnd = current.getEnd().isAfter(previous.getEnd()) ? current.getEnd() : previous.getEnd();
+            forEachDailySpend(userId, scanStart, scanEnd, currency,
+                    (day, categoryId, originalCurrency, originalAmount, amount, count, recurringAmount) -> {
+                        current.addIfContains(day, categoryId, originalCurrency, originalAmount, amount, count);
+                        previous.addIfContains(day, categoryId, originalCurrency, originalAmount, amount, count);
+                    });
+        }
         
-        for (Object[] result : categorySpending) {
-            Map<String, Object> categoryData = new HashMap<>();
+        Set<UUID> categoryIds = new HashSet<>(current.getCategoryAmounts().keySet());
+        categoryIds.addAll(previous.getCategoryAmounts().keySet());
+        List<Map<String, Object>> categories = new ArrayList<>();
+        for (UUID categoryId : categoryIds) {
+            BigDecimal currentAmount = current.getCategoryAmounts().getOrDefault(categoryId, BigDecimal.ZERO);
+            BigDecimal previousAmount = previous.getCategoryAmounts().getOrDefault(categoryId, BigDecimal.ZERO);
+            Category category = categoryCacheService.getCategory(categoryId);
             
-            if (result[0] != null) {
-                CategoryDto category = categoryService.getCategoryById(((UUID) result[0]));
-                categoryData.put("categoryId", category.getId());
-                categoryData.put("categoryName", category.getName());
-            } else {
-                categoryData.put("categoryId", null);
-                categoryData.put("categoryName", "Uncategorized");
+            Map<String, Object> categoryData = new HashMap<>();
+            categoryData.put("categoryId", category != null ? category.getId() : null);
+            categoryData.put("categoryName", category != null ? category.getName() : "Uncategorized");
+            categoryData.put("currentAmount", currentAmount);
+            categoryData.put("previousAmount", previousAmount);
+            categoryData.put("currentTransactionCount", current.getCategoryCount(categoryId));
+            categoryData.put("previousTransactionCount", previous.getCategoryCount(categoryId));
+            categoryData.put("change", currentAmount.subtract(previousAmount));
+            categoryData.put("percentChange", percentChange(currentAmount, previousAmount));
+            categories.add(categoryData);
+        }
+        categories.sort((a, b) -> ((BigDecimal) b.get("change")).abs().compareTo(((BigDecimal) a.get("change")).abs()));
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("currency", currency);
+        result.put("current", toPeriodTotals(current));
+        result.put("previous", toPeriodTotals(previous));
+        result.put("change", current.getTotal().subtract(previous.getTotal()));
+        result.put("percentChange", percentChange(current.getTotal(), previous.getTotal()));
+        result.put("categories", categories);
+        
+        return result;
+    }
+
+    /**
+     * The period just before the given one: as many calendar months if it covers whole months,
+     * otherwise as many days.
+     */
+    private static SpendingWindow previousWindow(SpendingWindow window) {
+        LocalDate start = window.getStart();
+        LocalDate end = window.getEnd();
+        if (start.getDayOfMonth() == 1 && end.getDayOfMonth() == 1) {
+            long months = ChronoUnit.MONTHS.between(start, end);
+            return new SpendingWindow(start.minusMonths(months), start);
+        }
+        return new SpendingWindow(start.minusDays(ChronoUnit.DAYS.between(start, end)), start);
+    }
+
+    private static Map<String, Object> toPeriodTotals(SpendingWindow window) {
+        Map<String, Object> totals = new HashMap<>();
+        totals.put("periodStart", window.getStart());
+        totals.put("periodEnd", window.getEnd().minusDays(1));
+        totals.put("totalSpending", window.getTotal());
+        totals.put("transactionCount", window.getTransactionCount());
+        return totals;
+    }
+
+    /**
+     * Change from {@code previous} to {@code current} in percent of {@code previous}, or null
+     * when there was nothing to compare with.
+     */
+    private static BigDecimal percentChange(BigDecimal current, BigDecimal previous) {
+        if (previous.signum() == 0) {
+            return null;
+        }
+        return current.subtract(previous).multiply(BigDecimal.valueOf(100))
+                .divide(previous.abs(), 1, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Returns spending as a category tree: every category's amount includes its subcategories,
+     * computed from one grouped query and the cached ancestor index.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getCategoryRollup(String token, LocalDateTime startDate, LocalDateTime endDate) {
+        UUID userId = jwtTokenProvider.getUserId(token);
+        return analyticsCacheService.get(userId, "rollup", Arrays.asList(startDate, endDate, fxRateService.getVersion()),
+                () -> computeCategoryRollup(userId, startDate, endDate));
+    }
+
+    private Map<String, Object> computeCategoryRollup(UUID userId, LocalDateTime startDate, LocalDateTime endDate) {
+        SpendingWindow window = createPeriodWindow(startDate, endDate);
+        String currency = getReportingCurrency(userId);
+        forEachDailySpend(userId, window.getStart(), window.getEnd(), currency,
+                (day, categoryId, originalCurrency, originalAmount, amount, count, recurringAmount) ->
+                        window.add(categoryId, originalCurrency, originalAmount, amount, count));
+        
+        Map<UUID, BigDecimal> directAmounts = new HashMap<>();
+        Map<UUID, BigDecimal> totalAmounts = new HashMap<>();
+        Map<UUID, Long> totalCounts = new HashMap<>();
+        BigDecimal uncategorizedAmount = BigDecimal.ZERO;
+        long uncategorizedCount = 0;
+        
+        for (Map.Entry<UUID, BigDecimal> entry : window.getCategoryAmounts().entrySet()) {
+            UUID categoryId = entry.getKey();
+            BigDecimal amount = entry.getValue();
+            long count = window.getCategoryCount(categoryId);
+        
+            List<UUID> ancestors = categoryCacheService.getAncestors(categoryId);
+            if (ancestors.isEmpty()) {
+                uncategorizedAmount = uncategorizedAmount.add(amount);
+                uncategorizedCount += count;
+                continue;
+            }
+        
+            directAmounts.merge(categoryId, amount, BigDecimal::add);
+            for (UUID ancestorId : ancestors) {
+                totalAmounts.merge(ancestorId, amount, BigDecimal::add);
+                totalCounts.merge(ancestorId, count, Long::sum);
             }
+        }
+        
+        Map<String, Object> uncategorized = new HashMap<>();
+        uncategorized.put("amount", uncategorizedAmount);
+        uncategorized.put("transactionCount", uncategorizedCount);
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("currency", currency);
+        result.put("totalSpending", window.getTotal());
+        result.put("categories", buildRollupNodes(categoryCacheService.getRootIds(), 0,
+                directAmounts, totalAmounts, totalCounts));
+        result.put("uncategorized", uncategorized);
+        result.put("spendingByCurrency", toCurrencyBreakdown(window));
+        result.put("periodStart", startDate);
+        result.put("periodEnd", endDate);
+        
+        return result;
+    }
+
+    private List<Map<String, Object>> buildRollupNodes(List<UUID> categoryIds, int level,
+                                                       Map<UUID, BigDecimal> directAmounts,
+                                                       Map<UUID, BigDecimal> totalAmounts,
+                                                       Map<UUID, Long> totalCounts) {
+        List<Map<String, Object>> nodes = new ArrayList<>();
+        for (UUID categoryId : categoryIds) {
+            BigDecimal amount = totalAmounts.get(categoryId);
+            if (amount == null) {
+                // Nothing spent anywhere in this subtree
+                continue;
+            }
+            Category category = categoryCacheService.getCategory(categoryId);
             
-            categoryData.put("amount", result[1]);
-            spendingByCategory.add(categoryData);
+            Map<String, Object> node = new HashMap<>();
+            node.put("categoryId", categoryId);
+            node.put("categoryName", category.getName());
+            node.put("level", level);
+            node.put("amount", amount);
+            node.put("directAmount", directAmounts.getOrDefault(categoryId, BigDecimal.ZERO));
+            node.put("transactionCount", totalCounts.get(categoryId));
+            node.put("subcategories", buildRollupNodes(categoryCacheService.getChildren(categoryId), level + 1,
+                    directAmounts, totalAmounts, totalCounts));
+            nodes.add(node);
+        }
+        nodes.sort((a, b) -> ((BigDecimal) b.get("amount")).compareTo((BigDecimal) a.get("amount")));
+        return nodes;
+    }
+
+    /**
+     * Returns the user's top vendors over the period by amount and by number of transactions.
+     * Long periods are answered from per-month heavy-hitter sketches, so the figures are upper
+     * bounds that may overstate a vendor by at most its "errorBound"; "exact" tells whether
+     * every figure is exact.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getTopVendors(String token, LocalDateTime startDate, LocalDateTime endDate, int limit) {
+        if (limit < 1 || limit > vendorSketchService.getCapacity()) {
+            throw new IllegalArgumentException("limit must be between 1 and " + vendorSketchService.getCapacity());
         }
         
-        // Count recurring transactions
-        Long recurringCount = transactionRepository.countRecurringTransactionsByUser(user);
+        UUID userId = jwtTokenProvider.getUserId(token);
+        return analyticsCacheService.get(userId, "vendors", Arrays.asList(startDate, endDate, limit, fxRateService.getVersion()),
+                () -> computeTopVendors(userId, startDate, endDate, limit));
+    }
+
+    private Map<String, Object> computeTopVendors(UUID userId, LocalDateTime startDate, LocalDateTime endDate, int limit) {
+        SpendingWindow window = createPeriodWindow(startDate, endDate);
+        VendorSketchService.Sketches sketches = vendorSketchService.getSketches(userId, window.getStart(), window.getEnd());
+        
+        // Sketch amounts are in the base currency; convert them at the rate of the period's last day
+        FxRateTable rates = fxRateService.getTable();
+        String currency = getReportingCurrency(userId);
+        LocalDate rateDay = window.getEnd().minusDays(1);
+        if (!rates.canConvert(FxRateTable.BASE_CURRENCY, currency)) {
+            currency = FxRateTable.BASE_CURRENCY;
+        }
+        
+        List<Map<String, Object>> bySpend = new ArrayList<>();
+        for (SpaceSavingSketch.Counter counter : sketches.getSpend().top(limit)) {
+            Map<String, Object> vendorData = new HashMap<>();
+            vendorData.put("vendor", counter.getKey());
+            vendorData.put("amount", rates.convert(ColumnarSpending.toAmount(counter.getWeight()),
+                    FxRateTable.BASE_CURRENCY, currency, rateDay));
+            vendorData.put("errorBound", rates.convert(ColumnarSpending.toAmount(counter.getError()),
+                    FxRateTable.BASE_CURRENCY, currency, rateDay));
+            bySpend.add(vendorData);
+        }
+        
+        List<Map<String, Object>> byFrequency = new ArrayList<>();
+        for (SpaceSavingSketch.Counter counter : sketches.getFrequency().top(limit)) {
+            Map<String, Object> vendorData = new HashMap<>();
+            vendorData.put("vendor", counter.getKey());
+            vendorData.put("transactionCount", counter.getWeight());
+            vendorData.put("errorBound", counter.getError());
+            byFrequency.add(vendorData);
+        }
         
         Map<String, Object> result = new HashMap<>();
-        result.put("totalSpending", totalSpending);
-        result.put("spendingByCategory", spendingByCategory);
-        result.put("recurringTransactionsCount", recurringCount);
+        result.put("currency", currency);
+        result.put("bySpend", bySpend);
+        result.put("byFrequency", byFrequency);
+        result.put("exact", sketches.isExact());
         result.put("periodStart", startDate);
         result.put("periodEnd", endDate);
         
         return result;
     }
 
+    /**
+     * Returns spending for each of the last {@code months} calendar months, the current month
+     * included, with per-category and per-currency breakdowns. One grouped query covers the
+     * whole range; months without spending are filled with zeros in memory.
+     */
     @Transactional(readOnly = true)
     public Map<String, Object> getMonthlyTrends(String token, int months) {
-        LocalDateTime endDate = LocalDateTime.now();
-        LocalDateTime startDate = endDate.minusMonths(months);
+        if (months < 1 || months > MAX_TREND_MONTHS) {
+            throw new IllegalArgumentException("months must be between 1 and " + MAX_TREND_MONTHS);
+        }
         
         UUID userId = jwtTokenProvider.getUserId(token);
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + userId));
+        YearMonth currentMonth = YearMonth.now();
+        return analyticsCacheService.get(userId, "trends", Arrays.asList(months, currentMonth, fxRateService.getVersion()),
+                () -> computeMonthlyTrends(userId, currentMonth, months));
+    }
+
+    private Map<String, Object> computeMonthlyTrends(UUID userId, YearMonth currentMonth, int months) {
+        YearMonth firstMonth = currentMonth.minusMonths(months - 1);
+        SpendingWindow[] monthWindows = createMonthWindows(firstMonth, months);
+        String currency = getReportingCurrency(userId);
         
-        List<Map<String, Object>> monthlyData = new ArrayList<>();
+        forEachDailySpend(userId, monthWindows[0].getStart(), monthWindows[months - 1].getEnd(), currency,
+                (day, categoryId, originalCurrency, originalAmount, amount, count, recurringAmount) -> {
+                    int index = (int) firstMonth.until(YearMonth.from(day), ChronoUnit.MONTHS);
+                    monthWindows[index].add(categoryId, originalCurrency, originalAmount, amount, count);
+                });
         
-        // For each month in the range
-        for (int i = 0; i < months; i++) {
-            LocalDateTime monthStart = startDate.plusMonths(i).withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS);
-            LocalDateTime monthEnd;
-            
-            if (i == months - 1) {
-                monthEnd = endDate;
-            } else {
-                monthEnd = startDate.plusMonths(i + 1).withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS);
+        return toMonthlyTrends(firstMonth, monthWindows, currency);
+    }
+
+    /**
+     * Returns today's, this week's and this month's spending summaries and the 12-month trend.
+     * All of them are computed in one pass over day-level totals that a single query returns
+     * for the widest window.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getTransactionStats(String token) {
+        UUID userId = jwtTokenProvider.getUserId(token);
+        LocalDateTime now = LocalDateTime.now();
+        return analyticsCacheService.get(userId, "stats", Arrays.asList(now.toLocalDate(), fxRateService.getVersion()),
+                () -> computeTransactionStats(userId, now));
+    }
+
+    private Map<String, Object> computeTransactionStats(UUID userId, LocalDateTime now) {
+        LocalDate today = now.toLocalDate();
+        LocalDate tomorrow = today.plusDays(1);
+        LocalDate startOfWeek = today.minusDays(today.getDayOfWeek().getValue() - 1);
+        LocalDate startOfMonth = today.withDayOfMonth(1);
+        
+        SpendingWindow todayWindow = new SpendingWindow(today, tomorrow);
+        SpendingWindow weekWindow = new SpendingWindow(startOfWeek, tomorrow);
+        SpendingWindow monthWindow = new SpendingWindow(startOfMonth, tomorrow);
+        SpendingWindow[] dayWindows = {todayWindow, weekWindow, monthWindow};
+        
+        YearMonth firstMonth = YearMonth.from(today).minusMonths(DASHBOARD_TREND_MONTHS - 1);
+        SpendingWindow[] monthWindows = createMonthWindows(firstMonth, DASHBOARD_TREND_MONTHS);
+        LocalDate rangeStart = startOfWeek.isBefore(monthWindows[0].getStart()) ? startOfWeek : monthWindows[0].getStart();
+        LocalDate rangeEnd = monthWindows[DASHBOARD_TREND_MONTHS - 1].getEnd();
+        String currency = getReportingCurrency(userId);
+        
+        long recurringCount = forEachDailySpend(userId, rangeStart, rangeEnd, currency,
+                (day, categoryId, originalCurrency, originalAmount, amount, count, recurringAmount) -> {
+                    int index = (int) firstMonth.until(YearMonth.from(day), ChronoUnit.MONTHS);
+                    if (index >= 0 && index < DASHBOARD_TREND_MONTHS) {
+                        monthWindows[index].add(categoryId, originalCurrency, originalAmount, amount, count);
+                    }
+                    for (SpendingWindow window : dayWindows) {
+                        window.addIfContains(day, categoryId, originalCurrency, originalAmount, amount, count);
+                    }
+                });
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("today", toSpendingSummary(todayWindow, recurringCount, currency, today.atStartOfDay(), now));
+        result.put("thisWeek", toSpendingSummary(weekWindow, recurringCount, currency, startOfWeek.atStartOfDay(), now));
+        result.put("thisMonth", toSpendingSummary(monthWindow, recurringCount, currency, startOfMonth.atStartOfDay(), now));
+        result.put("yearlyTrend", toMonthlyTrends(firstMonth, monthWindows, currency));
+        
+        return result;
+    }
+
+    /**
+     * Projects spending for each of the next {@code months} calendar months, per category, as
+     * the detected recurring payments due in the month plus a seasonal baseline for everything
+     * else. The baseline blends the average non-recurring month of the last year with the same
+     * calendar month in the previous one or two years, from the daily rollup with recurring
+     * transactions netted out.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getForecast(String token, int months) {
+        if (months < 1 || months > MAX_FORECAST_MONTHS) {
+            throw new IllegalArgumentException("months must be between 1 and " + MAX_FORECAST_MONTHS);
+        }
+        
+        UUID userId = jwtTokenProvider.getUserId(token);
+        YearMonth currentMonth = YearMonth.now();
+        return analyticsCacheService.get(userId, "forecast", Arrays.asList(months, currentMonth, fxRateService.getVersion()),
+                () -> computeForecast(userId, currentMonth, months));
+    }
+
+    private Map<String, Object> computeForecast(UUID userId, YearMonth currentMonth, int months) {
+        String currency = getReportingCurrency(userId);
+        YearMonth historyStart = currentMonth.minusMonths(FORECAST_HISTORY_MONTHS);
+        
+        // Non-recurring spending per category for each full month of history
+        Map<UUID, BigDecimal[]> history = new HashMap<>();
+        BigDecimal[] monthTotals = zeros(FORECAST_HISTORY_MONTHS);
+        forEachDailySpend(userId, historyStart.atDay(1), currentMonth.atDay(1), currency,
+                (day, categoryId, originalCurrency, originalAmount, amount, count, recurringAmount) -> {
+                    if (amount == null) {
+                        return;
+                    }
+                    BigDecimal nonRecurring = amount.subtract(recurringAmount);
+                    int index = (int) historyStart.until(YearMonth.from(day), ChronoUnit.MONTHS);
+                    BigDecimal[] categoryHistory = history.computeIfAbsent(categoryId, k -> zeros(FORECAST_HISTORY_MONTHS));
+                    categoryHistory[index] = categoryHistory[index].add(nonRecurring);
+                    monthTotals[index] = monthTotals[index].add(nonRecurring);
+                });
+        FxRateTable rates = fxRateService.getTable();
+        
+        // Months before the user's first spending would only drag the averages down
+        int firstMonth = 0;
+        while (firstMonth < FORECAST_HISTORY_MONTHS && monthTotals[firstMonth].signum() == 0) {
+            firstMonth++;
+        }
+        
+        // Recurring payments due in each forecast month
+        YearMonth forecastStart = currentMonth.plusMonths(1);
+        LocalDate forecastStartDay = forecastStart.atDay(1);
+        LocalDate forecastEndDay = forecastStart.plusMonths(months).atDay(1);
+        LocalDate today = LocalDate.now();
+        Map<UUID, BigDecimal[]> recurring = new HashMap<>();
+        List<Map<String, Object>> recurringPayments = new ArrayList<>();
+        for (RecurrenceService.RecurringSeries series : recurrenceService.getSeries(userId)) {
+            if (!series.isActive(today)) {
+                continue;
+            }
+            BigDecimal amount = rates.convert(series.getExpectedAmount(), series.getCurrency(), currency, today);
+            if (amount == null) {
+                continue;
+            }
+            UUID categoryId = knownCategory(series.getCategoryId());
+            for (LocalDate due = series.getNextExpectedDate(); due.isBefore(forecastEndDay); due = series.getPattern().next(due)) {
+                if (due.isBefore(forecastStartDay)) {
+                    continue;
+                }
+                int index = (int) forecastStart.until(YearMonth.from(due), ChronoUnit.MONTHS);
+                BigDecimal[] categoryRecurring = recurring.computeIfAbsent(categoryId, k -> zeros(months));
+                categoryRecurring[index] = categoryRecurring[index].add(amount);
             }
             
-            BigDecimal monthlySpending = transactionRepository.sumAmountByUserAndDateRange(
-                    user, monthStart, monthEnd);
+            Map<String, Object> payment = new HashMap<>();
+            payment.put("vendor", series.getVendor());
+            payment.put("pattern", series.getPattern().name());
+            payment.put("categoryId", categoryId);
+            payment.put("expectedAmount", amount);
+            payment.put("nextExpectedDate", series.getNextExpectedDate());
+            recurringPayments.add(payment);
+        }
+        
+        Set<UUID> categoryIds = new HashSet<>(history.keySet());
+        categoryIds.addAll(recurring.keySet());
+        
+        List<Map<String, Object>> monthlyForecast = new ArrayList<>();
+        for (int i = 0; i < months; i++) {
+            YearMonth month = forecastStart.plusMonths(i);
+            BigDecimal monthTotal = BigDecimal.ZERO;
+            BigDecimal monthRecurring = BigDecimal.ZERO;
+            List<Map<String, Object>> categories = new ArrayList<>();
             
-            if (monthlySpending == null) {
-                monthlySpending = BigDecimal.ZERO;
+            for (UUID categoryId : categoryIds) {
+                BigDecimal[] categoryHistory = history.get(categoryId);
+                BigDecimal baseline = categoryHistory != null
+                        ? seasonalBaseline(categoryHistory, firstMonth, FORECAST_HISTORY_MONTHS + 1 + i)
+                        : BigDecimal.ZERO;
+                BigDecimal[] categoryRecurring = recurring.get(categoryId);
+                BigDecimal recurringAmount = categoryRecurring != null ? categoryRecurring[i] : BigDecimal.ZERO;
+                BigDecimal amount = baseline.add(recurringAmount);
+                if (amount.signum() == 0) {
+                    continue;
+                }
+                
+                Category category = categoryCacheService.getCategory(categoryId);
+                Map<String, Object> categoryData = new HashMap<>();
+                categoryData.put("categoryId", category != null ? category.getId() : null);
+                categoryData.put("categoryName", category != null ? category.getName() : "Uncategorized");
+                categoryData.put("recurring", recurringAmount);
+                categoryData.put("baseline", baseline);
+                categoryData.put("amount", amount);
+                categories.add(categoryData);
+                monthTotal = monthTotal.add(amount);
+                monthRecurring = monthRecurring.add(recurringAmount);
             }
+            categories.sort((a, b) -> ((BigDecimal) b.get("amount")).compareTo((BigDecimal) a.get("amount")));
             
             Map<String, Object> monthData = new HashMap<>();
-            monthData.put("month", monthStart.getMonth().toString());
-            monthData.put("year", monthStart.getYear());
-            monthData.put("spending", monthlySpending);
-            
-            monthlyData.add(monthData);
+            monthData.put("month", month.getMonth().toString());
+            monthData.put("year", month.getYear());
+            monthData.put("amount", monthTotal);
+            monthData.put("recurring", monthRecurring);
+            monthData.put("baseline", monthTotal.subtract(monthRecurring));
+            monthData.put("categories", categories);
+            monthlyForecast.add(monthData);
         }
         
         Map<String, Object> result = new HashMap<>();
-        result.put("monthlyTrends", monthlyData);
+        result.put("currency", currency);
+        result.put("historyMonths", FORECAST_HISTORY_MONTHS - firstMonth);
+        result.put("monthlyForecast", monthlyForecast);
+        result.put("recurringPayments", recurringPayments);
         
         return result;
     }
 
+    /**
+     * Baseline for the month {@code target} months after the start of the history: half the
+     * average of the last twelve months, half the average of the same calendar month one and
+     * two years earlier. Falls back to the plain average without a same-month observation.
+     */
+    private static BigDecimal seasonalBaseline(BigDecimal[] history, int firstMonth, int target) {
+        int levelFrom = Math.max(firstMonth, history.length - 12);
+        if (levelFrom >= history.length) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal level = BigDecimal.ZERO;
+        for (int i = levelFrom; i < history.length; i++) {
+            level = level.add(history[i]);
+        }
+        level = level.divide(BigDecimal.valueOf(history.length - levelFrom), 2, RoundingMode.HALF_UP);
+        
+        BigDecimal seasonal = BigDecimal.ZERO;
+        int observations = 0;
+        for (int index = target - 12; index >= firstMonth; index -= 12) {
+            if (index < history.length) {
+                seasonal = seasonal.add(history[index]);
+                observations++;
+            }
+        }
+        BigDecimal baseline = observations == 0 ? level : level.add(
+                seasonal.divide(BigDecimal.valueOf(observations), 2, RoundingMode.HALF_UP))
+                .divide(BigDecimal.valueOf(2), 2, RoundingMode.HALF_UP);
+        return baseline.signum() > 0 ? baseline : BigDecimal.ZERO;
+    }
+
+    private static BigDecimal[] zeros(int length) {
+        BigDecimal[] values = new BigDecimal[length];
+        Arrays.fill(values, BigDecimal.ZERO);
+        return values;
+    }
+
     @Transactional(readOnly = true)
-    public Map<String, Object> getTransactionStats(String token) {
-        // Get today, this week, and this month's spending
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime startOfDay = now.truncatedTo(ChronoUnit.DAYS);
-        LocalDateTime startOfWeek = now.minusDays(now.getDayOfWeek().getValue() - 1).truncatedTo(ChronoUnit.DAYS);
-        LocalDateTime startOfMonth = now.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS);
+    public Map<String, Object> getReportingCurrency(String token) {
+        UUID userId = jwtTokenProvider.getUserId(token);
+        return Map.of("reportingCurrency", getReportingCurrency(userId));
+    }
+
+    /**
+     * Sets the currency the user's analytics are reported in.
+     */
+    @Transactional
+    public Map<String, Object> setReportingCurrency(String token, String currency) {
+        UUID userId = jwtTokenProvider.getUserId(token);
+        String code = currency != null ? currency.trim().toUpperCase(Locale.ROOT) : "";
+        try {
+            Currency.getInstance(code);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown currency code: " + currency);
+        }
         
-        Map<String, Object> todayStats = getSpendingSummary(token, startOfDay, now);
-        Map<String, Object> weekStats = getSpendingSummary(token, startOfWeek, now);
-        Map<String, Object> monthStats = getSpendingSummary(token, startOfMonth, now);
-        Map<String, Object> yearlyTrend = getMonthlyTrends(token, 12);
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + userId));
+        user.setReportingCurrency(code);
+        userRepository.save(user);
+        analyticsCacheService.invalidate(userId);
+        
+        return Map.of("reportingCurrency", code);
+    }
+
+    /**
+     * Feeds the user's spending per day, category and currency over {@code [startDay, endDay)}
+     * to the consumer, converted to the reporting currency along with its recurring part, and
+     * returns the user's recurring transaction count. Amounts in a currency without exchange
+     * rates are passed with null converted amounts.
+     */
+    private long forEachDailySpend(UUID userId, LocalDate startDay, LocalDate endDay, String reportingCurrency,
+                                   DailySpendConsumer consumer) {
+        FxRateTable rates = fxRateService.getTable();
         
+        ColumnarSpending columns = columnarStoreService.getColumns(userId);
+        if (columns != null) {
+            columns.forEachDayAndCategory(startDay, endDay, (epochDay, categoryId, currency, amount, count, recurringAmount) -> {
+                LocalDate day = LocalDate.ofEpochDay(epochDay);
+                BigDecimal originalAmount = ColumnarSpending.toAmount(amount);
+                BigDecimal convertedAmount = rates.convert(originalAmount, currency, reportingCurrency, day);
+                consumer.accept(day, knownCategory(categoryId), currency, originalAmount, convertedAmount, count,
+                        convertRecurring(rates, ColumnarSpending.toAmount(recurringAmount), convertedAmount,
+                                currency, reportingCurrency, day));
+            });
+            return columns.getRecurringCount();
+        }
+        
+        long recurringCount = 0;
+        for (DailyCategorySpendingRow row : dailySpendRepository.sumAmountByDayAndCategory(userId, startDay, endDay)) {
+            if (row.getEpochDay() == null) {
+                // Grand-total row
+                recurringCount = row.getRecurringCount() != null ? row.getRecurringCount() : 0;
+                continue;
+            }
+            LocalDate day = LocalDate.ofEpochDay(row.getEpochDay());
+            BigDecimal originalAmount = row.getAmount() != null ? row.getAmount() : BigDecimal.ZERO;
+            BigDecimal convertedAmount = rates.convert(originalAmount, row.getCurrency(), reportingCurrency, day);
+            consumer.accept(day, knownCategory(row.getCategoryId()), row.getCurrency(), originalAmount, convertedAmount,
+                    row.getTransactionCount(), convertRecurring(rates, row.getRecurringAmount(), convertedAmount,
+                            row.getCurrency(), reportingCurrency, day));
+        }
+        return recurringCount;
+    }
+
+    // Most rows have no recurring part; skip converting it
+    private static BigDecimal convertRecurring(FxRateTable rates, BigDecimal recurringAmount, BigDecimal convertedAmount,
+                                               String currency, String reportingCurrency, LocalDate day) {
+        if (convertedAmount == null) {
+            return null;
+        }
+        if (recurringAmount == null || recurringAmount.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        return rates.convert(recurringAmount, currency, reportingCurrency, day);
+    }
+
+    private String getReportingCurrency(UUID userId) {
+        return userRepository.findReportingCurrencyById(userId).orElse(FxRateTable.BASE_CURRENCY);
+    }
+
+    /**
+     * Maps IDs of deleted categories to null, on both read paths.
+     */
+    private UUID knownCategory(UUID categoryId) {
+        return categoryCacheService.getCategory(categoryId) != null ? categoryId : null;
+    }
+
+    private static SpendingWindow createPeriodWindow(LocalDateTime startDate, LocalDateTime endDate) {
+        LocalDate startDay = startDate.toLocalDate();
+        LocalDate endDay = endDate.toLocalDate().plusDays(1);
+        if (!startDay.isBefore(endDay)) {
+            throw new IllegalArgumentException("startDate must not be after endDate");
+        }
+        return new SpendingWindow(startDay, endDay);
+    }
+
+    private static SpendingWindow[] createMonthWindows(YearMonth firstMonth, int months) {
+        SpendingWindow[] windows = new SpendingWindow[months];
+        for (int i = 0; i < months; i++) {
+            YearMonth month = firstMonth.plusMonths(i);
+            windows[i] = new SpendingWindow(month.atDay(1), month.plusMonths(1).atDay(1));
+        }
+        return windows;
+    }
+
+    private Map<String, Object> toSpendingSummary(SpendingWindow window, long recurringCount, String currency,
+                                                  LocalDateTime periodStart, LocalDateTime periodEnd) {
         Map<String, Object> result = new HashMap<>();
-        result.put("today", todayStats);
-        result.put("thisWeek", weekStats);
-        result.put("thisMonth", monthStats);
-        result.put("yearlyTrend", yearlyTrend);
+        result.put("currency", currency);
+        result.put("totalSpending", window.getTotal());
+        result.put("spendingByCategory", toCategoryBreakdown(window));
+        result.put("spendingByCurrency", toCurrencyBreakdown(window));
+        result.put("recurringTransactionsCount", recurringCount);
+        result.put("periodStart", periodStart);
+        result.put("periodEnd", periodEnd);
+        return result;
+    }
+
+    private Map<String, Object> toMonthlyTrends(YearMonth firstMonth, SpendingWindow[] monthWindows, String currency) {
+        List<Map<String, Object>> monthlyData = new ArrayList<>(monthWindows.length);
+        for (int i = 0; i < monthWindows.length; i++) {
+            YearMonth month = firstMonth.plusMonths(i);
+        
+            Map<String, Object> monthData = new HashMap<>();
+            monthData.put("month", month.getMonth().toString());
+            monthData.put("year", month.getYear());
+            monthData.put("spending", monthWindows[i].getTotal());
+            monthData.put("transactionCount", monthWindows[i].getTransactionCount());
+            monthData.put("categories", toCategoryBreakdown(monthWindows[i]));
+            monthData.put("currencies", toCurrencyBreakdown(monthWindows[i]));
         
+            monthlyData.add(monthData);
+        }
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("currency", currency);
+        result.put("monthlyTrends", monthlyData);
         return result;
     }
+
+    private List<Map<String, Object>> toCategoryBreakdown(SpendingWindow window) {
+        List<Map<String, Object>> breakdown = new ArrayList<>();
+        for (Map.Entry<UUID, BigDecimal> entry : window.getCategoryAmounts().entrySet()) {
+            Category category = categoryCacheService.getCategory(entry.getKey());
+        
+            Map<String, Object> categoryData = new HashMap<>();
+            categoryData.put("categoryId", category != null ? category.getId() : null);
+            categoryData.put("categoryName", category != null ? category.getName() : "Uncategorized");
+            categoryData.put("colorCode", category != null ? category.getColorCode() : null);
+            categoryData.put("amount", entry.getValue());
+            categoryData.put("transactionCount", window.getCategoryCount(entry.getKey()));
+            breakdown.add(categoryData);
+        }
+        breakdown.sort((a, b) -> ((BigDecimal) b.get("amount")).compareTo((BigDecimal) a.get("amount")));
+        return breakdown;
+    }
+
+    private List<Map<String, Object>> toCurrencyBreakdown(SpendingWindow window) {
+        List<Map<String, Object>> breakdown = new ArrayList<>();
+        for (Map.Entry<String, BigDecimal> entry : window.getCurrencyAmounts().entrySet()) {
+            Map<String, Object> currencyData = new HashMap<>();
+            currencyData.put("currency", entry.getKey());
+            currencyData.put("amount", entry.getValue());
+            currencyData.put("convertedAmount", window.getCurrencyConvertedAmount(entry.getKey()));
+            BigDecimal unconvertedAmount = window.getCurrencyUnconvertedAmount(entry.getKey());
+            currencyData.put("unconvertedAmount", unconvertedAmount);
+            currencyData.put("converted", unconvertedAmount.signum() == 0);
+            currencyData.put("transactionCount", window.getCurrencyCount(entry.getKey()));
+            breakdown.add(currencyData);
+        }
+        breakdown.sort((a, b) -> ((BigDecimal) b.get("convertedAmount")).compareTo((BigDecimal) a.get("convertedAmount")));
+        return breakdown;
+    }
+
+    @FunctionalInterface
+    private interface DailySpendConsumer {
+        void accept(LocalDate day, UUID categoryId, String currency, BigDecimal originalAmount,
+                    BigDecimal amount, long count, BigDecimal recurringAmount);
+    }
 }
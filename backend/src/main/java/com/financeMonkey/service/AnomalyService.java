@@ -0,0 +1,348 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.engine.AnomalyDetector;
+import com.financeMonkey.engine.RunningStats;
+import com.financeMonkey.event.TransactionChange;
+import com.financeMonkey.event.TransactionSnapshot;
+import com.financeMonkey.event.TransactionsChangedEvent;
+import com.financeMonkey.security.JwtTokenProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Flags unusual transactions as they arrive: duplicate charges, and amounts far above what
+ * their vendor, or for a new vendor their category, usually charges. See {@link AnomalyDetector}.
+ *
+ * Each (user, vendor or category, currency) has a {@link RunningStats} row in
+ * transaction_stats, cached per user in memory. A new transaction is scored against the cached
+ * statistics and then added to them in the database, in the writer's transaction, so neither
+ * scoring nor updating ever reads past transactions. A write's new amounts are summarized per
+ * key and merged into the stored rows with one multi-row upsert, using the pairwise form of
+ * Welford's update, so a bulk write costs one statement. Once the write commits, the statistics
+ * the upsert returned replace the cached ones; the observation count orders concurrent writers.
+ *
+ * Only inserts are scored; the statistics are not adjusted when transactions are edited or
+ * deleted, as one transaction moves a running mean very little.
+ */
+@Slf4j
+@Service
+public class AnomalyService {
+
+    private static final String VENDOR = "VENDOR";
+    private static final String CATEGORY = "CATEGORY";
+    private static final int MAX_LIMIT = 500;
+
+    private static final String SELECT_STATS =
+            "SELECT scope, stats_key, currency, observations, mean, m2, last_amount, last_day " +
+            "FROM transaction_stats WHERE user_id = ?";
+    private static final String UPSERT_STATS =
+            "INSERT INTO transaction_stats AS s (user_id, scope, stats_key, currency, observations, mean, m2, " +
+            "last_amount, last_day) " +
+            "SELECT * FROM unnest(?::uuid[], ?::varchar[], ?::varchar[], ?::varchar[], ?::bigint[], " +
+            "?::float8[], ?::float8[], ?::float8[], ?::date[]) " +
+            "ON CONFLICT (user_id, scope, stats_key, currency) DO UPDATE SET " +
+            "observations = s.observations + EXCLUDED.observations, " +
+            "mean = s.mean + (EXCLUDED.mean - s.mean) * EXCLUDED.observations / (s.observations + EXCLUDED.observations), " +
+            "m2 = s.m2 + EXCLUDED.m2 + (EXCLUDED.mean - s.mean) * (EXCLUDED.mean - s.mean) * s.observations " +
+            "* EXCLUDED.observations / (s.observations + EXCLUDED.observations), " +
+            "last_amount = CASE WHEN EXCLUDED.last_day >= s.last_day THEN EXCLUDED.last_amount ELSE s.last_amount END, " +
+            "last_day = GREATEST(s.last_day, EXCLUDED.last_day) " +
+            "RETURNING user_id, scope, stats_key, currency, observations, mean, m2, last_amount, last_day";
+    private static final String[] UPSERT_COLUMN_TYPES =
+            {"uuid", "varchar", "varchar", "varchar", "int8", "float8", "float8", "float8", "date"};
+    private static final String INSERT_ANOMALY =
+            "INSERT INTO transaction_anomalies (user_id, transaction_id, anomaly_type, amount, currency, " +
+            "expected_amount, score) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_ANOMALIES =
+            "SELECT a.id, a.transaction_id, a.anomaly_type, a.amount, a.currency, a.expected_amount, a.score, " +
+            "a.created_at, t.transaction_date, COALESCE(t.canonical_vendor, t.vendor) AS vendor_name, t.category_id " +
+            "FROM transaction_anomalies a JOIN transactions t ON t.id = a.transaction_id " +
+            "WHERE a.user_id = ? AND a.dismissed = FALSE ORDER BY a.created_at DESC LIMIT ?";
+    private static final String SELECT_ANOMALY_OWNER =
+            "SELECT user_id FROM transaction_anomalies WHERE id = ?";
+    private static final String DISMISS_ANOMALY =
+            "UPDATE transaction_anomalies SET dismissed = TRUE WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final int maxUsers;
+
+    private final LinkedHashMap<UUID, Map<StatsKey, RunningStats>> users = new LinkedHashMap<>(16, 0.75f, true);
+
+    public AnomalyService(JdbcTemplate jdbcTemplate, JwtTokenProvider jwtTokenProvider, MeterRegistry meterRegistry,
+                          @Value("${analytics.anomalies.max-users:1000}") int maxUsers) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.maxUsers = maxUsers;
+
+        Gauge.builder("analytics.anomalies.users", this, AnomalyService::size).register(meterRegistry);
+    }
+
+    /**
+     * Returns the user's flagged transactions that have not been dismissed, newest first.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAnomalies(String token, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        UUID userId = jwtTokenProvider.getUserId(token);
+
+        return jdbcTemplate.query(SELECT_ANOMALIES, (rs, rowNum) -> {
+            Map<String, Object> anomaly = new HashMap<>();
+            anomaly.put("id", rs.getObject("id", UUID.class));
+            anomaly.put("transactionId", rs.getObject("transaction_id", UUID.class));
+            anomaly.put("type", rs.getString("anomaly_type"));
+            anomaly.put("vendor", rs.getString("vendor_name"));
+            anomaly.put("categoryId", rs.getObject("category_id", UUID.class));
+            anomaly.put("transactionDate", rs.getTimestamp("transaction_date").toLocalDateTime());
+            anomaly.put("amount", rs.getBigDecimal("amount"));
+            anomaly.put("currency", rs.getString("currency"));
+            anomaly.put("expectedAmount", rs.getBigDecimal("expected_amount"));
+            anomaly.put("score", rs.getObject("score") != null ? rs.getDouble("score") : null);
+            anomaly.put("detectedAt", rs.getTimestamp("created_at").toLocalDateTime());
+            return anomaly;
+        }, userId, limit);
+    }
+
+    @Transactional
+    public void dismissAnomaly(String token, UUID anomalyId) {
+        UUID userId = jwtTokenProvider.getUserId(token);
+        List<UUID> owners = jdbcTemplate.query(SELECT_ANOMALY_OWNER,
+                (rs, rowNum) -> rs.getObject("user_id", UUID.class), anomalyId);
+        if (owners.isEmpty()) {
+            throw new EntityNotFoundException("Anomaly not found with id: " + anomalyId);
+        }
+
+        // Verify ownership
+        if (!owners.get(0).equals(userId)) {
+            throw new RuntimeException("You are not authorized to access this anomaly");
+        }
+
+        jdbcTemplate.update(DISMISS_ANOMALY, anomalyId);
+    }
+
+    @EventListener
+    public void onTransactionsChanged(TransactionsChangedEvent event) {
+        // Statistics as of this write, so several new transactions for one vendor score against each other
+        Map<UUID, Map<StatsKey, RunningStats>> pending = new HashMap<>();
+        // This write's amounts alone, per key, to be merged into the stored rows
+        Map<UUID, Map<StatsKey, RunningStats>> observed = new LinkedHashMap<>();
+        int observedKeys = 0;
+        List<Object[]> anomalies = new ArrayList<>();
+        for (TransactionChange change : event.getChanges()) {
+            TransactionSnapshot after = change.getAfter();
+            if (change.getBefore() != null || after == null || after.getAmount() == null
+                    || after.getAmount().signum() <= 0) {
+                continue;
+            }
+
+            UUID userId = after.getUserId();
+            Map<StatsKey, RunningStats> stats = pending.computeIfAbsent(userId, id -> new HashMap<>());
+            StatsKey vendorKey = new StatsKey(VENDOR, vendorOf(after), after.getCurrency());
+            StatsKey categoryKey = after.getCategoryId() != null
+                    ? new StatsKey(CATEGORY, after.getCategoryId().toString(), after.getCurrency()) : null;
+            RunningStats vendorStats = current(userId, stats, vendorKey);
+            RunningStats categoryStats = categoryKey != null ? current(userId, stats, categoryKey) : null;
+
+            double amount = after.getAmount().doubleValue();
+            LocalDate day = after.getDay();
+            AnomalyDetector.Finding finding = AnomalyDetector.detect(vendorStats, categoryStats, amount, (int) day.toEpochDay());
+            if (finding != null) {
+                log.debug("Transaction {} flagged as {}", change.getTransactionId(), finding.getType());
+                anomalies.add(new Object[] {userId, change.getTransactionId(), finding.getType().name(),
+                        after.getAmount(), after.getCurrency(),
+                        BigDecimal.valueOf(finding.getExpectedAmount()).setScale(2, RoundingMode.HALF_UP),
+                        finding.getScore()});
+            }
+
+            vendorStats.add(amount, (int) day.toEpochDay());
+            Map<StatsKey, RunningStats> userObserved = observed.computeIfAbsent(userId, id -> new LinkedHashMap<>());
+            observedKeys += observe(userObserved, vendorKey, amount, day);
+            if (categoryStats != null) {
+                categoryStats.add(amount, (int) day.toEpochDay());
+                observedKeys += observe(userObserved, categoryKey, amount, day);
+            }
+        }
+        if (observedKeys == 0) {
+            return;
+        }
+
+        // The upsert returns each row as the database has it, including other writers' observations
+        Map<UUID, Map<StatsKey, RunningStats>> saved = new HashMap<>();
+        Object[][] columns = toColumns(observed, observedKeys);
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(UPSERT_STATS);
+            for (int i = 0; i < UPSERT_COLUMN_TYPES.length; i++) {
+                statement.setArray(i + 1, connection.createArrayOf(UPSERT_COLUMN_TYPES[i], columns[i]));
+            }
+            return statement;
+        }, rs -> {
+            saved.computeIfAbsent(rs.getObject("user_id", UUID.class), id -> new HashMap<>())
+                    .put(new StatsKey(rs.getString("scope"), rs.getString("stats_key"), rs.getString("currency")),
+                            toStats(rs));
+        });
+        if (!anomalies.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ANOMALY, anomalies);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(saved);
+                }
+            });
+        } else {
+            apply(saved);
+        }
+    }
+
+    public synchronized int size() {
+        return users.size();
+    }
+
+    private RunningStats current(UUID userId, Map<StatsKey, RunningStats> pending, StatsKey key) {
+        RunningStats stats = pending.get(key);
+        if (stats == null) {
+            RunningStats cached = getUserStats(userId).get(key);
+            stats = cached != null ? cached.copy() : new RunningStats();
+            pending.put(key, stats);
+        }
+        return stats;
+    }
+
+    /**
+     * Adds the amount to the key's statistics for this write; returns 1 if the key is new to it.
+     */
+    private static int observe(Map<StatsKey, RunningStats> observed, StatsKey key, double amount, LocalDate day) {
+        RunningStats stats = observed.get(key);
+        int added = 0;
+        if (stats == null) {
+            stats = new RunningStats();
+            observed.put(key, stats);
+            added = 1;
+        }
+        stats.add(amount, (int) day.toEpochDay());
+        return added;
+    }
+
+    /**
+     * The upsert's parameters, one array per column with one element per (user, key).
+     */
+    private static Object[][] toColumns(Map<UUID, Map<StatsKey, RunningStats>> observed, int rows) {
+        Object[][] columns = new Object[UPSERT_COLUMN_TYPES.length][rows];
+        int row = 0;
+        for (Map.Entry<UUID, Map<StatsKey, RunningStats>> user : observed.entrySet()) {
+            for (Map.Entry<StatsKey, RunningStats> entry : user.getValue().entrySet()) {
+                StatsKey key = entry.getKey();
+                RunningStats stats = entry.getValue();
+                columns[0][row] = user.getKey();
+                columns[1][row] = key.scope;
+                columns[2][row] = key.key;
+                columns[3][row] = key.currency;
+                columns[4][row] = stats.getCount();
+                columns[5][row] = stats.getMean();
+                columns[6][row] = stats.getM2();
+                columns[7][row] = stats.getLastAmount();
+                columns[8][row] = Date.valueOf(LocalDate.ofEpochDay(stats.getLastDay()));
+                row++;
+            }
+        }
+        return columns;
+    }
+
+    private synchronized void apply(Map<UUID, Map<StatsKey, RunningStats>> saved) {
+        for (Map.Entry<UUID, Map<StatsKey, RunningStats>> entry : saved.entrySet()) {
+            Map<StatsKey, RunningStats> cached = users.get(entry.getKey());
+            if (cached == null) {
+                continue;
+            }
+            for (Map.Entry<StatsKey, RunningStats> stats : entry.getValue().entrySet()) {
+                // Counts only grow, so a lower one comes from a writer that committed earlier
+                cached.merge(stats.getKey(), stats.getValue(),
+                        (current, update) -> update.getCount() > current.getCount() ? update : current);
+            }
+        }
+    }
+
+    private Map<StatsKey, RunningStats> getUserStats(UUID userId) {
+        synchronized (this) {
+            Map<StatsKey, RunningStats> cached = users.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        Map<StatsKey, RunningStats> loaded = new ConcurrentHashMap<>();
+        jdbcTemplate.query(SELECT_STATS, rs -> {
+            loaded.put(new StatsKey(rs.getString("scope"), rs.getString("stats_key"), rs.getString("currency")),
+                    toStats(rs));
+        }, userId);
+        log.debug("Loaded {} running statistics for user {}", loaded.size(), userId);
+
+        synchronized (this) {
+            Map<StatsKey, RunningStats> cached = users.putIfAbsent(userId, loaded);
+            while (users.size() > maxUsers) {
+                users.remove(users.keySet().iterator().next());
+            }
+            return cached != null ? cached : loaded;
+        }
+    }
+
+    private static RunningStats toStats(ResultSet rs) throws SQLException {
+        return new RunningStats(rs.getLong("observations"), rs.getDouble("mean"), rs.getDouble("m2"),
+                rs.getDouble("last_amount"), (int) rs.getDate("last_day").toLocalDate().toEpochDay());
+    }
+
+    private static String vendorOf(TransactionSnapshot snapshot) {
+        return snapshot.getCanonicalVendor() != null ? snapshot.getCanonicalVendor() : snapshot.getVendor();
+    }
+
+    private static final class StatsKey {
+        private final String scope;
+        private final String key;
+        private final String currency;
+
+        private StatsKey(String scope, String key, String currency) {
+            this.scope = scope;
+            this.key = key;
+            this.currency = currency;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof StatsKey)) {
+                return false;
+            }
+            StatsKey other = (StatsKey) o;
+            return scope.equals(other.scope) && key.equals(other.key) && currency.equals(other.currency);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(scope, key, currency);
+        }
+    }
+}
@@ -0,0 +1,521 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.dto.BudgetDto;
+import com.financeMonkey.engine.FxRateTable;
+import com.financeMonkey.event.BudgetThresholdCrossedEvent;
+import com.financeMonkey.event.TransactionChange;
+import com.financeMonkey.event.TransactionSnapshot;
+import com.financeMonkey.event.TransactionsChangedEvent;
+import com.financeMonkey.model.Budget;
+import com.financeMonkey.model.Category;
+import com.financeMonkey.model.User;
+import com.financeMonkey.repository.BudgetRepository;
+import com.financeMonkey.repository.CategoryRepository;
+import com.financeMonkey.repository.UserRepository;
+import com.financeMonkey.security.JwtTokenProvider;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Per-user budgets with running totals. Each budget has one budget_periods row per period,
+ * created from the daily_spend rollup the first time the period's status is read and from
+ * then on adjusted by every transaction write: the write's {@link TransactionsChangedEvent}
+ * becomes one in-place update per affected (budget, period), in the writer's transaction, so
+ * reading a budget's status never aggregates transactions.
+ *
+ * When an update takes a period's spending to an alert threshold for the first time, an alert
+ * is stored in the same transaction, so it exists exactly when the write does, and a
+ * {@link BudgetThresholdCrossedEvent} is published once the write has committed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BudgetService {
+
+    private static final int[] ALERT_THRESHOLDS = {80, 100};
+    private static final int MAX_ALERTS = 500;
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private static final String ADD_TO_PERIOD =
+            "UPDATE budget_periods SET spent = spent + ?, transaction_count = transaction_count + ? " +
+            "WHERE budget_id = ? AND period_start = ? RETURNING spent, notified_percent";
+    private static final String SET_NOTIFIED =
+            "UPDATE budget_periods SET notified_percent = ? WHERE budget_id = ? AND period_start = ?";
+    private static final String INSERT_PERIOD =
+            "INSERT INTO budget_periods (budget_id, period_start, spent, transaction_count, notified_percent) " +
+            "VALUES (?, ?, ?, ?, ?) ON CONFLICT (budget_id, period_start) DO NOTHING";
+    private static final String INSERT_ALERT =
+            "INSERT INTO budget_alerts (user_id, budget_id, period_start, threshold_percent, spent, limit_amount, " +
+            "currency) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_ALERTS =
+            "SELECT a.id, a.budget_id, b.category_id, a.period_start, a.threshold_percent, a.spent, a.limit_amount, " +
+            "a.currency, a.created_at FROM budget_alerts a JOIN budgets b ON b.id = a.budget_id " +
+            "WHERE a.user_id = ? AND a.dismissed = FALSE ORDER BY a.created_at DESC LIMIT ?";
+    private static final String SELECT_ALERT_OWNER =
+            "SELECT user_id FROM budget_alerts WHERE id = ?";
+    private static final String DISMISS_ALERT =
+            "UPDATE budget_alerts SET dismissed = TRUE WHERE id = ?";
+    private static final String DELETE_PERIODS =
+            "DELETE FROM budget_periods WHERE budget_id = ?";
+    private static final String SELECT_PERIODS =
+            "SELECT p.budget_id, p.period_start, p.spent, p.transaction_count FROM budget_periods p " +
+            "JOIN budgets b ON b.id = p.budget_id WHERE b.user_id = ? AND p.period_start >= ?";
+    private static final String SELECT_DAILY_SPEND =
+            "SELECT day, category_id, currency, amount, transaction_count FROM daily_spend " +
+            "WHERE user_id = ? AND day >= ? AND day < ?";
+
+    private final BudgetRepository budgetRepository;
+    private final CategoryRepository categoryRepository;
+    private final UserRepository userRepository;
+    private final CategoryCacheService categoryCacheService;
+    private final FxRateService fxRateService;
+    private final DailySpendService dailySpendService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JwtTokenProvider jwtTokenProvider;
+
+    private final Map<UUID, List<BudgetRule>> rules = new ConcurrentHashMap<>();
+
+    @Transactional(readOnly = true)
+    public List<BudgetDto> getUserBudgets(String token) {
+        UUID userId = jwtTokenProvider.getUserId(token);
+        return budgetRepository.findByUserId(userId).stream()
+                .map(BudgetDto::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public BudgetDto createBudget(String token, BudgetDto budgetDto) {
+        UUID userId = jwtTokenProvider.getUserId(token);
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + userId));
+
+        Budget budget = new Budget();
+        budget.setUser(user);
+        applyChanges(budget, budgetDto, user.getReportingCurrency());
+
+        Budget savedBudget = budgetRepository.save(budget);
+        invalidate(userId);
+        return BudgetDto.fromEntity(savedBudget);
+    }
+
+    @Transactional
+    public BudgetDto updateBudget(String token, UUID budgetId, BudgetDto budgetDto) {
+        UUID userId = jwtTokenProvider.getUserId(token);
+        Budget budget = getOwnedBudget(userId, budgetId);
+
+        applyChanges(budget, budgetDto, budget.getCurrency());
+
+        Budget savedBudget = budgetRepository.save(budget);
+        // The running totals may no longer match; they are recomputed on the next status read
+        jdbcTemplate.update(DELETE_PERIODS, budgetId);
+        invalidate(userId);
+        return BudgetDto.fromEntity(savedBudget);
+    }
+
+    @Transactional
+    public void deleteBudget(String token, UUID budgetId) {
+        UUID userId = jwtTokenProvider.getUserId(token);
+        Budget budget = getOwnedBudget(userId, budgetId);
+
+        budgetRepository.delete(budget);
+        invalidate(userId);
+    }
+
+    /**
+     * Returns each budget's spending in its current period, read from the running totals.
+     * Totals for a period nobody has read yet are computed once from the daily rollup.
+     */
+    @Transactional
+    public List<Map<String, Object>> getBudgetStatus(String token) {
+        UUID userId = jwtTokenProvider.getUserId(token);
+        List<Budget> budgets = budgetRepository.findByUserId(userId);
+        LocalDate today = LocalDate.now();
+
+        Map<UUID, Object[]> totals = readCurrentTotals(userId, budgets, today);
+        List<Budget> missing = budgets.stream()
+                .filter(budget -> !totals.containsKey(budget.getId()))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            // Wait for in-flight writes so none is missed by both the rollup and the running total
+            dailySpendService.lockUser(userId, false);
+            initializeTotals(userId, missing, today);
+            totals.putAll(readCurrentTotals(userId, missing, today));
+        }
+
+        List<Map<String, Object>> statuses = new ArrayList<>();
+        for (Budget budget : budgets) {
+            LocalDate periodStart = budget.getPeriod().startOf(today);
+            Object[] total = totals.getOrDefault(budget.getId(), new Object[] {BigDecimal.ZERO, 0L});
+            BigDecimal spent = (BigDecimal) total[0];
+
+            Map<String, Object> status = new HashMap<>();
+            status.put("budgetId", budget.getId());
+            status.put("categoryId", budget.getCategory() != null ? budget.getCategory().getId() : null);
+            status.put("categoryName", budget.getCategory() != null ? budget.getCategory().getName() : null);
+            status.put("period", budget.getPeriod());
+            status.put("periodStart", periodStart);
+            status.put("periodEnd", budget.getPeriod().next(periodStart).minusDays(1));
+            status.put("currency", budget.getCurrency());
+            status.put("limitAmount", budget.getLimitAmount());
+            status.put("spent", spent);
+            status.put("remaining", budget.getLimitAmount().subtract(spent));
+            status.put("percentUsed", spent.multiply(HUNDRED).divide(budget.getLimitAmount(), 1, RoundingMode.HALF_UP));
+            status.put("transactionCount", total[1]);
+            statuses.add(status);
+        }
+        return statuses;
+    }
+
+    /**
+     * Returns the user's budget alerts that have not been dismissed, newest first.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAlerts(String token, int limit) {
+        if (limit < 1 || limit > MAX_ALERTS) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_ALERTS);
+        }
+        UUID userId = jwtTokenProvider.getUserId(token);
+
+        return jdbcTemplate.query(SELECT_ALERTS, (rs, rowNum) -> {
+            Map<String, Object> alert = new HashMap<>();
+            alert.put("id", rs.getObject("id", UUID.class));
+            alert.put("budgetId", rs.getObject("budget_id", UUID.class));
+            alert.put("categoryId", rs.getObject("category_id", UUID.class));
+            alert.put("periodStart", rs.getDate("period_start").toLocalDate());
+            alert.put("thresholdPercent", rs.getInt("threshold_percent"));
+            alert.put("spent", rs.getBigDecimal("spent"));
+            alert.put("limitAmount", rs.getBigDecimal("limit_amount"));
+            alert.put("currency", rs.getString("currency"));
+            alert.put("createdAt", rs.getTimestamp("created_at").toLocalDateTime());
+            return alert;
+        }, userId, limit);
+    }
+
+    @Transactional
+    public void dismissAlert(String token, UUID alertId) {
+        UUID userId = jwtTokenProvider.getUserId(token);
+        List<UUID> owners = jdbcTemplate.query(SELECT_ALERT_OWNER,
+                (rs, rowNum) -> rs.getObject("user_id", UUID.class), alertId);
+        if (owners.isEmpty()) {
+            throw new EntityNotFoundException("Budget alert not found with id: " + alertId);
+        }
+
+        // Verify ownership
+        if (!owners.get(0).equals(userId)) {
+            throw new RuntimeException("You are not authorized to access this budget alert");
+        }
+
+        jdbcTemplate.update(DISMISS_ALERT, alertId);
+    }
+
+    @EventListener
+    public void onTransactionsChanged(TransactionsChangedEvent event) {
+        FxRateTable rates = fxRateService.getTable();
+        Map<PeriodKey, Delta> deltas = new LinkedHashMap<>();
+        for (TransactionChange change : event.getChanges()) {
+            List<BudgetRule> budgets = getRules(change.getUserId());
+            if (budgets.isEmpty()) {
+                continue;
+            }
+            if (change.getBefore() != null) {
+                merge(deltas, budgets, change.getBefore(), -1, rates);
+            }
+            if (change.getAfter() != null) {
+                merge(deltas, budgets, change.getAfter(), 1, rates);
+            }
+        }
+        deltas.values().removeIf(Delta::isEmpty);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        Set<UUID> userIds = new TreeSet<>();
+        for (PeriodKey key : deltas.keySet()) {
+            userIds.add(key.budget.userId);
+        }
+        for (UUID userId : userIds) {
+            dailySpendService.lockUser(userId, true);
+        }
+
+        for (Map.Entry<PeriodKey, Delta> entry : deltas.entrySet()) {
+            PeriodKey key = entry.getKey();
+            Delta delta = entry.getValue();
+            List<Object[]> updated = jdbcTemplate.query(ADD_TO_PERIOD,
+                    (rs, rowNum) -> new Object[] {rs.getBigDecimal("spent"), rs.getInt("notified_percent")},
+                    delta.amount, delta.count, key.budget.id, Date.valueOf(key.periodStart));
+            // No row yet: nobody has read this period, and its total will be computed when they do
+            if (!updated.isEmpty()) {
+                checkThresholds(key, (BigDecimal) updated.get(0)[0], (Integer) updated.get(0)[1]);
+            }
+        }
+    }
+
+    private void checkThresholds(PeriodKey key, BigDecimal spent, int notifiedPercent) {
+        BudgetRule budget = key.budget;
+        int reached = reachedThreshold(spent, budget.limitAmount);
+        if (reached == notifiedPercent) {
+            return;
+        }
+
+        // Recorded on the way down too, so spending that climbs back up alerts again
+        jdbcTemplate.update(SET_NOTIFIED, reached, budget.id, Date.valueOf(key.periodStart));
+        for (int threshold : ALERT_THRESHOLDS) {
+            if (threshold > notifiedPercent && threshold <= reached) {
+                log.debug("Budget {} reached {}% for the period starting {}", budget.id, threshold, key.periodStart);
+                jdbcTemplate.update(INSERT_ALERT, budget.userId, budget.id, Date.valueOf(key.periodStart), threshold,
+                        spent, budget.limitAmount, budget.currency);
+                publishAfterCommit(new BudgetThresholdCrossedEvent(budget.id, budget.userId,
+                        budget.categoryId, key.periodStart, threshold, spent, budget.limitAmount, budget.currency));
+            }
+        }
+    }
+
+    private void publishAfterCommit(BudgetThresholdCrossedEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eventPublisher.publishEvent(event);
+                }
+            });
+        } else {
+            eventPublisher.publishEvent(event);
+        }
+    }
+
+    private Map<UUID, Object[]> readCurrentTotals(UUID userId, List<Budget> budgets, LocalDate today) {
+        Map<UUID, LocalDate> currentStarts = new HashMap<>();
+        LocalDate earliest = today;
+        for (Budget budget : budgets) {
+            LocalDate start = budget.getPeriod().startOf(today);
+            currentStarts.put(budget.getId(), start);
+            earliest = start.isBefore(earliest) ? start : earliest;
+        }
+
+        Map<UUID, Object[]> totals = new HashMap<>();
+        jdbcTemplate.query(SELECT_PERIODS, rs -> {
+            UUID budgetId = rs.getObject("budget_id", UUID.class);
+            if (rs.getDate("period_start").toLocalDate().equals(currentStarts.get(budgetId))) {
+                totals.put(budgetId, new Object[] {rs.getBigDecimal("spent"), rs.getLong("transaction_count")});
+            }
+        }, userId, Date.valueOf(earliest));
+        return totals;
+    }
+
+    private void initializeTotals(UUID userId, List<Budget> budgets, LocalDate today) {
+        List<BudgetRule> budgetRules = budgets.stream().map(BudgetRule::of).collect(Collectors.toList());
+        Map<UUID, Delta> totals = new HashMap<>();
+        LocalDate from = today;
+        LocalDate to = today;
+        for (BudgetRule budget : budgetRules) {
+            LocalDate start = budget.period.startOf(today);
+            from = start.isBefore(from) ? start : from;
+            LocalDate end = budget.period.next(start);
+            to = end.isAfter(to) ? end : to;
+            totals.put(budget.id, new Delta());
+        }
+
+        FxRateTable rates = fxRateService.getTable();
+        jdbcTemplate.query(SELECT_DAILY_SPEND, rs -> {
+            LocalDate day = rs.getDate("day").toLocalDate();
+            UUID categoryId = rs.getObject("category_id", UUID.class);
+            List<UUID> ancestors = categoryCacheService.getAncestors(categoryId);
+            for (BudgetRule budget : budgetRules) {
+                LocalDate start = budget.period.startOf(today);
+                if (!day.isBefore(start) && day.isBefore(budget.period.next(start)) && budget.covers(ancestors)) {
+                    Delta total = totals.get(budget.id);
+                    total.amount = total.amount.add(convert(rates, rs.getBigDecimal("amount"), rs.getString("currency"),
+                            budget.currency, day));
+                    total.count += rs.getLong("transaction_count");
+                }
+            }
+        }, userId, Date.valueOf(from), Date.valueOf(to));
+
+        List<Object[]> rows = new ArrayList<>();
+        for (BudgetRule budget : budgetRules) {
+            Delta total = totals.get(budget.id);
+            rows.add(new Object[] {budget.id, Date.valueOf(budget.period.startOf(today)), total.amount, total.count,
+                    reachedThreshold(total.amount, budget.limitAmount)});
+        }
+        jdbcTemplate.batchUpdate(INSERT_PERIOD, rows);
+    }
+
+    private List<BudgetRule> getRules(UUID userId) {
+        // computeIfAbsent holds off invalidate() for the same user while loading, so a stale list is never kept
+        return rules.computeIfAbsent(userId, id -> budgetRepository.findByUserId(id).stream()
+                .map(BudgetRule::of)
+                .collect(Collectors.toList()));
+    }
+
+    private void merge(Map<PeriodKey, Delta> deltas, List<BudgetRule> budgets, TransactionSnapshot snapshot,
+                       int sign, FxRateTable rates) {
+        List<UUID> ancestors = categoryCacheService.getAncestors(snapshot.getCategoryId());
+        LocalDate day = snapshot.getDay();
+        for (BudgetRule budget : budgets) {
+            if (!budget.covers(ancestors)) {
+                continue;
+            }
+            PeriodKey key = new PeriodKey(budget, budget.period.startOf(day));
+            Delta delta = deltas.computeIfAbsent(key, k -> new Delta());
+            BigDecimal amount = convert(rates, snapshot.getAmount(), snapshot.getCurrency(), budget.currency, day);
+            delta.amount = sign > 0 ? delta.amount.add(amount) : delta.amount.subtract(amount);
+            delta.count += sign;
+        }
+    }
+
+    private Budget getOwnedBudget(UUID userId, UUID budgetId) {
+        Budget budget = budgetRepository.findById(budgetId)
+                .orElseThrow(() -> new EntityNotFoundException("Budget not found with id: " + budgetId));
+
+        // Verify ownership
+        if (!budget.getUser().getId().equals(userId)) {
+            throw new RuntimeException("You are not authorized to access this budget");
+        }
+
+        return budget;
+    }
+
+    private void applyChanges(Budget budget, BudgetDto budgetDto, String defaultCurrency) {
+        Category category = null;
+        if (budgetDto.getCategoryId() != null) {
+            category = categoryRepository.findById(budgetDto.getCategoryId())
+                    .orElseThrow(() -> new EntityNotFoundException("Category not found with id: " + budgetDto.getCategoryId()));
+        }
+
+        String currency = budgetDto.getCurrency() != null
+                ? budgetDto.getCurrency().trim().toUpperCase(Locale.ROOT) : defaultCurrency;
+        try {
+            Currency.getInstance(currency);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown currency code: " + budgetDto.getCurrency());
+        }
+
+        budget.setCategory(category);
+        budget.setPeriod(budgetDto.getPeriod());
+        budget.setLimitAmount(budgetDto.getLimitAmount());
+        budget.setCurrency(currency);
+    }
+
+    private void invalidate(UUID userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rules.remove(userId);
+                }
+            });
+        } else {
+            rules.remove(userId);
+        }
+    }
+
+    /**
+     * The highest alert threshold the spending has reached, or 0.
+     */
+    private static int reachedThreshold(BigDecimal spent, BigDecimal limitAmount) {
+        BigDecimal percent = spent.multiply(HUNDRED);
+        int reached = 0;
+        for (int threshold : ALERT_THRESHOLDS) {
+            if (percent.compareTo(limitAmount.multiply(BigDecimal.valueOf(threshold))) >= 0) {
+                reached = threshold;
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Converts to the budget's currency; spending that cannot be converted is left out of budgets.
+     */
+    private static BigDecimal convert(FxRateTable rates, BigDecimal amount, String from, String to, LocalDate day) {
+        BigDecimal converted = rates.convert(amount, from, to, day);
+        return converted != null ? converted : BigDecimal.ZERO;
+    }
+
+    /**
+     * The parts of a budget the write path needs, detached from the persistence context.
+     */
+    private static final class BudgetRule {
+        private final UUID id;
+        private final UUID userId;
+        private final UUID categoryId;
+        private final Budget.Period period;
+        private final BigDecimal limitAmount;
+        private final String currency;
+
+        private BudgetRule(UUID id, UUID userId, UUID categoryId, Budget.Period period,
+                           BigDecimal limitAmount, String currency) {
+            this.id = id;
+            this.userId = userId;
+            this.categoryId = categoryId;
+            this.period = period;
+            this.limitAmount = limitAmount;
+            this.currency = currency;
+        }
+
+        private static BudgetRule of(Budget budget) {
+            return new BudgetRule(budget.getId(), budget.getUser().getId(),
+                    budget.getCategory() != null ? budget.getCategory().getId() : null,
+                    budget.getPeriod(), budget.getLimitAmount(), budget.getCurrency());
+        }
+
+        /**
+         * Whether spending in a category with these ancestors counts towards this budget.
+         */
+        private boolean covers(List<UUID> ancestors) {
+            return categoryId == null || ancestors.contains(categoryId);
+        }
+    }
+
+    private static final class PeriodKey {
+        private final BudgetRule budget;
+        private final LocalDate periodStart;
+
+        private PeriodKey(BudgetRule budget, LocalDate periodStart) {
+            this.budget = budget;
+            this.periodStart = periodStart;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PeriodKey)) {
+                return false;
+            }
+            PeriodKey other = (PeriodKey) o;
+            return budget.id.equals(other.budget.id) && periodStart.equals(other.periodStart);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(budget.id, periodStart);
+        }
+    }
+
+    private static final class Delta {
+        private BigDecimal amount = BigDecimal.ZERO;
+        private long count;
+
+        private boolean isEmpty() {
+            return count == 0 && amount.signum() == 0;
+        }
+    }
+}
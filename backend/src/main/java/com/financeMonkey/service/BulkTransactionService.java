@@ -0,0 +1,375 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.dto.BulkWriteResultDto;
+import com.financeMonkey.dto.BulkWriteResultDto.Item;
+import com.financeMonkey.dto.BulkWriteResultDto.Status;
+import com.financeMonkey.dto.TransactionDto;
+import com.financeMonkey.event.TransactionChange;
+import com.financeMonkey.event.TransactionSnapshot;
+import com.financeMonkey.event.TransactionsChangedEvent;
+import com.financeMonkey.model.Transaction;
+import com.financeMonkey.security.JwtTokenProvider;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Creates, updates and deletes many of a user's transactions in one request.
+ *
+ * Each item is validated on its own and reported with its own status; the valid ones are
+ * written together in one database transaction. Existing transactions are read, checked for
+ * ownership and locked with a single query, categories are checked against the category cache,
+ * and the writes go out as JDBC batches, so a request costs a handful of statements however
+ * many items it holds. Derived data is updated from one {@link TransactionsChangedEvent}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkTransactionService {
+
+    public static final int MAX_ITEMS = 1000;
+
+    private static final String DEFAULT_VENDOR = "Unknown Vendor";
+    private static final String DEFAULT_CURRENCY = "USD";
+    // Limits of the transactions columns; an item beyond them would fail the whole batch
+    private static final int MAX_VENDOR_LENGTH = 255;
+    private static final int MAX_RECURRENCE_PATTERN_LENGTH = 100;
+    private static final int MAX_AMOUNT_SCALE = 4;
+    private static final int MAX_AMOUNT_INTEGER_DIGITS = 15;
+
+    private static final String SELECT_USER_FOR_SHARE =
+            "SELECT id FROM users WHERE id = ? FOR SHARE";
+    private static final String SELECT_FOR_UPDATE =
+            "SELECT id, user_id, transaction_date, amount, currency, vendor, canonical_vendor, category_id, recurring " +
+            "FROM transactions WHERE id = ANY(?) FOR UPDATE";
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transactions (id, user_id, transaction_date, amount, currency, vendor, canonical_vendor, " +
+            "category_id, description, recurring, recurrence_pattern, status, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_TRANSACTION =
+            "UPDATE transactions SET transaction_date = ?, amount = ?, currency = ?, vendor = ?, canonical_vendor = ?, " +
+            "category_id = ?, description = ?, recurring = ?, recurrence_pattern = ?, " +
+            "status = CASE WHEN ? THEN 'MANUAL' ELSE status END, updated_at = ? WHERE id = ?";
+    private static final String DELETE_TRANSACTIONS =
+            "DELETE FROM transactions WHERE id = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CategoryCacheService categoryCacheService;
+    private final VendorCanonicalizationService vendorCanonicalizationService;
+    private final VendorMemoryService vendorMemoryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JwtTokenProvider jwtTokenProvider;
+
+    /**
+     * Creates the valid items, filling in missing fields the way a single create does.
+     */
+    @Transactional
+    public BulkWriteResultDto createTransactions(String token, List<TransactionDto> transactionDtos) {
+        checkSize(transactionDtos);
+        UUID userId = jwtTokenProvider.getUserId(token);
+        // Held until commit, so the user cannot be deleted under the inserts
+        if (jdbcTemplate.queryForList(SELECT_USER_FOR_SHARE, UUID.class, userId).isEmpty()) {
+            throw new EntityNotFoundException("User not found with id: " + userId);
+        }
+        LocalDateTime now = LocalDateTime.now();
+
+        Item[] results = new Item[transactionDtos.size()];
+        List<Object[]> inserts = new ArrayList<>();
+        List<TransactionChange> changes = new ArrayList<>();
+        for (int i = 0; i < transactionDtos.size(); i++) {
+            TransactionDto dto = transactionDtos.get(i);
+            if (dto == null) {
+                results[i] = failure(i, null, Status.INVALID, "Item is empty");
+                continue;
+            }
+            String error = validate(dto);
+            if (error != null) {
+                results[i] = failure(i, null, Status.INVALID, error);
+                continue;
+            }
+
+            UUID id = UUID.randomUUID();
+            String vendor = dto.getVendor() != null ? dto.getVendor() : DEFAULT_VENDOR;
+            TransactionSnapshot after = TransactionSnapshot.builder()
+                    .userId(userId)
+                    .transactionDate(dto.getTransactionDate() != null ? dto.getTransactionDate() : now)
+                    .amount(dto.getAmount() != null ? dto.getAmount() : BigDecimal.ZERO)
+                    .currency(dto.getCurrency() != null ? dto.getCurrency() : DEFAULT_CURRENCY)
+                    .categoryId(dto.getCategoryId())
+                    .vendor(vendor)
+                    .canonicalVendor(vendorCanonicalizationService.canonicalize(userId, vendor))
+                    .recurring(dto.isRecurring())
+                    .build();
+            inserts.add(new Object[] {id, userId, Timestamp.valueOf(after.getTransactionDate()), after.getAmount(),
+                    after.getCurrency(), after.getVendor(), after.getCanonicalVendor(), after.getCategoryId(),
+                    dto.getDescription(), after.isRecurring(), dto.getRecurrencePattern(),
+                    Transaction.TransactionStatus.PROCESSED.name(), Timestamp.valueOf(now), Timestamp.valueOf(now)});
+            changes.add(new TransactionChange(id, null, after));
+            results[i] = success(i, id, Status.CREATED);
+        }
+
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TRANSACTION, inserts);
+        }
+        return finish(changes, results);
+    }
+
+    /**
+     * Updates the valid items. Each needs its id, date, amount and vendor; a missing currency
+     * keeps the current one.
+     */
+    @Transactional
+    public BulkWriteResultDto updateTransactions(String token, List<TransactionDto> transactionDtos) {
+        checkSize(transactionDtos);
+        UUID userId = jwtTokenProvider.getUserId(token);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<UUID> ids = new ArrayList<>();
+        for (TransactionDto dto : transactionDtos) {
+            if (dto != null && dto.getId() != null) {
+                ids.add(dto.getId());
+            }
+        }
+        Map<UUID, Row> existing = lockExisting(ids);
+
+        Item[] results = new Item[transactionDtos.size()];
+        Set<UUID> seen = new HashSet<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<TransactionChange> changes = new ArrayList<>();
+        Map<String, UUID> recategorized = new LinkedHashMap<>();
+        for (int i = 0; i < transactionDtos.size(); i++) {
+            TransactionDto dto = transactionDtos.get(i);
+            UUID id = dto != null ? dto.getId() : null;
+            Item failure = checkExisting(i, id, userId, existing, seen);
+            if (failure != null) {
+                results[i] = failure;
+                continue;
+            }
+            if (dto.getTransactionDate() == null || dto.getAmount() == null || dto.getVendor() == null) {
+                results[i] = failure(i, id, Status.INVALID, "transactionDate, amount and vendor are required");
+                continue;
+            }
+            String error = validate(dto);
+            if (error != null) {
+                results[i] = failure(i, id, Status.INVALID, error);
+                continue;
+            }
+
+            Row row = existing.get(id);
+            TransactionSnapshot before = row.toSnapshot();
+            TransactionSnapshot after = TransactionSnapshot.builder()
+                    .userId(userId)
+                    .transactionDate(dto.getTransactionDate())
+                    .amount(dto.getAmount())
+                    .currency(dto.getCurrency() != null ? dto.getCurrency() : row.currency)
+                    .categoryId(dto.getCategoryId())
+                    .vendor(dto.getVendor())
+                    .canonicalVendor(vendorCanonicalizationService.canonicalize(userId, dto.getVendor()))
+                    .recurring(dto.isRecurring())
+                    .build();
+            // A changed category is a manual categorization, as in a single update
+            boolean recategorizedByUser = !Objects.equals(before.getCategoryId(), after.getCategoryId());
+            updates.add(new Object[] {Timestamp.valueOf(after.getTransactionDate()), after.getAmount(),
+                    after.getCurrency(), after.getVendor(), after.getCanonicalVendor(), after.getCategoryId(),
+                    dto.getDescription(), after.isRecurring(), dto.getRecurrencePattern(), recategorizedByUser,
+                    Timestamp.valueOf(now), id});
+            changes.add(new TransactionChange(id, before, after));
+            results[i] = success(i, id, Status.UPDATED);
+
+            if (recategorizedByUser && after.getCanonicalVendor() != null) {
+                recategorized.put(after.getCanonicalVendor(), after.getCategoryId());
+            }
+        }
+
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_TRANSACTION, updates);
+        }
+        recategorized.forEach((vendor, categoryId) -> vendorMemoryService.remember(userId, vendor, categoryId));
+        return finish(changes, results);
+    }
+
+    @Transactional
+    public BulkWriteResultDto deleteTransactions(String token, List<UUID> transactionIds) {
+        checkSize(transactionIds);
+        UUID userId = jwtTokenProvider.getUserId(token);
+
+        Map<UUID, Row> existing = lockExisting(transactionIds);
+
+        Item[] results = new Item[transactionIds.size()];
+        Set<UUID> seen = new HashSet<>();
+        List<UUID> deletes = new ArrayList<>();
+        List<TransactionChange> changes = new ArrayList<>();
+        for (int i = 0; i < transactionIds.size(); i++) {
+            UUID id = transactionIds.get(i);
+            Item failure = checkExisting(i, id, userId, existing, seen);
+            if (failure != null) {
+                results[i] = failure;
+                continue;
+            }
+
+            deletes.add(id);
+            changes.add(new TransactionChange(id, existing.get(id).toSnapshot(), null));
+            results[i] = success(i, id, Status.DELETED);
+        }
+
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.update(connection -> {
+                var statement = connection.prepareStatement(DELETE_TRANSACTIONS);
+                statement.setArray(1, connection.createArrayOf("uuid", deletes.toArray()));
+                return statement;
+            });
+        }
+        return finish(changes, results);
+    }
+
+    private BulkWriteResultDto finish(List<TransactionChange> changes, Item[] results) {
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new TransactionsChangedEvent(changes));
+        }
+
+        int succeeded = 0;
+        for (Item result : results) {
+            if (result.isSuccess()) {
+                succeeded++;
+            }
+        }
+        log.debug("Bulk write: {} succeeded, {} failed", succeeded, results.length - succeeded);
+        return BulkWriteResultDto.builder()
+                .succeeded(succeeded)
+                .failed(results.length - succeeded)
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    /**
+     * Reads and locks the existing transactions among {@code ids} with one query.
+     */
+    private Map<UUID, Row> lockExisting(List<UUID> ids) {
+        Map<UUID, Row> rows = new HashMap<>();
+        Object[] distinctIds = ids.stream().filter(Objects::nonNull).distinct().toArray();
+        if (distinctIds.length == 0) {
+            return rows;
+        }
+
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(SELECT_FOR_UPDATE);
+            statement.setArray(1, connection.createArrayOf("uuid", distinctIds));
+            return statement;
+        }, rs -> {
+            Row row = Row.from(rs);
+            rows.put(row.id, row);
+        });
+        return rows;
+    }
+
+    private static Item checkExisting(int index, UUID id, UUID userId, Map<UUID, Row> existing, Set<UUID> seen) {
+        if (id == null) {
+            return failure(index, null, Status.INVALID, "Transaction id is required");
+        }
+        if (!seen.add(id)) {
+            return failure(index, id, Status.INVALID, "Transaction appears more than once in the request");
+        }
+        Row row = existing.get(id);
+        if (row == null) {
+            return failure(index, id, Status.NOT_FOUND, "Transaction not found with id: " + id);
+        }
+        // Verify ownership
+        if (!row.userId.equals(userId)) {
+            return failure(index, id, Status.FORBIDDEN, "You are not authorized to access this transaction");
+        }
+        return null;
+    }
+
+    /**
+     * Returns why the item's given fields cannot be written, or null if they can.
+     */
+    private String validate(TransactionDto dto) {
+        if (dto.getCurrency() != null) {
+            try {
+                Currency.getInstance(dto.getCurrency());
+            } catch (IllegalArgumentException e) {
+                return "Unknown currency code: " + dto.getCurrency();
+            }
+        }
+        if (dto.getVendor() != null && dto.getVendor().length() > MAX_VENDOR_LENGTH) {
+            return "vendor must be at most " + MAX_VENDOR_LENGTH + " characters";
+        }
+        if (dto.getRecurrencePattern() != null && dto.getRecurrencePattern().length() > MAX_RECURRENCE_PATTERN_LENGTH) {
+            return "recurrencePattern must be at most " + MAX_RECURRENCE_PATTERN_LENGTH + " characters";
+        }
+        BigDecimal amount = dto.getAmount();
+        if (amount != null && (amount.scale() > MAX_AMOUNT_SCALE
+                || amount.precision() - amount.scale() > MAX_AMOUNT_INTEGER_DIGITS)) {
+            return "amount must have at most " + MAX_AMOUNT_INTEGER_DIGITS + " integer digits and "
+                    + MAX_AMOUNT_SCALE + " decimal places";
+        }
+        if (dto.getCategoryId() != null && categoryCacheService.getCategory(dto.getCategoryId()) == null) {
+            return "Category not found with id: " + dto.getCategoryId();
+        }
+        return null;
+    }
+
+    private static void checkSize(List<?> items) {
+        if (items == null || items.isEmpty() || items.size() > MAX_ITEMS) {
+            throw new IllegalArgumentException("A bulk request must hold between 1 and " + MAX_ITEMS + " items");
+        }
+    }
+
+    private static Item success(int index, UUID id, Status status) {
+        return Item.builder().index(index).id(id).status(status).build();
+    }
+
+    private static Item failure(int index, UUID id, Status status, String error) {
+        return Item.builder().index(index).id(id).status(status).error(error).build();
+    }
+
+    private static final class Row {
+        private UUID id;
+        private UUID userId;
+        private LocalDateTime transactionDate;
+        private BigDecimal amount;
+        private String currency;
+        private String vendor;
+        private String canonicalVendor;
+        private UUID categoryId;
+        private boolean recurring;
+
+        private static Row from(ResultSet rs) throws SQLException {
+            Row row = new Row();
+            row.id = rs.getObject("id", UUID.class);
+            row.userId = rs.getObject("user_id", UUID.class);
+            row.transactionDate = rs.getTimestamp("transaction_date").toLocalDateTime();
+            row.amount = rs.getBigDecimal("amount");
+            row.currency = rs.getString("currency");
+            row.vendor = rs.getString("vendor");
+            row.canonicalVendor = rs.getString("canonical_vendor");
+            row.categoryId = rs.getObject("category_id", UUID.class);
+            row.recurring = rs.getBoolean("recurring");
+            return row;
+        }
+
+        private TransactionSnapshot toSnapshot() {
+            return TransactionSnapshot.builder()
+                    .userId(userId)
+                    .transactionDate(transactionDate)
+                    .amount(amount)
+                    .currency(currency)
+                    .categoryId(categoryId)
+                    .vendor(vendor)
+                    .canonicalVendor(canonicalVendor)
+                    .recurring(recurring)
+                    .build();
+        }
+    }
+}
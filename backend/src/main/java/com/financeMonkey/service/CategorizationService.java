@@ -0,0 +1,91 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.engine.DefaultCategoryRules;
+import com.financeMonkey.engine.KeywordAutomaton;
+import com.financeMonkey.engine.UserRuleMatcher;
+import com.financeMonkey.model.Category;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Assigns categories to transactions. A user's past corrections for the vendor win, then the
+ * user's own rules, then the built-in keyword rules. Memory and rules are held in memory and
+ * categories come from {@link CategoryCacheService}, so categorizing a transaction needs no
+ * database access once a user's data is loaded.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CategorizationService {
+
+    private static final KeywordAutomaton DEFAULT_RULES = DefaultCategoryRules.compile();
+
+    private final CategoryCacheService categoryCacheService;
+    private final CategoryRuleService categoryRuleService;
+    private final VendorMemoryService vendorMemoryService;
+    private final VendorCanonicalizationService vendorCanonicalizationService;
+
+    /**
+     * Determines the category for a transaction, applying the user's vendor memory and rules
+     * before the defaults. Vendors are matched by their canonical name first, then as given.
+     *
+     * @return the matching category, or null if no rule matches
+     */
+    public Category categorize(UUID userId, String vendor, String description, BigDecimal amount, String sender) {
+        String canonicalVendor = vendorCanonicalizationService.canonicalize(userId, vendor);
+        
+        if (userId != null) {
+            UUID rememberedId = vendorMemoryService.lookup(userId, canonicalVendor);
+            if (rememberedId != null) {
+                Category category = categoryCacheService.getCategory(rememberedId);
+                if (category != null) {
+                    return category;
+                }
+            }
+            
+            UserRuleMatcher matcher = categoryRuleService.getMatcher(userId);
+            UUID categoryId = matcher.match(canonicalVendor, amount, sender);
+            if (categoryId == null && vendor != null && !vendor.equals(canonicalVendor)) {
+                categoryId = matcher.match(vendor, amount, sender);
+            }
+            if (categoryId != null) {
+                Category category = categoryCacheService.getCategory(categoryId);
+                if (category != null) {
+                    return category;
+                }
+                log.warn("User rule matched category {} but it does not exist", categoryId);
+            }
+        }
+        
+        int ruleId = DEFAULT_RULES.bestMatch(canonicalVendor);
+        return findDefaultCategory(DEFAULT_RULES.bestMatch(vendor, ruleId, null), description);
+    }
+
+    /**
+     * Determines the category for a transaction based on vendor and description.
+     *
+     * @return the matching category, or null if no rule matches
+     */
+    public Category categorize(String vendor, String description) {
+        return findDefaultCategory(DEFAULT_RULES.bestMatch(vendor), description);
+    }
+
+    private Category findDefaultCategory(int vendorRuleId, String description) {
+        int ruleId = DEFAULT_RULES.bestMatch(description, vendorRuleId, null);
+        
+        UUID categoryId = DefaultCategoryRules.categoryId(ruleId);
+        if (categoryId == null) {
+            return null;
+        }
+        
+        Category category = categoryCacheService.getCategory(categoryId);
+        if (category == null) {
+            log.warn("Rule matched category {} but it does not exist", categoryId);
+        }
+        return category;
+    }
+}
@@ -0,0 +1,195 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.model.Category;
+import com.financeMonkey.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds every category in memory so hot paths (categorization, analytics) never query the
+ * categories table. Alongside the categories it keeps the tree: each category's ancestor
+ * chain and children, so spending can be rolled up the hierarchy without recursive queries.
+ * Everything is loaded lazily on first use and dropped whenever a category changes; the next
+ * reader reloads it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CategoryCacheService {
+
+    private final CategoryRepository categoryRepository;
+
+    private volatile Snapshot snapshot;
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Returns the cached category, or null if it does not exist.
+     */
+    public Category getCategory(UUID categoryId) {
+        if (categoryId == null) {
+            return null;
+        }
+        return getCategories().get(categoryId);
+    }
+
+    /**
+     * Returns an immutable snapshot of all categories keyed by ID.
+     */
+    public Map<UUID, Category> getCategories() {
+        return getSnapshot().categories;
+    }
+
+    /**
+     * Returns the category followed by its parent, grandparent and so on up to the root,
+     * or an empty list if the category does not exist.
+     */
+    public List<UUID> getAncestors(UUID categoryId) {
+        if (categoryId == null) {
+            return Collections.emptyList();
+        }
+        return getSnapshot().ancestors.getOrDefault(categoryId, Collections.emptyList());
+    }
+
+    /**
+     * Returns the IDs of the category's direct subcategories.
+     */
+    public List<UUID> getChildren(UUID categoryId) {
+        return getSnapshot().children.getOrDefault(categoryId, Collections.emptyList());
+    }
+
+    /**
+     * Returns the IDs of all top-level categories.
+     */
+    public List<UUID> getRootIds() {
+        return getSnapshot().roots;
+    }
+
+    /**
+     * Returns a counter that changes whenever the cached categories are dropped, for caches of
+     * results derived from them.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Drops the cached categories once the current transaction commits (or immediately
+     * when called outside a transaction).
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    drop();
+                }
+            });
+        } else {
+            drop();
+        }
+    }
+
+    private void drop() {
+        // Bump first: a load that checks the version after this sees the change and retries
+        version.incrementAndGet();
+        snapshot = null;
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            current = load();
+        }
+        return current;
+    }
+
+    private synchronized Snapshot load() {
+        Snapshot current = snapshot;
+        while (current == null) {
+            // A category change that commits while we read makes this snapshot stale; read again
+            long loadedVersion = version.get();
+            current = read();
+            if (version.get() == loadedVersion) {
+                snapshot = current;
+            } else {
+                current = null;
+            }
+        }
+        return current;
+    }
+
+    private Snapshot read() {
+        List<Category> all = categoryRepository.findAll();
+        Map<UUID, Category> categories = new HashMap<>(all.size() * 2);
+        for (Category category : all) {
+            categories.put(category.getId(), category);
+        }
+
+        Map<UUID, UUID> parents = new HashMap<>(all.size() * 2);
+        for (Object[] link : categoryRepository.findAllParentLinks()) {
+            if (link[1] != null) {
+                parents.put((UUID) link[0], (UUID) link[1]);
+            }
+        }
+
+        Map<UUID, List<UUID>> ancestors = new HashMap<>(all.size() * 2);
+        Map<UUID, List<UUID>> children = new HashMap<>();
+        List<UUID> roots = new ArrayList<>();
+        for (UUID categoryId : categories.keySet()) {
+            ancestors.put(categoryId, Collections.unmodifiableList(buildAncestors(categoryId, parents, categories.size())));
+
+            UUID parentId = parents.get(categoryId);
+            if (parentId == null || !categories.containsKey(parentId)) {
+                roots.add(categoryId);
+            } else {
+                children.computeIfAbsent(parentId, k -> new ArrayList<>()).add(categoryId);
+            }
+        }
+        children.replaceAll((k, v) -> Collections.unmodifiableList(v));
+
+        log.debug("Loaded {} categories ({} top-level) into cache", categories.size(), roots.size());
+        return new Snapshot(Collections.unmodifiableMap(categories), Collections.unmodifiableMap(ancestors),
+                Collections.unmodifiableMap(children), Collections.unmodifiableList(roots));
+    }
+
+    private static List<UUID> buildAncestors(UUID categoryId, Map<UUID, UUID> parents, int maxDepth) {
+        List<UUID> chain = new ArrayList<>(4);
+        UUID current = categoryId;
+        while (current != null) {
+            if (chain.contains(current) || chain.size() > maxDepth) {
+                // A cycle in parent links; stop rather than loop forever
+                log.warn("Category {} has a cyclic parent chain", categoryId);
+                break;
+            }
+            chain.add(current);
+            current = parents.get(current);
+        }
+        return chain;
+    }
+
+    private static final class Snapshot {
+        private final Map<UUID, Category> categories;
+        private final Map<UUID, List<UUID>> ancestors;
+        private final Map<UUID, List<UUID>> children;
+        private final List<UUID> roots;
+
+        private Snapshot(Map<UUID, Category> categories, Map<UUID, List<UUID>> ancestors,
+                         Map<UUID, List<UUID>> children, List<UUID> roots) {
+            this.categories = categories;
+            this.ancestors = ancestors;
+            this.children = children;
+            this.roots = roots;
+        }
+    }
+}
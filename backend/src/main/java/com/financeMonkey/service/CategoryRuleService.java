@@ -0,0 +1,226 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.dto.CategoryRuleDto;
+import com.financeMonkey.engine.UserRuleMatcher;
+import com.financeMonkey.model.Category;
+import com.financeMonkey.model.CategoryRule;
+import com.financeMonkey.model.User;
+import com.financeMonkey.repository.CategoryRepository;
+import com.financeMonkey.repository.CategoryRuleRepository;
+import com.financeMonkey.repository.UserRepository;
+import com.financeMonkey.security.JwtTokenProvider;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Manages user-defined categorization rules and keeps a compiled {@link UserRuleMatcher}
+ * per user. A rule change only drops that user's matcher; it is recompiled from the
+ * database on the next categorization. The matchers of the least recently used users are
+ * dropped beyond {@code categorization.rules.max-users}.
+ */
+@Slf4j
+@Service
+public class CategoryRuleService {
+
+    private static final int DEFAULT_PRIORITY = 100;
+    // Rules the matcher checks one by one, capped at UserRuleMatcher.MAX_SEQUENTIAL_RULES
+    private static final EnumSet<CategoryRule.MatchType> SEQUENTIAL_MATCH_TYPES =
+            EnumSet.of(CategoryRule.MatchType.VENDOR_REGEX, CategoryRule.MatchType.AMOUNT_RANGE);
+
+    private final CategoryRuleRepository categoryRuleRepository;
+    private final CategoryRepository categoryRepository;
+    private final UserRepository userRepository;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final int maxUsers;
+
+    private final LinkedHashMap<UUID, UserRuleMatcher> matchers = new LinkedHashMap<>(16, 0.75f, true);
+    // Bumped by every committed rule change, so a matcher compiled before one is not cached
+    private long rulesVersion;
+
+    public CategoryRuleService(CategoryRuleRepository categoryRuleRepository,
+                               CategoryRepository categoryRepository,
+                               UserRepository userRepository,
+                               JwtTokenProvider jwtTokenProvider,
+                               @Value("${categorization.rules.max-users:1000}") int maxUsers) {
+        this.categoryRuleRepository = categoryRuleRepository;
+        this.categoryRepository = categoryRepository;
+        this.userRepository = userRepository;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.maxUsers = maxUsers;
+    }
+
+    @Transactional(readOnly = true)
+    public List<CategoryRuleDto> getUserRules(String token) {
+        UUID userId = jwtTokenProvider.getUserId(token);
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + userId));
+        
+        return categoryRuleRepository.findByUserOrderByPriorityAscCreatedAtAsc(user).stream()
+                .map(CategoryRuleDto::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public CategoryRuleDto createRule(String token, CategoryRuleDto ruleDto) {
+        UUID userId = jwtTokenProvider.getUserId(token);
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + userId));
+        
+        CategoryRule rule = new CategoryRule();
+        rule.setUser(user);
+        applyChanges(userId, rule, ruleDto);
+        
+        CategoryRule savedRule = categoryRuleRepository.save(rule);
+        invalidate(userId);
+        return CategoryRuleDto.fromEntity(savedRule);
+    }
+
+    @Transactional
+    public CategoryRuleDto updateRule(String token, UUID ruleId, CategoryRuleDto ruleDto) {
+        UUID userId = jwtTokenProvider.getUserId(token);
+        CategoryRule rule = getOwnedRule(userId, ruleId);
+        
+        applyChanges(userId, rule, ruleDto);
+        
+        CategoryRule savedRule = categoryRuleRepository.save(rule);
+        invalidate(userId);
+        return CategoryRuleDto.fromEntity(savedRule);
+    }
+
+    @Transactional
+    public void deleteRule(String token, UUID ruleId) {
+        UUID userId = jwtTokenProvider.getUserId(token);
+        CategoryRule rule = getOwnedRule(userId, ruleId);
+        
+        categoryRuleRepository.delete(rule);
+        invalidate(userId);
+    }
+
+    /**
+     * Returns the compiled rules for a user, compiling them on first use.
+     */
+    public UserRuleMatcher getMatcher(UUID userId) {
+        long compiledVersion;
+        synchronized (this) {
+            UserRuleMatcher cached = matchers.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+            compiledVersion = rulesVersion;
+        }
+        
+        UserRuleMatcher compiled = compile(userId);
+        
+        synchronized (this) {
+            if (rulesVersion != compiledVersion) {
+                // A rule change committed while compiling and may be missing here; the next call recompiles
+                return compiled;
+            }
+            UserRuleMatcher cached = matchers.putIfAbsent(userId, compiled);
+            while (matchers.size() > maxUsers) {
+                matchers.remove(matchers.keySet().iterator().next());
+            }
+            return cached != null ? cached : compiled;
+        }
+    }
+
+    public synchronized int size() {
+        return matchers.size();
+    }
+
+    private UserRuleMatcher compile(UUID userId) {
+        List<CategoryRule> rules = categoryRuleRepository.findEnabledByUserId(userId);
+        if (rules.isEmpty()) {
+            return UserRuleMatcher.empty();
+        }
+        
+        UserRuleMatcher.Builder builder = UserRuleMatcher.builder();
+        for (CategoryRule rule : rules) {
+            try {
+                builder.add(toKind(rule.getMatchType()), rule.getPattern(),
+                        rule.getMinAmount(), rule.getMaxAmount(), rule.getCategory().getId());
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipping invalid category rule {}: {}", rule.getId(), e.getMessage());
+            }
+        }
+        
+        UserRuleMatcher matcher = builder.build();
+        log.debug("Compiled {} category rules for user {}", matcher.getRuleCount(), userId);
+        return matcher;
+    }
+
+    private CategoryRule getOwnedRule(UUID userId, UUID ruleId) {
+        CategoryRule rule = categoryRuleRepository.findById(ruleId)
+                .orElseThrow(() -> new EntityNotFoundException("Category rule not found with id: " + ruleId));
+        
+        // Verify ownership
+        if (!rule.getUser().getId().equals(userId)) {
+            throw new RuntimeException("You are not authorized to access this category rule");
+        }
+        
+        return rule;
+    }
+
+    private void applyChanges(UUID userId, CategoryRule rule, CategoryRuleDto ruleDto) {
+        Category category = categoryRepository.findById(ruleDto.getCategoryId())
+                .orElseThrow(() -> new EntityNotFoundException("Category not found with id: " + ruleDto.getCategoryId()));
+        
+        // Compile the rule on its own first so invalid patterns are rejected up front
+        UserRuleMatcher.builder().add(toKind(ruleDto.getMatchType()), ruleDto.getPattern(),
+                ruleDto.getMinAmount(), ruleDto.getMaxAmount(), category.getId());
+        
+        boolean enabled = ruleDto.getEnabled() == null || ruleDto.getEnabled();
+        if (enabled && SEQUENTIAL_MATCH_TYPES.contains(ruleDto.getMatchType())) {
+            long existing = categoryRuleRepository.countEnabledByUserIdAndMatchTypeIn(userId, SEQUENTIAL_MATCH_TYPES);
+            // An update replaces the rule's own slot
+            if (rule.getId() != null && rule.isEnabled() && SEQUENTIAL_MATCH_TYPES.contains(rule.getMatchType())) {
+                existing--;
+            }
+            if (existing >= UserRuleMatcher.MAX_SEQUENTIAL_RULES) {
+                throw new IllegalArgumentException("At most " + UserRuleMatcher.MAX_SEQUENTIAL_RULES
+                        + " enabled regex and amount-only rules are allowed");
+            }
+        }
+        
+        rule.setCategory(category);
+        rule.setMatchType(ruleDto.getMatchType());
+        rule.setPattern(ruleDto.getPattern());
+        rule.setMinAmount(ruleDto.getMinAmount());
+        rule.setMaxAmount(ruleDto.getMaxAmount());
+        rule.setPriority(ruleDto.getPriority() != null ? ruleDto.getPriority() : DEFAULT_PRIORITY);
+        rule.setEnabled(enabled);
+    }
+
+    private void invalidate(UUID userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    drop(userId);
+                }
+            });
+        } else {
+            drop(userId);
+        }
+    }
+
+    private synchronized void drop(UUID userId) {
+        rulesVersion++;
+        matchers.remove(userId);
+    }
+
+    private static UserRuleMatcher.Kind toKind(CategoryRule.MatchType matchType) {
+        return UserRuleMatcher.Kind.valueOf(matchType.name());
+    }
+}
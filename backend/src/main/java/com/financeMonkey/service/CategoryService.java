@@ -17,6 +17,8 @@ import java.util.stream.Collectors;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CategoryCacheService categoryCacheService;
+    private final DailySpendService dailySpendService;
 
     @Transactional(readOnly = true)
     public List<CategoryDto> getAllRootCategories() {
@@ -56,6 +58,7 @@ public class CategoryService {
         }
         
         Category savedCategory = categoryRepository.save(category);
+        categoryCacheService.invalidate();
         return CategoryDto.fromEntity(savedCategory);
     }
 
@@ -79,6 +82,7 @@ public class CategoryService {
         }
         
         Category savedCategory = categoryRepository.save(category);
+        categoryCacheService.invalidate();
         return CategoryDto.fromEntity(savedCategory);
     }
 
@@ -88,5 +92,9 @@ public class CategoryService {
             throw new EntityNotFoundException("Category not found with id: " + categoryId);
         }
         categoryRepository.deleteById(categoryId);
+        // The database uncategorizes the category's transactions; the rollup follows in this transaction
+        categoryRepository.flush();
+        dailySpendService.moveToUncategorized(categoryId);
+        categoryCacheService.invalidate();
     }
 }
@@ -0,0 +1,205 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.engine.ColumnarSpending;
+import com.financeMonkey.event.TransactionChange;
+import com.financeMonkey.event.TransactionSnapshot;
+import com.financeMonkey.event.TransactionsChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional in-memory analytics engine: each active user's transactions held as
+ * {@link ColumnarSpending} columns, loaded with one plain JDBC query on first use and kept
+ * current from {@link TransactionsChangedEvent}s after they commit. Users are evicted least
+ * recently used first once the columns exceed the memory budget.
+ *
+ * Disabled unless {@code analytics.columnar.enabled} is set; {@link #getColumns} then returns
+ * null and analytics fall back to the daily_spend rollup.
+ */
+@Slf4j
+@Service
+public class ColumnarStoreService {
+
+    private static final String SELECT_USER =
+            "SELECT transaction_date, amount, category_id, canonical_vendor, currency, recurring " +
+            "FROM transactions WHERE user_id = ? ORDER BY transaction_date";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final long budgetBytes;
+
+    private final LinkedHashMap<UUID, ColumnarSpending> users = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<UUID, AtomicLong> generations = new ConcurrentHashMap<>();
+    private long usedBytes;
+
+    public ColumnarStoreService(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                                @Value("${analytics.columnar.enabled:false}") boolean enabled,
+                                @Value("${analytics.columnar.budget-mb:64}") long budgetMegabytes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.budgetBytes = budgetMegabytes * 1024 * 1024;
+
+        Gauge.builder("analytics.columnar.users", this, ColumnarStoreService::size).register(meterRegistry);
+        Gauge.builder("analytics.columnar.estimated.bytes", this, ColumnarStoreService::getUsedBytes)
+                .baseUnit("bytes").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the user's columns, loading them if needed, or null when the store is disabled.
+     */
+    public ColumnarSpending getColumns(UUID userId) {
+        if (!enabled) {
+            return null;
+        }
+        synchronized (this) {
+            ColumnarSpending columns = users.get(userId);
+            if (columns != null) {
+                return columns;
+            }
+        }
+
+        long generation = getGeneration(userId);
+        ColumnarSpending columns = load(userId);
+        synchronized (this) {
+            // A write committed while loading may or may not be in what we read; use it once, don't keep it
+            if (generation == getGeneration(userId) && !users.containsKey(userId)) {
+                put(userId, columns);
+            }
+        }
+        return columns;
+    }
+
+    @EventListener
+    public void onTransactionsChanged(TransactionsChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(event.getChanges());
+                }
+            });
+        } else {
+            apply(event.getChanges());
+        }
+    }
+
+    public synchronized int size() {
+        return users.size();
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    private void apply(List<TransactionChange> changes) {
+        Map<UUID, List<ColumnarSpending.Row>> removed = new LinkedHashMap<>();
+        Map<UUID, List<ColumnarSpending.Row>> added = new LinkedHashMap<>();
+        for (TransactionChange change : changes) {
+            UUID userId = change.getUserId();
+            List<ColumnarSpending.Row> userRemoved = removed.computeIfAbsent(userId, id -> new ArrayList<>());
+            List<ColumnarSpending.Row> userAdded = added.computeIfAbsent(userId, id -> new ArrayList<>());
+            if (change.getBefore() != null) {
+                userRemoved.add(toRow(change.getBefore()));
+            }
+            if (change.getAfter() != null) {
+                userAdded.add(toRow(change.getAfter()));
+            }
+        }
+
+        // One copy of each user's columns per write, made outside the lock
+        for (UUID userId : removed.keySet()) {
+            ColumnarSpending columns;
+            synchronized (this) {
+                generations.computeIfAbsent(userId, k -> new AtomicLong()).incrementAndGet();
+                columns = users.get(userId);
+            }
+            if (columns == null) {
+                continue;
+            }
+            ColumnarSpending updated = columns.withChanges(removed.get(userId), added.get(userId));
+            synchronized (this) {
+                if (users.get(userId) == columns) {
+                    put(userId, updated);
+                } else {
+                    // Replaced meanwhile, by another write or a reload that may already hold this one; load again
+                    evict(userId);
+                }
+            }
+        }
+    }
+
+    private void evict(UUID userId) {
+        generations.computeIfAbsent(userId, k -> new AtomicLong()).incrementAndGet();
+        ColumnarSpending previous = users.remove(userId);
+        if (previous != null) {
+            usedBytes -= previous.estimatedBytes();
+        }
+    }
+
+    private void put(UUID userId, ColumnarSpending columns) {
+        ColumnarSpending previous = users.put(userId, columns);
+        if (previous != null) {
+            usedBytes -= previous.estimatedBytes();
+        }
+        usedBytes += columns.estimatedBytes();
+
+        Iterator<Map.Entry<UUID, ColumnarSpending>> eldest = users.entrySet().iterator();
+        while (usedBytes > budgetBytes && users.size() > 1) {
+            Map.Entry<UUID, ColumnarSpending> entry = eldest.next();
+            if (entry.getKey().equals(userId)) {
+                continue;
+            }
+            usedBytes -= entry.getValue().estimatedBytes();
+            eldest.remove();
+        }
+    }
+
+    private long getGeneration(UUID userId) {
+        AtomicLong generation = generations.get(userId);
+        return generation != null ? generation.get() : 0;
+    }
+
+    private ColumnarSpending load(UUID userId) {
+        ColumnarSpending.Builder builder = ColumnarSpending.builder();
+        jdbcTemplate.query(SELECT_USER, rs -> {
+            builder.add(new ColumnarSpending.Row(
+                    rs.getTimestamp("transaction_date").toLocalDateTime().toLocalDate(),
+                    rs.getBigDecimal("amount"),
+                    rs.getObject("category_id", UUID.class),
+                    rs.getString("canonical_vendor"),
+                    rs.getString("currency"),
+                    rs.getBoolean("recurring")));
+        }, userId);
+        ColumnarSpending columns = builder.build();
+        log.debug("Loaded {} transactions into columns for user {}", columns.size(), userId);
+        return columns;
+    }
+
+    private static ColumnarSpending.Row toRow(TransactionSnapshot snapshot) {
+        return new ColumnarSpending.Row(snapshot.getDay(), snapshot.getAmount(), snapshot.getCategoryId(),
+                snapshot.getCanonicalVendor(), snapshot.getCurrency(), snapshot.isRecurring());
+    }
+}
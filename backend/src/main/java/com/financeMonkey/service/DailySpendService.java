@@ -0,0 +1,276 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.event.TransactionChange;
+import com.financeMonkey.event.TransactionSnapshot;
+import com.financeMonkey.event.TransactionsChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps the daily_spend rollup in step with the transactions table.
+ *
+ * Every transaction write publishes a {@link TransactionsChangedEvent}; this listener runs
+ * synchronously in the writer's transaction, turns the changes into per-(day, category,
+ * currency) deltas, with the recurring part kept apart, and applies them with one batched upsert, so the rollup commits or rolls
+ * back with the write itself. Incremental updates take a shared per-user advisory lock and a
+ * rebuild takes it exclusively, so a rebuild never interleaves with deltas for the same user.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DailySpendService {
+
+    private static final UUID MIN_ID = new UUID(0L, 0L);
+
+    private static final String UPSERT =
+            "INSERT INTO daily_spend (user_id, day, category_id, currency, amount, transaction_count, " +
+            "recurring_amount, recurring_count) VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (user_id, day, (COALESCE(category_id, CAST('00000000-0000-0000-0000-000000000000' AS UUID))), currency) " +
+            "DO UPDATE SET amount = daily_spend.amount + EXCLUDED.amount, " +
+            "transaction_count = daily_spend.transaction_count + EXCLUDED.transaction_count, " +
+            "recurring_amount = daily_spend.recurring_amount + EXCLUDED.recurring_amount, " +
+            "recurring_count = daily_spend.recurring_count + EXCLUDED.recurring_count";
+    // Rows left with a nonzero amount or a negative count show drift; they stay visible until a rebuild
+    private static final String DELETE_EMPTY =
+            "DELETE FROM daily_spend WHERE user_id = ? AND amount = 0 AND transaction_count = 0 " +
+            "AND recurring_amount = 0 AND recurring_count = 0";
+    private static final String SELECT_CATEGORY_USERS =
+            "SELECT DISTINCT user_id FROM daily_spend WHERE category_id = ?";
+    private static final String MERGE_INTO_UNCATEGORIZED =
+            "INSERT INTO daily_spend (user_id, day, category_id, currency, amount, transaction_count, " +
+            "recurring_amount, recurring_count) " +
+            "SELECT user_id, day, NULL, currency, amount, transaction_count, recurring_amount, recurring_count " +
+            "FROM daily_spend WHERE category_id = ? " +
+            "ON CONFLICT (user_id, day, (COALESCE(category_id, CAST('00000000-0000-0000-0000-000000000000' AS UUID))), currency) " +
+            "DO UPDATE SET amount = daily_spend.amount + EXCLUDED.amount, " +
+            "transaction_count = daily_spend.transaction_count + EXCLUDED.transaction_count, " +
+            "recurring_amount = daily_spend.recurring_amount + EXCLUDED.recurring_amount, " +
+            "recurring_count = daily_spend.recurring_count + EXCLUDED.recurring_count";
+    private static final String DELETE_CATEGORY =
+            "DELETE FROM daily_spend WHERE category_id = ?";
+    private static final String DELETE_USER =
+            "DELETE FROM daily_spend WHERE user_id = ?";
+    private static final String REBUILD_USER =
+            "INSERT INTO daily_spend (user_id, day, category_id, currency, amount, transaction_count, " +
+            "recurring_amount, recurring_count) " +
+            "SELECT user_id, CAST(transaction_date AS DATE), category_id, currency, SUM(amount), COUNT(*), " +
+            "COALESCE(SUM(amount) FILTER (WHERE recurring), 0), COUNT(*) FILTER (WHERE recurring) " +
+            "FROM transactions WHERE user_id = ? " +
+            "GROUP BY user_id, CAST(transaction_date AS DATE), category_id, currency";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${analytics.daily-spend.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    @Value("${analytics.daily-spend.rebuild-batch-size:100}")
+    private int rebuildBatchSize;
+
+    @Value("${analytics.daily-spend.rebuild-pause-ms:100}")
+    private long rebuildPauseMillis;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "daily-spend-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener
+    public void onTransactionsChanged(TransactionsChangedEvent event) {
+        Map<Key, Delta> deltas = new LinkedHashMap<>();
+        for (TransactionChange change : event.getChanges()) {
+            if (change.getBefore() != null) {
+                merge(deltas, change.getBefore(), -1);
+            }
+            if (change.getAfter() != null) {
+                merge(deltas, change.getAfter(), 1);
+            }
+        }
+        // Edits that only touched the vendor or description cancel out
+        deltas.values().removeIf(Delta::isEmpty);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        Set<UUID> userIds = new TreeSet<>();
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        boolean decremented = false;
+        for (Map.Entry<Key, Delta> entry : deltas.entrySet()) {
+            Key key = entry.getKey();
+            Delta delta = entry.getValue();
+            userIds.add(key.userId);
+            rows.add(new Object[] {key.userId, Date.valueOf(key.day), key.categoryId, key.currency,
+                    delta.amount, delta.count, delta.recurringAmount, delta.recurringCount});
+            decremented |= delta.count < 0;
+        }
+
+        // Sorted, so concurrent writers touching several users take the locks in the same order
+        for (UUID userId : userIds) {
+            lockUser(userId, true);
+        }
+        jdbcTemplate.batchUpdate(UPSERT, rows);
+        if (decremented) {
+            for (UUID userId : userIds) {
+                jdbcTemplate.update(DELETE_EMPTY, userId);
+            }
+        }
+    }
+
+    /**
+     * Moves the rollup rows of a deleted category into the uncategorized rows, in the caller's
+     * transaction, as the database does for the transactions themselves. Call it after the
+     * category's delete has been flushed, so writes still using the category have committed.
+     */
+    public void moveToUncategorized(UUID categoryId) {
+        List<UUID> userIds = jdbcTemplate.queryForList(SELECT_CATEGORY_USERS, UUID.class, categoryId);
+        // Sorted, like the writers' locks; held shared, so only a rebuild of these users waits
+        for (UUID userId : new TreeSet<>(userIds)) {
+            lockUser(userId, true);
+        }
+        jdbcTemplate.update(MERGE_INTO_UNCATEGORIZED, categoryId);
+        jdbcTemplate.update(DELETE_CATEGORY, categoryId);
+    }
+
+    /**
+     * Recomputes the user's rollup from their transactions.
+     */
+    public void rebuildForUser(UUID userId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            lockUser(userId, false);
+            jdbcTemplate.update(DELETE_USER, userId);
+            jdbcTemplate.update(REBUILD_USER, userId);
+        });
+    }
+
+    /**
+     * Recomputes every user's rollup in the background, one user per transaction.
+     */
+    public void rebuildAll() {
+        worker.submit(this::runRebuild);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuildAll();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void runRebuild() {
+        UUID cursor = MIN_ID;
+        long rebuilt = 0;
+        try {
+            while (true) {
+                List<UUID> userIds = jdbcTemplate.queryForList(
+                        "SELECT id FROM users WHERE id > ? ORDER BY id LIMIT ?", UUID.class, cursor, rebuildBatchSize);
+                for (UUID userId : userIds) {
+                    rebuildForUser(userId);
+                }
+                rebuilt += userIds.size();
+                if (userIds.size() < rebuildBatchSize) {
+                    break;
+                }
+                cursor = userIds.get(userIds.size() - 1);
+                Thread.sleep(rebuildPauseMillis);
+            }
+            log.info("Rebuilt daily spending for {} users", rebuilt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Daily spending rebuild failed after {} users", rebuilt, e);
+        }
+    }
+
+    /**
+     * Takes the user's rollup lock until the current transaction ends. Writers share it; taking
+     * it exclusively waits for the user's in-flight writes to commit and holds off new ones.
+     */
+    public void lockUser(UUID userId, boolean shared) {
+        long lockKey = userId.getMostSignificantBits() ^ userId.getLeastSignificantBits();
+        String sql = shared ? "SELECT pg_advisory_xact_lock_shared(?)" : "SELECT pg_advisory_xact_lock(?)";
+        jdbcTemplate.query(sql, rs -> { }, lockKey);
+    }
+
+    private static void merge(Map<Key, Delta> deltas, TransactionSnapshot snapshot, int sign) {
+        Key key = new Key(snapshot.getUserId(), snapshot.getDay(), snapshot.getCategoryId(), snapshot.getCurrency());
+        Delta delta = deltas.computeIfAbsent(key, k -> new Delta());
+        BigDecimal amount = snapshot.getAmount() != null ? snapshot.getAmount() : BigDecimal.ZERO;
+        delta.amount = sign > 0 ? delta.amount.add(amount) : delta.amount.subtract(amount);
+        delta.count += sign;
+        if (snapshot.isRecurring()) {
+            delta.recurringAmount = sign > 0 ? delta.recurringAmount.add(amount) : delta.recurringAmount.subtract(amount);
+            delta.recurringCount += sign;
+        }
+    }
+
+    private static final class Key {
+        private final UUID userId;
+        private final LocalDate day;
+        private final UUID categoryId;
+        private final String currency;
+
+        private Key(UUID userId, LocalDate day, UUID categoryId, String currency) {
+            this.userId = userId;
+            this.day = day;
+            this.categoryId = categoryId;
+            this.currency = currency;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return userId.equals(other.userId) && day.equals(other.day)
+                    && Objects.equals(categoryId, other.categoryId) && Objects.equals(currency, other.currency);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, day, categoryId, currency);
+        }
+    }
+
+    private static final class Delta {
+        private BigDecimal amount = BigDecimal.ZERO;
+        private long count;
+        private BigDecimal recurringAmount = BigDecimal.ZERO;
+        private long recurringCount;
+
+        // A change of only the recurring flag leaves the totals alone but not the recurring part
+        private boolean isEmpty() {
+            return count == 0 && amount.signum() == 0 && recurringCount == 0 && recurringAmount.signum() == 0;
+        }
+    }
+}
@@ -1,13 +1,15 @@
 package com.financeMonkey.service;
 
+import com.financeMonkey.event.TransactionChange;
+import com.financeMonkey.event.TransactionsChangedEvent;
 import com.financeMonkey.model.*;
 import com.financeMonkey.repository.EmailAccountRepository;
 import com.financeMonkey.repository.ProcessedEmailRepository;
 import com.financeMonkey.repository.TransactionRepository;
-import com.financeMonkey.repository.CategoryRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -29,19 +31,21 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
-import java.util.UUID;
-import java.util.regex.Pattern;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class EmailProcessingService {
     
+    private static final String DEFAULT_CURRENCY = "USD";
+    
     private final EmailAccountRepository emailAccountRepository;
     private final ProcessedEmailRepository processedEmailRepository;
     private final TransactionRepository transactionRepository;
-    private final CategoryRepository categoryRepository;
+    private final CategorizationService categorizationService;
+    private final VendorCanonicalizationService vendorCanonicalizationService;
     private final GeminiAIService geminiAIService;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Value("${email.processing.batch-size}")
     private int batchSize;
@@ -86,7 +90,8 @@ public class EmailProcessingService {
             
             // Process each email
             for (EmailData emailData : emails) {
-                processEmail(account, emailData.getMessageId(), emailData.getSubject(), emailData.getContent());
+                processEmail(account, emailData.getMessageId(), emailData.getSubject(),
+                        emailData.getSender(), emailData.getContent());
             }
             
             // Update account status after successful sync
@@ -163,12 +168,14 @@ public class EmailProcessingService {
                         // Get the full message
                         Message fullMessage = service.users().messages().get("me", messageId).execute();
                         
-                        // Extract subject
+                        // Extract subject and sender
                         String subject = "";
+                        String sender = null;
                         for (MessagePartHeader header : fullMessage.getPayload().getHeaders()) {
                             if (header.getName().equals("Subject")) {
                                 subject = header.getValue();
-                                break;
+                            } else if (header.getName().equals("From")) {
+                                sender = extractAddress(header.getValue());
                             }
                         }
                         
@@ -176,7 +183,7 @@ public class EmailProcessingService {
                         String content = extractEmailContent(fullMessage);
                         
                         // Add to our list
-                        emails.add(new EmailData(messageId, subject, content));
+                        emails.add(new EmailData(messageId, subject, sender, content));
                     } catch (Exception e) {
                         log.warn("Error fetching message {}: {}", messageId, e.getMessage());
                     }
@@ -235,6 +242,21 @@ public class EmailProcessingService {
         }
     }
     
+    /**
+     * Extracts the bare address from a From header such as {@code Shop <orders@shop.com>}.
+     */
+    private String extractAddress(String from) {
+        if (from == null) {
+            return null;
+        }
+        int start = from.lastIndexOf('<');
+        int end = from.lastIndexOf('>');
+        if (start >= 0 && end > start) {
+            return from.substring(start + 1, end).trim();
+        }
+        return from.trim();
+    }
+    
     /**
      * Simple HTML to text conversion.
      */
@@ -250,11 +272,13 @@ public class EmailProcessingService {
     private static class EmailData {
         private final String messageId;
         private final String subject;
+        private final String sender;
         private final String content;
         
-        public EmailData(String messageId, String subject, String content) {
+        public EmailData(String messageId, String subject, String sender, String content) {
             this.messageId = messageId;
             this.subject = subject;
+            this.sender = sender;
             this.content = content;
         }
         
@@ -266,12 +290,16 @@ public class EmailProcessingService {
             return subject;
         }
         
+        public String getSender() {
+            return sender;
+        }
+        
         public String getContent() {
             return content;
         }
     }
     
-    private void processEmail(EmailAccount account, String messageId, String subject, String content) {
+    private void processEmail(EmailAccount account, String messageId, String subject, String sender, String content) {
         // Check if we've already processed this email
         if (processedEmailRepository.existsByEmailAccountAndEmailMessageId(account, messageId)) {
             return;
@@ -293,20 +321,35 @@ public class EmailProcessingService {
                 transaction.setEmailAccount(account);
                 transaction.setTransactionDate(transactionInfo.getTransactionDate());
                 transaction.setAmount(transactionInfo.getAmount());
-                transaction.setCurrency(transactionInfo.getCurrency());
+                String description = transactionInfo.getDescription();
+                String currency = transactionInfo.getCurrency();
+                if (currency == null) {
+                    // No currency in the email: assume the user's, and say so, so the amount still converts
+                    currency = account.getUser().getReportingCurrency() != null
+                            ? account.getUser().getReportingCurrency() : DEFAULT_CURRENCY;
+                    description = (description == null || description.isEmpty() ? "" : description + " ")
+                            + "[currency assumed: " + currency + "]";
+                }
+                transaction.setCurrency(currency);
                 transaction.setVendor(transactionInfo.getVendor());
-                transaction.setDescription(transactionInfo.getDescription());
+                transaction.setCanonicalVendor(vendorCanonicalizationService.canonicalize(
+                        account.getUser().getId(), transactionInfo.getVendor()));
+                transaction.setDescription(description);
                 transaction.setRecurring(transactionInfo.isRecurring());
                 transaction.setRecurrencePattern(transactionInfo.getRecurrencePattern());
+                transaction.setSender(sender);
                 transaction.setStatus(Transaction.TransactionStatus.PROCESSED);
                 
                 // Determine category based on transaction data
-                Category category = determineCategory(transaction);
+                Category category = categorizationService.categorize(account.getUser().getId(),
+                        transaction.getVendor(), transactionInfo.getDescription(),
+                        transaction.getAmount(), sender);
                 if (category != null) {
                     transaction.setCategory(category);
                 }
                 
-                transactionRepository.save(transaction);
+                Transaction savedTransaction = transactionRepository.save(transaction);
+                eventPublisher.publishEvent(TransactionsChangedEvent.of(TransactionChange.created(savedTransaction)));
                 
                 log.info("Saved new transaction: amount={}, vendor={}, category={}", 
                          transaction.getAmount(),
@@ -327,136 +370,6 @@ public class EmailProcessingService {
         processedEmailRepository.save(processedEmail);
     }
     
-    /**
-     * Determines the appropriate category for a transaction based on vendor and description.
-     */
-    private Category determineCategory(Transaction transaction) {
-        String vendor = transaction.getVendor().toLowerCase();
-        String description = transaction.getDescription() != null ? 
-                            transaction.getDescription().toLowerCase() : "";
-        
-        // List of category mappings - keyword patterns to UUID of predefined categories
-        List<CategoryMapping> categoryMappings = getCategoryMappings();
-        
-        for (CategoryMapping mapping : categoryMappings) {
-            for (Pattern pattern : mapping.getPatterns()) {
-                if (pattern.matcher(vendor).find() || 
-                    (description != null && pattern.matcher(description).find())) {
-                    try {
-                        return categoryRepository.findById(mapping.getCategoryId()).orElse(null);
-                    } catch (Exception e) {
-                        log.warn("Failed to find category with ID: {}", mapping.getCategoryId(), e);
-                    }
-                }
-            }
-        }
-        
-        // Return null if no matching category found
-        return null;
-    }
-    
-    /**
-     * Returns a list of category mappings with regex patterns.
-     */
-    private List<CategoryMapping> getCategoryMappings() {
-        List<CategoryMapping> mappings = new ArrayList<>();
-        
-        // Bills category
-        mappings.add(new CategoryMapping(
-            "a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a11",  // Bills category ID
-            List.of(
-                Pattern.compile("electricity|power|utility|gas|water|sewage|garbage|waste|internet|phone|cable|mortgage|rent|insurance|bill"),
-                Pattern.compile("verizon|at&t|comcast|xfinity|sprint|t-mobile|spectrum")
-            )
-        ));
-        
-        // Food & Dining category
-        mappings.add(new CategoryMapping(
-            "a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a12",  // Food & Dining category ID
-            List.of(
-                Pattern.compile("restaurant|food|grocery|meal|dinner|lunch|breakfast|cafe|coffee|doordash|grubhub|ubereats|instacart"),
-                Pattern.compile("starbucks|mcdonald|chipotle|subway|taco|burger|pizza|deli|bakery")
-            )
-        ));
-        
-        // Shopping category
-        mappings.add(new CategoryMapping(
-            "a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a13",  // Shopping category ID
-            List.of(
-                Pattern.compile("amazon|walmart|target|bestbuy|costco|ikea|clothing|shoes|electronics|purchase|store|shop|mall"),
-                Pattern.compile("ebay|etsy|wayfair|home depot|lowes|macys|nordstrom|purchase")
-            )
-        ));
-        
-        // Entertainment category
-        mappings.add(new CategoryMapping(
-            "a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a14",  // Entertainment category ID
-            List.of(
-                Pattern.compile("movie|theatre|theater|netflix|hulu|disney|spotify|pandora|apple music|concert|ticket|game"),
-                Pattern.compile("cinema|amc|regal|fandango|entertainment|hbo|showtime|playstation|xbox|steam")
-            )
-        ));
-        
-        // Transportation category
-        mappings.add(new CategoryMapping(
-            "a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a15",  // Transportation category ID
-            List.of(
-                Pattern.compile("uber|lyft|taxi|cab|train|subway|metro|bus|transport|fare|ticket|gas|fuel|parking"),
-                Pattern.compile("amtrak|transit|airline|flight|travel|car service|toll")
-            )
-        ));
-        
-        // Travel category
-        mappings.add(new CategoryMapping(
-            "a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a16",  // Travel category ID
-            List.of(
-                Pattern.compile("hotel|airbnb|vrbo|motel|resort|booking|expedia|kayak|airline|flight|cruise|vacation"),
-                Pattern.compile("travelocity|orbitz|priceline|tripadvisor|delta|united|american airlines|southwest")
-            )
-        ));
-        
-        // Health category
-        mappings.add(new CategoryMapping(
-            "a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a17",  // Health category ID
-            List.of(
-                Pattern.compile("doctor|hospital|clinic|pharmacy|medicine|medical|dental|vision|healthcare|health|cvs|walgreens"),
-                Pattern.compile("therapy|prescription|rite aid|urgent care|laboratory|lab")
-            )
-        ));
-        
-        // Subscriptions category
-        mappings.add(new CategoryMapping(
-            "a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a18",  // Subscriptions category ID
-            List.of(
-                Pattern.compile("subscription|membership|recurring|monthly|plan|service|netflix|hulu|disney|spotify"),
-                Pattern.compile("apple|google|microsoft|adobe|zoom|amazon prime|youtube|hbo|audible")
-            )
-        ));
-        
-        return mappings;
-    }
-    
-    /**
-     * Helper class to store category mapping information.
-     */
-    private static class CategoryMapping {
-        private final UUID categoryId;
-        private final List<Pattern> patterns;
-        
-        public CategoryMapping(String categoryId, List<Pattern> patterns) {
-            this.categoryId = UUID.fromString(categoryId);
-            this.patterns = patterns;
-        }
-        
-        public UUID getCategoryId() {
-            return categoryId;
-        }
-        
-        public List<Pattern> getPatterns() {
-            return patterns;
-        }
-    }
-    
     // Class to hold transaction information extracted by AI
     public static class TransactionInfo {
         private LocalDateTime transactionDate;
@@ -484,6 +397,9 @@ public class EmailProcessingService {
             this.amount = amount;
         }
         
+        /**
+         * The ISO code the email gave, or null if it gave none.
+         */
         public String getCurrency() {
             return currency;
         }
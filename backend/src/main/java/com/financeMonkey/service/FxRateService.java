@@ -0,0 +1,140 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.engine.FxRateTable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves the dated exchange rates in fx_rates as an in-memory {@link FxRateTable}, loaded on
+ * first use. When {@code fx.rates-file} names a CSV file ({@code currency,date,rate} per line,
+ * rate in USD per unit), it is imported into the table at startup.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FxRateService {
+
+    private static final String UPSERT =
+            "INSERT INTO fx_rates (currency, rate_date, rate) VALUES (?, ?, ?) " +
+            "ON CONFLICT (currency, rate_date) DO UPDATE SET rate = EXCLUDED.rate";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${fx.rates-file:}")
+    private String ratesFile;
+
+    private volatile FxRateTable table;
+    private final AtomicLong version = new AtomicLong();
+
+    public FxRateTable getTable() {
+        FxRateTable current = table;
+        if (current == null) {
+            current = load();
+        }
+        return current;
+    }
+
+    /**
+     * Returns a counter that changes whenever the rates are reloaded, for caches of converted results.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void importRatesFile() {
+        if (ratesFile == null || ratesFile.isBlank()) {
+            return;
+        }
+        try {
+            int imported = importCsv(Path.of(ratesFile));
+            log.info("Imported {} exchange rates from {}", imported, ratesFile);
+        } catch (Exception e) {
+            log.warn("Could not import exchange rates from {}: {}", ratesFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Stores the rates in the CSV file and reloads the table; returns how many rates were read.
+     */
+    public int importCsv(Path path) throws IOException {
+        List<Object[]> rates = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || line.toLowerCase(Locale.ROOT).startsWith("currency,")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                if (fields.length != 3) {
+                    throw new IllegalArgumentException("Expected currency,date,rate on line " + lineNumber);
+                }
+                BigDecimal rate = new BigDecimal(fields[2].trim());
+                if (rate.signum() <= 0) {
+                    throw new IllegalArgumentException("Rate must be positive on line " + lineNumber);
+                }
+                rates.add(new Object[] {fields[0].trim().toUpperCase(Locale.ROOT),
+                        Date.valueOf(LocalDate.parse(fields[1].trim())), rate});
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT, rates));
+        reload();
+        return rates.size();
+    }
+
+    public void reload() {
+        // Bump first: a load that checks the version after this sees the change and reads again
+        version.incrementAndGet();
+        table = null;
+    }
+
+    private synchronized FxRateTable load() {
+        FxRateTable current = table;
+        while (current == null) {
+            // Rates imported while we read make this table stale; read again
+            long loadedVersion = version.get();
+            current = read();
+            if (version.get() == loadedVersion) {
+                table = current;
+            } else {
+                current = null;
+            }
+        }
+        return current;
+    }
+
+    private FxRateTable read() {
+        FxRateTable.Builder builder = FxRateTable.builder();
+        jdbcTemplate.query("SELECT currency, rate_date, rate FROM fx_rates", rs -> {
+            builder.add(rs.getString("currency"), rs.getDate("rate_date").toLocalDate(), rs.getBigDecimal("rate"));
+        });
+        FxRateTable loaded = builder.build();
+
+        log.debug("Loaded exchange rates for {} currencies", loaded.getCurrencyCount());
+        return loaded;
+    }
+}
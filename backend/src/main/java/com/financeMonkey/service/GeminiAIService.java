@@ -1,5 +1,6 @@
 package com.financeMonkey.service;
 
+import com.financeMonkey.engine.MoneyTokenizer;
 import com.financeMonkey.service.EmailProcessingService.TransactionInfo;
 import com.google.cloud.vertexai.VertexAI;
 import com.google.cloud.vertexai.api.*;
@@ -35,6 +36,9 @@ public class GeminiAIService {
     @Value("${gemini.location}")
     private String location;
     
+    private static final ThreadLocal<MoneyTokenizer.Match> MONEY_MATCH =
+            ThreadLocal.withInitial(MoneyTokenizer.Match::new);
+    
     private final ObjectMapper objectMapper;
     
     public GeminiAIService() {
@@ -184,14 +188,20 @@ public class GeminiAIService {
             return null;
         }
         
-        TransactionInfo info = new TransactionInfo();
+        // Find the best-ranked amount; without one there is nothing trustworthy to record
+        MoneyTokenizer.Match money = MONEY_MATCH.get();
+        if (!MoneyTokenizer.findBest(emailContent, money)) {
+            log.info("No amount found in email content, amount is unknown");
+            return null;
+        }
         
-        // Try to extract amount using regex
-        info.setAmount(extractAmount(emailContent));
+        TransactionInfo info = new TransactionInfo();
+        info.setAmount(money.toBigDecimal());
+        // Left unset without a currency marker; the caller assumes one rather than storing a placeholder code
+        info.setCurrency(money.hasCurrency() ? money.getCurrency() : null);
         
         // Set other fields with reasonable defaults
         info.setTransactionDate(LocalDateTime.now().minusDays(1));
-        info.setCurrency("USD");
         info.setVendor(extractVendor(emailContent));
         info.setDescription(extractBriefDescription(emailContent));
         info.setRecurring(isRecurring(emailContent));
@@ -200,7 +210,8 @@ public class GeminiAIService {
             info.setRecurrencePattern(extractRecurrencePattern(emailContent));
         }
         
-        log.info("Extracted transaction using basic logic: amount={}, vendor={}", info.getAmount(), info.getVendor());
+        log.info("Extracted transaction using basic logic: amount={} {}, vendor={}", 
+                 info.getAmount(), info.getCurrency(), info.getVendor());
         return info;
     }
     
@@ -213,31 +224,6 @@ public class GeminiAIService {
                lowerContent.contains("paid") || lowerContent.contains("amount");
     }
     
-    private BigDecimal extractAmount(String content) {
-        // Common patterns for amounts in emails
-        Pattern[] patterns = {
-            Pattern.compile("\\$\\s*(\\d+\\.\\d{2})"),             // $XX.XX
-            Pattern.compile("amount[^$]*\\$\\s*(\\d+\\.\\d{2})", Pattern.CASE_INSENSITIVE), // amount: $XX.XX
-            Pattern.compile("total[^$]*\\$\\s*(\\d+\\.\\d{2})", Pattern.CASE_INSENSITIVE),  // total: $XX.XX
-            Pattern.compile("USD\\s*(\\d+\\.\\d{2})"),            // USD XX.XX
-            Pattern.compile("(\\d+\\.\\d{2})\\s*USD")             // XX.XX USD
-        };
-        
-        for (Pattern pattern : patterns) {
-            Matcher matcher = pattern.matcher(content);
-            if (matcher.find()) {
-                try {
-                    return new BigDecimal(matcher.group(1));
-                } catch (NumberFormatException e) {
-                    // Continue to the next pattern
-                }
-            }
-        }
-        
-        // Default amount if none found
-        return new BigDecimal("29.99");
-    }
-    
     private String extractVendor(String content) {
         // Common patterns for vendor names in emails
         String[] vendorKeywords = {"from:", "merchant:", "vendor:", "store:", "seller:", "company:"};
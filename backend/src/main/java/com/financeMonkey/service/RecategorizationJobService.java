@@ -0,0 +1,374 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.dto.RecategorizationJobDto;
+import com.financeMonkey.event.TransactionChange;
+import com.financeMonkey.event.TransactionSnapshot;
+import com.financeMonkey.event.TransactionsChangedEvent;
+import com.financeMonkey.model.Category;
+import com.financeMonkey.model.RecategorizationJob;
+import com.financeMonkey.model.RecategorizationJob.JobStatus;
+import com.financeMonkey.model.Transaction;
+import com.financeMonkey.repository.RecategorizationJobRepository;
+import com.financeMonkey.security.JwtTokenProvider;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Re-applies the current categorization to existing transactions in the background, and
+ * fills in canonical vendor names for transactions stored before they existed.
+ *
+ * Transactions are read in id order, one chunk at a time, with plain JDBC so no entities are
+ * loaded. Each chunk is read, re-categorized and written in one short transaction that locks
+ * its rows, so an edit or delete committed meanwhile is never overwritten and the published
+ * changes describe exactly what was written. Only rows whose category actually changes are
+ * written back, in a single batched UPDATE per chunk, together with the job's cursor. A single
+ * worker thread runs the jobs and pauses between chunks, so a job holds at most one pooled
+ * connection and only briefly. A job without a user, started by an administrator, covers every
+ * user's transactions the same way.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RecategorizationJobService {
+
+    private static final Set<JobStatus> ACTIVE = EnumSet.of(JobStatus.PENDING, JobStatus.RUNNING);
+    private static final UUID MIN_ID = new UUID(0L, 0L);
+
+    private static final String SELECT_COLUMNS =
+            "SELECT id, user_id, transaction_date, vendor, canonical_vendor, description, amount, currency, sender, " +
+            "category_id, recurring, status FROM transactions ";
+    private static final String SELECT_CHUNK_FOR_UPDATE =
+            SELECT_COLUMNS + "WHERE user_id = ? AND id > ? ORDER BY id LIMIT ? FOR UPDATE";
+    private static final String SELECT_ALL_USERS_CHUNK_FOR_UPDATE =
+            SELECT_COLUMNS + "WHERE id > ? ORDER BY id LIMIT ? FOR UPDATE";
+    private static final String UPDATE_CATEGORY =
+            "UPDATE transactions SET category_id = ?, canonical_vendor = ?, updated_at = NOW() WHERE id = ?";
+    private static final String UPDATE_PROGRESS =
+            "UPDATE recategorization_jobs SET last_transaction_id = ?, scanned_count = ?, updated_count = ?, " +
+            "updated_at = NOW() WHERE id = ?";
+
+    private final RecategorizationJobRepository jobRepository;
+    private final CategorizationService categorizationService;
+    private final VendorCanonicalizationService vendorCanonicalizationService;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${recategorization.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${recategorization.pause-ms:100}")
+    private long pauseMillis;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "recategorization");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Set<UUID> cancelRequests = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Starts re-categorizing the user's transactions, or returns the job already in progress.
+     */
+    public RecategorizationJobDto startJob(String token) {
+        UUID userId = jwtTokenProvider.getUserId(token);
+
+        List<RecategorizationJob> active = jobRepository.findByUserIdAndStatusIn(userId, ACTIVE);
+        if (!active.isEmpty()) {
+            return RecategorizationJobDto.fromEntity(active.get(0));
+        }
+
+        return RecategorizationJobDto.fromEntity(submit(userId));
+    }
+
+    /**
+     * Starts re-categorizing every user's transactions, or returns the job already in progress.
+     */
+    public RecategorizationJobDto startJobForAllUsers() {
+        List<RecategorizationJob> active = jobRepository.findByUserIdIsNullAndStatusIn(ACTIVE);
+        if (!active.isEmpty()) {
+            return RecategorizationJobDto.fromEntity(active.get(0));
+        }
+
+        return RecategorizationJobDto.fromEntity(submit(null));
+    }
+
+    public RecategorizationJobDto getJob(String token, UUID jobId) {
+        return RecategorizationJobDto.fromEntity(getOwnedJob(token, jobId));
+    }
+
+    /**
+     * Returns any job, including ones covering every user.
+     */
+    public RecategorizationJobDto getJob(UUID jobId) {
+        return RecategorizationJobDto.fromEntity(findJob(jobId));
+    }
+
+    public RecategorizationJobDto cancelJob(String token, UUID jobId) {
+        return RecategorizationJobDto.fromEntity(requestCancel(getOwnedJob(token, jobId)));
+    }
+
+    /**
+     * Cancels any job, including ones covering every user.
+     */
+    public RecategorizationJobDto cancelJob(UUID jobId) {
+        return RecategorizationJobDto.fromEntity(requestCancel(findJob(jobId)));
+    }
+
+    /**
+     * Resumes jobs that were still running when the application last stopped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        try {
+            for (RecategorizationJob job : jobRepository.findByStatusIn(ACTIVE)) {
+                log.info("Resuming re-categorization job {} after transaction {}", job.getId(), job.getLastTransactionId());
+                worker.submit(() -> run(job.getId()));
+            }
+        } catch (Exception e) {
+            log.warn("Could not resume re-categorization jobs: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private RecategorizationJob submit(UUID userId) {
+        RecategorizationJob job = new RecategorizationJob();
+        job.setUserId(userId);
+        job.setStatus(JobStatus.PENDING);
+        RecategorizationJob savedJob = jobRepository.save(job);
+
+        worker.submit(() -> run(savedJob.getId()));
+        return savedJob;
+    }
+
+    private RecategorizationJob requestCancel(RecategorizationJob job) {
+        if (job.isActive()) {
+            cancelRequests.add(job.getId());
+        }
+        return job;
+    }
+
+    private RecategorizationJob findJob(UUID jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new EntityNotFoundException("Re-categorization job not found with id: " + jobId));
+    }
+
+    private RecategorizationJob getOwnedJob(String token, UUID jobId) {
+        UUID userId = jwtTokenProvider.getUserId(token);
+        RecategorizationJob job = findJob(jobId);
+
+        // Verify ownership
+        if (!userId.equals(job.getUserId())) {
+            throw new RuntimeException("You are not authorized to access this job");
+        }
+
+        return job;
+    }
+
+    private void run(UUID jobId) {
+        RecategorizationJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || !job.isActive()) {
+            return;
+        }
+
+        UUID userId = job.getUserId();
+        if (job.getStatus() == JobStatus.PENDING) {
+            job.setTotalCount(countTransactions(userId));
+        }
+        job.setStatus(JobStatus.RUNNING);
+        job = jobRepository.save(job);
+
+        Progress progress = new Progress(job.getLastTransactionId() != null ? job.getLastTransactionId() : MIN_ID,
+                job.getScannedCount(), job.getUpdatedCount());
+
+        try {
+            while (true) {
+                if (cancelRequests.remove(jobId)) {
+                    finish(jobId, JobStatus.CANCELLED, null);
+                    log.info("Re-categorization job {} cancelled after {} transactions", jobId, progress.scanned);
+                    return;
+                }
+
+                Integer rows = transactionTemplate.execute(status -> recategorizeChunk(jobId, userId, progress));
+                if (rows == null || rows < chunkSize) {
+                    break;
+                }
+                Thread.sleep(pauseMillis);
+            }
+
+            finish(jobId, JobStatus.COMPLETED, null);
+            log.info("Re-categorization job {} completed: {} scanned, {} updated",
+                    jobId, progress.scanned, progress.updated);
+        } catch (InterruptedException e) {
+            // Shutting down; the job stays RUNNING and resumes from its cursor on the next start
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Re-categorization job {} failed", jobId, e);
+            finish(jobId, JobStatus.FAILED, e.getMessage());
+        }
+    }
+
+    private long countTransactions(UUID userId) {
+        Long count = userId != null
+                ? jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions WHERE user_id = ?", Long.class, userId)
+                : jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions", Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Re-categorizes the chunk after the cursor and advances the cursor, all in the caller's
+     * transaction. Returns the number of rows scanned. A null user scans every user's rows.
+     */
+    private int recategorizeChunk(UUID jobId, UUID userId, Progress progress) {
+        // Locked until commit, so nothing changes between reading a row and writing it back
+        List<Row> rows = userId != null
+                ? jdbcTemplate.query(SELECT_CHUNK_FOR_UPDATE, (rs, rowNum) -> Row.from(rs),
+                        userId, progress.cursor, chunkSize)
+                : jdbcTemplate.query(SELECT_ALL_USERS_CHUNK_FOR_UPDATE, (rs, rowNum) -> Row.from(rs),
+                        progress.cursor, chunkSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> changes = new ArrayList<>();
+        List<TransactionChange> events = new ArrayList<>();
+        for (Row row : rows) {
+            // Leave transactions the user categorized by hand as they are
+            if (Transaction.TransactionStatus.MANUAL.name().equals(row.status)) {
+                continue;
+            }
+            String canonicalVendor = vendorCanonicalizationService.canonicalize(row.userId, row.vendor);
+            Category category = categorizationService.categorize(
+                    row.userId, row.vendor, row.description, row.amount, row.sender);
+            UUID categoryId = category != null ? category.getId() : row.categoryId;
+            if (!Objects.equals(categoryId, row.categoryId)
+                    || !Objects.equals(canonicalVendor, row.canonicalVendor)) {
+                changes.add(new Object[] {categoryId, canonicalVendor, row.id});
+                events.add(new TransactionChange(row.id, row.toSnapshot(row.categoryId, row.canonicalVendor),
+                        row.toSnapshot(categoryId, canonicalVendor)));
+            }
+        }
+
+        int applied = 0;
+        if (!changes.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate(UPDATE_CATEGORY, changes);
+            // Publish only what was written; the lock makes a miss unexpected, but derived data must not drift
+            List<TransactionChange> written = new ArrayList<>(events.size());
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 1) {
+                    written.add(events.get(i));
+                }
+            }
+            if (written.size() < events.size()) {
+                log.warn("Re-categorization job {}: {} of {} updates matched no row",
+                        jobId, events.size() - written.size(), events.size());
+            }
+            if (!written.isEmpty()) {
+                eventPublisher.publishEvent(new TransactionsChangedEvent(written));
+            }
+            applied = written.size();
+        }
+
+        // The cursor is committed with the updates, so a resumed job never skips or repeats a chunk
+        progress.cursor = rows.get(rows.size() - 1).id;
+        progress.scanned += rows.size();
+        progress.updated += applied;
+        jdbcTemplate.update(UPDATE_PROGRESS, progress.cursor, progress.scanned, progress.updated, jobId);
+        return rows.size();
+    }
+
+    private void finish(UUID jobId, JobStatus status, String errorMessage) {
+        jobRepository.findById(jobId).ifPresent(job -> {
+            job.setStatus(status);
+            job.setErrorMessage(errorMessage);
+            job.setCompletedAt(LocalDateTime.now());
+            jobRepository.save(job);
+        });
+    }
+
+    private static final class Progress {
+        private UUID cursor;
+        private long scanned;
+        private long updated;
+
+        private Progress(UUID cursor, long scanned, long updated) {
+            this.cursor = cursor;
+            this.scanned = scanned;
+            this.updated = updated;
+        }
+    }
+
+    private static final class Row {
+        private UUID id;
+        private UUID userId;
+        private LocalDateTime transactionDate;
+        private String vendor;
+        private String canonicalVendor;
+        private String description;
+        private BigDecimal amount;
+        private String currency;
+        private String sender;
+        private UUID categoryId;
+        private boolean recurring;
+        private String status;
+
+        private static Row from(ResultSet rs) throws SQLException {
+            Row row = new Row();
+            row.id = rs.getObject("id", UUID.class);
+            row.userId = rs.getObject("user_id", UUID.class);
+            row.transactionDate = rs.getTimestamp("transaction_date").toLocalDateTime();
+            row.vendor = rs.getString("vendor");
+            row.canonicalVendor = rs.getString("canonical_vendor");
+            row.description = rs.getString("description");
+            row.amount = rs.getBigDecimal("amount");
+            row.currency = rs.getString("currency");
+            row.sender = rs.getString("sender");
+            row.categoryId = rs.getObject("category_id", UUID.class);
+            row.recurring = rs.getBoolean("recurring");
+            row.status = rs.getString("status");
+            return row;
+        }
+
+        private TransactionSnapshot toSnapshot(UUID categoryId, String canonicalVendor) {
+            return TransactionSnapshot.builder()
+                    .userId(userId)
+                    .transactionDate(transactionDate)
+                    .amount(amount)
+                    .currency(currency)
+                    .categoryId(categoryId)
+                    .vendor(vendor)
+                    .canonicalVendor(canonicalVendor)
+                    .recurring(recurring)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.engine.ColumnarSpending;
+import com.financeMonkey.engine.RecurrenceDetector;
+import com.financeMonkey.event.TransactionChange;
+import com.financeMonkey.event.TransactionSnapshot;
+import com.financeMonkey.event.TransactionsChangedEvent;
+import com.financeMonkey.security.JwtTokenProvider;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Detects recurring payments from transaction history with {@link RecurrenceDetector} and
+ * writes the result back: the recurring flag and recurrence pattern of each transaction, and
+ * one recurring_series row per (vendor, currency) with the expected amount and next date.
+ *
+ * Detection is incremental. After a write commits, only the vendors it touched are re-read and
+ * re-evaluated, in a transaction per user. The vendor's rows are read with FOR UPDATE, so an
+ * edit still in flight is waited for and the flags are decided on, and written back over, the
+ * rows as they are; a second run for the same vendor waits for the first. Once a vendor has at least
+ * {@link RecurrenceDetector#MIN_OCCURRENCES} transactions in a currency the detector decides
+ * their flags, replacing whatever ingestion guessed; below that, ingestion's guess stands.
+ */
+@Slf4j
+@Service
+public class RecurrenceService {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final String SELECT_COLUMNS =
+            "SELECT id, user_id, transaction_date, amount, currency, vendor, canonical_vendor, category_id, " +
+            "recurring, recurrence_pattern FROM transactions ";
+    private static final String SELECT_VENDOR = SELECT_COLUMNS +
+            "WHERE user_id = ? AND COALESCE(canonical_vendor, vendor) = ? ORDER BY transaction_date, id FOR UPDATE";
+    private static final String SELECT_USER = SELECT_COLUMNS +
+            "WHERE user_id = ? ORDER BY COALESCE(canonical_vendor, vendor), transaction_date, id FOR UPDATE";
+    private static final String UPDATE_FLAGS =
+            "UPDATE transactions SET recurring = ?, recurrence_pattern = ?, updated_at = NOW() WHERE id = ?";
+    private static final String DELETE_VENDOR_SERIES =
+            "DELETE FROM recurring_series WHERE user_id = ? AND vendor = ?";
+    private static final String DELETE_USER_SERIES =
+            "DELETE FROM recurring_series WHERE user_id = ?";
+    private static final String INSERT_SERIES =
+            "INSERT INTO recurring_series (user_id, vendor, currency, pattern, expected_amount, occurrences, " +
+            "last_date, next_expected_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (user_id, vendor, currency) DO UPDATE SET pattern = EXCLUDED.pattern, " +
+            "expected_amount = EXCLUDED.expected_amount, occurrences = EXCLUDED.occurrences, " +
+            "last_date = EXCLUDED.last_date, next_expected_date = EXCLUDED.next_expected_date, updated_at = NOW()";
+    private static final String SELECT_SERIES =
+            "SELECT s.vendor, s.currency, s.pattern, s.expected_amount, s.occurrences, s.last_date, s.next_expected_date, " +
+            "(SELECT t.category_id FROM transactions t WHERE t.user_id = s.user_id " +
+            "AND COALESCE(t.canonical_vendor, t.vendor) = s.vendor AND t.currency = s.currency AND t.recurring = TRUE " +
+            "ORDER BY t.transaction_date DESC LIMIT 1) AS category_id " +
+            "FROM recurring_series s WHERE s.user_id = ? ORDER BY s.next_expected_date, s.vendor";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate userTransaction;
+    private final DailySpendService dailySpendService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JwtTokenProvider jwtTokenProvider;
+
+    public RecurrenceService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                             DailySpendService dailySpendService, ApplicationEventPublisher eventPublisher,
+                             JwtTokenProvider jwtTokenProvider) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dailySpendService = dailySpendService;
+        this.eventPublisher = eventPublisher;
+        this.jwtTokenProvider = jwtTokenProvider;
+
+        // Runs after the triggering write has committed, so each user gets a transaction of its own
+        this.userTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.userTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Returns the user's recurring payments, soonest expected first.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getRecurringSeries(String token) {
+        UUID userId = jwtTokenProvider.getUserId(token);
+        LocalDate today = LocalDate.now();
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (RecurringSeries series : getSeries(userId)) {
+            Map<String, Object> seriesData = new HashMap<>();
+            seriesData.put("vendor", series.getVendor());
+            seriesData.put("currency", series.getCurrency());
+            seriesData.put("categoryId", series.getCategoryId());
+            seriesData.put("pattern", series.getPattern().name());
+            seriesData.put("expectedAmount", series.getExpectedAmount());
+            seriesData.put("occurrences", series.getOccurrences());
+            seriesData.put("lastDate", series.getLastDate());
+            seriesData.put("nextExpectedDate", series.getNextExpectedDate());
+            seriesData.put("active", series.isActive(today));
+            result.add(seriesData);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the user's detected series, each with the category of its latest payment.
+     */
+    public List<RecurringSeries> getSeries(UUID userId) {
+        return jdbcTemplate.query(SELECT_SERIES, (rs, rowNum) -> new RecurringSeries(
+                rs.getString("vendor"),
+                rs.getString("currency"),
+                rs.getObject("category_id", UUID.class),
+                RecurrenceDetector.Pattern.valueOf(rs.getString("pattern")),
+                rs.getBigDecimal("expected_amount"),
+                rs.getInt("occurrences"),
+                rs.getDate("last_date").toLocalDate(),
+                rs.getDate("next_expected_date").toLocalDate()), userId);
+    }
+
+    /**
+     * Re-evaluates every vendor of the user from scratch.
+     */
+    @Transactional
+    public Map<String, Object> detectForUser(String token) {
+        UUID userId = jwtTokenProvider.getUserId(token);
+        long startedAt = System.nanoTime();
+
+        dailySpendService.lockUser(userId, true);
+        List<Row> rows = jdbcTemplate.query(SELECT_USER, (rs, rowNum) -> Row.from(rs), userId);
+        jdbcTemplate.update(DELETE_USER_SERIES, userId);
+
+        Result result = new Result();
+        int from = 0;
+        for (int i = 1; i <= rows.size(); i++) {
+            if (i == rows.size() || !rows.get(i).vendorKey().equals(rows.get(from).vendorKey())) {
+                evaluate(userId, rows.get(from).vendorKey(), rows.subList(from, i), result);
+                from = i;
+            }
+        }
+        result.write(jdbcTemplate, eventPublisher);
+
+        log.debug("Detected {} recurring series in {} transactions for user {} in {} ms", result.series.size(),
+                rows.size(), userId, (System.nanoTime() - startedAt) / 1_000_000);
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("transactionsScanned", rows.size());
+        summary.put("seriesFound", result.series.size());
+        summary.put("transactionsUpdated", result.flagUpdates.size());
+        return summary;
+    }
+
+    /**
+     * Re-evaluates the vendors a committed write touched.
+     */
+    @TransactionalEventListener
+    public void onTransactionsChanged(TransactionsChangedEvent event) {
+        Map<UUID, Set<String>> affected = new LinkedHashMap<>();
+        for (TransactionChange change : event.getChanges()) {
+            if (!movesSeries(change.getBefore(), change.getAfter())) {
+                // Includes the flag updates this service writes itself
+                continue;
+            }
+            if (change.getBefore() != null) {
+                affected.computeIfAbsent(change.getUserId(), k -> new TreeSet<>()).add(vendorKey(change.getBefore()));
+            }
+            if (change.getAfter() != null) {
+                affected.computeIfAbsent(change.getUserId(), k -> new TreeSet<>()).add(vendorKey(change.getAfter()));
+            }
+        }
+
+        for (Map.Entry<UUID, Set<String>> entry : affected.entrySet()) {
+            UUID userId = entry.getKey();
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    userTransaction.executeWithoutResult(status -> redetect(userId, entry.getValue()));
+                    break;
+                } catch (ConcurrencyFailureException e) {
+                    if (attempt == MAX_ATTEMPTS) {
+                        log.error("Recurrence detection for user {} gave up after {} attempts", userId, attempt, e);
+                        break;
+                    }
+                    log.debug("Recurrence detection for user {} hit a concurrent write, retrying: {}", userId, e.getMessage());
+                } catch (RuntimeException e) {
+                    // The flags stay as they were until the vendor's next write; other users still run
+                    log.error("Recurrence detection failed for user {}", userId, e);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void redetect(UUID userId, Set<String> vendors) {
+        // The rollup listener takes this for the flag updates below anyway; take it before the row locks
+        dailySpendService.lockUser(userId, true);
+
+        Result result = new Result();
+        for (String vendor : vendors) {
+            List<Row> rows = jdbcTemplate.query(SELECT_VENDOR, (rs, rowNum) -> Row.from(rs), userId, vendor);
+            jdbcTemplate.update(DELETE_VENDOR_SERIES, userId, vendor);
+            evaluate(userId, vendor, rows, result);
+        }
+        result.write(jdbcTemplate, eventPublisher);
+    }
+
+    private void evaluate(UUID userId, String vendor, List<Row> rows, Result result) {
+        Map<String, List<Row>> byCurrency = new LinkedHashMap<>();
+        for (Row row : rows) {
+            byCurrency.computeIfAbsent(row.currency, k -> new ArrayList<>()).add(row);
+        }
+
+        LocalDate today = LocalDate.now();
+        for (Map.Entry<String, List<Row>> entry : byCurrency.entrySet()) {
+            List<Row> series = entry.getValue();
+            if (series.size() < RecurrenceDetector.MIN_OCCURRENCES) {
+                continue;
+            }
+
+            int[] days = new int[series.size()];
+            long[] amounts = new long[series.size()];
+            for (int i = 0; i < series.size(); i++) {
+                days[i] = (int) series.get(i).transactionDate.toLocalDate().toEpochDay();
+                amounts[i] = ColumnarSpending.toUnscaled(series.get(i).amount);
+            }
+            RecurrenceDetector.Result detected = RecurrenceDetector.detect(days, amounts, today);
+
+            for (int i = 0; i < series.size(); i++) {
+                boolean member = detected != null && detected.isMember(i);
+                result.setFlags(series.get(i), member, member ? detected.getPattern().name() : null);
+            }
+            if (detected != null) {
+                result.series.add(new Object[] {userId, vendor, entry.getKey(), detected.getPattern().name(),
+                        ColumnarSpending.toAmount(detected.getExpectedAmount()), detected.getOccurrences(),
+                        Date.valueOf(detected.getLastDay()), Date.valueOf(detected.getNextExpectedDay())});
+            }
+        }
+    }
+
+    /**
+     * Whether the change can alter which vendor series the transaction is in or where in it.
+     */
+    private static boolean movesSeries(TransactionSnapshot before, TransactionSnapshot after) {
+        if (before == null || after == null) {
+            return true;
+        }
+        return !vendorKey(before).equals(vendorKey(after))
+                || !Objects.equals(before.getTransactionDate(), after.getTransactionDate())
+                || !Objects.equals(before.getCurrency(), after.getCurrency())
+                || compare(before.getAmount(), after.getAmount()) != 0;
+    }
+
+    private static int compare(BigDecimal a, BigDecimal b) {
+        if (a == null || b == null) {
+            return a == b ? 0 : 1;
+        }
+        return a.compareTo(b);
+    }
+
+    private static String vendorKey(TransactionSnapshot snapshot) {
+        return snapshot.getCanonicalVendor() != null ? snapshot.getCanonicalVendor() : snapshot.getVendor();
+    }
+
+    @Value
+    public static class RecurringSeries {
+        String vendor;
+        String currency;
+        UUID categoryId;
+        RecurrenceDetector.Pattern pattern;
+        BigDecimal expectedAmount;
+        int occurrences;
+        LocalDate lastDate;
+        LocalDate nextExpectedDate;
+
+        /**
+         * False once a payment is overdue by more than a whole period, as it has most likely been cancelled.
+         */
+        public boolean isActive(LocalDate today) {
+            return !today.isAfter(pattern.next(nextExpectedDate));
+        }
+    }
+
+    /**
+     * Writes collected by one detection run, applied together at the end.
+     */
+    private static final class Result {
+        private final List<Object[]> flagUpdates = new ArrayList<>();
+        private final List<TransactionChange> changes = new ArrayList<>();
+        private final List<Object[]> series = new ArrayList<>();
+
+        private void setFlags(Row row, boolean recurring, String pattern) {
+            if (row.recurring == recurring && Objects.equals(row.recurrencePattern, pattern)) {
+                return;
+            }
+            flagUpdates.add(new Object[] {recurring, pattern, row.id});
+            changes.add(new TransactionChange(row.id, row.toSnapshot(row.recurring), row.toSnapshot(recurring)));
+        }
+
+        private void write(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+            if (!series.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SERIES, series);
+            }
+            if (!flagUpdates.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_FLAGS, flagUpdates);
+                eventPublisher.publishEvent(new TransactionsChangedEvent(changes));
+            }
+        }
+    }
+
+    private static final class Row {
+        private UUID id;
+        private UUID userId;
+        private LocalDateTime transactionDate;
+        private BigDecimal amount;
+        private String currency;
+        private String vendor;
+        private String canonicalVendor;
+        private UUID categoryId;
+        private boolean recurring;
+        private String recurrencePattern;
+
+        private static Row from(ResultSet rs) throws SQLException {
+            Row row = new Row();
+            row.id = rs.getObject("id", UUID.class);
+            row.userId = rs.getObject("user_id", UUID.class);
+            row.transactionDate = rs.getTimestamp("transaction_date").toLocalDateTime();
+            row.amount = rs.getBigDecimal("amount");
+            row.currency = rs.getString("currency");
+            row.vendor = rs.getString("vendor");
+            row.canonicalVendor = rs.getString("canonical_vendor");
+            row.categoryId = rs.getObject("category_id", UUID.class);
+            row.recurring = rs.getBoolean("recurring");
+            row.recurrencePattern = rs.getString("recurrence_pattern");
+            return row;
+        }
+
+        private String vendorKey() {
+            return canonicalVendor != null ? canonicalVendor : vendor;
+        }
+
+        private TransactionSnapshot toSnapshot(boolean recurring) {
+            return TransactionSnapshot.builder()
+                    .userId(userId)
+                    .transactionDate(transactionDate)
+                    .amount(amount)
+                    .currency(currency)
+                    .categoryId(categoryId)
+                    .vendor(vendor)
+                    .canonicalVendor(canonicalVendor)
+                    .recurring(recurring)
+                    .build();
+        }
+    }
+}
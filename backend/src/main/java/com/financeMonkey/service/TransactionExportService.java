@@ -0,0 +1,220 @@
+package com.financeMonkey.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financeMonkey.dto.TransactionDto;
+import com.financeMonkey.exception.TooManyRequestsException;
+import com.financeMonkey.repository.TransactionRepository;
+import com.financeMonkey.repository.projection.TransactionListItem;
+import com.financeMonkey.security.JwtTokenProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Writes all of a user's transactions, newest first, as CSV or newline-delimited JSON.
+ *
+ * Rows are read {@value #CHUNK_ROWS} at a time with the keyset queries behind the paginated
+ * list, each chunk in its own short read-only transaction, and written out between reads. A
+ * download that takes minutes therefore holds a pooled connection only while a chunk is read,
+ * and memory use does not grow with the number of transactions. At most
+ * {@code transactions.export.max-concurrent} exports run at once; more are turned away.
+ */
+@Slf4j
+@Service
+public class TransactionExportService {
+
+    public static final int CHUNK_ROWS = 1000;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER =
+            "id,transactionDate,amount,currency,vendor,categoryId,categoryName,description,recurring,recurrencePattern,status";
+
+    private final TransactionRepository transactionRepository;
+    private final ObjectMapper objectMapper;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final TransactionTemplate chunkTransaction;
+    private final Semaphore permits;
+    private final long timeoutMillis;
+
+    public TransactionExportService(TransactionRepository transactionRepository, ObjectMapper objectMapper,
+                                    JwtTokenProvider jwtTokenProvider, TransactionTemplate transactionTemplate,
+                                    @Value("${transactions.export.max-concurrent:2}") int maxConcurrent,
+                                    @Value("${transactions.export.timeout-minutes:30}") long timeoutMinutes) {
+        this.transactionRepository = transactionRepository;
+        this.objectMapper = objectMapper;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.chunkTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.chunkTransaction.setReadOnly(true);
+        this.permits = new Semaphore(maxConcurrent);
+        this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+    }
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String format) {
+            for (Format value : values()) {
+                if (value.extension.equalsIgnoreCase(format)) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("format must be csv or ndjson");
+        }
+    }
+
+    /**
+     * Resolves the token's user and reserves one of the export slots, before anything is written,
+     * so a bad token or a busy server still gets an error status. The export must be closed,
+     * whether or not it was written, to free its slot.
+     */
+    public Export startExport(String token, Format format) {
+        UUID userId = jwtTokenProvider.getUserId(token);
+        if (!permits.tryAcquire()) {
+            throw new TooManyRequestsException("Too many exports are running; try again later");
+        }
+        return new Export(userId, format);
+    }
+
+    /**
+     * How long one export may take before the request is timed out.
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    private void write(UUID userId, Format format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long rows = 0;
+        List<TransactionListItem> chunk = readChunk(userId, null);
+        while (!chunk.isEmpty()) {
+            for (TransactionListItem item : chunk) {
+                if (format == Format.CSV) {
+                    writeCsvRow(writer, item);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(TransactionDto.fromListItem(item)));
+                    writer.write('\n');
+                }
+            }
+            rows += chunk.size();
+            writer.flush();
+            if (chunk.size() < CHUNK_ROWS) {
+                break;
+            }
+            chunk = readChunk(userId, chunk.get(chunk.size() - 1));
+        }
+        writer.flush();
+        log.debug("Exported {} transactions for user {} as {}", rows, userId, format);
+    }
+
+    /**
+     * The chunk after {@code last}, or the first one; the transaction ends before any of it is written.
+     */
+    private List<TransactionListItem> readChunk(UUID userId, TransactionListItem last) {
+        Pageable chunk = PageRequest.of(0, CHUNK_ROWS);
+        return chunkTransaction.execute(status -> last == null
+                ? transactionRepository.findFirstPage(userId, null, null, chunk)
+                : transactionRepository.findPageAfter(userId, last.getTransactionDate(), last.getId(), null, chunk));
+    }
+
+    private static void writeCsvRow(Writer writer, TransactionListItem item) throws IOException {
+        writer.write(item.getId().toString());
+        writer.write(',');
+        writer.write(item.getTransactionDate().toString());
+        writer.write(',');
+        writer.write(item.getAmount().toPlainString());
+        writer.write(',');
+        writer.write(csvField(item.getCurrency()));
+        writer.write(',');
+        writer.write(csvField(item.getVendor()));
+        writer.write(',');
+        writer.write(item.getCategoryId() != null ? item.getCategoryId().toString() : "");
+        writer.write(',');
+        writer.write(csvField(item.getCategoryName()));
+        writer.write(',');
+        writer.write(csvField(item.getDescription()));
+        writer.write(',');
+        writer.write(Boolean.toString(item.isRecurring()));
+        writer.write(',');
+        writer.write(csvField(item.getRecurrencePattern()));
+        writer.write(',');
+        writer.write(item.getStatus() != null ? item.getStatus().name() : "");
+        writer.write('\n');
+    }
+
+    /**
+     * Quotes a field when it holds a separator, quote or line break (RFC 4180).
+     */
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+
+    /**
+     * One user's export holding an export slot until it is closed.
+     */
+    public final class Export implements AutoCloseable {
+        private final UUID userId;
+        private final Format format;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Export(UUID userId, Format format) {
+            this.userId = userId;
+            this.format = format;
+        }
+
+        public void writeTo(OutputStream outputStream) throws IOException {
+            write(userId, format, outputStream);
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+}
@@ -1,41 +1,56 @@
 package com.financeMonkey.service;
 
+import com.financeMonkey.dto.TransactionCursorPageDto;
 import com.financeMonkey.dto.TransactionDto;
+import com.financeMonkey.event.TransactionChange;
+import com.financeMonkey.event.TransactionSnapshot;
+import com.financeMonkey.event.TransactionsChangedEvent;
 import com.financeMonkey.model.Category;
 import com.financeMonkey.model.Transaction;
 import com.financeMonkey.model.User;
 import com.financeMonkey.repository.CategoryRepository;
 import com.financeMonkey.repository.TransactionRepository;
 import com.financeMonkey.repository.UserRepository;
+import com.financeMonkey.repository.projection.TransactionListItem;
 import com.financeMonkey.security.JwtTokenProvider;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class TransactionService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final String CURSOR_SEPARATOR = "|";
+
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
     private final JwtTokenProvider jwtTokenProvider;
+    private final VendorMemoryService vendorMemoryService;
+    private final VendorCanonicalizationService vendorCanonicalizationService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public Page<TransactionDto> getUserTransactions(String token, Pageable pageable) {
         UUID userId = jwtTokenProvider.getUserId(token);
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + userId));
-        
-        Page<Transaction> transactions = transactionRepository.findByUser(user, pageable);
-        return transactions.map(TransactionDto::fromEntity);
+        return transactionRepository.findListItemsByUserId(userId, pageable).map(TransactionDto::fromListItem);
     }
 
     @Transactional(readOnly = true)
@@ -43,12 +58,42 @@ public class TransactionService {
             String token, LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
         
         UUID userId = jwtTokenProvider.getUserId(token);
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + userId));
+        return transactionRepository.findListItemsByUserIdAndTransactionDateBetween(userId, startDate, endDate, pageable)
+                .map(TransactionDto::fromListItem);
+    }
+
+    /**
+     * Returns a page of the user's transactions, newest first, optionally between two dates.
+     * Pages are addressed by an opaque cursor naming the last transaction of the previous page
+     * instead of an offset, so deep pages cost no more than the first and no total is counted.
+     */
+    @Transactional(readOnly = true)
+    public TransactionCursorPageDto getUserTransactionsPage(String token, LocalDateTime startDate,
+                                                            LocalDateTime endDate, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
         
-        Page<Transaction> transactions = transactionRepository
-                .findByUserAndTransactionDateBetween(user, startDate, endDate, pageable);
-        return transactions.map(TransactionDto::fromEntity);
+        UUID userId = jwtTokenProvider.getUserId(token);
+        // One extra row tells whether there is a next page
+        Pageable firstRows = PageRequest.of(0, limit + 1);
+        List<TransactionListItem> transactions;
+        if (cursor == null || cursor.isEmpty()) {
+            transactions = transactionRepository.findFirstPage(userId, startDate, endDate, firstRows);
+        } else {
+            Object[] position = decodeCursor(cursor);
+            transactions = transactionRepository.findPageAfter(userId, (LocalDateTime) position[0],
+                    (UUID) position[1], startDate, firstRows);
+        }
+        
+        boolean hasMore = transactions.size() > limit;
+        List<TransactionListItem> page = hasMore ? transactions.subList(0, limit) : transactions;
+        TransactionListItem last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return TransactionCursorPageDto.builder()
+                .content(page.stream().map(TransactionDto::fromListItem).collect(Collectors.toList()))
+                .nextCursor(hasMore ? encodeCursor(last.getTransactionDate(), last.getId()) : null)
+                .hasMore(hasMore)
+                .build();
     }
 
     @Transactional(readOnly = true)
@@ -78,10 +123,14 @@ public class TransactionService {
             throw new RuntimeException("You are not authorized to update this transaction");
         }
         
+        TransactionSnapshot before = TransactionSnapshot.of(transaction);
+        UUID previousCategoryId = before.getCategoryId();
+        
         transaction.setTransactionDate(transactionDto.getTransactionDate());
         transaction.setAmount(transactionDto.getAmount());
         transaction.setCurrency(transactionDto.getCurrency());
         transaction.setVendor(transactionDto.getVendor());
+        transaction.setCanonicalVendor(vendorCanonicalizationService.canonicalize(userId, transactionDto.getVendor()));
         transaction.setDescription(transactionDto.getDescription());
         transaction.setRecurring(transactionDto.isRecurring());
         transaction.setRecurrencePattern(transactionDto.getRecurrencePattern());
@@ -94,7 +143,15 @@ public class TransactionService {
             transaction.setCategory(null);
         }
         
+        // Learn from manual recategorization so the vendor's next transaction gets it right, and
+        // mark the transaction so re-categorization jobs leave the user's choice alone
+        if (!Objects.equals(previousCategoryId, transactionDto.getCategoryId())) {
+            vendorMemoryService.remember(userId, transaction.getCanonicalVendor(), transactionDto.getCategoryId());
+            transaction.setStatus(Transaction.TransactionStatus.MANUAL);
+        }
+        
         Transaction savedTransaction = transactionRepository.save(transaction);
+        eventPublisher.publishEvent(TransactionsChangedEvent.of(TransactionChange.updated(before, savedTransaction)));
         return TransactionDto.fromEntity(savedTransaction);
     }
 
@@ -110,7 +167,8 @@ public class TransactionService {
             throw new RuntimeException("You are not authorized to delete this transaction");
         }
         
-        transactionRepository.deleteById(transactionId);
+        transactionRepository.delete(transaction);
+        eventPublisher.publishEvent(TransactionsChangedEvent.of(TransactionChange.deleted(transaction)));
     }
     
     @Transactional
@@ -119,12 +177,15 @@ public class TransactionService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + userId));
         
+        String vendor = transactionDto.getVendor() != null ? transactionDto.getVendor() : "Unknown Vendor";
+        
         Transaction transaction = Transaction.builder()
             .user(user)
             .transactionDate(transactionDto.getTransactionDate() != null ? transactionDto.getTransactionDate() : LocalDateTime.now())
             .amount(transactionDto.getAmount() != null ? transactionDto.getAmount() : BigDecimal.ZERO)
             .currency(transactionDto.getCurrency() != null ? transactionDto.getCurrency() : "USD")
-            .vendor(transactionDto.getVendor() != null ? transactionDto.getVendor() : "Unknown Vendor")
+            .vendor(vendor)
+            .canonicalVendor(vendorCanonicalizationService.canonicalize(userId, vendor))
             .description(transactionDto.getDescription())
             .recurring(transactionDto.isRecurring())
             .recurrencePattern(transactionDto.getRecurrencePattern())
@@ -144,6 +205,23 @@ public class TransactionService {
         }
         
         Transaction savedTransaction = transactionRepository.save(transaction);
+        eventPublisher.publishEvent(TransactionsChangedEvent.of(TransactionChange.created(savedTransaction)));
         return TransactionDto.fromEntity(savedTransaction);
     }
+
+    private static String encodeCursor(LocalDateTime transactionDate, UUID id) {
+        String position = transactionDate + CURSOR_SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Object[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf(CURSOR_SEPARATOR);
+            return new Object[] {LocalDateTime.parse(position.substring(0, separator)),
+                    UUID.fromString(position.substring(separator + 1))};
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
 }
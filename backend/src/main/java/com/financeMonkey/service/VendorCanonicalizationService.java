@@ -0,0 +1,176 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.dto.VendorAliasDto;
+import com.financeMonkey.engine.DefaultMerchants;
+import com.financeMonkey.engine.VendorCanonicalizer;
+import com.financeMonkey.model.VendorAlias;
+import com.financeMonkey.repository.VendorAliasRepository;
+import com.financeMonkey.security.JwtTokenProvider;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves raw vendor names to canonical merchant names. A user's own aliases are checked
+ * first, then the built-in merchant list, both by whole name and then by word-boundary prefix;
+ * unknown vendors are returned cleaned of processor prefixes, store numbers and reference codes.
+ * The aliases of the least recently used users are dropped beyond
+ * {@code categorization.vendor-aliases.max-users}.
+ */
+@Slf4j
+@Service
+public class VendorCanonicalizationService {
+
+    private static final VendorCanonicalizer DEFAULT_MERCHANTS = DefaultMerchants.compile();
+
+    private final VendorAliasRepository vendorAliasRepository;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final int maxUsers;
+
+    private final LinkedHashMap<UUID, Map<String, String>> userAliases = new LinkedHashMap<>(16, 0.75f, true);
+    // Bumped by every committed alias change, so aliases loaded before one are not cached
+    private long aliasesVersion;
+
+    public VendorCanonicalizationService(VendorAliasRepository vendorAliasRepository,
+                                         JwtTokenProvider jwtTokenProvider,
+                                         @Value("${categorization.vendor-aliases.max-users:1000}") int maxUsers) {
+        this.vendorAliasRepository = vendorAliasRepository;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.maxUsers = maxUsers;
+    }
+
+    /**
+     * Returns the canonical vendor name, or null for a blank vendor.
+     */
+    public String canonicalize(UUID userId, String vendor) {
+        String cleaned = VendorCanonicalizer.clean(vendor);
+        if (cleaned == null) {
+            return null;
+        }
+        String key = VendorCanonicalizer.key(cleaned);
+
+        if (userId != null) {
+            String canonical = VendorCanonicalizer.resolve(getAliases(userId), key);
+            if (canonical != null) {
+                return canonical;
+            }
+        }
+
+        String canonical = DEFAULT_MERCHANTS.resolve(key);
+        return canonical != null ? canonical : cleaned;
+    }
+
+    @Transactional(readOnly = true)
+    public List<VendorAliasDto> getUserAliases(String token) {
+        UUID userId = jwtTokenProvider.getUserId(token);
+        return vendorAliasRepository.findByUserIdOrderByAliasKeyAsc(userId).stream()
+                .map(VendorAliasDto::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Creates or replaces the alias for a vendor name.
+     */
+    @Transactional
+    public VendorAliasDto saveAlias(String token, VendorAliasDto aliasDto) {
+        UUID userId = jwtTokenProvider.getUserId(token);
+
+        String key = VendorCanonicalizer.key(VendorCanonicalizer.clean(aliasDto.getAlias()));
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("Alias must contain letters or digits");
+        }
+
+        VendorAlias vendorAlias = vendorAliasRepository.findByUserIdAndAliasKey(userId, key)
+                .orElseGet(() -> VendorAlias.builder().userId(userId).aliasKey(key).build());
+        vendorAlias.setCanonicalVendor(aliasDto.getCanonicalVendor().trim());
+
+        VendorAlias savedAlias = vendorAliasRepository.save(vendorAlias);
+        invalidate(userId);
+        return VendorAliasDto.fromEntity(savedAlias);
+    }
+
+    @Transactional
+    public void deleteAlias(String token, UUID aliasId) {
+        UUID userId = jwtTokenProvider.getUserId(token);
+
+        VendorAlias vendorAlias = vendorAliasRepository.findById(aliasId)
+                .orElseThrow(() -> new EntityNotFoundException("Vendor alias not found with id: " + aliasId));
+
+        // Verify ownership
+        if (!vendorAlias.getUserId().equals(userId)) {
+            throw new RuntimeException("You are not authorized to delete this vendor alias");
+        }
+
+        vendorAliasRepository.delete(vendorAlias);
+        invalidate(userId);
+    }
+
+    public synchronized int size() {
+        return userAliases.size();
+    }
+
+    private Map<String, String> getAliases(UUID userId) {
+        long loadedVersion;
+        synchronized (this) {
+            Map<String, String> cached = userAliases.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+            loadedVersion = aliasesVersion;
+        }
+        
+        List<VendorAlias> entries = vendorAliasRepository.findByUserIdOrderByAliasKeyAsc(userId);
+        Map<String, String> loaded;
+        if (entries.isEmpty()) {
+            loaded = Collections.emptyMap();
+        } else {
+            Map<String, String> map = new HashMap<>(entries.size() * 2);
+            for (VendorAlias entry : entries) {
+                map.put(entry.getAliasKey(), entry.getCanonicalVendor());
+            }
+            loaded = Collections.unmodifiableMap(map);
+        }
+        
+        synchronized (this) {
+            if (aliasesVersion != loadedVersion) {
+                // An alias change committed while loading and may be missing here; the next lookup reloads
+                return loaded;
+            }
+            Map<String, String> cached = userAliases.putIfAbsent(userId, loaded);
+            while (userAliases.size() > maxUsers) {
+                userAliases.remove(userAliases.keySet().iterator().next());
+            }
+            return cached != null ? cached : loaded;
+        }
+    }
+
+    private void invalidate(UUID userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    drop(userId);
+                }
+            });
+        } else {
+            drop(userId);
+        }
+    }
+
+    private synchronized void drop(UUID userId) {
+        aliasesVersion++;
+        userAliases.remove(userId);
+    }
+}
@@ -0,0 +1,149 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.model.VendorCategory;
+import com.financeMonkey.repository.VendorCategoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Remembers which category a user chose for each vendor. Each user's memory is loaded once
+ * into a hash map; corrections update the table and the loaded map, so repeat vendors are
+ * categorized with a single lookup. The maps of the least recently used users are dropped
+ * beyond {@code categorization.vendor-memory.max-users}.
+ */
+@Slf4j
+@Service
+public class VendorMemoryService {
+
+    private final VendorCategoryRepository vendorCategoryRepository;
+    private final int maxUsers;
+
+    private final LinkedHashMap<UUID, Map<String, UUID>> memories = new LinkedHashMap<>(16, 0.75f, true);
+    // Bumped by every committed correction, so a memory loaded before one is not cached
+    private long version;
+
+    public VendorMemoryService(VendorCategoryRepository vendorCategoryRepository,
+                               @Value("${categorization.vendor-memory.max-users:1000}") int maxUsers) {
+        this.vendorCategoryRepository = vendorCategoryRepository;
+        this.maxUsers = maxUsers;
+    }
+
+    /**
+     * Returns the category the user last assigned to this vendor, or null.
+     */
+    public UUID lookup(UUID userId, String vendor) {
+        String key = vendorKey(vendor);
+        if (key == null) {
+            return null;
+        }
+        return getMemory(userId).get(key);
+    }
+
+    /**
+     * Records a manual categorization. A null category forgets the vendor.
+     */
+    @Transactional
+    public void remember(UUID userId, String vendor, UUID categoryId) {
+        String key = vendorKey(vendor);
+        if (key == null) {
+            return;
+        }
+        
+        if (categoryId != null) {
+            vendorCategoryRepository.upsert(userId, key, categoryId);
+        } else {
+            vendorCategoryRepository.deleteByUserIdAndVendorKey(userId, key);
+        }
+        
+        afterCommit(() -> {
+            synchronized (this) {
+                version++;
+                Map<String, UUID> memory = memories.get(userId);
+                if (memory != null) {
+                    // Copy on write so readers never see a map being modified
+                    Map<String, UUID> updated = new HashMap<>(memory);
+                    if (categoryId != null) {
+                        updated.put(key, categoryId);
+                    } else {
+                        updated.remove(key);
+                    }
+                    memories.put(userId, Collections.unmodifiableMap(updated));
+                }
+            }
+        });
+    }
+
+    public synchronized int size() {
+        return memories.size();
+    }
+
+    private Map<String, UUID> getMemory(UUID userId) {
+        long loadedVersion;
+        synchronized (this) {
+            Map<String, UUID> cached = memories.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+            loadedVersion = version;
+        }
+        
+        List<VendorCategory> entries = vendorCategoryRepository.findByUserId(userId);
+        Map<String, UUID> loaded = new HashMap<>(Math.max(16, entries.size() * 2));
+        for (VendorCategory entry : entries) {
+            loaded.put(entry.getVendorKey(), entry.getCategoryId());
+        }
+        Map<String, UUID> memory = Collections.unmodifiableMap(loaded);
+        log.debug("Loaded {} vendor categories for user {}", loaded.size(), userId);
+        
+        synchronized (this) {
+            if (version != loadedVersion) {
+                // A correction committed while loading and may be missing here; the next lookup reloads
+                return memory;
+            }
+            Map<String, UUID> cached = memories.putIfAbsent(userId, memory);
+            while (memories.size() > maxUsers) {
+                memories.remove(memories.keySet().iterator().next());
+            }
+            return cached != null ? cached : memory;
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Normalizes a vendor name so that case and spacing differences map to the same entry.
+     */
+    static String vendorKey(String vendor) {
+        if (vendor == null) {
+            return null;
+        }
+        String key = vendor.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        if (key.isEmpty()) {
+            return null;
+        }
+        return key.length() > 255 ? key.substring(0, 255) : key;
+    }
+}
@@ -0,0 +1,283 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.engine.ColumnarSpending;
+import com.financeMonkey.engine.FxRateTable;
+import com.financeMonkey.engine.SpaceSavingSketch;
+import com.financeMonkey.event.TransactionChange;
+import com.financeMonkey.event.TransactionSnapshot;
+import com.financeMonkey.event.TransactionsChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user, per-month Space-Saving sketches of spending by vendor, by amount and by number of
+ * transactions. A user's months are loaded with one grouped query on first use; new
+ * transactions are added to their month's sketches after they commit, while updates and
+ * deletes drop the affected months (a sketch cannot forget) so they are reloaded when next
+ * needed. Queries merge the sketches of the whole months a range covers and count the partial
+ * months at its edges exactly; short ranges are counted exactly throughout.
+ *
+ * Amounts are held in {@link FxRateTable#BASE_CURRENCY} at each day's rate, as longs at
+ * {@link ColumnarSpending#AMOUNT_SCALE}. Amounts in currencies without rates, refunds and other
+ * non-positive amounts count towards frequency only.
+ */
+@Slf4j
+@Service
+public class VendorSketchService {
+
+    private static final String SELECT_VENDOR_DAYS =
+            "SELECT COALESCE(canonical_vendor, vendor) AS vendor_name, currency, " +
+            "CAST(transaction_date AS DATE) AS day, SUM(amount) AS amount, COUNT(*) AS transaction_count " +
+            "FROM transactions WHERE user_id = ? AND transaction_date >= ? AND transaction_date < ? " +
+            "GROUP BY 1, 2, 3";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FxRateService fxRateService;
+    private final int capacity;
+    private final int exactMaxDays;
+    private final int maxUsers;
+
+    private final LinkedHashMap<UUID, Map<YearMonth, Sketches>> users = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<UUID, AtomicLong> generations = new ConcurrentHashMap<>();
+    private long fxVersion = -1;
+
+    public VendorSketchService(JdbcTemplate jdbcTemplate, FxRateService fxRateService, MeterRegistry meterRegistry,
+                               @Value("${analytics.vendors.sketch-capacity:64}") int capacity,
+                               @Value("${analytics.vendors.exact-max-days:62}") int exactMaxDays,
+                               @Value("${analytics.vendors.max-users:1000}") int maxUsers) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fxRateService = fxRateService;
+        this.capacity = capacity;
+        this.exactMaxDays = exactMaxDays;
+        this.maxUsers = maxUsers;
+
+        Gauge.builder("analytics.vendors.users", this, VendorSketchService::size).register(meterRegistry);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the user's vendor sketches over {@code [startDay, endDay)}.
+     */
+    public Sketches getSketches(UUID userId, LocalDate startDay, LocalDate endDay) {
+        YearMonth firstWhole = YearMonth.from(startDay.getDayOfMonth() == 1 ? startDay : startDay.plusMonths(1));
+        YearMonth endWhole = YearMonth.from(endDay);
+        if (ChronoUnit.DAYS.between(startDay, endDay) <= exactMaxDays || !firstWhole.isBefore(endWhole)) {
+            return countExactly(userId, startDay, endDay);
+        }
+
+        Map<YearMonth, Sketches> months = getMonths(userId, firstWhole, endWhole);
+        Sketches result = Sketches.empty(capacity, false);
+        for (Sketches month : months.values()) {
+            result = result.merge(month);
+        }
+        if (startDay.isBefore(firstWhole.atDay(1))) {
+            result = result.merge(countExactly(userId, startDay, firstWhole.atDay(1)));
+        }
+        if (endWhole.atDay(1).isBefore(endDay)) {
+            result = result.merge(countExactly(userId, endWhole.atDay(1), endDay));
+        }
+        return result;
+    }
+
+    @EventListener
+    public void onTransactionsChanged(TransactionsChangedEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(event.getChanges());
+                }
+            });
+        } else {
+            apply(event.getChanges());
+        }
+    }
+
+    public synchronized int size() {
+        return users.size();
+    }
+
+    private synchronized void apply(List<TransactionChange> changes) {
+        FxRateTable rates = fxRateService.getTable();
+        for (TransactionChange change : changes) {
+            UUID userId = change.getUserId();
+            generations.computeIfAbsent(userId, k -> new AtomicLong()).incrementAndGet();
+
+            Map<YearMonth, Sketches> months = users.get(userId);
+            if (months == null) {
+                continue;
+            }
+            if (change.getBefore() != null) {
+                months.remove(YearMonth.from(change.getBefore().getDay()));
+            }
+            TransactionSnapshot after = change.getAfter();
+            if (after != null) {
+                YearMonth month = YearMonth.from(after.getDay());
+                Sketches sketches = months.get(month);
+                if (change.getBefore() != null || sketches == null) {
+                    months.remove(month);
+                } else {
+                    sketches.add(vendorOf(after), after.getCurrency(), after.getDay(), after.getAmount(), 1, rates);
+                }
+            }
+        }
+    }
+
+    private Map<YearMonth, Sketches> getMonths(UUID userId, YearMonth first, YearMonth end) {
+        Map<YearMonth, Sketches> result = new LinkedHashMap<>();
+        YearMonth firstMissing = null;
+        YearMonth lastMissing = null;
+        long generation;
+        long loadedFxVersion;
+        synchronized (this) {
+            long currentFxVersion = fxRateService.getVersion();
+            if (currentFxVersion != fxVersion) {
+                users.clear();
+                fxVersion = currentFxVersion;
+            }
+            loadedFxVersion = fxVersion;
+            Map<YearMonth, Sketches> cached = users.get(userId);
+            for (YearMonth month = first; month.isBefore(end); month = month.plusMonths(1)) {
+                Sketches sketches = cached != null ? cached.get(month) : null;
+                if (sketches != null) {
+                    result.put(month, sketches.copy());
+                } else {
+                    firstMissing = firstMissing == null ? month : firstMissing;
+                    lastMissing = month;
+                }
+            }
+            generation = getGeneration(userId);
+        }
+        if (firstMissing == null) {
+            return result;
+        }
+
+        Map<YearMonth, Sketches> loaded = new HashMap<>();
+        FxRateTable rates = fxRateService.getTable();
+        query(userId, firstMissing.atDay(1), lastMissing.plusMonths(1).atDay(1), (vendor, currency, day, amount, count) -> {
+            YearMonth month = YearMonth.from(day);
+            if (!result.containsKey(month)) {
+                loaded.computeIfAbsent(month, m -> Sketches.empty(capacity, false))
+                        .add(vendor, currency, day, amount, count, rates);
+            }
+        });
+        for (YearMonth month = firstMissing; !month.isAfter(lastMissing); month = month.plusMonths(1)) {
+            if (!result.containsKey(month)) {
+                loaded.putIfAbsent(month, Sketches.empty(capacity, false));
+            }
+        }
+        log.debug("Loaded vendor sketches for {} months for user {}", loaded.size(), userId);
+
+        synchronized (this) {
+            // A write committed while loading may or may not be in what we read, and rates changed
+            // meanwhile may or may not be in what we converted; use it once, don't keep it
+            if (generation == getGeneration(userId) && fxVersion == loadedFxVersion
+                    && fxRateService.getVersion() == loadedFxVersion) {
+                Map<YearMonth, Sketches> cached = users.computeIfAbsent(userId, k -> new HashMap<>());
+                for (Map.Entry<YearMonth, Sketches> entry : loaded.entrySet()) {
+                    cached.putIfAbsent(entry.getKey(), entry.getValue().copy());
+                }
+                while (users.size() > maxUsers) {
+                    users.remove(users.keySet().iterator().next());
+                }
+            }
+        }
+        result.putAll(loaded);
+        return result;
+    }
+
+    private Sketches countExactly(UUID userId, LocalDate startDay, LocalDate endDay) {
+        FxRateTable rates = fxRateService.getTable();
+        Sketches sketches = Sketches.empty(Integer.MAX_VALUE, true);
+        query(userId, startDay, endDay, (vendor, currency, day, amount, count) ->
+                sketches.add(vendor, currency, day, amount, count, rates));
+        return sketches;
+    }
+
+    private void query(UUID userId, LocalDate startDay, LocalDate endDay, VendorDayConsumer consumer) {
+        jdbcTemplate.query(SELECT_VENDOR_DAYS, rs -> {
+            consumer.accept(rs.getString("vendor_name"), rs.getString("currency"),
+                    rs.getDate("day").toLocalDate(), rs.getBigDecimal("amount"), rs.getLong("transaction_count"));
+        }, userId, Timestamp.valueOf(startDay.atStartOfDay()), Timestamp.valueOf(endDay.atStartOfDay()));
+    }
+
+    private long getGeneration(UUID userId) {
+        AtomicLong generation = generations.get(userId);
+        return generation != null ? generation.get() : 0;
+    }
+
+    private static String vendorOf(TransactionSnapshot snapshot) {
+        return snapshot.getCanonicalVendor() != null ? snapshot.getCanonicalVendor() : snapshot.getVendor();
+    }
+
+    @FunctionalInterface
+    private interface VendorDayConsumer {
+        void accept(String vendor, String currency, LocalDate day, BigDecimal amount, long count);
+    }
+
+    /**
+     * Vendors by amount (in base-currency units at {@link ColumnarSpending#AMOUNT_SCALE}) and by
+     * transaction count. Exact when every counter has zero error.
+     */
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Sketches {
+        private final SpaceSavingSketch spend;
+        private final SpaceSavingSketch frequency;
+        private final boolean exact;
+
+        static Sketches empty(int capacity, boolean exact) {
+            return new Sketches(new SpaceSavingSketch(capacity), new SpaceSavingSketch(capacity), exact);
+        }
+
+        Sketches merge(Sketches other) {
+            return new Sketches(spend.merge(other.spend), frequency.merge(other.frequency), exact && other.exact);
+        }
+
+        Sketches copy() {
+            return merge(empty(1, exact));
+        }
+
+        void add(String vendor, String currency, LocalDate day, BigDecimal amount, long count, FxRateTable rates) {
+            if (vendor == null || vendor.isBlank()) {
+                return;
+            }
+            if (count > 0) {
+                frequency.add(vendor, count);
+            }
+            BigDecimal converted = rates.convert(amount, currency, FxRateTable.BASE_CURRENCY, day);
+            if (converted != null) {
+                long units = ColumnarSpending.toUnscaled(converted);
+                if (units > 0) {
+                    spend.add(vendor, units);
+                }
+            }
+        }
+    }
+}
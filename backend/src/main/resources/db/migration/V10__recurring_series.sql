@@ -0,0 +1,17 @@
+-- Recurring payments found by the recurrence detector, one per (user, vendor, currency)
+CREATE TABLE IF NOT EXISTS recurring_series (
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    vendor VARCHAR(255) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    pattern VARCHAR(20) NOT NULL,
+    expected_amount DECIMAL(19, 4) NOT NULL,
+    occurrences INTEGER NOT NULL,
+    last_date DATE NOT NULL,
+    next_expected_date DATE NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (user_id, vendor, currency)
+);
+
+-- One vendor's transactions in date order, re-read whenever one of them changes
+CREATE INDEX IF NOT EXISTS idx_transactions_user_vendor_key_date
+    ON transactions (user_id, (COALESCE(canonical_vendor, vendor)), transaction_date);
@@ -0,0 +1,48 @@
+-- Running amount statistics per (user, vendor or category, currency), updated with Welford's method on every new transaction
+CREATE TABLE IF NOT EXISTS transaction_stats (
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    scope VARCHAR(10) NOT NULL, -- VENDOR or CATEGORY
+    stats_key VARCHAR(255) NOT NULL, -- Vendor name or category ID
+    currency VARCHAR(3) NOT NULL,
+    observations BIGINT NOT NULL,
+    mean DOUBLE PRECISION NOT NULL,
+    -- Sum of squared differences from the mean
+    m2 DOUBLE PRECISION NOT NULL,
+    last_amount DOUBLE PRECISION NOT NULL,
+    last_day DATE NOT NULL,
+    PRIMARY KEY (user_id, scope, stats_key, currency)
+);
+
+-- Backfill from existing transactions
+INSERT INTO transaction_stats (user_id, scope, stats_key, currency, observations, mean, m2, last_amount, last_day)
+SELECT user_id, 'VENDOR', COALESCE(canonical_vendor, vendor), currency, COUNT(*), AVG(amount),
+       COALESCE(VAR_POP(amount), 0) * COUNT(*),
+       (ARRAY_AGG(amount ORDER BY transaction_date DESC))[1], MAX(CAST(transaction_date AS DATE))
+FROM transactions
+WHERE amount > 0
+GROUP BY user_id, COALESCE(canonical_vendor, vendor), currency;
+
+INSERT INTO transaction_stats (user_id, scope, stats_key, currency, observations, mean, m2, last_amount, last_day)
+SELECT user_id, 'CATEGORY', CAST(category_id AS VARCHAR), currency, COUNT(*), AVG(amount),
+       COALESCE(VAR_POP(amount), 0) * COUNT(*),
+       (ARRAY_AGG(amount ORDER BY transaction_date DESC))[1], MAX(CAST(transaction_date AS DATE))
+FROM transactions
+WHERE amount > 0 AND category_id IS NOT NULL
+GROUP BY user_id, category_id, currency;
+
+-- Transactions flagged as unusual when they arrived
+CREATE TABLE IF NOT EXISTS transaction_anomalies (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    transaction_id UUID NOT NULL REFERENCES transactions(id) ON DELETE CASCADE,
+    anomaly_type VARCHAR(20) NOT NULL,
+    amount DECIMAL(19, 4) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    expected_amount DECIMAL(19, 4) NOT NULL,
+    score DOUBLE PRECISION,
+    dismissed BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_transaction_anomalies_user_created ON transaction_anomalies(user_id, created_at DESC) WHERE dismissed = FALSE;
+CREATE INDEX idx_transaction_anomalies_transaction_id ON transaction_anomalies(transaction_id);
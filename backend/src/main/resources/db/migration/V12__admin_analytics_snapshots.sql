@@ -0,0 +1,27 @@
+-- Cross-user statistics, computed on demand by the admin analytics job and kept for comparison
+CREATE TABLE IF NOT EXISTS admin_analytics_snapshots (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    currency VARCHAR(3) NOT NULL,
+    total_amount DECIMAL(19, 4) NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    user_count BIGINT NOT NULL,
+    active_user_count BIGINT NOT NULL,
+    active_since DATE NOT NULL,
+    slice_count INTEGER NOT NULL,
+    parallelism INTEGER NOT NULL,
+    duration_ms BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_admin_analytics_snapshots_created_at ON admin_analytics_snapshots(created_at DESC);
+
+-- Per-category totals of a snapshot; category_id is null for uncategorized spending
+CREATE TABLE IF NOT EXISTS admin_analytics_snapshot_categories (
+    snapshot_id UUID NOT NULL REFERENCES admin_analytics_snapshots(id) ON DELETE CASCADE,
+    category_id UUID,
+    amount DECIMAL(19, 4) NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    user_count BIGINT NOT NULL
+);
+
+CREATE INDEX idx_admin_analytics_snapshot_categories_snapshot_id ON admin_analytics_snapshot_categories(snapshot_id);
@@ -0,0 +1,2 @@
+-- Cursor pagination of a user's transactions, newest first; id breaks ties between equal dates
+CREATE INDEX IF NOT EXISTS idx_transactions_user_date_id ON transactions(user_id, transaction_date DESC, id DESC);
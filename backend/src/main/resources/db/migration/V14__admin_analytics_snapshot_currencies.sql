@@ -0,0 +1,9 @@
+-- Per-currency totals of a snapshot in the original currency; converted_amount is null for a
+-- currency without exchange rates, whose spending is left out of the snapshot's totals
+CREATE TABLE IF NOT EXISTS admin_analytics_snapshot_currencies (
+    snapshot_id UUID NOT NULL REFERENCES admin_analytics_snapshots(id) ON DELETE CASCADE,
+    currency VARCHAR(3) NOT NULL,
+    amount DECIMAL(19, 4) NOT NULL,
+    converted_amount DECIMAL(19, 4),
+    PRIMARY KEY (snapshot_id, currency)
+);
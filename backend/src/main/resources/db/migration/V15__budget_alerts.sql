@@ -0,0 +1,16 @@
+-- Alert thresholds reached by a budget's spending, written in the same transaction as the spending
+CREATE TABLE IF NOT EXISTS budget_alerts (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    budget_id UUID NOT NULL REFERENCES budgets(id) ON DELETE CASCADE,
+    period_start DATE NOT NULL,
+    threshold_percent INTEGER NOT NULL,
+    spent DECIMAL(19, 4) NOT NULL,
+    limit_amount DECIMAL(19, 4) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    dismissed BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_budget_alerts_user_created ON budget_alerts(user_id, created_at DESC) WHERE dismissed = FALSE;
+CREATE INDEX idx_budget_alerts_budget_id ON budget_alerts(budget_id);
@@ -0,0 +1,12 @@
+-- Recurring share of each rollup row, so forecasts net recurring spending out without scanning transactions
+ALTER TABLE daily_spend ADD COLUMN IF NOT EXISTS recurring_amount DECIMAL(19, 4) NOT NULL DEFAULT 0;
+ALTER TABLE daily_spend ADD COLUMN IF NOT EXISTS recurring_count BIGINT NOT NULL DEFAULT 0;
+
+-- Rebuild from transactions; this also drops rows left behind by deleted categories
+DELETE FROM daily_spend;
+
+INSERT INTO daily_spend (user_id, day, category_id, currency, amount, transaction_count, recurring_amount, recurring_count)
+SELECT user_id, CAST(transaction_date AS DATE), category_id, currency, SUM(amount), COUNT(*),
+       COALESCE(SUM(amount) FILTER (WHERE recurring), 0), COUNT(*) FILTER (WHERE recurring)
+FROM transactions
+GROUP BY user_id, CAST(transaction_date AS DATE), category_id, currency;
@@ -0,0 +1,19 @@
+-- User-defined categorization rules; the built-in keyword rules remain the fallback
+CREATE TABLE IF NOT EXISTS category_rules (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    category_id UUID NOT NULL REFERENCES categories(id) ON DELETE CASCADE,
+    match_type VARCHAR(50) NOT NULL,
+    pattern VARCHAR(255),
+    min_amount DECIMAL(19, 4),
+    max_amount DECIMAL(19, 4),
+    priority INTEGER NOT NULL DEFAULT 100,
+    enabled BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_category_rules_user_id ON category_rules(user_id);
+
+-- Email sender of ingested transactions, so sender rules can be re-applied later
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS sender VARCHAR(255);
@@ -0,0 +1,10 @@
+-- Per-user vendor-to-category memory, learned from manual recategorization
+CREATE TABLE IF NOT EXISTS vendor_categories (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    vendor_key VARCHAR(255) NOT NULL,
+    category_id UUID NOT NULL REFERENCES categories(id) ON DELETE CASCADE,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    UNIQUE(user_id, vendor_key)
+);
@@ -0,0 +1,19 @@
+-- Background re-categorization jobs; the cursor lets an interrupted job resume where it stopped
+CREATE TABLE IF NOT EXISTS recategorization_jobs (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID REFERENCES users(id) ON DELETE CASCADE,
+    status VARCHAR(50) NOT NULL DEFAULT 'PENDING',
+    last_transaction_id UUID,
+    total_count BIGINT NOT NULL DEFAULT 0,
+    scanned_count BIGINT NOT NULL DEFAULT 0,
+    updated_count BIGINT NOT NULL DEFAULT 0,
+    error_message TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    completed_at TIMESTAMP
+);
+
+CREATE INDEX idx_recategorization_jobs_status ON recategorization_jobs(status);
+
+-- Keyset scans of one user's transactions in id order
+CREATE INDEX IF NOT EXISTS idx_transactions_user_id_id ON transactions(user_id, id);
@@ -0,0 +1,15 @@
+-- Canonical merchant name, so variants like "AMZN Mktp US*2K3" and "Amazon.com" aggregate together
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS canonical_vendor VARCHAR(255);
+
+CREATE INDEX IF NOT EXISTS idx_transactions_user_canonical_vendor ON transactions(user_id, canonical_vendor);
+
+-- Per-user vendor aliases, applied before the built-in merchant list
+CREATE TABLE IF NOT EXISTS vendor_aliases (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    alias_key VARCHAR(255) NOT NULL,
+    canonical_vendor VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    UNIQUE(user_id, alias_key)
+);
@@ -0,0 +1,24 @@
+-- Daily spending rollup, maintained on every transaction write; analytics read this instead of transactions
+CREATE TABLE IF NOT EXISTS daily_spend (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    day DATE NOT NULL,
+    -- No foreign key: rows for a deleted category read as uncategorized until the next rebuild
+    category_id UUID,
+    currency VARCHAR(3) NOT NULL,
+    amount DECIMAL(19, 4) NOT NULL DEFAULT 0,
+    transaction_count BIGINT NOT NULL DEFAULT 0
+);
+
+-- One row per (user, day, category, currency); uncategorized spending uses the all-zero UUID
+CREATE UNIQUE INDEX uq_daily_spend_key ON daily_spend (
+    user_id, day, (COALESCE(category_id, CAST('00000000-0000-0000-0000-000000000000' AS UUID))), currency);
+
+-- Backfill from existing transactions
+INSERT INTO daily_spend (user_id, day, category_id, currency, amount, transaction_count)
+SELECT user_id, CAST(transaction_date AS DATE), category_id, currency, SUM(amount), COUNT(*)
+FROM transactions
+GROUP BY user_id, CAST(transaction_date AS DATE), category_id, currency;
+
+-- Recurring counts are still taken from transactions
+CREATE INDEX IF NOT EXISTS idx_transactions_user_recurring ON transactions(user_id) WHERE recurring = TRUE;
@@ -0,0 +1,10 @@
+-- Dated exchange rates: units of USD per one unit of the currency
+CREATE TABLE IF NOT EXISTS fx_rates (
+    currency VARCHAR(3) NOT NULL,
+    rate_date DATE NOT NULL,
+    rate DECIMAL(19, 8) NOT NULL CHECK (rate > 0),
+    PRIMARY KEY (currency, rate_date)
+);
+
+-- Currency analytics are reported in
+ALTER TABLE users ADD COLUMN IF NOT EXISTS reporting_currency VARCHAR(3) NOT NULL DEFAULT 'USD';
@@ -0,0 +1,24 @@
+-- Spending limits per user, optionally for one category (and its subcategories)
+CREATE TABLE IF NOT EXISTS budgets (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    category_id UUID REFERENCES categories(id) ON DELETE CASCADE,
+    period VARCHAR(20) NOT NULL,
+    limit_amount DECIMAL(19, 4) NOT NULL CHECK (limit_amount > 0),
+    currency VARCHAR(3) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_budgets_user_id ON budgets(user_id);
+
+-- Running total of each budget per period, created on first read and kept current on every transaction write
+CREATE TABLE IF NOT EXISTS budget_periods (
+    budget_id UUID NOT NULL REFERENCES budgets(id) ON DELETE CASCADE,
+    period_start DATE NOT NULL,
+    spent DECIMAL(19, 4) NOT NULL DEFAULT 0,
+    transaction_count BIGINT NOT NULL DEFAULT 0,
+    -- Highest alert threshold (percent of the limit) reached so far
+    notified_percent INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (budget_id, period_start)
+);
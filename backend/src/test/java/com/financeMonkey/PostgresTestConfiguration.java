@@ -0,0 +1,21 @@
+package com.financeMonkey;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * A PostgreSQL server for tests of queries H2 cannot run (GROUPING SETS, arrays, row locks).
+ * Flyway builds the schema, so these tests also check the migrations against the entities.
+ * Test classes importing this should be annotated {@code @Testcontainers(disabledWithoutDocker = true)}.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class PostgresTestConfiguration {
+
+    @Bean
+    @ServiceConnection
+    PostgreSQLContainer<?> postgresContainer() {
+        return new PostgreSQLContainer<>("postgres:16-alpine");
+    }
+}
@@ -0,0 +1,80 @@
+package com.financeMonkey.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnomalyDetectorTest {
+
+    private static final int DAY = 19_000;
+
+    @Test
+    void runningStats_ShouldMatchTwoPassMeanAndVariance() {
+        Random random = new Random(7);
+        double[] amounts = new double[1000];
+        RunningStats stats = new RunningStats();
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = 1_000_000 + random.nextGaussian() * 25;
+            stats.add(amounts[i], DAY + i);
+        }
+
+        double mean = 0;
+        for (double amount : amounts) {
+            mean += amount / amounts.length;
+        }
+        double squares = 0;
+        for (double amount : amounts) {
+            squares += (amount - mean) * (amount - mean);
+        }
+        assertEquals(1000, stats.getCount());
+        assertEquals(mean, stats.getMean(), 1e-6);
+        assertEquals(squares / (amounts.length - 1), stats.getVariance(), 1e-3);
+        assertEquals(amounts[amounts.length - 1], stats.getLastAmount());
+    }
+
+    @Test
+    void detect_WithSubscriptionTripled_ShouldFlagVendorSpike() {
+        RunningStats vendor = monthly(9.99, 12);
+
+        AnomalyDetector.Finding finding = AnomalyDetector.detect(vendor, null, 29.97, DAY + 400);
+
+        assertNotNull(finding);
+        assertEquals(AnomalyDetector.Type.VENDOR_SPIKE, finding.getType());
+        assertEquals(9.99, finding.getExpectedAmount(), 1e-9);
+        assertNull(AnomalyDetector.detect(vendor, null, 10.49, DAY + 400));
+    }
+
+    @Test
+    void detect_WithSameAmountWithinWindow_ShouldFlagDuplicate() {
+        RunningStats vendor = monthly(54.20, 3);
+
+        AnomalyDetector.Finding finding = AnomalyDetector.detect(vendor, null, 54.20, vendor.getLastDay() + 1);
+
+        assertEquals(AnomalyDetector.Type.DUPLICATE, finding.getType());
+        assertNull(finding.getScore());
+        assertNull(AnomalyDetector.detect(vendor, null, 54.20, vendor.getLastDay() + 30));
+    }
+
+    @Test
+    void detect_WithNewVendor_ShouldFallBackToCategory() {
+        RunningStats category = new RunningStats();
+        for (int i = 0; i < 20; i++) {
+            category.add(20 + i % 7 * 5, DAY + i);
+        }
+
+        assertEquals(AnomalyDetector.Type.CATEGORY_SPIKE,
+                AnomalyDetector.detect(new RunningStats(), category, 400, DAY + 30).getType());
+        assertNull(AnomalyDetector.detect(new RunningStats(), category, 45, DAY + 30));
+        assertNull(AnomalyDetector.detect(null, null, 400, DAY + 30));
+    }
+
+    private static RunningStats monthly(double amount, int months) {
+        RunningStats stats = new RunningStats();
+        for (int i = 0; i < months; i++) {
+            stats.add(amount, DAY + i * 30);
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,141 @@
+package com.financeMonkey.engine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarSpendingTest {
+
+    private static final LocalDate JAN_1 = LocalDate.of(2024, 1, 1);
+
+    private UUID food;
+    private ColumnarSpending spending;
+
+    @BeforeEach
+    void setUp() {
+        food = UUID.randomUUID();
+        spending = ColumnarSpending.builder()
+                .add(row(JAN_1.plusDays(10), "5.00", food, "Starbucks"))
+                .add(row(JAN_1, "12.34", food, "Chipotle"))
+                .add(row(JAN_1, "7.66", null, "Amazon"))
+                .add(row(JAN_1.plusDays(31), "100.00", food, "Costco"))
+                .build();
+    }
+
+    @Test
+    void sum_ShouldCoverHalfOpenDayRange() {
+        assertEquals(new BigDecimal("20.0000"), ColumnarSpending.toAmount(spending.sum(JAN_1, JAN_1.plusDays(1))));
+        assertEquals(new BigDecimal("25.0000"), ColumnarSpending.toAmount(spending.sum(JAN_1, JAN_1.plusDays(31))));
+        assertEquals(0, spending.sum(JAN_1.minusDays(5), JAN_1));
+    }
+
+    @Test
+    void forEachDayAndCategory_ShouldAggregateWithinEachDay() {
+        List<String> groups = new ArrayList<>();
+        spending.forEachDayAndCategory(JAN_1, JAN_1.plusDays(31), (day, categoryId, currency, amount, count, recurringAmount) ->
+                groups.add(LocalDate.ofEpochDay(day) + " " + (categoryId == food ? "food" : categoryId)
+                        + " " + currency + " " + ColumnarSpending.toAmount(amount) + " x" + count));
+
+        assertEquals(List.of(
+                "2024-01-01 food USD 12.3400 x1",
+                "2024-01-01 null USD 7.6600 x1",
+                "2024-01-11 food USD 5.0000 x1"), groups);
+    }
+
+    @Test
+    void forEachDayAndCategory_ShouldCarryTheRecurringPartOfEachGroup() {
+        ColumnarSpending columns = ColumnarSpending.builder()
+                .add(row(JAN_1, "10.00", food, "Grocer"))
+                .add(new ColumnarSpending.Row(JAN_1, new BigDecimal("15.00"), food, "Netflix", "USD", true))
+                .build();
+        List<String> groups = new ArrayList<>();
+        columns.forEachDayAndCategory(JAN_1, JAN_1.plusDays(1), (day, categoryId, currency, amount, count, recurringAmount) ->
+                groups.add(ColumnarSpending.toAmount(amount) + " x" + count
+                        + " recurring " + ColumnarSpending.toAmount(recurringAmount)));
+
+        assertEquals(List.of("25.0000 x2 recurring 15.0000"), groups);
+    }
+
+    @Test
+    void withRowAndWithoutRow_ShouldKeepAggregatesConsistent() {
+        ColumnarSpending added = spending.withRow(row(JAN_1.plusDays(10), "1.00", UUID.randomUUID(), "New Vendor"));
+        assertEquals(5, added.size());
+        assertEquals(4, spending.size());
+        assertEquals(new BigDecimal("6.0000"), ColumnarSpending.toAmount(added.sum(JAN_1.plusDays(10), JAN_1.plusDays(11))));
+
+        ColumnarSpending removed = added.withoutRow(row(JAN_1, "12.34", food, "Chipotle"));
+        assertEquals(4, removed.size());
+        assertEquals(new BigDecimal("7.6600"), ColumnarSpending.toAmount(removed.sum(JAN_1, JAN_1.plusDays(1))));
+
+        assertSame(removed, removed.withoutRow(row(JAN_1, "99.99", food, "Chipotle")));
+    }
+
+    @Test
+    void withChanges_ShouldMatchApplyingEachRowInTurn() {
+        UUID travel = UUID.randomUUID();
+        List<ColumnarSpending.Row> removed = List.of(
+                row(JAN_1, "12.34", food, "Chipotle"),
+                row(JAN_1, "12.34", food, "Chipotle"),
+                row(JAN_1.plusDays(31), "100.00", food, "Costco"));
+        List<ColumnarSpending.Row> added = List.of(
+                row(JAN_1.plusDays(40), "250.00", travel, "Delta"),
+                row(JAN_1.minusDays(3), "4.50", food, "Starbucks"),
+                row(JAN_1.plusDays(10), "2.00", null, null),
+                new ColumnarSpending.Row(JAN_1, new BigDecimal("9.00"), travel, "Delta", "EUR", true));
+
+        ColumnarSpending expected = spending;
+        for (ColumnarSpending.Row row : removed) {
+            expected = expected.withoutRow(row);
+        }
+        for (ColumnarSpending.Row row : added) {
+            expected = expected.withRow(row);
+        }
+        ColumnarSpending batched = spending.withChanges(removed, added);
+
+        assertEquals(expected.size(), batched.size());
+        assertEquals(expected.getRecurringCount(), batched.getRecurringCount());
+        assertEquals(groups(expected), groups(batched));
+        assertEquals(vendors(expected), vendors(batched));
+        assertSame(spending, spending.withChanges(List.of(row(JAN_1, "99.99", food, "Chipotle")), List.of()));
+    }
+
+    @Test
+    void forEachVendor_ShouldGroupByVendor() {
+        Map<String, Long> byVendor = new HashMap<>();
+        spending.withRow(row(JAN_1.plusDays(2), "3.00", food, "Starbucks"))
+                .forEachVendor(JAN_1, JAN_1.plusDays(60), (vendor, amount, count) -> byVendor.put(vendor, count));
+
+        assertEquals(2L, byVendor.get("Starbucks"));
+        assertEquals(1L, byVendor.get("Costco"));
+        assertEquals(4, byVendor.size());
+    }
+
+    private static List<String> groups(ColumnarSpending columns) {
+        List<String> groups = new ArrayList<>();
+        columns.forEachDayAndCategory(JAN_1.minusDays(30), JAN_1.plusDays(60),
+                (day, categoryId, currency, amount, count, recurringAmount) ->
+                        groups.add(day + " " + categoryId + " " + currency + " " + amount + " x" + count
+                                + " recurring " + recurringAmount));
+        return groups;
+    }
+
+    private static Map<String, String> vendors(ColumnarSpending columns) {
+        Map<String, String> vendors = new HashMap<>();
+        columns.forEachVendor(JAN_1.minusDays(30), JAN_1.plusDays(60), (vendor, amount, count) ->
+                vendors.put(vendor, amount + " x" + count));
+        return vendors;
+    }
+
+    private static ColumnarSpending.Row row(LocalDate day, String amount, UUID categoryId, String vendor) {
+        return new ColumnarSpending.Row(day, new BigDecimal(amount), categoryId, vendor, "USD", false);
+    }
+}
@@ -0,0 +1,40 @@
+package com.financeMonkey.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FxRateTableTest {
+
+    private final FxRateTable rates = FxRateTable.builder()
+            .add("EUR", LocalDate.of(2024, 1, 2), new BigDecimal("1.10"))
+            .add("EUR", LocalDate.of(2024, 1, 5), new BigDecimal("1.20"))
+            .add("GBP", LocalDate.of(2024, 1, 2), new BigDecimal("1.25"))
+            .build();
+
+    @Test
+    void convert_ShouldUseLatestRateOnOrBeforeTheDay() {
+        assertEquals(new BigDecimal("110.00"), rates.convert(new BigDecimal("100.00"), "EUR", "USD", LocalDate.of(2024, 1, 4)));
+        assertEquals(new BigDecimal("120.00"), rates.convert(new BigDecimal("100.00"), "EUR", "USD", LocalDate.of(2024, 1, 5)));
+        assertEquals(new BigDecimal("120.00"), rates.convert(new BigDecimal("100.00"), "eur", "USD", LocalDate.of(2024, 3, 1)));
+        assertEquals(new BigDecimal("110.00"), rates.convert(new BigDecimal("100.00"), "EUR", "USD", LocalDate.of(2023, 12, 1)));
+    }
+
+    @Test
+    void convert_ShouldCrossThroughTheBaseCurrency() {
+        assertEquals(new BigDecimal("88.00"), rates.convert(new BigDecimal("100.00"), "EUR", "GBP", LocalDate.of(2024, 1, 2)));
+        assertEquals(new BigDecimal("80.00"), rates.convert(new BigDecimal("100.00"), "USD", "GBP", LocalDate.of(2024, 1, 2)));
+    }
+
+    @Test
+    void convert_WithUnknownCurrency_ShouldReturnNull() {
+        BigDecimal amount = new BigDecimal("5.00");
+        assertNull(rates.convert(amount, "JPY", "USD", LocalDate.of(2024, 1, 2)));
+        assertFalse(rates.canConvert("JPY", "USD"));
+        assertTrue(rates.canConvert("EUR", "GBP"));
+        assertSame(amount, FxRateTable.empty().convert(amount, "JPY", "JPY", LocalDate.of(2024, 1, 2)));
+    }
+}
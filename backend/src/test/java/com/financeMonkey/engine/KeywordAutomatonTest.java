@@ -0,0 +1,65 @@
+package com.financeMonkey.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeywordAutomatonTest {
+
+    private static final UUID BILLS = UUID.fromString("a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a11");
+    private static final UUID FOOD = UUID.fromString("a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a12");
+    private static final UUID SHOPPING = UUID.fromString("a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a13");
+
+    @Test
+    void bestMatch_WithOverlappingKeywords_ShouldReturnLowestRuleId() {
+        KeywordAutomaton automaton = KeywordAutomaton.builder()
+                .add("he", 2)
+                .add("she", 1)
+                .add("hers", 0)
+                .build();
+
+        assertEquals(1, automaton.bestMatch("ushe"));
+        assertEquals(0, automaton.bestMatch("ushers"));
+        assertEquals(KeywordAutomaton.NO_MATCH, automaton.bestMatch("xyz"));
+    }
+
+    @Test
+    void bestMatch_ShouldIgnoreCase() {
+        KeywordAutomaton automaton = KeywordAutomaton.builder().add("Home Depot", 0).build();
+
+        assertEquals(0, automaton.bestMatch("THE HOME DEPOT #123"));
+    }
+
+    @Test
+    void bestMatch_WithPredicate_ShouldSkipRejectedRules() {
+        KeywordAutomaton automaton = KeywordAutomaton.builder()
+                .add("coffee", 0)
+                .add("coffee", 1)
+                .build();
+
+        assertEquals(1, automaton.bestMatch("blue bottle coffee", KeywordAutomaton.NO_MATCH, id -> id != 0));
+    }
+
+    @Test
+    void defaultRules_ShouldKeepCategoryPriorityOrder() {
+        KeywordAutomaton automaton = DefaultCategoryRules.compile();
+
+        // "bill" (Bills) outranks "amazon" (Shopping) regardless of position
+        assertEquals(BILLS, DefaultCategoryRules.categoryId(automaton.bestMatch("amazon bill")));
+        assertEquals(FOOD, DefaultCategoryRules.categoryId(automaton.bestMatch("Starbucks Store 10432")));
+        assertEquals(SHOPPING, DefaultCategoryRules.categoryId(automaton.bestMatch("walmart.com")));
+        assertNull(DefaultCategoryRules.categoryId(automaton.bestMatch("zzz")));
+    }
+
+    @Test
+    void bestMatch_WithPreviousResult_ShouldChainFields() {
+        KeywordAutomaton automaton = DefaultCategoryRules.compile();
+
+        int vendorMatch = automaton.bestMatch("Amazon");
+        int combined = automaton.bestMatch("monthly internet bill", vendorMatch, null);
+
+        assertEquals(BILLS, DefaultCategoryRules.categoryId(combined));
+    }
+}
@@ -0,0 +1,86 @@
+package com.financeMonkey.engine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyTokenizerTest {
+
+    private MoneyTokenizer.Match match;
+
+    @BeforeEach
+    void setUp() {
+        match = new MoneyTokenizer.Match();
+    }
+
+    @Test
+    void findBest_WithEuropeanSeparators_ShouldParseDecimalComma() {
+        assertTrue(MoneyTokenizer.findBest("Montant total : 1.234,56 € TTC", match));
+
+        assertEquals(new BigDecimal("1234.56"), match.toBigDecimal());
+        assertEquals("EUR", match.getCurrency());
+    }
+
+    @Test
+    void findBest_WithIndianGrouping_ShouldParseLakhs() {
+        assertTrue(MoneyTokenizer.findBest("Amount paid ₹1,23,456.00 via UPI", match));
+
+        assertEquals(new BigDecimal("123456.00"), match.toBigDecimal());
+        assertEquals("INR", match.getCurrency());
+    }
+
+    @Test
+    void findBest_WithYenAndNoDecimals_ShouldParseWholeAmount() {
+        assertTrue(MoneyTokenizer.findBest("Order total ¥1200 (tax included)", match));
+
+        assertEquals(new BigDecimal("1200"), match.toBigDecimal());
+        assertEquals("JPY", match.getCurrency());
+    }
+
+    @Test
+    void findBest_WithIsoCodeSuffix_ShouldUseCode() {
+        assertTrue(MoneyTokenizer.findBest("Gesamtbetrag 89,90 EUR inkl. MwSt.", match));
+
+        assertEquals(new BigDecimal("89.90"), match.toBigDecimal());
+        assertEquals("EUR", match.getCurrency());
+    }
+
+    @Test
+    void findBest_WithReceiptLines_ShouldPreferTotalOverSubtotalAndTax() {
+        String receipt = "Subtotal $40.00 Shipping $5.00 Tax $3.20 Total $48.20";
+
+        assertTrue(MoneyTokenizer.findBest(receipt, match));
+
+        assertEquals(new BigDecimal("48.20"), match.toBigDecimal());
+        assertEquals("USD", match.getCurrency());
+    }
+
+    @Test
+    void findBest_WithDatesAndOrderNumbersOnly_ShouldReturnUnknown() {
+        assertFalse(MoneyTokenizer.findBest("Order #12345 placed on 2024-01-05 at 10:30", match));
+
+        assertFalse(match.isFound());
+        assertNull(match.toBigDecimal());
+        assertEquals(MoneyTokenizer.UNKNOWN_CURRENCY, match.getCurrency());
+    }
+
+    @Test
+    void findBest_WithLabelButNoCurrency_ShouldReportUnknownCurrency() {
+        assertTrue(MoneyTokenizer.findBest("SUBTOTAL 54.12 TAX 3.79 TOTAL 57.91", match));
+
+        assertEquals(new BigDecimal("57.91"), match.toBigDecimal());
+        assertFalse(match.hasCurrency());
+        assertEquals(MoneyTokenizer.UNKNOWN_CURRENCY, match.getCurrency());
+    }
+
+    @Test
+    void findBest_WithDebitAndBalance_ShouldIgnoreBalance() {
+        assertTrue(MoneyTokenizer.findBest("Rs. 499 debited from XX1234. Avl bal Rs. 12,345.67", match));
+
+        assertEquals(new BigDecimal("499"), match.toBigDecimal());
+        assertEquals("INR", match.getCurrency());
+    }
+}
@@ -0,0 +1,107 @@
+package com.financeMonkey.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecurrenceDetectorTest {
+
+    private static final LocalDate START = LocalDate.of(2023, 1, 15);
+
+    @Test
+    void detect_ShouldFindMonthlySubscriptionAmongOneOffPurchases() {
+        List<LocalDate> days = new ArrayList<>();
+        List<Long> amounts = new ArrayList<>();
+        for (int month = 0; month < 12; month++) {
+            days.add(START.plusMonths(month));
+            amounts.add(2_9900L);
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < 15; i++) {
+            days.add(START.plusDays(random.nextInt(360)));
+            amounts.add(10_0000L + random.nextInt(900_0000));
+        }
+
+        Series series = sorted(days, amounts);
+        RecurrenceDetector.Result result = RecurrenceDetector.detect(series.days, series.amounts, START.plusMonths(12));
+
+        assertNotNull(result);
+        assertEquals(RecurrenceDetector.Pattern.MONTHLY, result.getPattern());
+        assertEquals(12, result.getOccurrences());
+        assertEquals(2_9900L, result.getExpectedAmount());
+        assertEquals(START.plusMonths(12), result.getNextExpectedDay());
+        assertTrue(result.isActive());
+        for (int i = 0; i < series.days.length; i++) {
+            assertEquals(series.amounts[i] == 2_9900L, result.isMember(i));
+        }
+    }
+
+    @Test
+    void detect_ShouldAcceptVaryingBillsAndDriftingDates() {
+        int[] days = new int[8];
+        long[] amounts = new long[8];
+        for (int i = 0; i < 8; i++) {
+            days[i] = (int) START.plusWeeks(2 * i).plusDays(i % 2).toEpochDay();
+            amounts[i] = 50_0000L + (i % 3) * 5_0000L;
+        }
+
+        RecurrenceDetector.Result result = RecurrenceDetector.detect(days, amounts, null);
+
+        assertNotNull(result);
+        assertEquals(RecurrenceDetector.Pattern.BIWEEKLY, result.getPattern());
+        assertEquals(8, result.getOccurrences());
+    }
+
+    @Test
+    void detect_WithIrregularGaps_ShouldReturnNull() {
+        int[] days = {0, 3, 40, 41, 90, 200};
+        long[] amounts = {1_0000L, 1_0000L, 1_0000L, 1_0000L, 1_0000L, 1_0000L};
+        assertNull(RecurrenceDetector.detect(days, amounts, null));
+        assertNull(RecurrenceDetector.detect(new int[] {0, 30}, new long[] {1L, 1L}, null));
+    }
+
+    @Test
+    void detect_WhenPaymentsStopped_ShouldReportInactive() {
+        int[] days = new int[4];
+        long[] amounts = new long[4];
+        for (int i = 0; i < 4; i++) {
+            days[i] = (int) START.plusMonths(i).toEpochDay();
+            amounts[i] = 9_9900L;
+        }
+
+        RecurrenceDetector.Result result = RecurrenceDetector.detect(days, amounts, START.plusMonths(8));
+
+        assertNotNull(result);
+        assertFalse(result.isActive());
+    }
+
+    private static Series sorted(List<LocalDate> days, List<Long> amounts) {
+        Integer[] order = new Integer[days.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> days.get(a).compareTo(days.get(b)));
+        Series series = new Series(order.length);
+        for (int i = 0; i < order.length; i++) {
+            series.days[i] = (int) days.get(order[i]).toEpochDay();
+            series.amounts[i] = amounts.get(order[i]);
+        }
+        return series;
+    }
+
+    private static final class Series {
+        private final int[] days;
+        private final long[] amounts;
+
+        private Series(int size) {
+            days = new int[size];
+            amounts = new long[size];
+        }
+    }
+}
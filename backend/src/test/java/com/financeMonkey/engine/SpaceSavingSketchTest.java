@@ -0,0 +1,62 @@
+package com.financeMonkey.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpaceSavingSketchTest {
+
+    @Test
+    void top_WithinCapacity_ShouldBeExact() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(4);
+        sketch.add("Starbucks", 5);
+        sketch.add("Amazon", 20);
+        sketch.add("Starbucks", 7);
+
+        List<SpaceSavingSketch.Counter> top = sketch.top(10);
+        assertEquals(2, top.size());
+        assertEquals("Amazon", top.get(0).getKey());
+        assertEquals(20, top.get(0).getWeight());
+        assertEquals(12, top.get(1).getWeight());
+        assertEquals(0, top.get(1).getError());
+        assertEquals(32, sketch.getTotal());
+    }
+
+    @Test
+    void merge_ShouldKeepHeavyHittersAndBoundTheirError() {
+        Random random = new Random(42);
+        Map<String, Long> truth = new HashMap<>();
+        SpaceSavingSketch merged = new SpaceSavingSketch(16);
+        for (int month = 0; month < 24; month++) {
+            SpaceSavingSketch sketch = new SpaceSavingSketch(16);
+            for (int i = 0; i < 500; i++) {
+                // A few heavy vendors among a long tail of one-off ones
+                String vendor = random.nextInt(4) == 0 ? "heavy-" + random.nextInt(3) : "tail-" + random.nextInt(400);
+                long weight = 1 + random.nextInt(100);
+                sketch.add(vendor, weight);
+                truth.merge(vendor, weight, Long::sum);
+            }
+            merged = merged.merge(sketch);
+        }
+
+        List<SpaceSavingSketch.Counter> top = merged.top(3);
+        assertEquals(3, top.size());
+        for (SpaceSavingSketch.Counter counter : top) {
+            assertTrue(counter.getKey().startsWith("heavy-"), counter.getKey());
+            long actual = truth.get(counter.getKey());
+            assertTrue(counter.getWeight() >= actual);
+            assertTrue(counter.getWeight() - counter.getError() <= actual);
+        }
+        assertEquals(truth.values().stream().mapToLong(Long::longValue).sum(), merged.getTotal());
+    }
+
+    @Test
+    void add_WithNonPositiveWeight_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSavingSketch(4).add("Refund", 0));
+    }
+}
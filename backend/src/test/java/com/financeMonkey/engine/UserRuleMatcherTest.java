@@ -0,0 +1,86 @@
+package com.financeMonkey.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserRuleMatcherTest {
+
+    private static final UUID GROCERIES = UUID.randomUUID();
+    private static final UUID DINING = UUID.randomUUID();
+    private static final UUID SHOPPING = UUID.randomUUID();
+    private static final UUID RENT = UUID.randomUUID();
+
+    @Test
+    void match_ShouldPreferTheHighestPriorityRuleAcrossKinds() {
+        UserRuleMatcher matcher = UserRuleMatcher.builder()
+                .add(UserRuleMatcher.Kind.VENDOR_REGEX, "^whole\\s+foods", null, null, GROCERIES)
+                .add(UserRuleMatcher.Kind.VENDOR_CONTAINS, "Foods", null, null, DINING)
+                .add(UserRuleMatcher.Kind.VENDOR_EQUALS, "amazon", null, null, SHOPPING)
+                .build();
+
+        assertEquals(GROCERIES, matcher.match("Whole Foods Market", BigDecimal.TEN, null));
+        assertEquals(DINING, matcher.match("Panera Foods", BigDecimal.TEN, null));
+        assertEquals(SHOPPING, matcher.match("  AMAZON ", BigDecimal.TEN, null));
+        assertNull(matcher.match("Amazon Marketplace", BigDecimal.TEN, null));
+    }
+
+    @Test
+    void match_ShouldApplyAmountBoundsToTheMatchedRule() {
+        UserRuleMatcher matcher = UserRuleMatcher.builder()
+                .add(UserRuleMatcher.Kind.VENDOR_CONTAINS, "transfer", new BigDecimal("1000"), null, RENT)
+                .add(UserRuleMatcher.Kind.VENDOR_CONTAINS, "transfer", null, null, SHOPPING)
+                .add(UserRuleMatcher.Kind.AMOUNT_RANGE, null, null, new BigDecimal("5"), DINING)
+                .build();
+
+        assertEquals(RENT, matcher.match("Bank Transfer", new BigDecimal("1500"), null));
+        assertEquals(SHOPPING, matcher.match("Bank Transfer", new BigDecimal("20"), null));
+        assertEquals(DINING, matcher.match("Coffee", new BigDecimal("4.50"), null));
+        assertNull(matcher.match("Coffee", null, null));
+    }
+
+    @Test
+    void match_ShouldFallBackFromSenderAddressToParentDomains() {
+        UserRuleMatcher matcher = UserRuleMatcher.builder()
+                .add(UserRuleMatcher.Kind.SENDER, "@uber.com", null, null, DINING)
+                .build();
+
+        assertEquals(DINING, matcher.match("Trip", null, "receipts@mail.uber.com"));
+        assertNull(matcher.match("Trip", null, "receipts@uber.co"));
+    }
+
+    @Test
+    void match_ShouldStopARegexThatBacktracksCatastrophically() {
+        UserRuleMatcher matcher = UserRuleMatcher.builder()
+                .add(UserRuleMatcher.Kind.VENDOR_REGEX, "^(a+)+$", null, null, GROCERIES)
+                .add(UserRuleMatcher.Kind.VENDOR_REGEX, "market", null, null, SHOPPING)
+                .build();
+
+        long start = System.nanoTime();
+        assertNull(matcher.match("a".repeat(40) + "!", BigDecimal.TEN, null));
+        assertTrue(System.nanoTime() - start < 1_000_000_000L);
+        assertEquals(GROCERIES, matcher.match("aaaa", BigDecimal.TEN, null));
+        assertEquals(SHOPPING, matcher.match("aaaa! Market", BigDecimal.TEN, null));
+    }
+
+    @Test
+    void add_ShouldRejectInvalidAndExcessSequentialRules() {
+        assertThrows(IllegalArgumentException.class, () -> UserRuleMatcher.builder()
+                .add(UserRuleMatcher.Kind.VENDOR_REGEX, "([unclosed", null, null, GROCERIES));
+        assertThrows(IllegalArgumentException.class, () -> UserRuleMatcher.builder()
+                .add(UserRuleMatcher.Kind.AMOUNT_RANGE, null, null, null, GROCERIES));
+
+        UserRuleMatcher.Builder builder = UserRuleMatcher.builder();
+        for (int i = 0; i < UserRuleMatcher.MAX_SEQUENTIAL_RULES; i++) {
+            builder.add(UserRuleMatcher.Kind.VENDOR_REGEX, "vendor" + i, null, null, GROCERIES);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.add(UserRuleMatcher.Kind.AMOUNT_RANGE, null, BigDecimal.ONE, null, GROCERIES));
+        // Index-backed rules are not capped
+        builder.add(UserRuleMatcher.Kind.VENDOR_CONTAINS, "coffee", null, null, DINING);
+        assertEquals(DINING, builder.build().match("Coffee Bar", BigDecimal.ONE, null));
+    }
+}
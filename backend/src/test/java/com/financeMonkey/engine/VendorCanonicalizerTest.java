@@ -0,0 +1,65 @@
+package com.financeMonkey.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VendorCanonicalizerTest {
+
+    private final VendorCanonicalizer canonicalizer = DefaultMerchants.compile();
+
+    @Test
+    void canonicalize_WithMarketplaceVariants_ShouldResolveToSameMerchant() {
+        assertEquals("Amazon", canonicalizer.canonicalize("AMZN Mktp US*2K3AB4"));
+        assertEquals("Amazon", canonicalizer.canonicalize("Amazon.com"));
+        assertEquals("Amazon", canonicalizer.canonicalize("amazon"));
+    }
+
+    @Test
+    void canonicalize_WithProcessorPrefix_ShouldStripPrefix() {
+        assertEquals("Netflix", canonicalizer.canonicalize("PAYPAL *NETFLIX"));
+        assertEquals("Blue Bottle Coffee", canonicalizer.canonicalize("SQ *Blue Bottle Coffee"));
+        assertEquals("Joe's Pizza", canonicalizer.canonicalize("TST* Joe's Pizza #12"));
+    }
+
+    @Test
+    void canonicalize_WithStoreNumbersAndSuffixes_ShouldDropThem() {
+        assertEquals("Walmart", canonicalizer.canonicalize("WALMART SUPERCENTER 1234"));
+        assertEquals("Acme Widgets", canonicalizer.canonicalize("Acme Widgets, Inc."));
+        assertEquals("7-Eleven", canonicalizer.canonicalize("7-Eleven 35012"));
+        assertEquals("Acme", canonicalizer.canonicalize("Acme 12AB34"));
+    }
+
+    @Test
+    void canonicalize_WithDigitsInBrandName_ShouldKeepThem() {
+        assertEquals("Forever21", canonicalizer.canonicalize("Forever21"));
+        assertEquals("7Eleven", canonicalizer.canonicalize("7Eleven"));
+        assertEquals("Route66 Diner", canonicalizer.canonicalize("Route66 Diner #7"));
+    }
+
+    @Test
+    void canonicalize_WithBlankVendor_ShouldReturnNull() {
+        assertNull(canonicalizer.canonicalize(null));
+        assertNull(canonicalizer.canonicalize("   "));
+    }
+
+    @Test
+    void builder_WithExtraAlias_ShouldResolveIt() {
+        VendorCanonicalizer custom = DefaultMerchants.builder()
+                .add("Blue Bottle", "Blue Bottle Coffee")
+                .build();
+
+        assertEquals("Blue Bottle Coffee", custom.canonicalize("SQ *BLUE BOTTLE #4"));
+    }
+
+    @Test
+    void resolve_WithAliasMap_ShouldFallBackToWordBoundaryPrefixes() {
+        Map<String, String> aliases = Map.of("corner deli", "Corner Deli");
+
+        assertEquals("Corner Deli", VendorCanonicalizer.resolve(aliases, "corner deli"));
+        assertEquals("Corner Deli", VendorCanonicalizer.resolve(aliases, "corner deli brooklyn ny"));
+        assertNull(VendorCanonicalizer.resolve(aliases, "corner delicatessen"));
+    }
+}
@@ -0,0 +1,100 @@
+package com.financeMonkey.repository;
+
+import com.financeMonkey.dto.TransactionDto;
+import com.financeMonkey.model.Category;
+import com.financeMonkey.model.Transaction;
+import com.financeMonkey.model.User;
+import com.financeMonkey.repository.projection.TransactionListItem;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.sql.init.schema-locations=classpath:h2-types.sql"
+})
+public class TransactionRepositoryTest {
+
+    private static final int TRANSACTIONS = 20;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private Statistics statistics;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(User.builder().email("list@example.com").passwordHash("hash").build());
+        userId = user.getId();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            // A category per transaction, so lazy loading would cost one query per row
+            Category category = entityManager.persist(Category.builder().name("Category " + i).build());
+            entityManager.persist(Transaction.builder()
+                    .user(user)
+                    .category(category)
+                    .transactionDate(start.plusDays(i / 2))
+                    .amount(new BigDecimal("10.00").add(BigDecimal.valueOf(i)))
+                    .vendor("Vendor " + i)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findListItemsByUserId_ShouldReadCategoryNamesWithoutLoadingEntities() {
+        Page<TransactionDto> page = transactionRepository.findListItemsByUserId(userId, PageRequest.of(0, 50))
+                .map(TransactionDto::fromListItem);
+
+        assertEquals(TRANSACTIONS, page.getNumberOfElements());
+        assertTrue(page.getContent().stream().allMatch(dto -> dto.getCategoryName().startsWith("Category ")));
+        // A first page that is not full needs no count query
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findPageAfter_ShouldContinueFromTheCursorWithOneStatementPerPage() {
+        List<TransactionListItem> first = transactionRepository.findFirstPage(userId, null, null, PageRequest.of(0, 12));
+        TransactionListItem last = first.get(first.size() - 1);
+        List<TransactionListItem> second = transactionRepository.findPageAfter(userId, last.getTransactionDate(),
+                last.getId(), null, PageRequest.of(0, 12));
+
+        assertEquals(12, first.size());
+        assertEquals(TRANSACTIONS - 12, second.size());
+        Set<UUID> ids = new HashSet<>();
+        first.forEach(item -> ids.add(item.getId()));
+        second.forEach(item -> ids.add(item.getId()));
+        assertEquals(TRANSACTIONS, ids.size());
+        assertFalse(second.get(0).getTransactionDate().isAfter(last.getTransactionDate()));
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
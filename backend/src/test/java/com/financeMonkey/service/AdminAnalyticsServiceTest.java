@@ -0,0 +1,127 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.PostgresTestConfiguration;
+import com.financeMonkey.engine.FxRateTable;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the sliced aggregation against PostgreSQL, which it needs for GROUPING SETS and
+ * exported snapshots. The slices read on their own connections, so the test data is committed
+ * rather than left in a rolled-back test transaction.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostgresTestConfiguration.class, AdminAnalyticsService.class})
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class AdminAnalyticsServiceTest {
+
+    private static final int USERS = 12;
+
+    @MockBean
+    private FxRateService fxRateService;
+
+    @MockBean
+    private CategoryCacheService categoryCacheService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AdminAnalyticsService adminAnalyticsService;
+
+    private UUID categoryId;
+
+    @BeforeEach
+    void setUp() {
+        when(fxRateService.getTable()).thenReturn(FxRateTable.empty());
+        categoryId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO categories (id, name) VALUES (?, ?)", categoryId, "Admin test");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM admin_analytics_snapshots");
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE 'admin-analytics-%'");
+        jdbcTemplate.update("DELETE FROM categories WHERE id = ?", categoryId);
+    }
+
+    @Test
+    void getLatestSnapshot_WithoutSnapshot_ShouldThrow() {
+        assertThrows(EntityNotFoundException.class, () -> adminAnalyticsService.getLatestSnapshot());
+    }
+
+    @Test
+    void computeSnapshot_ShouldMergeSlicesAndLeaveUnconvertibleAmountsOutOfTotals() {
+        Timestamp yesterday = Timestamp.valueOf(LocalDateTime.now().minusDays(1));
+        for (int i = 0; i < USERS; i++) {
+            UUID userId = user(i);
+            transaction(userId, yesterday, "10.00", "USD", categoryId);
+            transaction(userId, yesterday, "5.00", "USD", null);
+        }
+        transaction(user(USERS), yesterday, "7.00", "XYZ", null);
+
+        Map<String, Object> snapshot = adminAnalyticsService.computeSnapshot();
+
+        assertEquals(2L * USERS + 1, snapshot.get("transactionCount"));
+        assertEquals(USERS + 1L, snapshot.get("userCount"));
+        assertEquals(USERS + 1L, snapshot.get("activeUserCount"));
+        assertEquals(0, new BigDecimal("180.00").compareTo((BigDecimal) snapshot.get("totalAmount")));
+
+        Map<String, Object> category = findBy(snapshot, "categories", "categoryId", categoryId);
+        assertEquals(0, new BigDecimal("120.00").compareTo((BigDecimal) category.get("amount")));
+        assertEquals((long) USERS, category.get("userCount"));
+        Map<String, Object> uncategorized = findBy(snapshot, "categories", "categoryId", null);
+        assertEquals(0, new BigDecimal("60.00").compareTo((BigDecimal) uncategorized.get("amount")));
+        assertEquals(USERS + 1L, uncategorized.get("transactionCount"));
+
+        Map<String, Object> xyz = findBy(snapshot, "currencies", "currency", "XYZ");
+        assertEquals(false, xyz.get("converted"));
+        assertNull(xyz.get("convertedAmount"));
+        assertEquals(0, new BigDecimal("7.00").compareTo((BigDecimal) xyz.get("amount")));
+        assertEquals(true, findBy(snapshot, "currencies", "currency", "USD").get("converted"));
+    }
+
+    private UUID user(int index) {
+        UUID userId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (id, email, password_hash) VALUES (?, ?, ?)",
+                userId, "admin-analytics-" + index + "@example.com", "hash");
+        return userId;
+    }
+
+    private void transaction(UUID userId, Timestamp date, String amount, String currency, UUID category) {
+        jdbcTemplate.update("INSERT INTO transactions (user_id, transaction_date, amount, currency, vendor, category_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", userId, date, new BigDecimal(amount), currency, "Store", category);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> findBy(Map<String, Object> snapshot, String list, String key, Object value) {
+        return ((List<Map<String, Object>>) snapshot.get(list)).stream()
+                .filter(entry -> Objects.equals(entry.get(key), value))
+                .findFirst()
+                .orElseThrow();
+    }
+}
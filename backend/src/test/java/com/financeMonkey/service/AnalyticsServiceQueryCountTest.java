@@ -0,0 +1,121 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.PostgresTestConfiguration;
+import com.financeMonkey.engine.FxRateTable;
+import com.financeMonkey.model.Category;
+import com.financeMonkey.model.DailySpend;
+import com.financeMonkey.model.User;
+import com.financeMonkey.security.JwtTokenProvider;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Counts the SQL statements behind the spending summary on a real database, where
+ * {@link AnalyticsServiceTest} only sees calls to mocked repositories.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostgresTestConfiguration.class, AnalyticsService.class})
+@Testcontainers(disabledWithoutDocker = true)
+public class AnalyticsServiceQueryCountTest {
+
+    private static final String TOKEN = "token";
+    private static final int CATEGORIES = 50;
+
+    @MockBean
+    private JwtTokenProvider jwtTokenProvider;
+
+    @MockBean
+    private CategoryCacheService categoryCacheService;
+
+    @MockBean
+    private FxRateService fxRateService;
+
+    @MockBean
+    private AnalyticsCacheService analyticsCacheService;
+
+    @MockBean
+    private ColumnarStoreService columnarStoreService;
+
+    @MockBean
+    private VendorSketchService vendorSketchService;
+
+    @MockBean
+    private RecurrenceService recurrenceService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        User user = entityManager.persist(User.builder().email("summary@example.com").passwordHash("hash").build());
+        for (int i = 0; i < CATEGORIES; i++) {
+            Category category = entityManager.persist(Category.builder().name("Category " + i).build());
+            entityManager.persist(DailySpend.builder()
+                    .userId(user.getId())
+                    .day(LocalDate.of(2024, 1, 1 + i % 28))
+                    .categoryId(category.getId())
+                    .currency("USD")
+                    .amount(new BigDecimal("10.00"))
+                    .transactionCount(1)
+                    .recurringAmount(BigDecimal.ZERO)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        when(jwtTokenProvider.getUserId(TOKEN)).thenReturn(user.getId());
+        when(fxRateService.getTable()).thenReturn(FxRateTable.empty());
+        when(categoryCacheService.getCategory(any())).thenAnswer(invocation -> {
+            Category category = new Category();
+            category.setId(invocation.getArgument(0));
+            category.setName("Cached");
+            return category;
+        });
+        when(analyticsCacheService.get(any(UUID.class), anyString(), any(), any()))
+                .thenAnswer(invocation -> ((Supplier<Map<String, Object>>) invocation.getArgument(3)).get());
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getSpendingSummary_ShouldIssueOneRollupQueryRegardlessOfCategoryCount() {
+        Map<String, Object> result = analyticsService.getSpendingSummary(TOKEN,
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 1, 31, 23, 59));
+
+        assertEquals(CATEGORIES, ((List<?>) result.get("spendingByCategory")).size());
+        assertEquals(0, new BigDecimal("500.00").compareTo((BigDecimal) result.get("totalSpending")));
+        // The reporting currency, then one rollup query that also carries the recurring count
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
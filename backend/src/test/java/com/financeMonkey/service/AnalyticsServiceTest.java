@@ -0,0 +1,398 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.engine.ColumnarSpending;
+import com.financeMonkey.engine.FxRateTable;
+import com.financeMonkey.engine.RecurrenceDetector;
+import com.financeMonkey.event.TransactionChange;
+import com.financeMonkey.event.TransactionSnapshot;
+import com.financeMonkey.event.TransactionsChangedEvent;
+import com.financeMonkey.model.Category;
+import com.financeMonkey.repository.DailySpendRepository;
+import com.financeMonkey.repository.UserRepository;
+import com.financeMonkey.repository.projection.DailyCategorySpendingRow;
+import com.financeMonkey.security.JwtTokenProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AnalyticsServiceTest {
+
+    private static final String TOKEN = "token";
+
+    @Mock
+    private DailySpendRepository dailySpendRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CategoryCacheService categoryCacheService;
+
+    @Mock
+    private FxRateService fxRateService;
+
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Mock
+    private ColumnarStoreService columnarStoreService;
+
+    @Mock
+    private VendorSketchService vendorSketchService;
+
+    @Mock
+    private RecurrenceService recurrenceService;
+
+    private AnalyticsCacheService analyticsCacheService;
+    private AnalyticsService analyticsService;
+
+    private UUID userId;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        startDate = LocalDateTime.of(2024, 1, 1, 0, 0);
+        endDate = LocalDateTime.of(2024, 1, 31, 23, 59);
+        lenient().when(jwtTokenProvider.getUserId(TOKEN)).thenReturn(userId);
+        lenient().when(fxRateService.getTable()).thenReturn(FxRateTable.empty());
+        analyticsCacheService = new AnalyticsCacheService(categoryCacheService, new SimpleMeterRegistry(), 100);
+        analyticsService = new AnalyticsService(dailySpendRepository, userRepository, categoryCacheService,
+                fxRateService, jwtTokenProvider, analyticsCacheService, columnarStoreService, vendorSketchService,
+                recurrenceService);
+    }
+
+    @Test
+    void getSpendingSummary_ShouldCombineDaysIntoCategoryTotals() {
+        UUID foodId = UUID.randomUUID();
+        Category food = category(foodId, "Food & Dining");
+        when(categoryCacheService.getCategory(any())).thenAnswer(invocation ->
+                foodId.equals(invocation.getArgument(0)) ? food : null);
+        when(dailySpendRepository.sumAmountByDayAndCategory(userId, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1)))
+                .thenReturn(List.of(
+                        dayRow(LocalDate.of(2024, 1, 3), foodId, "USD", "30.00", 2),
+                        dayRow(LocalDate.of(2024, 1, 9), foodId, "USD", "12.50", 1),
+                        dayRow(LocalDate.of(2024, 1, 9), null, "USD", "7.50", 1),
+                        dayRow(null, null, null, "50.00", 4)));
+
+        Map<String, Object> result = analyticsService.getSpendingSummary(TOKEN, startDate, endDate);
+
+        assertEquals("USD", result.get("currency"));
+        assertEquals(new BigDecimal("50.00"), result.get("totalSpending"));
+        assertEquals(2L, result.get("recurringTransactionsCount"));
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> categories = (List<Map<String, Object>>) result.get("spendingByCategory");
+        assertEquals(2, categories.size());
+        assertEquals(foodId, categories.get(0).get("categoryId"));
+        assertEquals("Food & Dining", categories.get(0).get("categoryName"));
+        assertEquals(new BigDecimal("42.50"), categories.get(0).get("amount"));
+        assertEquals(3L, categories.get(0).get("transactionCount"));
+        assertEquals("Uncategorized", categories.get(1).get("categoryName"));
+    }
+
+    @Test
+    void getSpendingSummary_ShouldReadTheRollupOnceRegardlessOfCategoryCount() {
+        List<DailyCategorySpendingRow> rows = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            rows.add(dayRow(LocalDate.of(2024, 1, 1 + i % 28), UUID.randomUUID(), "USD", "1.00", 1));
+        }
+        rows.add(dayRow(null, null, null, "50.00", 50));
+        when(dailySpendRepository.sumAmountByDayAndCategory(eq(userId), any(), any())).thenReturn(rows);
+        when(categoryCacheService.getCategory(any())).thenAnswer(invocation ->
+                category(invocation.getArgument(0), "Category"));
+
+        Map<String, Object> result = analyticsService.getSpendingSummary(TOKEN, startDate, endDate);
+
+        assertEquals(50, ((List<?>) result.get("spendingByCategory")).size());
+        verify(dailySpendRepository, times(1)).sumAmountByDayAndCategory(eq(userId), any(), any());
+        verifyNoMoreInteractions(dailySpendRepository);
+    }
+
+    @Test
+    void getSpendingSummary_ShouldConvertEachDayAtItsOwnRate() {
+        when(userRepository.findReportingCurrencyById(userId)).thenReturn(Optional.of("USD"));
+        when(fxRateService.getTable()).thenReturn(FxRateTable.builder()
+                .add("EUR", LocalDate.of(2024, 1, 1), new BigDecimal("1.10"))
+                .add("EUR", LocalDate.of(2024, 1, 15), new BigDecimal("1.20"))
+                .build());
+        when(dailySpendRepository.sumAmountByDayAndCategory(eq(userId), any(), any())).thenReturn(List.of(
+                dayRow(LocalDate.of(2024, 1, 5), null, "EUR", "100.00", 1),
+                dayRow(LocalDate.of(2024, 1, 20), null, "EUR", "100.00", 1),
+                dayRow(LocalDate.of(2024, 1, 20), null, "USD", "10.00", 1),
+                dayRow(LocalDate.of(2024, 1, 21), null, "XYZ", "5.00", 1),
+                dayRow(null, null, null, "215.00", 4)));
+
+        Map<String, Object> result = analyticsService.getSpendingSummary(TOKEN, startDate, endDate);
+
+        // 100 EUR at 1.10 + 100 EUR at 1.20 + 10 USD; the 5 XYZ cannot be converted and are left out
+        assertEquals(0, new BigDecimal("240.00").compareTo((BigDecimal) result.get("totalSpending")));
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> currencies = (List<Map<String, Object>>) result.get("spendingByCurrency");
+        assertEquals(3, currencies.size());
+        assertEquals("EUR", currencies.get(0).get("currency"));
+        assertEquals(new BigDecimal("200.00"), currencies.get(0).get("amount"));
+        assertEquals(0, new BigDecimal("230.00").compareTo((BigDecimal) currencies.get(0).get("convertedAmount")));
+        assertEquals(true, currencies.get(0).get("converted"));
+        assertEquals(0, BigDecimal.ZERO.compareTo((BigDecimal) currencies.get(0).get("unconvertedAmount")));
+        assertEquals("XYZ", currencies.get(2).get("currency"));
+        assertEquals(false, currencies.get(2).get("converted"));
+        assertEquals(new BigDecimal("5.00"), currencies.get(2).get("unconvertedAmount"));
+        assertEquals(0, BigDecimal.ZERO.compareTo((BigDecimal) currencies.get(2).get("convertedAmount")));
+    }
+
+    @Test
+    void getSpendingSummary_ShouldServeRepeatsFromCacheUntilTheUsersDataChanges() {
+        when(dailySpendRepository.sumAmountByDayAndCategory(eq(userId), any(), any())).thenReturn(List.of(
+                dayRow(null, null, null, "0.00", 0)));
+
+        Map<String, Object> first = analyticsService.getSpendingSummary(TOKEN, startDate, endDate);
+        Map<String, Object> second = analyticsService.getSpendingSummary(TOKEN, startDate, endDate);
+        assertSame(first, second);
+
+        // Another user's write leaves the entry alone
+        analyticsCacheService.onTransactionsChanged(changedEvent(UUID.randomUUID()));
+        analyticsService.getSpendingSummary(TOKEN, startDate, endDate);
+        verify(dailySpendRepository, times(1)).sumAmountByDayAndCategory(eq(userId), any(), any());
+
+        analyticsCacheService.onTransactionsChanged(changedEvent(userId));
+        Map<String, Object> third = analyticsService.getSpendingSummary(TOKEN, startDate, endDate);
+        assertNotSame(first, third);
+        verify(dailySpendRepository, times(2)).sumAmountByDayAndCategory(eq(userId), any(), any());
+    }
+
+    @Test
+    void getSpendingSummary_WithStartAfterEnd_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> analyticsService.getSpendingSummary(TOKEN, endDate.plusDays(2), endDate));
+        verifyNoInteractions(dailySpendRepository);
+    }
+
+    @Test
+    void getPeriodComparison_ShouldCompareWithThePreviousMonthFromOneQuery() {
+        UUID foodId = UUID.randomUUID();
+        Category food = category(foodId, "Food & Dining");
+        when(categoryCacheService.getCategory(any())).thenAnswer(invocation ->
+                foodId.equals(invocation.getArgument(0)) ? food : null);
+        when(dailySpendRepository.sumAmountByDayAndCategory(userId, LocalDate.of(2023, 12, 1), LocalDate.of(2024, 2, 1)))
+                .thenReturn(List.of(
+                        dayRow(LocalDate.of(2023, 12, 24), foodId, "USD", "80.00", 2),
+                        dayRow(LocalDate.of(2024, 1, 3), foodId, "USD", "100.00", 3),
+                        dayRow(LocalDate.of(2024, 1, 9), null, "USD", "15.00", 1),
+                        dayRow(null, null, null, "195.00", 6)));
+
+        Map<String, Object> result = analyticsService.getPeriodComparison(TOKEN, startDate, endDate, null, null);
+
+        assertEquals(new BigDecimal("35.00"), result.get("change"));
+        assertEquals(new BigDecimal("43.8"), result.get("percentChange"));
+        assertEquals(LocalDate.of(2023, 12, 31), ((Map<?, ?>) result.get("previous")).get("periodEnd"));
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> categories = (List<Map<String, Object>>) result.get("categories");
+        assertEquals(2, categories.size());
+        assertEquals(new BigDecimal("20.00"), categories.get(0).get("change"));
+        assertEquals(new BigDecimal("25.0"), categories.get(0).get("percentChange"));
+        assertNull(categories.get(1).get("percentChange"));
+        verify(dailySpendRepository, times(1)).sumAmountByDayAndCategory(any(), any(), any());
+    }
+
+    @Test
+    void getPeriodComparison_YearOverYear_ShouldScanOnlyTheTwoPeriods() {
+        when(dailySpendRepository.sumAmountByDayAndCategory(userId, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 2, 1)))
+                .thenReturn(List.of(
+                        dayRow(LocalDate.of(2023, 1, 10), null, "USD", "40.00", 1),
+                        dayRow(null, null, null, "40.00", 1)));
+        when(dailySpendRepository.sumAmountByDayAndCategory(userId, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1)))
+                .thenReturn(List.of(
+                        dayRow(LocalDate.of(2024, 1, 10), null, "USD", "50.00", 1),
+                        dayRow(null, null, null, "50.00", 1)));
+
+        Map<String, Object> result = analyticsService.getPeriodComparison(TOKEN, startDate, endDate,
+                LocalDateTime.of(2023, 1, 1, 0, 0), LocalDateTime.of(2023, 1, 31, 23, 59));
+
+        assertEquals(new BigDecimal("10.00"), result.get("change"));
+        verify(dailySpendRepository, times(2)).sumAmountByDayAndCategory(any(), any(), any());
+    }
+
+    @Test
+    void getMonthlyTrends_ShouldFillEmptyMonthsFromOneQuery() {
+        YearMonth current = YearMonth.now();
+        UUID foodId = UUID.randomUUID();
+        Category food = category(foodId, "Food & Dining");
+        when(categoryCacheService.getCategory(any())).thenAnswer(invocation ->
+                foodId.equals(invocation.getArgument(0)) ? food : null);
+        when(dailySpendRepository.sumAmountByDayAndCategory(eq(userId), any(), any())).thenReturn(List.of(
+                dayRow(current.minusMonths(119).atDay(3), foodId, "USD", "10.00", 1),
+                dayRow(current.atDay(1), foodId, "USD", "30.00", 2),
+                dayRow(current.atDay(1), null, "USD", "5.00", 1),
+                dayRow(null, null, null, "45.00", 4)));
+
+        Map<String, Object> result = analyticsService.getMonthlyTrends(TOKEN, 120);
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> months = (List<Map<String, Object>>) result.get("monthlyTrends");
+        assertEquals(120, months.size());
+        assertEquals(new BigDecimal("10.00"), months.get(0).get("spending"));
+        assertEquals(BigDecimal.ZERO, months.get(1).get("spending"));
+        assertEquals(new BigDecimal("35.00"), months.get(119).get("spending"));
+        assertEquals(current.getMonth().toString(), months.get(119).get("month"));
+        assertEquals(2, ((List<?>) months.get(119).get("categories")).size());
+        verify(dailySpendRepository, times(1)).sumAmountByDayAndCategory(eq(userId), any(), any());
+        verifyNoMoreInteractions(dailySpendRepository);
+    }
+
+    @Test
+    void getMonthlyTrends_WithTooManyMonths_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> analyticsService.getMonthlyTrends(TOKEN, 121));
+        verifyNoInteractions(dailySpendRepository);
+    }
+
+    @Test
+    void getTransactionStats_ShouldComputeEveryWindowFromOneQuery() {
+        LocalDate today = LocalDate.now();
+        LocalDate lastYear = today.minusMonths(11).withDayOfMonth(1);
+        when(dailySpendRepository.sumAmountByDayAndCategory(eq(userId), any(), any())).thenReturn(List.of(
+                dayRow(today, null, "USD", "20.00", 2),
+                dayRow(lastYear, null, "USD", "5.00", 1),
+                dayRow(null, null, null, "25.00", 3)));
+
+        Map<String, Object> result = analyticsService.getTransactionStats(TOKEN);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> todayStats = (Map<String, Object>) result.get("today");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> monthStats = (Map<String, Object>) result.get("thisMonth");
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> months = (List<Map<String, Object>>)
+                ((Map<String, Object>) result.get("yearlyTrend")).get("monthlyTrends");
+
+        assertEquals(new BigDecimal("20.00"), todayStats.get("totalSpending"));
+        assertEquals(new BigDecimal("20.00"), monthStats.get("totalSpending"));
+        assertEquals(2L, todayStats.get("recurringTransactionsCount"));
+        assertEquals(12, months.size());
+        assertEquals(new BigDecimal("5.00"), months.get(0).get("spending"));
+        assertEquals(new BigDecimal("20.00"), months.get(11).get("spending"));
+        verify(jwtTokenProvider, times(1)).getUserId(TOKEN);
+        verify(dailySpendRepository, times(1)).sumAmountByDayAndCategory(eq(userId), any(), any());
+        verifyNoMoreInteractions(dailySpendRepository);
+    }
+
+    @Test
+    void getTransactionStats_WithColumnarStore_ShouldNotQueryTheRollup() {
+        LocalDate today = LocalDate.now();
+        when(columnarStoreService.getColumns(userId)).thenReturn(ColumnarSpending.builder()
+                .add(new ColumnarSpending.Row(today, new BigDecimal("20.00"), null, "Starbucks", "USD", true))
+                .add(new ColumnarSpending.Row(today.minusYears(2), new BigDecimal("99.00"), null, "Old", "USD", false))
+                .build());
+
+        Map<String, Object> result = analyticsService.getTransactionStats(TOKEN);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> todayStats = (Map<String, Object>) result.get("today");
+        assertEquals(0, new BigDecimal("20.00").compareTo((BigDecimal) todayStats.get("totalSpending")));
+        assertEquals(1L, todayStats.get("recurringTransactionsCount"));
+        verifyNoInteractions(dailySpendRepository);
+    }
+
+    @Test
+    void setReportingCurrency_WithUnknownCode_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> analyticsService.setReportingCurrency(TOKEN, "ZZZ"));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getTopVendors_WithLimitAboveSketchCapacity_ShouldThrowException() {
+        when(vendorSketchService.getCapacity()).thenReturn(64);
+        assertThrows(IllegalArgumentException.class, () -> analyticsService.getTopVendors(TOKEN, startDate, endDate, 65));
+        verify(vendorSketchService, never()).getSketches(any(), any(), any());
+    }
+
+    @Test
+    void getForecast_ShouldAddRecurringPaymentsToTheNonRecurringBaseline() {
+        UUID foodId = UUID.randomUUID();
+        Category food = category(foodId, "Food & Dining");
+        when(categoryCacheService.getCategory(any())).thenAnswer(invocation ->
+                foodId.equals(invocation.getArgument(0)) ? food : null);
+        YearMonth currentMonth = YearMonth.now();
+        List<DailyCategorySpendingRow> rollup = new ArrayList<>();
+        for (int i = 1; i <= 12; i++) {
+            rollup.add(dayRow(currentMonth.minusMonths(i).atDay(5), foodId, "USD", "115.00", 2, "15.00"));
+        }
+        rollup.add(dayRow(null, null, null, "1380.00", 24));
+        when(dailySpendRepository.sumAmountByDayAndCategory(eq(userId), any(), any())).thenReturn(rollup);
+        when(recurrenceService.getSeries(userId)).thenReturn(List.of(new RecurrenceService.RecurringSeries(
+                "Netflix", "USD", foodId, RecurrenceDetector.Pattern.MONTHLY, new BigDecimal("15.00"), 12,
+                currentMonth.minusMonths(1).atDay(5), currentMonth.atDay(5))));
+
+        Map<String, Object> result = analyticsService.getForecast(TOKEN, 2);
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> months = (List<Map<String, Object>>) result.get("monthlyForecast");
+        assertEquals(2, months.size());
+        assertEquals(new BigDecimal("115.00"), months.get(0).get("amount"));
+        assertEquals(new BigDecimal("15.00"), months.get(0).get("recurring"));
+        assertEquals(new BigDecimal("100.00"), months.get(1).get("baseline"));
+        assertEquals(12, result.get("historyMonths"));
+    }
+
+    @Test
+    void getForecast_WithTooManyMonths_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> analyticsService.getForecast(TOKEN, 13));
+        verifyNoInteractions(dailySpendRepository);
+    }
+
+    private static Category category(UUID id, String name) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        return category;
+    }
+
+    private static TransactionsChangedEvent changedEvent(UUID userId) {
+        TransactionSnapshot snapshot = TransactionSnapshot.builder()
+                .userId(userId)
+                .transactionDate(LocalDateTime.now())
+                .amount(BigDecimal.ONE)
+                .currency("USD")
+                .build();
+        return TransactionsChangedEvent.of(new TransactionChange(UUID.randomUUID(), null, snapshot));
+    }
+
+    private static DailyCategorySpendingRow dayRow(LocalDate day, UUID categoryId, String currency,
+                                                   String amount, long count) {
+        return dayRow(day, categoryId, currency, amount, count, "0");
+    }
+
+    private static DailyCategorySpendingRow dayRow(LocalDate day, UUID categoryId, String currency,
+                                                   String amount, long count, String recurringAmount) {
+        return new DailyCategorySpendingRow() {
+            public Integer getEpochDay() { return day != null ? (int) day.toEpochDay() : null; }
+            public UUID getCategoryId() { return categoryId; }
+            public String getCurrency() { return currency; }
+            public BigDecimal getAmount() { return new BigDecimal(amount); }
+            public Long getTransactionCount() { return count; }
+            public BigDecimal getRecurringAmount() { return new BigDecimal(recurringAmount); }
+            public Long getRecurringCount() { return 2L; }
+        };
+    }
+}
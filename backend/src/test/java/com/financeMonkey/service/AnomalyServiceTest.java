@@ -0,0 +1,114 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.PostgresTestConfiguration;
+import com.financeMonkey.engine.RunningStats;
+import com.financeMonkey.event.TransactionChange;
+import com.financeMonkey.event.TransactionSnapshot;
+import com.financeMonkey.event.TransactionsChangedEvent;
+import com.financeMonkey.security.JwtTokenProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the statistics upsert against PostgreSQL, which it needs for unnest and ON CONFLICT.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(PostgresTestConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+public class AnomalyServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    @MockBean
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private JdbcTemplate countingJdbcTemplate;
+    private AnomalyService anomalyService;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        countingJdbcTemplate = spy(jdbcTemplate);
+        anomalyService = new AnomalyService(countingJdbcTemplate, jwtTokenProvider, new SimpleMeterRegistry(), 10);
+        userId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (id, email, password_hash) VALUES (?, ?, ?)",
+                userId, "anomaly@example.com", "hash");
+    }
+
+    @Test
+    void onTransactionsChanged_ShouldMergeTheWritesAmountsIntoStoredStatisticsWithOneStatement() {
+        RunningStats expected = new RunningStats();
+        expected.add(9, (int) DAY.toEpochDay());
+        expected.add(11, (int) DAY.toEpochDay());
+        jdbcTemplate.update("INSERT INTO transaction_stats (user_id, scope, stats_key, currency, observations, mean, m2, " +
+                "last_amount, last_day) VALUES (?, 'VENDOR', 'Store', 'USD', ?, ?, ?, ?, ?)", userId,
+                expected.getCount(), expected.getMean(), expected.getM2(), expected.getLastAmount(), Date.valueOf(DAY));
+
+        List<TransactionChange> changes = new ArrayList<>();
+        double[] amounts = {12, 20, 14};
+        int[] days = {1, 5, 3};
+        for (int i = 0; i < amounts.length; i++) {
+            expected.add(amounts[i], (int) DAY.plusDays(days[i]).toEpochDay());
+            changes.add(created("Store", amounts[i], DAY.plusDays(days[i])));
+        }
+        changes.add(created("New Vendor", 7, DAY));
+
+        anomalyService.onTransactionsChanged(new TransactionsChangedEvent(changes));
+
+        verify(countingJdbcTemplate, times(1)).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        Map<String, Object> store = stats("Store");
+        assertEquals(expected.getCount(), store.get("observations"));
+        assertEquals(expected.getMean(), (Double) store.get("mean"), 1e-9);
+        assertEquals(expected.getM2(), (Double) store.get("m2"), 1e-9);
+        assertEquals(20.0, (Double) store.get("last_amount"), 1e-9);
+        assertEquals(Date.valueOf(DAY.plusDays(5)), store.get("last_day"));
+
+        Map<String, Object> newVendor = stats("New Vendor");
+        assertEquals(1L, newVendor.get("observations"));
+        assertEquals(7.0, (Double) newVendor.get("mean"), 1e-9);
+        assertEquals(0.0, (Double) newVendor.get("m2"), 1e-9);
+    }
+
+    private TransactionChange created(String vendor, double amount, LocalDate day) {
+        TransactionSnapshot snapshot = TransactionSnapshot.builder()
+                .userId(userId)
+                .transactionDate(day.atTime(12, 0))
+                .amount(BigDecimal.valueOf(amount))
+                .currency("USD")
+                .vendor(vendor)
+                .canonicalVendor(vendor)
+                .build();
+        return new TransactionChange(UUID.randomUUID(), null, snapshot);
+    }
+
+    private Map<String, Object> stats(String vendor) {
+        return jdbcTemplate.queryForMap("SELECT observations, mean, m2, last_amount, last_day FROM transaction_stats " +
+                "WHERE user_id = ? AND scope = 'VENDOR' AND stats_key = ? AND currency = 'USD'", userId, vendor);
+    }
+}
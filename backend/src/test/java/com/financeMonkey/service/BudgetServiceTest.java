@@ -0,0 +1,182 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.PostgresTestConfiguration;
+import com.financeMonkey.engine.FxRateTable;
+import com.financeMonkey.event.BudgetThresholdCrossedEvent;
+import com.financeMonkey.event.TransactionChange;
+import com.financeMonkey.event.TransactionSnapshot;
+import com.financeMonkey.event.TransactionsChangedEvent;
+import com.financeMonkey.model.Budget;
+import com.financeMonkey.model.DailySpend;
+import com.financeMonkey.model.User;
+import com.financeMonkey.security.JwtTokenProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the running totals and alerts against PostgreSQL, since they rely on UPDATE ... RETURNING
+ * and ON CONFLICT. Each test runs in one transaction that is rolled back, as a failed write would be.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostgresTestConfiguration.class, BudgetService.class})
+@Testcontainers(disabledWithoutDocker = true)
+@RecordApplicationEvents
+public class BudgetServiceTest {
+
+    private static final String TOKEN = "token";
+
+    @MockBean
+    private JwtTokenProvider jwtTokenProvider;
+
+    @MockBean
+    private CategoryCacheService categoryCacheService;
+
+    @MockBean
+    private FxRateService fxRateService;
+
+    @MockBean
+    private DailySpendService dailySpendService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BudgetService budgetService;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private User user;
+    private Budget budget;
+    private LocalDate periodStart;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(User.builder().email("budget@example.com").passwordHash("hash").build());
+        budget = entityManager.persist(Budget.builder()
+                .user(user)
+                .period(Budget.Period.MONTHLY)
+                .limitAmount(new BigDecimal("100.00"))
+                .currency("USD")
+                .build());
+        entityManager.flush();
+        periodStart = Budget.Period.MONTHLY.startOf(LocalDate.now());
+
+        when(jwtTokenProvider.getUserId(TOKEN)).thenReturn(user.getId());
+        when(fxRateService.getTable()).thenReturn(FxRateTable.empty());
+    }
+
+    @Test
+    void getBudgetStatus_ShouldInitializeRunningTotalOnceFromRollup() {
+        dailySpend(periodStart, "30.00", 1);
+        dailySpend(periodStart, "20.00", 1);
+        dailySpend(periodStart.minusDays(1), "50.00", 1);
+
+        Map<String, Object> status = budgetService.getBudgetStatus(TOKEN).get(0);
+
+        assertEquals(0, new BigDecimal("50.00").compareTo((BigDecimal) status.get("spent")));
+        assertEquals(2L, status.get("transactionCount"));
+
+        // Later reads come from the running total, not the rollup
+        dailySpend(periodStart, "40.00", 1);
+        assertEquals(0, new BigDecimal("50.00").compareTo((BigDecimal) budgetService.getBudgetStatus(TOKEN).get(0).get("spent")));
+    }
+
+    @Test
+    void onTransactionsChanged_ShouldMoveSpendingBetweenPeriods() {
+        budgetService.getBudgetStatus(TOKEN);
+        LocalDate previousStart = periodStart.minusMonths(1);
+        jdbcTemplate.update("INSERT INTO budget_periods (budget_id, period_start, spent, transaction_count) VALUES (?, ?, 0, 0)",
+                budget.getId(), Date.valueOf(previousStart));
+
+        budgetService.onTransactionsChanged(new TransactionsChangedEvent(List.of(
+                new TransactionChange(UUID.randomUUID(), null, snapshot(periodStart, "30.00")),
+                new TransactionChange(UUID.randomUUID(), snapshot(periodStart, "30.00"), snapshot(previousStart, "30.00")),
+                new TransactionChange(UUID.randomUUID(), null, snapshot(periodStart, "12.50")))));
+
+        assertEquals(0, new BigDecimal("12.50").compareTo(spent(periodStart)));
+        assertEquals(0, new BigDecimal("30.00").compareTo(spent(previousStart)));
+    }
+
+    @Test
+    void onTransactionsChanged_ShouldAlertAgainAfterSpendingDropsBelowThreshold() {
+        budgetService.getBudgetStatus(TOKEN);
+
+        change(null, snapshot(periodStart, "85.00"));
+        change(null, snapshot(periodStart, "20.00"));
+        // A refund takes the period back under 80%, so crossing it again alerts again
+        change(snapshot(periodStart, "30.00"), null);
+        change(null, snapshot(periodStart, "10.00"));
+
+        List<Integer> thresholds = budgetService.getAlerts(TOKEN, 50).stream()
+                .map(alert -> (Integer) alert.get("thresholdPercent"))
+                .sorted()
+                .collect(Collectors.toList());
+        assertEquals(List.of(80, 80, 100), thresholds);
+        assertEquals(0, new BigDecimal("85.00").compareTo(spent(periodStart)));
+        // Nothing is announced until the write commits
+        assertEquals(0, events.stream(BudgetThresholdCrossedEvent.class).count());
+    }
+
+    @Test
+    void getAlerts_WithLimitOutOfRange_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> budgetService.getAlerts(TOKEN, 0));
+        assertThrows(IllegalArgumentException.class, () -> budgetService.getAlerts(TOKEN, 501));
+    }
+
+    private void change(TransactionSnapshot before, TransactionSnapshot after) {
+        budgetService.onTransactionsChanged(TransactionsChangedEvent.of(new TransactionChange(UUID.randomUUID(), before, after)));
+    }
+
+    private TransactionSnapshot snapshot(LocalDate day, String amount) {
+        return TransactionSnapshot.builder()
+                .userId(user.getId())
+                .transactionDate(day.atTime(12, 0))
+                .amount(new BigDecimal(amount))
+                .currency("USD")
+                .vendor("Store")
+                .build();
+    }
+
+    private void dailySpend(LocalDate day, String amount, long count) {
+        entityManager.persist(DailySpend.builder()
+                .userId(user.getId())
+                .day(day)
+                .currency("USD")
+                .amount(new BigDecimal(amount))
+                .transactionCount(count)
+                .recurringAmount(BigDecimal.ZERO)
+                .build());
+        entityManager.flush();
+    }
+
+    private BigDecimal spent(LocalDate start) {
+        return jdbcTemplate.queryForObject("SELECT spent FROM budget_periods WHERE budget_id = ? AND period_start = ?",
+                BigDecimal.class, budget.getId(), Date.valueOf(start));
+    }
+}
@@ -0,0 +1,221 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.PostgresTestConfiguration;
+import com.financeMonkey.dto.BulkWriteResultDto;
+import com.financeMonkey.dto.BulkWriteResultDto.Status;
+import com.financeMonkey.dto.TransactionDto;
+import com.financeMonkey.event.TransactionsChangedEvent;
+import com.financeMonkey.security.JwtTokenProvider;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs bulk writes against PostgreSQL, since existing rows are read with {@code = ANY(?)} and
+ * locked with FOR UPDATE.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostgresTestConfiguration.class, BulkTransactionService.class})
+@Testcontainers(disabledWithoutDocker = true)
+@RecordApplicationEvents
+public class BulkTransactionServiceTest {
+
+    private static final String TOKEN = "token";
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @MockBean
+    private JwtTokenProvider jwtTokenProvider;
+
+    @MockBean
+    private CategoryCacheService categoryCacheService;
+
+    @MockBean
+    private VendorCanonicalizationService vendorCanonicalizationService;
+
+    @MockBean
+    private VendorMemoryService vendorMemoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BulkTransactionService bulkTransactionService;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private UUID userId;
+    private UUID otherUserId;
+
+    @BeforeEach
+    void setUp() {
+        userId = user("bulk@example.com");
+        otherUserId = user("bulk-other@example.com");
+        when(jwtTokenProvider.getUserId(TOKEN)).thenReturn(userId);
+        when(vendorCanonicalizationService.canonicalize(any(), anyString()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+    }
+
+    @Test
+    void createTransactions_ShouldInsertValidItemsAndReportTheRest() {
+        UUID unknownCategory = UUID.randomUUID();
+        List<TransactionDto> items = new ArrayList<>();
+        items.add(TransactionDto.builder().transactionDate(DATE).amount(new BigDecimal("12.50")).vendor("Store").build());
+        items.add(null);
+        items.add(TransactionDto.builder().amount(BigDecimal.ONE).categoryId(unknownCategory).build());
+
+        BulkWriteResultDto result = bulkTransactionService.createTransactions(TOKEN, items);
+
+        assertEquals(1, result.getSucceeded());
+        assertEquals(2, result.getFailed());
+        assertEquals(List.of(Status.CREATED, Status.INVALID, Status.INVALID), statuses(result));
+        assertEquals("Category not found with id: " + unknownCategory, result.getResults().get(2).getError());
+        assertEquals(1, count(userId));
+        assertEquals(1, events.stream(TransactionsChangedEvent.class).count());
+        assertEquals(1, events.stream(TransactionsChangedEvent.class).findFirst().orElseThrow().getChanges().size());
+    }
+
+    @Test
+    void createTransactions_ShouldReportItemsTheColumnsCannotHoldWithoutFailingTheRest() {
+        List<TransactionDto> items = List.of(
+                TransactionDto.builder().amount(BigDecimal.ONE).currency("XXY").build(),
+                TransactionDto.builder().amount(BigDecimal.ONE).vendor("v".repeat(256)).build(),
+                TransactionDto.builder().amount(new BigDecimal("1.23456")).build(),
+                TransactionDto.builder().amount(new BigDecimal("1234567890123456")).build(),
+                TransactionDto.builder().amount(new BigDecimal("1.2345")).currency("EUR").vendor("v".repeat(255)).build());
+
+        BulkWriteResultDto result = bulkTransactionService.createTransactions(TOKEN, items);
+
+        assertEquals(List.of(Status.INVALID, Status.INVALID, Status.INVALID, Status.INVALID, Status.CREATED),
+                statuses(result));
+        assertEquals("Unknown currency code: XXY", result.getResults().get(0).getError());
+        assertEquals(1, count(userId));
+    }
+
+    @Test
+    void updateTransactions_WithUnknownCurrency_ShouldReportItAndKeepTheTransaction() {
+        UUID own = transaction(userId, "10.00");
+        TransactionDto item = update(own, "11.00");
+        item.setCurrency("usd");
+
+        BulkWriteResultDto result = bulkTransactionService.updateTransactions(TOKEN, List.of(item));
+
+        assertEquals(List.of(Status.INVALID), statuses(result));
+        assertEquals(0, new BigDecimal("10.00").compareTo(amount(own)));
+    }
+
+    @Test
+    void createTransactions_WithUnknownUser_ShouldThrow() {
+        when(jwtTokenProvider.getUserId(TOKEN)).thenReturn(UUID.randomUUID());
+
+        assertThrows(EntityNotFoundException.class, () -> bulkTransactionService.createTransactions(TOKEN,
+                List.of(TransactionDto.builder().amount(BigDecimal.ONE).build())));
+        assertEquals(0, events.stream(TransactionsChangedEvent.class).count());
+    }
+
+    @Test
+    void updateTransactions_ShouldReportStatusPerItemAndOnlyUpdateOwnTransactions() {
+        UUID own = transaction(userId, "10.00");
+        UUID incomplete = transaction(userId, "15.00");
+        UUID others = transaction(otherUserId, "20.00");
+        UUID missing = UUID.randomUUID();
+
+        BulkWriteResultDto result = bulkTransactionService.updateTransactions(TOKEN, Arrays.asList(
+                update(own, "11.00"),
+                update(others, "21.00"),
+                update(missing, "1.00"),
+                update(own, "12.00"),
+                update(null, "1.00"),
+                TransactionDto.builder().id(incomplete).amount(BigDecimal.ONE).build()));
+
+        assertEquals(List.of(Status.UPDATED, Status.FORBIDDEN, Status.NOT_FOUND, Status.INVALID, Status.INVALID,
+                Status.INVALID), statuses(result));
+        assertEquals("Transaction appears more than once in the request", result.getResults().get(3).getError());
+        assertEquals("Transaction id is required", result.getResults().get(4).getError());
+        assertEquals("transactionDate, amount and vendor are required", result.getResults().get(5).getError());
+        assertEquals(0, new BigDecimal("11.00").compareTo(amount(own)));
+        assertEquals(0, new BigDecimal("15.00").compareTo(amount(incomplete)));
+        assertEquals(0, new BigDecimal("20.00").compareTo(amount(others)));
+    }
+
+    @Test
+    void deleteTransactions_ShouldOnlyDeleteOwnTransactions() {
+        UUID own = transaction(userId, "10.00");
+        UUID others = transaction(otherUserId, "20.00");
+
+        BulkWriteResultDto result = bulkTransactionService.deleteTransactions(TOKEN,
+                Arrays.asList(own, others, UUID.randomUUID(), own, null));
+
+        assertEquals(List.of(Status.DELETED, Status.FORBIDDEN, Status.NOT_FOUND, Status.INVALID, Status.INVALID),
+                statuses(result));
+        assertEquals(0, count(userId));
+        assertEquals(1, count(otherUserId));
+    }
+
+    @Test
+    void bulkWrites_WithTooFewOrTooManyItems_ShouldThrow() {
+        List<TransactionDto> tooMany = new ArrayList<>();
+        for (int i = 0; i <= BulkTransactionService.MAX_ITEMS; i++) {
+            tooMany.add(TransactionDto.builder().amount(BigDecimal.ONE).build());
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> bulkTransactionService.createTransactions(TOKEN, List.of()));
+        assertThrows(IllegalArgumentException.class, () -> bulkTransactionService.createTransactions(TOKEN, tooMany));
+        assertThrows(IllegalArgumentException.class, () -> bulkTransactionService.updateTransactions(TOKEN, tooMany));
+        assertThrows(IllegalArgumentException.class, () -> bulkTransactionService.deleteTransactions(TOKEN, null));
+        assertEquals(0, count(userId));
+    }
+
+    private static TransactionDto update(UUID id, String amount) {
+        return TransactionDto.builder().id(id).transactionDate(DATE).amount(new BigDecimal(amount)).vendor("Store").build();
+    }
+
+    private static List<Status> statuses(BulkWriteResultDto result) {
+        return result.getResults().stream().map(BulkWriteResultDto.Item::getStatus).collect(Collectors.toList());
+    }
+
+    private UUID user(String email) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (id, email, password_hash) VALUES (?, ?, ?)", id, email, "hash");
+        return id;
+    }
+
+    private UUID transaction(UUID owner, String amount) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO transactions (id, user_id, transaction_date, amount, currency, vendor) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", id, owner, Timestamp.valueOf(DATE), new BigDecimal(amount), "USD", "Store");
+        return id;
+    }
+
+    private int count(UUID owner) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions WHERE user_id = ?", Integer.class, owner);
+    }
+
+    private BigDecimal amount(UUID id) {
+        return jdbcTemplate.queryForObject("SELECT amount FROM transactions WHERE id = ?", BigDecimal.class, id);
+    }
+}
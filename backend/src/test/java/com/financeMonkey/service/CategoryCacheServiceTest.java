@@ -0,0 +1,52 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.model.Category;
+import com.financeMonkey.repository.CategoryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CategoryCacheServiceTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @InjectMocks
+    private CategoryCacheService categoryCacheService;
+
+    @Test
+    void getCategory_WhenCategoryChangesDuringLoad_ShouldNotKeepStaleSnapshot() {
+        Category existing = category("Groceries");
+        Category added = category("Pets");
+        when(categoryRepository.findAllParentLinks()).thenReturn(Collections.emptyList());
+        when(categoryRepository.findAll())
+                .thenAnswer(invocation -> {
+                    // A category is added and committed after this read
+                    categoryCacheService.invalidate();
+                    return List.of(existing);
+                })
+                .thenReturn(List.of(existing, added));
+
+        assertNotNull(categoryCacheService.getCategory(added.getId()));
+        assertNotNull(categoryCacheService.getCategory(existing.getId()));
+        verify(categoryRepository, times(2)).findAll();
+        assertEquals(1, categoryCacheService.getVersion());
+    }
+
+    private static Category category(String name) {
+        Category category = new Category();
+        category.setId(UUID.randomUUID());
+        category.setName(name);
+        return category;
+    }
+}
@@ -0,0 +1,177 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.dto.CategoryRuleDto;
+import com.financeMonkey.engine.UserRuleMatcher;
+import com.financeMonkey.model.Category;
+import com.financeMonkey.model.CategoryRule;
+import com.financeMonkey.model.User;
+import com.financeMonkey.repository.CategoryRepository;
+import com.financeMonkey.repository.CategoryRuleRepository;
+import com.financeMonkey.repository.UserRepository;
+import com.financeMonkey.security.JwtTokenProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CategoryRuleServiceTest {
+
+    private static final String TOKEN = "token";
+
+    @Mock
+    private CategoryRuleRepository categoryRuleRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+
+    private CategoryRuleService categoryRuleService;
+
+    private UUID userId;
+    private User user;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        categoryRuleService = new CategoryRuleService(categoryRuleRepository, categoryRepository, userRepository,
+                jwtTokenProvider, 2);
+        userId = UUID.randomUUID();
+        user = new User();
+        user.setId(userId);
+        category = new Category();
+        category.setId(UUID.randomUUID());
+        category.setName("Groceries");
+    }
+
+    @Test
+    void createRule_WithSequentialRuleCapReached_ShouldReject() {
+        when(jwtTokenProvider.getUserId(TOKEN)).thenReturn(userId);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(categoryRepository.findById(category.getId())).thenReturn(Optional.of(category));
+        when(categoryRuleRepository.countEnabledByUserIdAndMatchTypeIn(eq(userId), anyCollection()))
+                .thenReturn((long) UserRuleMatcher.MAX_SEQUENTIAL_RULES);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> categoryRuleService.createRule(TOKEN, ruleDto(CategoryRule.MatchType.VENDOR_REGEX, "^acme")));
+        verify(categoryRuleRepository, never()).save(any());
+    }
+
+    @Test
+    void createRule_WithIndexedRule_ShouldIgnoreSequentialRuleCap() {
+        when(jwtTokenProvider.getUserId(TOKEN)).thenReturn(userId);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(categoryRepository.findById(category.getId())).thenReturn(Optional.of(category));
+        when(categoryRuleRepository.save(any(CategoryRule.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        CategoryRuleDto result = categoryRuleService.createRule(TOKEN, ruleDto(CategoryRule.MatchType.VENDOR_CONTAINS, "acme"));
+
+        assertEquals(CategoryRule.MatchType.VENDOR_CONTAINS, result.getMatchType());
+        verify(categoryRuleRepository, never()).countEnabledByUserIdAndMatchTypeIn(any(), anyCollection());
+    }
+
+    @Test
+    void updateRule_OfRuleAlreadyCounted_ShouldKeepItsOwnSlot() {
+        CategoryRule rule = existingRule(CategoryRule.MatchType.AMOUNT_RANGE);
+        when(jwtTokenProvider.getUserId(TOKEN)).thenReturn(userId);
+        when(categoryRuleRepository.findById(rule.getId())).thenReturn(Optional.of(rule));
+        when(categoryRepository.findById(category.getId())).thenReturn(Optional.of(category));
+        when(categoryRuleRepository.countEnabledByUserIdAndMatchTypeIn(eq(userId), anyCollection()))
+                .thenReturn((long) UserRuleMatcher.MAX_SEQUENTIAL_RULES);
+        when(categoryRuleRepository.save(rule)).thenReturn(rule);
+
+        categoryRuleService.updateRule(TOKEN, rule.getId(), ruleDto(CategoryRule.MatchType.VENDOR_REGEX, "^acme"));
+
+        assertEquals(CategoryRule.MatchType.VENDOR_REGEX, rule.getMatchType());
+    }
+
+    @Test
+    void getMatcher_ShouldCompileOnceUntilRulesChange() {
+        CategoryRule rule = existingRule(CategoryRule.MatchType.VENDOR_CONTAINS);
+        when(categoryRuleRepository.findEnabledByUserId(userId)).thenReturn(List.of(rule));
+        when(jwtTokenProvider.getUserId(TOKEN)).thenReturn(userId);
+        when(categoryRuleRepository.findById(rule.getId())).thenReturn(Optional.of(rule));
+
+        UserRuleMatcher first = categoryRuleService.getMatcher(userId);
+        assertSame(first, categoryRuleService.getMatcher(userId));
+        categoryRuleService.deleteRule(TOKEN, rule.getId());
+        UserRuleMatcher second = categoryRuleService.getMatcher(userId);
+
+        assertNotSame(first, second);
+        verify(categoryRuleRepository, times(2)).findEnabledByUserId(userId);
+    }
+
+    @Test
+    void getMatcher_WhenRulesChangeWhileCompiling_ShouldNotCacheTheOldMatcher() {
+        CategoryRule rule = existingRule(CategoryRule.MatchType.VENDOR_CONTAINS);
+        when(jwtTokenProvider.getUserId(TOKEN)).thenReturn(userId);
+        when(categoryRuleRepository.findById(rule.getId())).thenReturn(Optional.of(rule));
+        when(categoryRuleRepository.findEnabledByUserId(userId))
+                .thenAnswer(invocation -> {
+                    // The rule is deleted and committed after this read
+                    categoryRuleService.deleteRule(TOKEN, rule.getId());
+                    return List.of(rule);
+                })
+                .thenReturn(List.of());
+
+        assertEquals(category.getId(), categoryRuleService.getMatcher(userId).match("Acme Store", BigDecimal.TEN, null));
+        assertTrue(categoryRuleService.getMatcher(userId).isEmpty());
+    }
+
+    @Test
+    void getMatcher_BeyondMaxUsers_ShouldDropTheLeastRecentlyUsedMatcher() {
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        when(categoryRuleRepository.findEnabledByUserId(any())).thenReturn(List.of());
+
+        categoryRuleService.getMatcher(userId);
+        categoryRuleService.getMatcher(second);
+        categoryRuleService.getMatcher(userId);
+        categoryRuleService.getMatcher(third);
+        categoryRuleService.getMatcher(userId);
+        categoryRuleService.getMatcher(second);
+
+        assertEquals(2, categoryRuleService.size());
+        verify(categoryRuleRepository, times(1)).findEnabledByUserId(userId);
+        verify(categoryRuleRepository, times(2)).findEnabledByUserId(second);
+    }
+
+    private CategoryRuleDto ruleDto(CategoryRule.MatchType matchType, String pattern) {
+        return CategoryRuleDto.builder()
+                .categoryId(category.getId())
+                .matchType(matchType)
+                .pattern(pattern)
+                .minAmount(matchType == CategoryRule.MatchType.AMOUNT_RANGE ? BigDecimal.ONE : null)
+                .build();
+    }
+
+    private CategoryRule existingRule(CategoryRule.MatchType matchType) {
+        return CategoryRule.builder()
+                .id(UUID.randomUUID())
+                .user(user)
+                .category(category)
+                .matchType(matchType)
+                .pattern("acme")
+                .minAmount(BigDecimal.ONE)
+                .priority(100)
+                .enabled(true)
+                .build();
+    }
+}
@@ -7,6 +7,7 @@ import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -26,6 +27,12 @@ public class CategoryServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private CategoryCacheService categoryCacheService;
+
+    @Mock
+    private DailySpendService dailySpendService;
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -135,6 +142,7 @@ public class CategoryServiceTest {
         assertNull(result.getParentCategoryId());
         verify(categoryRepository, times(1)).save(any(Category.class));
         verify(categoryRepository, never()).findById(any(UUID.class));
+        verify(categoryCacheService, times(1)).invalidate();
     }
 
     @Test
@@ -169,4 +177,25 @@ public class CategoryServiceTest {
         verify(categoryRepository, times(1)).findById(parentUuid);
         verify(categoryRepository, times(1)).save(any(Category.class));
     }
+
+    @Test
+    void deleteCategory_ShouldMoveItsRollupRowsToUncategorizedAfterTheDelete() {
+        when(categoryRepository.existsById(childId)).thenReturn(true);
+
+        categoryService.deleteCategory(childId);
+
+        InOrder inOrder = inOrder(categoryRepository, dailySpendService, categoryCacheService);
+        inOrder.verify(categoryRepository).deleteById(childId);
+        inOrder.verify(categoryRepository).flush();
+        inOrder.verify(dailySpendService).moveToUncategorized(childId);
+        inOrder.verify(categoryCacheService).invalidate();
+    }
+
+    @Test
+    void deleteCategory_WhenNotExists_ShouldThrowException() {
+        when(categoryRepository.existsById(childId)).thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class, () -> categoryService.deleteCategory(childId));
+        verifyNoInteractions(dailySpendService);
+    }
 }
@@ -0,0 +1,130 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.PostgresTestConfiguration;
+import com.financeMonkey.event.TransactionChange;
+import com.financeMonkey.event.TransactionSnapshot;
+import com.financeMonkey.event.TransactionsChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs rollup maintenance against PostgreSQL, which it needs for ON CONFLICT on the expression
+ * index and for advisory locks.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostgresTestConfiguration.class, DailySpendService.class})
+@Testcontainers(disabledWithoutDocker = true)
+public class DailySpendServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DailySpendService dailySpendService;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (id, email, password_hash) VALUES (?, ?, ?)",
+                userId, "daily-spend@example.com", "hash");
+    }
+
+    @Test
+    void moveToUncategorized_ShouldMergeTheCategorysRowsIntoTheUncategorizedOnes() {
+        UUID deleted = UUID.randomUUID();
+        UUID kept = UUID.randomUUID();
+        rollupRow(DAY, deleted, "10.00", 1);
+        rollupRow(DAY, null, "5.00", 2);
+        rollupRow(DAY.plusDays(1), deleted, "7.00", 1);
+        rollupRow(DAY, kept, "3.00", 1);
+
+        dailySpendService.moveToUncategorized(deleted);
+
+        assertEquals(0, (int) jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM daily_spend WHERE category_id = ?", Integer.class, deleted));
+        assertRollup(DAY, null, "15.00", 3);
+        assertRollup(DAY.plusDays(1), null, "7.00", 1);
+        assertRollup(DAY, kept, "3.00", 1);
+    }
+
+    @Test
+    void onTransactionsChanged_ShouldDeleteOnlyRowsThatNettedToZero() {
+        UUID categoryId = UUID.randomUUID();
+        rollupRow(DAY, null, "10.00", 1);
+        rollupRow(DAY, categoryId, "4.00", 1);
+
+        // The uncategorized row drifted: its one transaction is removed for less than it holds
+        dailySpendService.onTransactionsChanged(new TransactionsChangedEvent(List.of(
+                removed(null, "7.00"), removed(categoryId, "4.00"))));
+
+        assertRollup(DAY, null, "3.00", 0);
+        assertEquals(0, (int) jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM daily_spend WHERE category_id = ?", Integer.class, categoryId));
+    }
+
+    @Test
+    void onTransactionsChanged_WhenOnlyTheRecurringFlagChanges_ShouldMoveTheAmountIntoTheRecurringPart() {
+        rollupRow(DAY, null, "10.00", 1);
+        TransactionSnapshot before = snapshot(null, "10.00", false);
+        TransactionSnapshot after = snapshot(null, "10.00", true);
+
+        dailySpendService.onTransactionsChanged(TransactionsChangedEvent.of(
+                new TransactionChange(UUID.randomUUID(), before, after)));
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT amount, transaction_count, recurring_amount, " +
+                "recurring_count FROM daily_spend WHERE user_id = ? AND day = ?", userId, Date.valueOf(DAY));
+        assertEquals(0, new BigDecimal("10.00").compareTo((BigDecimal) row.get("amount")));
+        assertEquals(1L, row.get("transaction_count"));
+        assertEquals(0, new BigDecimal("10.00").compareTo((BigDecimal) row.get("recurring_amount")));
+        assertEquals(1L, row.get("recurring_count"));
+    }
+
+    private TransactionChange removed(UUID categoryId, String amount) {
+        return new TransactionChange(UUID.randomUUID(), snapshot(categoryId, amount, false), null);
+    }
+
+    private TransactionSnapshot snapshot(UUID categoryId, String amount, boolean recurring) {
+        return TransactionSnapshot.builder()
+                .userId(userId)
+                .transactionDate(DAY.atTime(12, 0))
+                .amount(new BigDecimal(amount))
+                .currency("USD")
+                .categoryId(categoryId)
+                .vendor("Store")
+                .recurring(recurring)
+                .build();
+    }
+
+    private void rollupRow(LocalDate day, UUID categoryId, String amount, long count) {
+        jdbcTemplate.update("INSERT INTO daily_spend (user_id, day, category_id, currency, amount, transaction_count) " +
+                "VALUES (?, ?, ?, 'USD', ?, ?)", userId, Date.valueOf(day), categoryId, new BigDecimal(amount), count);
+    }
+
+    private void assertRollup(LocalDate day, UUID categoryId, String amount, long count) {
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT amount, transaction_count FROM daily_spend " +
+                "WHERE user_id = ? AND day = ? AND category_id IS NOT DISTINCT FROM ? AND currency = 'USD'",
+                userId, Date.valueOf(day), categoryId);
+        assertEquals(0, new BigDecimal(amount).compareTo((BigDecimal) row.get("amount")));
+        assertEquals(count, row.get("transaction_count"));
+    }
+}
@@ -0,0 +1,47 @@
+package com.financeMonkey.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FxRateServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private FxRateService fxRateService;
+
+    @Test
+    void getTable_WhenRatesAreReloadedDuringLoad_ShouldNotKeepStaleTable() {
+        AtomicInteger reads = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (reads.incrementAndGet() == 1) {
+                // An import commits and reloads after this read
+                fxRateService.reload();
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        assertNotNull(fxRateService.getTable());
+        assertNotNull(fxRateService.getTable());
+        assertEquals(2, reads.get());
+        assertEquals(1, fxRateService.getVersion());
+    }
+}
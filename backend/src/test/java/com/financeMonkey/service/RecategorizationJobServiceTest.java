@@ -0,0 +1,219 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.PostgresTestConfiguration;
+import com.financeMonkey.dto.RecategorizationJobDto;
+import com.financeMonkey.model.Category;
+import com.financeMonkey.model.RecategorizationJob;
+import com.financeMonkey.model.RecategorizationJob.JobStatus;
+import com.financeMonkey.repository.RecategorizationJobRepository;
+import com.financeMonkey.security.JwtTokenProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs re-categorization jobs against PostgreSQL, since each chunk is locked with FOR UPDATE.
+ * The job works on its own thread and connections, so the test data is committed rather than
+ * left in a rolled-back test transaction.
+ */
+@DataJpaTest(properties = {"recategorization.chunk-size=2", "recategorization.pause-ms=0"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostgresTestConfiguration.class, RecategorizationJobService.class})
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class RecategorizationJobServiceTest {
+
+    private static final String TOKEN = "token";
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @MockBean
+    private CategorizationService categorizationService;
+
+    @MockBean
+    private VendorCanonicalizationService vendorCanonicalizationService;
+
+    @MockBean
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RecategorizationJobRepository jobRepository;
+
+    @Autowired
+    private RecategorizationJobService recategorizationJobService;
+
+    private UUID userId;
+    private UUID otherUserId;
+    private UUID oldCategoryId;
+    private UUID newCategoryId;
+
+    @BeforeEach
+    void setUp() {
+        userId = user("recategorization@example.com");
+        otherUserId = user("recategorization-other@example.com");
+        oldCategoryId = category("Recategorization old");
+        newCategoryId = category("Recategorization new");
+
+        Category newCategory = new Category();
+        newCategory.setId(newCategoryId);
+        when(jwtTokenProvider.getUserId(TOKEN)).thenReturn(userId);
+        when(vendorCanonicalizationService.canonicalize(any(), anyString()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+        when(categorizationService.categorize(any(), anyString(), any(), any(), any())).thenReturn(newCategory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM recategorization_jobs");
+        jdbcTemplate.update("DELETE FROM users WHERE id IN (?, ?)", userId, otherUserId);
+        jdbcTemplate.update("DELETE FROM categories WHERE id IN (?, ?)", oldCategoryId, newCategoryId);
+    }
+
+    @Test
+    void startJob_ShouldRecategorizeTheUsersTransactionsInChunksExceptManualOnes() throws Exception {
+        List<UUID> processed = transactions(userId, 4, "PROCESSED");
+        UUID manual = transactions(userId, 1, "MANUAL").get(0);
+        UUID others = transactions(otherUserId, 1, "PROCESSED").get(0);
+
+        RecategorizationJob job = awaitFinished(recategorizationJobService.startJob(TOKEN).getId());
+
+        assertEquals(JobStatus.COMPLETED, job.getStatus());
+        assertEquals(5, job.getTotalCount());
+        assertEquals(5, job.getScannedCount());
+        assertEquals(4, job.getUpdatedCount());
+        for (UUID id : processed) {
+            assertEquals(newCategoryId, categoryOf(id));
+        }
+        assertEquals(oldCategoryId, categoryOf(manual));
+        assertEquals(oldCategoryId, categoryOf(others));
+    }
+
+    @Test
+    void startJobForAllUsers_ShouldCoverEveryUsersTransactions() throws Exception {
+        UUID own = transactions(userId, 1, "PROCESSED").get(0);
+        UUID others = transactions(otherUserId, 2, "PROCESSED").get(1);
+
+        RecategorizationJobDto started = recategorizationJobService.startJobForAllUsers();
+        RecategorizationJob job = awaitFinished(started.getId());
+
+        assertNull(job.getUserId());
+        assertEquals(JobStatus.COMPLETED, job.getStatus());
+        assertEquals(newCategoryId, categoryOf(own));
+        assertEquals(newCategoryId, categoryOf(others));
+        assertThrows(RuntimeException.class, () -> recategorizationJobService.getJob(TOKEN, started.getId()));
+    }
+
+    @Test
+    void resumeInterruptedJobs_ShouldContinueAfterTheCommittedCursor() throws Exception {
+        List<UUID> ids = transactions(userId, 5, "PROCESSED");
+        // PostgreSQL orders UUIDs by their unsigned bytes, as their strings sort
+        ids.sort(Comparator.comparing(UUID::toString));
+        RecategorizationJob interrupted = jobRepository.save(RecategorizationJob.builder()
+                .userId(userId)
+                .status(JobStatus.RUNNING)
+                .lastTransactionId(ids.get(1))
+                .totalCount(5)
+                .scannedCount(2)
+                .updatedCount(2)
+                .build());
+
+        recategorizationJobService.resumeInterruptedJobs();
+        RecategorizationJob job = awaitFinished(interrupted.getId());
+
+        assertEquals(JobStatus.COMPLETED, job.getStatus());
+        assertEquals(5, job.getScannedCount());
+        assertEquals(5, job.getUpdatedCount());
+        assertEquals(oldCategoryId, categoryOf(ids.get(0)));
+        assertEquals(oldCategoryId, categoryOf(ids.get(1)));
+        for (UUID id : ids.subList(2, ids.size())) {
+            assertEquals(newCategoryId, categoryOf(id));
+        }
+    }
+
+    @Test
+    void cancelJob_ShouldStopAfterTheCurrentChunk() throws Exception {
+        transactions(userId, 6, "PROCESSED");
+        Category newCategory = new Category();
+        newCategory.setId(newCategoryId);
+        when(categorizationService.categorize(eq(userId), anyString(), any(), any(), any())).thenAnswer(invocation -> {
+            // Cancelled while the first chunk is being worked on
+            UUID jobId = jobRepository.findByUserIdAndStatusIn(userId,
+                    EnumSet.of(JobStatus.PENDING, JobStatus.RUNNING)).get(0).getId();
+            recategorizationJobService.cancelJob(TOKEN, jobId);
+            return newCategory;
+        });
+
+        RecategorizationJob job = awaitFinished(recategorizationJobService.startJob(TOKEN).getId());
+
+        assertEquals(JobStatus.CANCELLED, job.getStatus());
+        assertEquals(2, job.getScannedCount());
+        assertEquals(2, (int) jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions WHERE user_id = ? AND category_id = ?",
+                Integer.class, userId, newCategoryId));
+    }
+
+    private RecategorizationJob awaitFinished(UUID jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        RecategorizationJob job = jobRepository.findById(jobId).orElseThrow();
+        while (job.isActive() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            job = jobRepository.findById(jobId).orElseThrow();
+        }
+        return job;
+    }
+
+    private UUID user(String email) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (id, email, password_hash) VALUES (?, ?, ?)", id, email, "hash");
+        return id;
+    }
+
+    private UUID category(String name) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO categories (id, name) VALUES (?, ?)", id, name);
+        return id;
+    }
+
+    private List<UUID> transactions(UUID owner, int count, String status) {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            UUID id = UUID.randomUUID();
+            jdbcTemplate.update("INSERT INTO transactions (id, user_id, transaction_date, amount, currency, vendor, " +
+                    "canonical_vendor, category_id, status) VALUES (?, ?, ?, ?, 'USD', 'Store', 'Store', ?, ?)",
+                    id, owner, Timestamp.valueOf(DATE), new BigDecimal("10.00"), oldCategoryId, status);
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private UUID categoryOf(UUID transactionId) {
+        return jdbcTemplate.queryForObject("SELECT category_id FROM transactions WHERE id = ?", UUID.class, transactionId);
+    }
+}
@@ -0,0 +1,114 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.event.TransactionChange;
+import com.financeMonkey.event.TransactionSnapshot;
+import com.financeMonkey.event.TransactionsChangedEvent;
+import com.financeMonkey.security.JwtTokenProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RecurrenceServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private DailySpendService dailySpendService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+
+    private RecurrenceService recurrenceService;
+
+    @BeforeEach
+    void setUp() {
+        recurrenceService = new RecurrenceService(jdbcTemplate, new TransactionTemplate(transactionManager),
+                dailySpendService, eventPublisher, jwtTokenProvider);
+    }
+
+    @Test
+    void onTransactionsChanged_ShouldLockTheUserBeforeReadingTheVendorsRowsForUpdate() {
+        UUID userId = UUID.randomUUID();
+        when(jdbcTemplate.query(contains("FOR UPDATE"), any(RowMapper.class), eq(userId), eq("Netflix")))
+                .thenReturn(Collections.emptyList());
+
+        recurrenceService.onTransactionsChanged(created(userId, "Netflix"));
+
+        InOrder inOrder = inOrder(dailySpendService, jdbcTemplate, transactionManager);
+        inOrder.verify(dailySpendService).lockUser(userId, true);
+        inOrder.verify(jdbcTemplate).query(contains("FOR UPDATE"), any(RowMapper.class), eq(userId), eq("Netflix"));
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void onTransactionsChanged_WhenAConcurrentWriteConflicts_ShouldRetryInANewTransaction() {
+        UUID userId = UUID.randomUUID();
+        when(jdbcTemplate.query(contains("FOR UPDATE"), any(RowMapper.class), eq(userId), eq("Netflix")))
+                .thenThrow(new CannotAcquireLockException("deadlock detected"))
+                .thenReturn(Collections.emptyList());
+
+        recurrenceService.onTransactionsChanged(created(userId, "Netflix"));
+
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, times(1)).commit(any());
+        verify(dailySpendService, times(2)).lockUser(userId, true);
+    }
+
+    @Test
+    void onTransactionsChanged_WhenOneUserFails_ShouldStillRunTheOthers() {
+        UUID failing = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        when(jdbcTemplate.query(contains("FOR UPDATE"), any(RowMapper.class), eq(failing), eq("Netflix")))
+                .thenThrow(new DataIntegrityViolationException("broken"));
+        when(jdbcTemplate.query(contains("FOR UPDATE"), any(RowMapper.class), eq(other), eq("Spotify")))
+                .thenReturn(Collections.emptyList());
+
+        recurrenceService.onTransactionsChanged(new TransactionsChangedEvent(List.of(
+                created(failing, "Netflix").getChanges().get(0),
+                created(other, "Spotify").getChanges().get(0))));
+
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, times(1)).commit(any());
+        verify(jdbcTemplate).query(contains("FOR UPDATE"), any(RowMapper.class), eq(other), eq("Spotify"));
+    }
+
+    private static TransactionsChangedEvent created(UUID userId, String vendor) {
+        TransactionSnapshot snapshot = TransactionSnapshot.builder()
+                .userId(userId)
+                .transactionDate(LocalDateTime.of(2024, 3, 1, 9, 0))
+                .amount(new BigDecimal("15.49"))
+                .currency("USD")
+                .vendor(vendor)
+                .build();
+        return TransactionsChangedEvent.of(new TransactionChange(UUID.randomUUID(), null, snapshot));
+    }
+}
@@ -0,0 +1,151 @@
+package com.financeMonkey.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.financeMonkey.exception.TooManyRequestsException;
+import com.financeMonkey.model.Transaction;
+import com.financeMonkey.repository.TransactionRepository;
+import com.financeMonkey.repository.projection.TransactionListItem;
+import com.financeMonkey.security.JwtTokenProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TransactionExportServiceTest {
+
+    private static final String TOKEN = "token";
+    private static final PageRequest CHUNK = PageRequest.of(0, TransactionExportService.CHUNK_ROWS);
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    private TransactionExportService exportService;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new TransactionExportService(transactionRepository, objectMapper, jwtTokenProvider,
+                new TransactionTemplate(transactionManager), 1, 30);
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    void csvField_ShouldQuoteOnlyFieldsWithSeparatorsQuotesOrLineBreaks() {
+        assertEquals("", TransactionExportService.csvField(null));
+        assertEquals("Blue Bottle Coffee", TransactionExportService.csvField("Blue Bottle Coffee"));
+        assertEquals("\"Smith, John\"", TransactionExportService.csvField("Smith, John"));
+        assertEquals("\"The \"\"Good\"\" Place\"", TransactionExportService.csvField("The \"Good\" Place"));
+        assertEquals("\"line one\nline two\"", TransactionExportService.csvField("line one\nline two"));
+        assertEquals("\"carriage\rreturn\"", TransactionExportService.csvField("carriage\rreturn"));
+    }
+
+    @Test
+    void export_AsCsv_ShouldWriteEveryChunkEachInItsOwnTransaction() throws Exception {
+        when(jwtTokenProvider.getUserId(TOKEN)).thenReturn(userId);
+        List<TransactionListItem> first = new ArrayList<>();
+        for (int i = 0; i < TransactionExportService.CHUNK_ROWS; i++) {
+            first.add(listItem(LocalDateTime.of(2024, 3, 5, 10, 0).minusMinutes(i), "Store", null));
+        }
+        TransactionListItem last = first.get(first.size() - 1);
+        TransactionListItem quoted = listItem(LocalDateTime.of(2024, 1, 1, 9, 0), "Smith, John", "Said \"hi\"");
+        when(transactionRepository.findFirstPage(userId, null, null, CHUNK)).thenReturn(first);
+        when(transactionRepository.findPageAfter(userId, last.getTransactionDate(), last.getId(), null, CHUNK))
+                .thenReturn(List.of(quoted));
+
+        String[] lines = export(TransactionExportService.Format.CSV).split("\n");
+
+        assertEquals(TransactionExportService.CHUNK_ROWS + 2, lines.length);
+        assertTrue(lines[0].startsWith("id,transactionDate,amount"));
+        assertEquals(quoted.getId() + ",2024-01-01T09:00,9.99,USD,\"Smith, John\",,,\"Said \"\"hi\"\"\",false,,PROCESSED",
+                lines[lines.length - 1]);
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void export_AsNdjson_ShouldWriteOneJsonObjectPerLine() throws Exception {
+        when(jwtTokenProvider.getUserId(TOKEN)).thenReturn(userId);
+        TransactionListItem first = listItem(LocalDateTime.of(2024, 3, 5, 10, 0), "Line\nBreak", null);
+        TransactionListItem second = listItem(LocalDateTime.of(2024, 3, 4, 10, 0), "Store", "Note");
+        when(transactionRepository.findFirstPage(userId, null, null, CHUNK)).thenReturn(List.of(first, second));
+
+        String[] lines = export(TransactionExportService.Format.NDJSON).split("\n");
+
+        assertEquals(2, lines.length);
+        JsonNode row = objectMapper.readTree(lines[0]);
+        assertEquals(first.getId().toString(), row.get("id").asText());
+        assertEquals("Line\nBreak", row.get("vendor").asText());
+        assertEquals(0, new BigDecimal("9.99").compareTo(row.get("amount").decimalValue()));
+        assertEquals("Note", objectMapper.readTree(lines[1]).get("description").asText());
+        verify(transactionRepository, never()).findPageAfter(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void startExport_WhenAllSlotsAreTaken_ShouldRejectUntilOneIsClosed() {
+        when(jwtTokenProvider.getUserId(TOKEN)).thenReturn(userId);
+        TransactionExportService.Export running = exportService.startExport(TOKEN, TransactionExportService.Format.CSV);
+
+        assertThrows(TooManyRequestsException.class,
+                () -> exportService.startExport(TOKEN, TransactionExportService.Format.CSV));
+
+        // Closed by both the writer and the request's completion, it frees its slot once
+        running.close();
+        running.close();
+        TransactionExportService.Export next = exportService.startExport(TOKEN, TransactionExportService.Format.CSV);
+        assertThrows(TooManyRequestsException.class,
+                () -> exportService.startExport(TOKEN, TransactionExportService.Format.CSV));
+        next.close();
+    }
+
+    private String export(TransactionExportService.Format format) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (TransactionExportService.Export export = exportService.startExport(TOKEN, format)) {
+            export.writeTo(output);
+        }
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private static TransactionListItem listItem(LocalDateTime transactionDate, String vendor, String description) {
+        UUID id = UUID.randomUUID();
+        return new TransactionListItem() {
+            public UUID getId() { return id; }
+            public LocalDateTime getTransactionDate() { return transactionDate; }
+            public BigDecimal getAmount() { return new BigDecimal("9.99"); }
+            public String getCurrency() { return "USD"; }
+            public String getVendor() { return vendor; }
+            public String getCanonicalVendor() { return vendor; }
+            public UUID getCategoryId() { return null; }
+            public String getCategoryName() { return null; }
+            public String getDescription() { return description; }
+            public boolean isRecurring() { return false; }
+            public String getRecurrencePattern() { return null; }
+            public Transaction.TransactionStatus getStatus() { return Transaction.TransactionStatus.PROCESSED; }
+        };
+    }
+}
@@ -0,0 +1,145 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.dto.TransactionCursorPageDto;
+import com.financeMonkey.model.Transaction;
+import com.financeMonkey.repository.CategoryRepository;
+import com.financeMonkey.repository.TransactionRepository;
+import com.financeMonkey.repository.UserRepository;
+import com.financeMonkey.repository.projection.TransactionListItem;
+import com.financeMonkey.security.JwtTokenProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TransactionServiceTest {
+
+    private static final String TOKEN = "token";
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Mock
+    private VendorMemoryService vendorMemoryService;
+
+    @Mock
+    private VendorCanonicalizationService vendorCanonicalizationService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private TransactionService transactionService;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    void getUserTransactionsPage_WithMoreRows_ShouldReturnCursorThatContinuesAfterTheLastRow() {
+        when(jwtTokenProvider.getUserId(TOKEN)).thenReturn(userId);
+        TransactionListItem first = listItem(LocalDateTime.of(2024, 3, 5, 10, 0));
+        TransactionListItem second = listItem(LocalDateTime.of(2024, 3, 4, 9, 30));
+        TransactionListItem extra = listItem(LocalDateTime.of(2024, 3, 1, 8, 0));
+        when(transactionRepository.findFirstPage(userId, null, null, PageRequest.of(0, 3)))
+                .thenReturn(List.of(first, second, extra));
+
+        TransactionCursorPageDto page = transactionService.getUserTransactionsPage(TOKEN, null, null, null, 2);
+
+        assertTrue(page.isHasMore());
+        assertEquals(2, page.getContent().size());
+        assertEquals(second.getId(), page.getContent().get(1).getId());
+        assertNotNull(page.getNextCursor());
+
+        when(transactionRepository.findPageAfter(userId, second.getTransactionDate(), second.getId(), null,
+                PageRequest.of(0, 3))).thenReturn(List.of(extra));
+
+        TransactionCursorPageDto next = transactionService.getUserTransactionsPage(TOKEN, null, null, page.getNextCursor(), 2);
+
+        assertFalse(next.isHasMore());
+        assertNull(next.getNextCursor());
+        assertEquals(extra.getId(), next.getContent().get(0).getId());
+    }
+
+    @Test
+    void getUserTransactionsPage_WithEmptyResult_ShouldHaveNoNextCursor() {
+        when(jwtTokenProvider.getUserId(TOKEN)).thenReturn(userId);
+        when(transactionRepository.findFirstPage(eq(userId), any(), any(), any())).thenReturn(List.of());
+
+        TransactionCursorPageDto page = transactionService.getUserTransactionsPage(TOKEN, null, null, "", 50);
+
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        assertTrue(page.getContent().isEmpty());
+    }
+
+    @Test
+    void getUserTransactionsPage_WithInvalidCursor_ShouldThrow() {
+        when(jwtTokenProvider.getUserId(TOKEN)).thenReturn(userId);
+        String noSeparator = Base64.getUrlEncoder().encodeToString("2024-03-05T10:00".getBytes(StandardCharsets.UTF_8));
+        String badDate = Base64.getUrlEncoder().encodeToString(("yesterday|" + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : List.of("not a cursor!", noSeparator, badDate)) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> transactionService.getUserTransactionsPage(TOKEN, null, null, cursor, 50));
+            assertTrue(e.getMessage().startsWith("Invalid cursor"));
+        }
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void getUserTransactionsPage_WithLimitOutOfRange_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionService.getUserTransactionsPage(TOKEN, null, null, null, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionService.getUserTransactionsPage(TOKEN, null, null, null, 201));
+        verifyNoInteractions(transactionRepository, jwtTokenProvider);
+    }
+
+    private static TransactionListItem listItem(LocalDateTime transactionDate) {
+        UUID id = UUID.randomUUID();
+        return new TransactionListItem() {
+            public UUID getId() { return id; }
+            public LocalDateTime getTransactionDate() { return transactionDate; }
+            public BigDecimal getAmount() { return new BigDecimal("9.99"); }
+            public String getCurrency() { return "USD"; }
+            public String getVendor() { return "Store"; }
+            public String getCanonicalVendor() { return "Store"; }
+            public UUID getCategoryId() { return null; }
+            public String getCategoryName() { return null; }
+            public String getDescription() { return null; }
+            public boolean isRecurring() { return false; }
+            public String getRecurrencePattern() { return null; }
+            public Transaction.TransactionStatus getStatus() { return Transaction.TransactionStatus.PROCESSED; }
+        };
+    }
+}
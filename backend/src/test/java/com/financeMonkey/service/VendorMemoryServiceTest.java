@@ -0,0 +1,89 @@
+package com.financeMonkey.service;
+
+import com.financeMonkey.model.VendorCategory;
+import com.financeMonkey.repository.VendorCategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class VendorMemoryServiceTest {
+
+    private static final UUID GROCERIES = UUID.randomUUID();
+    private static final UUID DINING = UUID.randomUUID();
+
+    @Mock
+    private VendorCategoryRepository vendorCategoryRepository;
+
+    private VendorMemoryService vendorMemoryService;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        vendorMemoryService = new VendorMemoryService(vendorCategoryRepository, 2);
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    void lookup_ShouldLoadOnceAndSeeCommittedCorrections() {
+        when(vendorCategoryRepository.findByUserId(userId)).thenReturn(List.of(entry("trader joe's", GROCERIES)));
+
+        assertEquals(GROCERIES, vendorMemoryService.lookup(userId, "  Trader   JOE'S "));
+        vendorMemoryService.remember(userId, "Trader Joe's", DINING);
+        vendorMemoryService.remember(userId, "Blue Bottle", DINING);
+        vendorMemoryService.remember(userId, "Trader Joe's", null);
+
+        assertNull(vendorMemoryService.lookup(userId, "Trader Joe's"));
+        assertEquals(DINING, vendorMemoryService.lookup(userId, "blue bottle"));
+        verify(vendorCategoryRepository, times(1)).findByUserId(userId);
+        verify(vendorCategoryRepository).deleteByUserIdAndVendorKey(userId, "trader joe's");
+    }
+
+    @Test
+    void lookup_WhenCorrectionCommitsDuringLoad_ShouldNotCacheTheOldMemory() {
+        when(vendorCategoryRepository.findByUserId(userId))
+                .thenAnswer(invocation -> {
+                    // The correction commits after this read
+                    vendorMemoryService.remember(userId, "Blue Bottle", DINING);
+                    return Collections.emptyList();
+                })
+                .thenReturn(List.of(entry("blue bottle", DINING)));
+
+        assertNull(vendorMemoryService.lookup(userId, "Blue Bottle"));
+        assertEquals(DINING, vendorMemoryService.lookup(userId, "Blue Bottle"));
+        assertEquals(DINING, vendorMemoryService.lookup(userId, "Blue Bottle"));
+        verify(vendorCategoryRepository, times(2)).findByUserId(userId);
+    }
+
+    @Test
+    void lookup_BeyondMaxUsers_ShouldDropTheLeastRecentlyUsed() {
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        when(vendorCategoryRepository.findByUserId(any())).thenReturn(Collections.emptyList());
+
+        vendorMemoryService.lookup(userId, "a");
+        vendorMemoryService.lookup(second, "a");
+        vendorMemoryService.lookup(userId, "a");
+        vendorMemoryService.lookup(third, "a");
+        vendorMemoryService.lookup(userId, "a");
+
+        assertEquals(2, vendorMemoryService.size());
+        verify(vendorCategoryRepository, times(1)).findByUserId(userId);
+        vendorMemoryService.lookup(second, "a");
+        verify(vendorCategoryRepository, times(2)).findByUserId(second);
+    }
+
+    private VendorCategory entry(String vendorKey, UUID categoryId) {
+        return VendorCategory.builder().userId(userId).vendorKey(vendorKey).categoryId(categoryId).build();
+    }
+}
@@ -0,0 +1,2 @@
+-- PostgreSQL column types used by the entities, for schema generation on H2
+CREATE DOMAIN IF NOT EXISTS jsonb AS JSON;